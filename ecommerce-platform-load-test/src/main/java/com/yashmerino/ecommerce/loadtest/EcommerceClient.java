@@ -0,0 +1,204 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP client of the server's auth, order and payment endpoints.
+ */
+public class EcommerceClient {
+
+    /**
+     * Number of orders fetched per status poll.
+     */
+    private static final int ORDERS_PAGE_LIMIT = 100;
+
+    /**
+     * HTTP client.
+     */
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * Object mapper.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Server's base URL.
+     */
+    private final String baseUrl;
+
+    /**
+     * Access token of the logged in user.
+     */
+    private volatile String accessToken;
+
+    /**
+     * Constructor.
+     *
+     * @param baseUrl is the server's base URL.
+     */
+    public EcommerceClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Registers a user with the USER role.
+     *
+     * @param username is the username.
+     * @param password is the password.
+     */
+    public void register(String username, String password) {
+        Map<String, Object> body = Map.of(
+                "role", "USER",
+                "email", username + "@loadtest.local",
+                "username", username,
+                "password", password
+        );
+
+        send(post("/api/auth/register", body, false));
+    }
+
+    /**
+     * Logs in, the access token is used by the next requests.
+     *
+     * @param username is the username.
+     * @param password is the password.
+     */
+    public void login(String username, String password) {
+        JsonNode response = send(post("/api/auth/login", Map.of("username", username, "password", password), false));
+        this.accessToken = response.get("accessToken").asText();
+    }
+
+    /**
+     * Places an order.
+     *
+     * @param amount is the order's total amount.
+     * @return the order's ID.
+     */
+    public CompletableFuture<Long> placeOrder(BigDecimal amount) {
+        return sendAsync(post("/api/order", Map.of("totalAmount", amount, "status", "CREATED"), true))
+                .thenApply(response -> response.get("id").asLong());
+    }
+
+    /**
+     * Pays an order.
+     *
+     * @param orderId is the order's ID.
+     * @param amount is the payment's amount.
+     * @param stripeToken is the stripe token.
+     * @return the future of the request.
+     */
+    public CompletableFuture<Void> pay(Long orderId, BigDecimal amount, String stripeToken) {
+        Map<String, Object> body = Map.of("orderId", orderId, "amount", amount, "stripeToken", stripeToken);
+
+        return sendAsync(post("/api/payment/" + orderId, body, true)).thenApply(response -> null);
+    }
+
+    /**
+     * Returns the payment statuses of the user's orders, newest first, down to an order.
+     *
+     * @param oldestOrderId is the ID of the oldest order needed.
+     * @return the orders' payment statuses by ID, <code>null</code> for an order without a payment.
+     */
+    public Map<Long, String> getPaymentStatuses(long oldestOrderId) {
+        Map<Long, String> statuses = new HashMap<>();
+        String after = null;
+
+        do {
+            String uri = "/api/order/my-orders?limit=" + ORDERS_PAGE_LIMIT
+                    + (after != null ? "&after=" + URLEncoder.encode(after, StandardCharsets.UTF_8) : "");
+            JsonNode page = send(request(uri).GET().build());
+            long lastOrderId = Long.MAX_VALUE;
+
+            for (JsonNode order : page.get("data")) {
+                lastOrderId = order.get("orderId").asLong();
+                statuses.put(lastOrderId, order.hasNonNull("paymentStatus") ? order.get("paymentStatus").asText() : null);
+            }
+
+            after = lastOrderId > oldestOrderId && page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (after != null);
+
+        return statuses;
+    }
+
+    /**
+     * Builds a POST request with a JSON body.
+     *
+     * @param uri is the request's URI relative to the base URL.
+     * @param body is the body.
+     * @param authenticated is whether the access token is sent.
+     * @return the request.
+     */
+    private HttpRequest post(String uri, Object body, boolean authenticated) {
+        try {
+            HttpRequest.Builder builder = authenticated ? request(uri) : HttpRequest.newBuilder(URI.create(baseUrl + uri));
+
+            return builder
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request body couldn't be serialized.", e);
+        }
+    }
+
+    /**
+     * Returns a request builder with the access token.
+     *
+     * @param uri is the request's URI relative to the base URL.
+     * @return the request builder.
+     */
+    private HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + uri))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + accessToken);
+    }
+
+    /**
+     * Sends a request and waits for the response.
+     *
+     * @param request is the request.
+     * @return the response's body.
+     */
+    private JsonNode send(HttpRequest request) {
+        return sendAsync(request).join();
+    }
+
+    /**
+     * Sends a request.
+     *
+     * @param request is the request.
+     * @return the future of the response's body.
+     */
+    private CompletableFuture<JsonNode> sendAsync(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException(request.method() + " " + request.uri().getPath()
+                                + " returned " + response.statusCode() + ": " + response.body());
+                    }
+
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Response of " + request.uri().getPath() + " couldn't be read.", e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,64 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records latencies and computes their percentiles. Thread safe.
+ */
+public class LatencyRecorder {
+
+    /**
+     * Recorded latencies in nanoseconds.
+     */
+    private long[] latencies = new long[1024];
+
+    /**
+     * Number of recorded latencies.
+     */
+    private int count;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos is the latency in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+
+        latencies[count++] = nanos;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of latencies.
+     */
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Returns a percentile of the recorded latencies (nearest rank).
+     *
+     * @param percentile is the percentile, between 0 exclusive and 100 inclusive.
+     * @return the latency in milliseconds, 0 if nothing was recorded.
+     */
+    public synchronized double percentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in (0, 100].");
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile / 100 * count);
+
+        return sorted[rank - 1] / 1_000_000.0;
+    }
+}
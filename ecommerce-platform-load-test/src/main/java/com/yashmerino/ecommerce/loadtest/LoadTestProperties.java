@@ -0,0 +1,117 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Load test properties, read from <code>load-test.properties</code> and overridden by system properties.
+ */
+@Getter
+public class LoadTestProperties {
+
+    /**
+     * File that stores the default properties.
+     */
+    private static final String PROPERTIES_FILE = "load-test.properties";
+
+    /**
+     * Server's base URL.
+     */
+    private final String baseUrl;
+
+    /**
+     * Amount of each order.
+     */
+    private final BigDecimal amount;
+
+    /**
+     * Stripe token sent with each payment.
+     */
+    private final String stripeToken;
+
+    /**
+     * Orders per second of the first step.
+     */
+    private final int startRate;
+
+    /**
+     * Orders per second added by each step.
+     */
+    private final int stepRate;
+
+    /**
+     * Orders per second of the last step.
+     */
+    private final int maxRate;
+
+    /**
+     * Time orders are fired for in each step.
+     */
+    private final Duration stepDuration;
+
+    /**
+     * Time to wait for the orders of a step to complete once firing stopped.
+     */
+    private final Duration drainTimeout;
+
+    /**
+     * Time between two polls of the orders' statuses.
+     */
+    private final Duration pollInterval;
+
+    /**
+     * Constructor.
+     *
+     * @param properties are the properties.
+     */
+    LoadTestProperties(Properties properties) {
+        this.baseUrl = properties.getProperty("load.base-url");
+        this.amount = new BigDecimal(properties.getProperty("load.amount"));
+        this.stripeToken = properties.getProperty("load.stripe-token");
+        this.startRate = Integer.parseInt(properties.getProperty("load.start-rate"));
+        this.stepRate = Integer.parseInt(properties.getProperty("load.step-rate"));
+        this.maxRate = Integer.parseInt(properties.getProperty("load.max-rate"));
+        this.stepDuration = Duration.ofSeconds(Long.parseLong(properties.getProperty("load.step-duration-seconds")));
+        this.drainTimeout = Duration.ofSeconds(Long.parseLong(properties.getProperty("load.drain-timeout-seconds")));
+        this.pollInterval = Duration.ofMillis(Long.parseLong(properties.getProperty("load.poll-interval-ms")));
+
+        if (startRate < 1 || stepRate < 1 || maxRate < startRate) {
+            throw new IllegalArgumentException("Rates must be positive and max-rate can't be lower than start-rate.");
+        }
+    }
+
+    /**
+     * Loads the properties.
+     *
+     * @return the load test properties.
+     */
+    public static LoadTestProperties load() {
+        Properties properties = new Properties();
+
+        try (InputStream input = LoadTestProperties.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE)) {
+            if (input == null) {
+                throw new IllegalStateException(PROPERTIES_FILE + " is missing from the classpath.");
+            }
+
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Load test properties couldn't be read.", e);
+        }
+
+        for (String name : properties.stringPropertyNames()) {
+            String override = System.getProperty(name);
+
+            if (override != null) {
+                properties.setProperty(name, override);
+            }
+        }
+
+        return new LoadTestProperties(properties);
+    }
+}
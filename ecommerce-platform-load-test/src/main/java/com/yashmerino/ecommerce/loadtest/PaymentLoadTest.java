@@ -0,0 +1,253 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the payment pipeline end to end: orders are placed and paid through the server at a fixed rate,
+ * and each one is timed from the payment request until the server shows its payment as succeeded or failed.
+ * The rate is raised step by step to find the highest one the pipeline sustains.
+ * Run against a stack whose payment service has <code>stripe.simulator.enabled=true</code>.
+ */
+public class PaymentLoadTest {
+
+    /**
+     * Payment status of an order that was paid.
+     */
+    static final String PAYMENT_SUCCEEDED = "SUCCEEDED";
+
+    /**
+     * Payment status of an order whose payment was declined.
+     */
+    static final String PAYMENT_FAILED = "FAILED";
+
+    /**
+     * Load test properties.
+     */
+    private final LoadTestProperties properties;
+
+    /**
+     * Server client.
+     */
+    private final EcommerceClient client;
+
+    /**
+     * Constructor.
+     *
+     * @param properties is the load test properties.
+     * @param client is the server client.
+     */
+    public PaymentLoadTest(LoadTestProperties properties, EcommerceClient client) {
+        this.properties = properties;
+        this.client = client;
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args are ignored, the properties are passed as system properties.
+     */
+    public static void main(String[] args) {
+        LoadTestProperties properties = LoadTestProperties.load();
+        EcommerceClient client = new EcommerceClient(properties.getBaseUrl());
+
+        String username = "loadtest-" + UUID.randomUUID().toString().substring(0, 8);
+        String password = UUID.randomUUID().toString();
+        client.register(username, password);
+
+        List<StepResult> results = new ArrayList<>();
+        PaymentLoadTest loadTest = new PaymentLoadTest(properties, client);
+
+        for (int rate = properties.getStartRate(); rate <= properties.getMaxRate(); rate += properties.getStepRate()) {
+            // Logs in again every step so the access token doesn't expire in the middle of one
+            client.login(username, password);
+
+            StepResult result = loadTest.runStep(rate);
+            results.add(result);
+            System.out.println(result);
+
+            if (!result.isSustainable()) {
+                break;
+            }
+        }
+
+        System.out.println(report(results));
+    }
+
+    /**
+     * Fires orders at a rate for the step's duration and waits for their results.
+     *
+     * @param rate is the rate in orders per second.
+     * @return the step's result.
+     */
+    StepResult runStep(int rate) {
+        Map<Long, Long> pending = new ConcurrentHashMap<>();
+        LatencyRecorder latencies = new LatencyRecorder();
+        AtomicInteger fired = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger paymentFailed = new AtomicInteger();
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+
+        scheduler.scheduleAtFixedRate(() -> client.placeOrder(properties.getAmount())
+                .thenCompose(orderId -> {
+                    long paymentStart = System.nanoTime();
+
+                    return client.pay(orderId, properties.getAmount(), properties.getStripeToken())
+                            .thenRun(() -> pending.put(orderId, paymentStart));
+                })
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        errors.incrementAndGet();
+                        System.err.println(e.getMessage());
+                    } else {
+                        fired.incrementAndGet();
+                    }
+                }), 0, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+
+        long stopFiring = start + properties.getStepDuration().toNanos();
+        long deadline = stopFiring + properties.getDrainTimeout().toNanos();
+        long lastCompletion = start;
+        boolean firing = true;
+
+        while (System.nanoTime() < deadline && (firing || !pending.isEmpty())) {
+            sleep(properties.getPollInterval().toMillis());
+
+            if (firing && System.nanoTime() >= stopFiring) {
+                scheduler.shutdown();
+                awaitTermination(scheduler);
+                firing = false;
+                // Requests in flight when the scheduler stopped still land in pending
+                sleep(properties.getPollInterval().toMillis());
+            }
+
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            Map<Long, String> paymentStatuses;
+
+            try {
+                paymentStatuses = client.getPaymentStatuses(Collections.min(pending.keySet()));
+            } catch (RuntimeException e) {
+                System.err.println("Payment statuses couldn't be polled: " + e.getMessage());
+                continue;
+            }
+
+            long now = System.nanoTime();
+            int completed = latencies.count();
+
+            paymentFailed.addAndGet(completeOrders(pending, paymentStatuses, latencies, now));
+
+            if (latencies.count() > completed) {
+                lastCompletion = now;
+            }
+        }
+
+        scheduler.shutdownNow();
+
+        double elapsedSeconds = Math.max(lastCompletion - start, 1) / 1e9;
+
+        return new StepResult(
+                rate,
+                fired.get(),
+                latencies.count(),
+                paymentFailed.get(),
+                errors.get(),
+                latencies.count() / elapsedSeconds,
+                latencies.percentile(50),
+                latencies.percentile(95),
+                latencies.percentile(99)
+        );
+    }
+
+    /**
+     * Removes the orders whose payment was processed from the pending ones and records their latencies.
+     * The payment service sets the payment's status, the order's status stays as it was placed.
+     *
+     * @param pending are the pending orders' payment start times by ID.
+     * @param paymentStatuses are the orders' payment statuses by ID, <code>null</code> if an order has no payment yet.
+     * @param latencies records the latencies.
+     * @param now is the poll's time.
+     * @return the number of completed orders whose payment failed.
+     */
+    static int completeOrders(Map<Long, Long> pending, Map<Long, String> paymentStatuses, LatencyRecorder latencies, long now) {
+        int failed = 0;
+
+        for (Map.Entry<Long, String> order : paymentStatuses.entrySet()) {
+            String status = order.getValue();
+
+            if ((PAYMENT_SUCCEEDED.equals(status) || PAYMENT_FAILED.equals(status)) && pending.containsKey(order.getKey())) {
+                latencies.record(now - pending.remove(order.getKey()));
+
+                if (PAYMENT_FAILED.equals(status)) {
+                    failed++;
+                }
+            }
+        }
+
+        return failed;
+    }
+
+    /**
+     * Builds the report of a load test.
+     *
+     * @param results are the steps' results in order.
+     * @return the report.
+     */
+    static String report(List<StepResult> results) {
+        StepResult best = null;
+
+        for (StepResult result : results) {
+            if (!result.isSustainable()) {
+                break;
+            }
+
+            best = result;
+        }
+
+        if (best == null) {
+            return "No rate was sustained, lower load.start-rate.";
+        }
+
+        return String.format("Max sustainable throughput: %d orders/s (p50 %.1f ms, p95 %.1f ms, p99 %.1f ms)",
+                best.rate(), best.p50(), best.p95(), best.p99());
+    }
+
+    /**
+     * Sleeps.
+     *
+     * @param millis is the time in milliseconds.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test was interrupted.", e);
+        }
+    }
+
+    /**
+     * Waits for the scheduler to stop firing.
+     *
+     * @param scheduler is the scheduler.
+     */
+    private static void awaitTermination(ScheduledExecutorService scheduler) {
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test was interrupted.", e);
+        }
+    }
+}
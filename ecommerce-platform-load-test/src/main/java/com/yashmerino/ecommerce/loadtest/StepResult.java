@@ -0,0 +1,54 @@
+package com.yashmerino.ecommerce.loadtest;
+
+/**
+ * Result of a load test step.
+ *
+ * @param rate is the offered rate in orders per second.
+ * @param fired is the number of orders whose payment was requested.
+ * @param completed is the number of orders that got a payment result.
+ * @param paymentFailed is the number of completed orders whose payment failed.
+ * @param errors is the number of orders whose requests failed.
+ * @param throughput is the number of completed orders per second.
+ * @param p50 is the median end-to-end latency in milliseconds.
+ * @param p95 is the 95th percentile of the end-to-end latency in milliseconds.
+ * @param p99 is the 99th percentile of the end-to-end latency in milliseconds.
+ */
+public record StepResult(
+        int rate,
+        int fired,
+        int completed,
+        int paymentFailed,
+        int errors,
+        double throughput,
+        double p50,
+        double p95,
+        double p99
+) {
+
+    /**
+     * Share of the offered rate a step has to complete to be sustained.
+     */
+    static final double SUSTAINED_RATIO = 0.95;
+
+    /**
+     * Checks whether the pipeline kept up with the offered rate: every order completed and
+     * the completion rate stayed close to the offered one.
+     *
+     * @return whether the rate is sustainable.
+     */
+    public boolean isSustainable() {
+        return errors == 0 && completed == fired && throughput >= rate * SUSTAINED_RATIO;
+    }
+
+    /**
+     * Formats the result as a report line.
+     *
+     * @return the report line.
+     */
+    @Override
+    public String toString() {
+        return String.format("%6d/s  fired %6d  completed %6d  failed %5d  errors %5d  %8.1f/s  p50 %8.1f ms  p95 %8.1f ms  p99 %8.1f ms  %s",
+                rate, fired, completed, paymentFailed, errors, throughput, p50, p95, p99,
+                isSustainable() ? "sustained" : "NOT SUSTAINED");
+    }
+}
@@ -0,0 +1,62 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyRecorder.
+ */
+class LatencyRecorderTest {
+
+    @Test
+    void testPercentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        for (int millis = 100; millis >= 1; millis--) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(100, recorder.count());
+        assertEquals(50.0, recorder.percentile(50));
+        assertEquals(95.0, recorder.percentile(95));
+        assertEquals(99.0, recorder.percentile(99));
+        assertEquals(100.0, recorder.percentile(100));
+    }
+
+    @Test
+    void testEmptyRecorder() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        assertEquals(0, recorder.count());
+        assertEquals(0.0, recorder.percentile(99));
+    }
+
+    @Test
+    void testInvalidPercentile() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        assertThrows(IllegalArgumentException.class, () -> recorder.percentile(0));
+        assertThrows(IllegalArgumentException.class, () -> recorder.percentile(101));
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> recorder.record(1_000_000));
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_000, recorder.count());
+        assertEquals(1.0, recorder.percentile(99));
+    }
+}
@@ -0,0 +1,42 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the completion of the load test's orders.
+ */
+class PaymentLoadTestTest {
+
+    @Test
+    void testOrdersCompleteOnceTheirPaymentIsProcessed() {
+        Map<Long, Long> pending = new HashMap<>(Map.of(1L, 100L, 2L, 200L, 3L, 300L, 4L, 400L));
+        Map<Long, String> paymentStatuses = new HashMap<>();
+        paymentStatuses.put(1L, "SUCCEEDED");
+        paymentStatuses.put(2L, "FAILED");
+        paymentStatuses.put(3L, "PENDING");
+        paymentStatuses.put(4L, null);
+        LatencyRecorder latencies = new LatencyRecorder();
+
+        assertEquals(1, PaymentLoadTest.completeOrders(pending, paymentStatuses, latencies, 1000L));
+
+        assertEquals(Set.of(3L, 4L), pending.keySet());
+        assertEquals(2, latencies.count());
+    }
+
+    @Test
+    void testOrdersThatArentPendingAreIgnored() {
+        Map<Long, Long> pending = new HashMap<>(Map.of(2L, 200L));
+        LatencyRecorder latencies = new LatencyRecorder();
+
+        assertEquals(0, PaymentLoadTest.completeOrders(pending, Map.of(1L, "FAILED"), latencies, 1000L));
+
+        assertEquals(Set.of(2L), pending.keySet());
+        assertEquals(0, latencies.count());
+    }
+}
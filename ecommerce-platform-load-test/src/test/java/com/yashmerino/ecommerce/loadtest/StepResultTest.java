@@ -0,0 +1,51 @@
+package com.yashmerino.ecommerce.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StepResult and the load test report.
+ */
+class StepResultTest {
+
+    @Test
+    void testStepIsSustainedWhenEveryOrderCompletesAtTheOfferedRate() {
+        assertTrue(new StepResult(10, 300, 300, 12, 0, 9.8, 320, 610, 840).isSustainable());
+    }
+
+    @Test
+    void testStepIsNotSustainedWhenOrdersAreLeftBehind() {
+        assertFalse(new StepResult(10, 300, 290, 12, 0, 9.8, 320, 610, 840).isSustainable());
+    }
+
+    @Test
+    void testStepIsNotSustainedWhenRequestsFail() {
+        assertFalse(new StepResult(10, 300, 300, 12, 1, 9.8, 320, 610, 840).isSustainable());
+    }
+
+    @Test
+    void testStepIsNotSustainedWhenCompletionsLag() {
+        assertFalse(new StepResult(10, 300, 300, 12, 0, 8.0, 320, 610, 840).isSustainable());
+    }
+
+    @Test
+    void testReportPicksTheLastSustainedStep() {
+        List<StepResult> results = List.of(
+                new StepResult(5, 150, 150, 7, 0, 4.9, 300, 500, 700),
+                new StepResult(10, 300, 300, 12, 0, 9.8, 320, 610, 840),
+                new StepResult(15, 450, 380, 20, 0, 11.2, 2300, 5100, 6400)
+        );
+
+        assertEquals("Max sustainable throughput: 10 orders/s (p50 320.0 ms, p95 610.0 ms, p99 840.0 ms)", PaymentLoadTest.report(results));
+    }
+
+    @Test
+    void testReportWithoutSustainedStep() {
+        List<StepResult> results = List.of(new StepResult(5, 150, 100, 7, 0, 3.0, 300, 500, 700));
+
+        assertEquals("No rate was sustained, lower load.start-rate.", PaymentLoadTest.report(results));
+    }
+}
@@ -0,0 +1,32 @@
+package com.yashmerino.ecommerce.config;
+
+import com.yashmerino.ecommerce.service.MailTransportFactory;
+import jakarta.mail.Transport;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * Mail delivery configuration.
+ */
+@Configuration
+public class MailDeliveryConfig {
+
+    /**
+     * Opens connections with the settings of the configured mail sender, so a delivery worker can keep
+     * one connection open for many emails instead of one per email.
+     *
+     * @param mailSender is the configured mail sender.
+     *
+     * @return the mail transport factory.
+     */
+    @Bean
+    public MailTransportFactory mailTransportFactory(JavaMailSenderImpl mailSender) {
+        return () -> {
+            Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+            transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+
+            return transport;
+        };
+    }
+}
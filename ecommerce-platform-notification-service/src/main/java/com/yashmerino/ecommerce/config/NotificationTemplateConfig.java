@@ -1,14 +1,12 @@
 package com.yashmerino.ecommerce.config;
 
 import com.yashmerino.ecommerce.service.NotificationTemplate;
+import com.yashmerino.ecommerce.template.NotificationTemplateEngine;
 import com.yashmerino.ecommerce.utils.NotificationType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Notification template configuration.
@@ -19,13 +17,12 @@ public class NotificationTemplateConfig {
     /**
      * Implementation of notification templates bean.
      *
-     * @param templates the existing templates.
+     * @param engine the template engine.
      *
      * @return the notification templates mapped by notification types.
      */
     @Bean
-    public Map<NotificationType, NotificationTemplate> notificationTemplates(List<NotificationTemplate> templates) {
-        return templates.stream()
-                .collect(Collectors.toMap(NotificationTemplate::getType, Function.identity()));
+    public Map<NotificationType, NotificationTemplate> notificationTemplates(NotificationTemplateEngine engine) {
+        return engine.getTemplates();
     }
 }
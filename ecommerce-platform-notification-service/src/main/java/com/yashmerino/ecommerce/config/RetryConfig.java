@@ -1,41 +0,0 @@
-package com.yashmerino.ecommerce.config;
-
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.RetryCallback;
-import org.springframework.retry.RetryContext;
-import org.springframework.retry.RetryListener;
-
-/**
- * Configuration for Spring Retry.
- */
-@Configuration
-@Slf4j
-public class RetryConfig {
-
-    /**
-     * Creates a retry listener to log retry attempts.
-     *
-     * @return the retry listener
-     */
-    @Bean
-    public RetryListener retryListener() {
-        return new RetryListener() {
-            @Override
-            public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
-                return true;
-            }
-
-            @Override
-            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
-                // No action needed on close
-            }
-
-            @Override
-            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
-                log.warn("Retry attempt {} failed: {}", context.getRetryCount(), throwable.getMessage());
-            }
-        };
-    }
-}
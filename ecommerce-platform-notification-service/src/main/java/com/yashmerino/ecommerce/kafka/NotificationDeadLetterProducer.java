@@ -0,0 +1,46 @@
+package com.yashmerino.ecommerce.kafka;
+
+import com.yashmerino.ecommerce.kafka.events.NotificationDeadLetterEvent;
+import com.yashmerino.ecommerce.model.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kafka component that sends the notifications that couldn't be delivered to the dead letter topic.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationDeadLetterProducer {
+
+    /**
+     * Dead letter topic.
+     */
+    public static final String TOPIC = "notification.dlq";
+
+    /**
+     * Kafka template.
+     */
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    /**
+     * Sends a notification to the dead letter topic, keyed by its ID.
+     *
+     * @param notification is the notification.
+     */
+    public void send(Notification notification) {
+        kafkaTemplate.send(
+                TOPIC,
+                String.valueOf(notification.getId()),
+                new NotificationDeadLetterEvent(
+                        notification.getId(),
+                        notification.getNotificationType(),
+                        notification.getContactType(),
+                        notification.getContact(),
+                        notification.getPayload(),
+                        notification.getRetryCount(),
+                        notification.getLastError()
+                )
+        );
+    }
+}
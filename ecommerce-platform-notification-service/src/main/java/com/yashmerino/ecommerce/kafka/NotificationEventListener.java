@@ -3,29 +3,38 @@ package com.yashmerino.ecommerce.kafka;
 import com.yashmerino.ecommerce.kafka.events.NotificationRequestedEvent;
 import com.yashmerino.ecommerce.service.NotificationService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
- * Kafka notification events listener.
+ * Kafka notification events listener. Records are consumed in batches, one per poll.
  */
 @Component
 @RequiredArgsConstructor
-@Slf4j
 public class NotificationEventListener {
 
+    /**
+     * ID of the listener's container.
+     */
+    public static final String LISTENER_ID = "notification-listener";
+
     private final NotificationService notificationService;
 
+    /**
+     * Stores the notifications of a poll together, then sends them. If they couldn't be stored, the exception
+     * reaches the container's error handler and the batch is consumed again.
+     *
+     * @param events are the events polled from the topic.
+     */
     @KafkaListener(
+        id = LISTENER_ID,
         topics = "notification.requested",
-        groupId = "notification-service"
+        groupId = "notification-service",
+        batch = "true"
     )
-    public void onNotificationRequested(NotificationRequestedEvent event) {
-        try {
-            notificationService.sendNotification(event);
-        } catch (Exception e) {
-            log.error("Notification couldn't be processed.", e);
-        }
+    public void onNotificationRequested(List<NotificationRequestedEvent> events) {
+        notificationService.sendNotifications(events);
     }
 }
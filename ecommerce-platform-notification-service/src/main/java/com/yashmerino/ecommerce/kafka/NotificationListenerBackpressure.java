@@ -0,0 +1,44 @@
+package com.yashmerino.ecommerce.kafka;
+
+import com.yashmerino.ecommerce.service.DeliveryBackpressure;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses the notification events listener while the deliveries can't keep up.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationListenerBackpressure implements DeliveryBackpressure {
+
+    /**
+     * Kafka listeners' registry.
+     */
+    private final KafkaListenerEndpointRegistry registry;
+
+    /**
+     * Stops taking new notifications.
+     */
+    @Override
+    public void pause() {
+        MessageListenerContainer container = registry.getListenerContainer(NotificationEventListener.LISTENER_ID);
+
+        if (container != null) {
+            container.pause();
+        }
+    }
+
+    /**
+     * Takes new notifications again.
+     */
+    @Override
+    public void resume() {
+        MessageListenerContainer container = registry.getListenerContainer(NotificationEventListener.LISTENER_ID);
+
+        if (container != null) {
+            container.resume();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.yashmerino.ecommerce.kafka.events;
+
+import com.yashmerino.ecommerce.utils.ContactType;
+import com.yashmerino.ecommerce.utils.NotificationType;
+
+/**
+ * Event sent to the dead letter topic when a notification couldn't be delivered.
+ *
+ * @param notificationId is the notification's ID.
+ * @param notificationType is the notification type.
+ * @param contactType is the contact type.
+ * @param contact is the contact data.
+ * @param payload is the payload as JSON.
+ * @param attempts is the number of delivery attempts.
+ * @param lastError is the error of the last attempt.
+ */
+public record NotificationDeadLetterEvent(
+        Long notificationId,
+        NotificationType notificationType,
+        ContactType contactType,
+        String contact,
+        String payload,
+        int attempts,
+        String lastError
+) {}
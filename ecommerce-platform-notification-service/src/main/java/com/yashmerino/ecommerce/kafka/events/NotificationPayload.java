@@ -0,0 +1,24 @@
+package com.yashmerino.ecommerce.kafka.events;
+
+import java.util.Map;
+
+/**
+ * Typed payload of a notification event, one record per notification type. Payloads carry a schema version,
+ * payloads sent before versioning are version 1.
+ */
+public sealed interface NotificationPayload permits PaymentPayload, UserRegisteredPayload {
+
+    /**
+     * Returns the payload's schema version.
+     *
+     * @return the version.
+     */
+    int version();
+
+    /**
+     * Returns the values the notification's templates can use.
+     *
+     * @return the template variables by name.
+     */
+    Map<String, Object> templateData();
+}
@@ -1,21 +1,69 @@
 package com.yashmerino.ecommerce.kafka.events;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.yashmerino.ecommerce.utils.ContactType;
 import com.yashmerino.ecommerce.utils.NotificationType;
 
-import java.util.Map;
-
 /**
  * Event sent to Kafka topic.
  *
  * @param notificationType is the notification type. Ex: PAYMENT_FAILED, USER_REGISTERED.
  * @param contactType is the contact type. Ex: email, sms
  * @param contact is the contact data.
- * @param payload is the payload.
+ * @param payload is the payload, its type is chosen by the notification type.
+ * @param locale is the recipient's locale tag, null for the default one. Ex: en, ro.
  */
 public record NotificationRequestedEvent(
         NotificationType notificationType,
         ContactType contactType,
         String contact,
-        Map<String, Object> payload
-) {}
+        NotificationPayload payload,
+        String locale
+) {
+
+    /**
+     * Canonical constructor used by Jackson. The payload's type info is declared on the parameter only,
+     * Jackson 2.14 can't bind an external type id declared on a record component.
+     *
+     * @param notificationType is the notification type.
+     * @param contactType is the contact type.
+     * @param contact is the contact data.
+     * @param payload is the payload.
+     * @param locale is the recipient's locale tag.
+     */
+    @JsonCreator
+    public NotificationRequestedEvent(
+            @JsonProperty("notificationType") NotificationType notificationType,
+            @JsonProperty("contactType") ContactType contactType,
+            @JsonProperty("contact") String contact,
+            @JsonProperty("payload")
+            @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXTERNAL_PROPERTY, property = "notificationType", visible = true)
+            @JsonSubTypes({
+                    @JsonSubTypes.Type(value = PaymentPayload.class, names = {"PAYMENT_SUCCESS", "PAYMENT_FAILED"}),
+                    @JsonSubTypes.Type(value = UserRegisteredPayload.class, name = "USER_REGISTERED")
+            })
+            NotificationPayload payload,
+            @JsonProperty("locale") String locale
+    ) {
+        this.notificationType = notificationType;
+        this.contactType = contactType;
+        this.contact = contact;
+        this.payload = payload;
+        this.locale = locale;
+    }
+
+    /**
+     * Constructor of an event for the default locale.
+     *
+     * @param notificationType is the notification type.
+     * @param contactType is the contact type.
+     * @param contact is the contact data.
+     * @param payload is the payload.
+     */
+    public NotificationRequestedEvent(NotificationType notificationType, ContactType contactType, String contact, NotificationPayload payload) {
+        this(notificationType, contactType, contact, payload, null);
+    }
+}
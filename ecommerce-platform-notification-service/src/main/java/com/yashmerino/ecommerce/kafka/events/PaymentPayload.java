@@ -0,0 +1,59 @@
+package com.yashmerino.ecommerce.kafka.events;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Payload of the PAYMENT_SUCCESS and PAYMENT_FAILED notifications.
+ *
+ * @param version is the payload's schema version.
+ * @param paymentId is the payment's ID.
+ * @param orderId is the order's ID.
+ * @param amount is the payment's amount.
+ */
+public record PaymentPayload(
+        int version,
+        Long paymentId,
+        Long orderId,
+        BigDecimal amount
+) implements NotificationPayload {
+
+    /**
+     * Current schema version.
+     */
+    public static final int CURRENT_VERSION = 1;
+
+    /**
+     * Canonical constructor, a payload without version is version 1.
+     */
+    public PaymentPayload {
+        version = version > 0 ? version : CURRENT_VERSION;
+    }
+
+    /**
+     * Constructor of a payload of the current version.
+     *
+     * @param paymentId is the payment's ID.
+     * @param orderId is the order's ID.
+     * @param amount is the payment's amount.
+     */
+    public PaymentPayload(Long paymentId, Long orderId, BigDecimal amount) {
+        this(CURRENT_VERSION, paymentId, orderId, amount);
+    }
+
+    /**
+     * Returns the values the notification's templates can use.
+     *
+     * @return the template variables by name.
+     */
+    @Override
+    public Map<String, Object> templateData() {
+        Map<String, Object> data = new HashMap<>(4);
+        data.put("paymentId", paymentId);
+        data.put("orderId", orderId);
+        data.put("amount", amount);
+
+        return data;
+    }
+}
@@ -0,0 +1,35 @@
+package com.yashmerino.ecommerce.kafka.events;
+
+import java.util.Map;
+
+/**
+ * Payload of the USER_REGISTERED notification.
+ *
+ * @param version is the payload's schema version.
+ */
+public record UserRegisteredPayload(
+        int version
+) implements NotificationPayload {
+
+    /**
+     * Current schema version.
+     */
+    public static final int CURRENT_VERSION = 1;
+
+    /**
+     * Canonical constructor, a payload without version is version 1.
+     */
+    public UserRegisteredPayload {
+        version = version > 0 ? version : CURRENT_VERSION;
+    }
+
+    /**
+     * Returns the values the notification's templates can use.
+     *
+     * @return no template variables.
+     */
+    @Override
+    public Map<String, Object> templateData() {
+        return Map.of();
+    }
+}
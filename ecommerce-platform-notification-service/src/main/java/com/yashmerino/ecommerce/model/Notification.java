@@ -43,6 +43,9 @@ public class Notification extends BaseEntity {
     @Column(nullable = false)
     private String payload;
 
+    @Column(length = 35)
+    private String locale;
+
     @Column(nullable = false)
     private int retryCount = 0;
 
@@ -50,4 +53,6 @@ public class Notification extends BaseEntity {
     private String lastError;
 
     private LocalDateTime sentAt;
+
+    private LocalDateTime nextAttemptAt;
 }
\ No newline at end of file
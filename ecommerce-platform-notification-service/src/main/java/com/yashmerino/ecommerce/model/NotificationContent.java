@@ -5,8 +5,21 @@ package com.yashmerino.ecommerce.model;
  *
  * @param subject is the subject.
  * @param body is the body of the notification.
+ * @param text is the plain text alternative of the body, null if there's none.
  */
 public record NotificationContent(
     String subject,
-    String body
-) {}
+    String body,
+    String text
+) {
+
+    /**
+     * Constructor of a content without plain text alternative.
+     *
+     * @param subject is the subject.
+     * @param body is the body of the notification.
+     */
+    public NotificationContent(String subject, String body) {
+        this(subject, body, null);
+    }
+}
@@ -25,12 +25,38 @@ package com.yashmerino.ecommerce.repository;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Notification;
+import com.yashmerino.ecommerce.utils.NotificationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Notifications' repository.
  */
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    /**
+     * Locks the oldest notifications of the given statuses that are due, skipping the ones locked by another instance.
+     *
+     * @param statuses are the statuses.
+     * @param now is the current time.
+     * @param pageable is the maximum number of notifications.
+     *
+     * @return the due notifications.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM notifications n WHERE n.status IN :statuses AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt")
+    List<Notification> findDue(@Param("statuses") Collection<NotificationStatus> statuses, @Param("now") LocalDateTime now, Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package com.yashmerino.ecommerce.service;
+
+/**
+ * Slows down the intake of notifications while the delivery queue is full.
+ */
+public interface DeliveryBackpressure {
+
+    /**
+     * Stops taking new notifications.
+     */
+    void pause();
+
+    /**
+     * Takes new notifications again.
+     */
+    void resume();
+}
@@ -0,0 +1,20 @@
+package com.yashmerino.ecommerce.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+
+/**
+ * Opens connections to the mail server.
+ */
+@FunctionalInterface
+public interface MailTransportFactory {
+
+    /**
+     * Opens a connection to the mail server.
+     *
+     * @return the connected transport.
+     *
+     * @throws MessagingException if the connection failed.
+     */
+    Transport connect() throws MessagingException;
+}
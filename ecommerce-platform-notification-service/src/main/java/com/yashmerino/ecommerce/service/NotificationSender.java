@@ -3,6 +3,8 @@ package com.yashmerino.ecommerce.service;
 import com.yashmerino.ecommerce.model.NotificationContent;
 import com.yashmerino.ecommerce.utils.ContactType;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for a notification sender.
  */
@@ -20,6 +22,8 @@ public interface NotificationSender {
      *
      * @param contact is the contact to send notification to.
      * @param content is the notification content.
+     *
+     * @return the future completed once the notification is delivered.
      */
-    void send(String contact, NotificationContent content);
+    CompletableFuture<Void> send(String contact, NotificationContent content);
 }
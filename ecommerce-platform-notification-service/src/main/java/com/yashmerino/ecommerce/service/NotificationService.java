@@ -1,6 +1,9 @@
 package com.yashmerino.ecommerce.service;
 
 import com.yashmerino.ecommerce.kafka.events.NotificationRequestedEvent;
+import com.yashmerino.ecommerce.model.Notification;
+
+import java.util.List;
 
 /**
  * Interface for notification service.
@@ -12,4 +15,18 @@ public interface NotificationService {
      * @param event is the event from Kafka topic.
      */
     void sendNotification(NotificationRequestedEvent event);
+
+    /**
+     * Stores a batch of notifications together, then sends each of them.
+     *
+     * @param events are the events from Kafka topic.
+     */
+    void sendNotifications(List<NotificationRequestedEvent> events);
+
+    /**
+     * Attempts to deliver a notification again.
+     *
+     * @param notification is the notification due for a retry.
+     */
+    void retryNotification(Notification notification);
 }
@@ -1,9 +1,10 @@
 package com.yashmerino.ecommerce.service;
 
+import com.yashmerino.ecommerce.kafka.events.NotificationPayload;
 import com.yashmerino.ecommerce.model.NotificationContent;
 import com.yashmerino.ecommerce.utils.NotificationType;
 
-import java.util.Map;
+import java.util.Locale;
 
 /**
  * Notification template.
@@ -19,9 +20,10 @@ public interface NotificationTemplate {
     /**
      * Builds the content of the notification using the data from event.
      *
-     * @param data is the data sent from event.
+     * @param payload is the payload sent from event, can be null.
+     * @param locale is the recipient's locale, null for the default one.
      *
      * @return The Notification Content.
      */
-    NotificationContent build(Map<String, Object> data);
+    NotificationContent build(NotificationPayload payload, Locale locale);
 }
@@ -0,0 +1,92 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of emails sent per second to each recipient domain. A domain that was idle
+ * can take a burst of up to one second worth of emails.
+ */
+public class DomainRateLimiter {
+
+    /**
+     * Time between two emails to the same domain in nanoseconds, 0 when unlimited.
+     */
+    private final long interval;
+
+    /**
+     * Emails a domain can take at once after being idle.
+     */
+    private final long burst;
+
+    /**
+     * Clock in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Next free slot of each domain.
+     */
+    private final Map<String, Long> nextSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param ratePerSecond is the number of emails per second per domain, 0 or less for no limit.
+     * @param clock is the clock in nanoseconds.
+     */
+    DomainRateLimiter(double ratePerSecond, LongSupplier clock) {
+        this.interval = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        this.burst = Math.max(1, (long) ratePerSecond);
+        this.clock = clock;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ratePerSecond is the number of emails per second per domain, 0 or less for no limit.
+     */
+    public DomainRateLimiter(double ratePerSecond) {
+        this(ratePerSecond, System::nanoTime);
+    }
+
+    /**
+     * Reserves a slot for an email to a domain.
+     *
+     * @param domain is the recipient's domain.
+     * @return the time to wait before sending, in nanoseconds.
+     */
+    public long reserve(String domain) {
+        if (interval == 0) {
+            return 0;
+        }
+
+        long now = clock.getAsLong();
+        long[] slot = new long[1];
+
+        nextSlots.compute(domain, (key, next) -> {
+            long earliest = now - (burst - 1) * interval;
+            slot[0] = next == null || next < earliest ? earliest : next;
+
+            return slot[0] + interval;
+        });
+
+        return Math.max(0, slot[0] - now);
+    }
+
+    /**
+     * Waits for a slot for an email to a domain.
+     *
+     * @param domain is the recipient's domain.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    public void acquire(String domain) throws InterruptedException {
+        long wait = reserve(domain);
+
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
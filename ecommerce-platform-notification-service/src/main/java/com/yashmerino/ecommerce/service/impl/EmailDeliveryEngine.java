@@ -0,0 +1,393 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.service.DeliveryBackpressure;
+import com.yashmerino.ecommerce.service.MailTransportFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers emails in the background. Emails wait in a bounded queue and a pool of workers sends them,
+ * each worker keeping its own connection to the mail server open between emails. When the queue fills up
+ * the intake of notifications is paused until the workers catch up.
+ */
+@Component
+@Slf4j
+public class EmailDeliveryEngine {
+
+    /**
+     * Error of the emails that weren't sent because the engine stopped.
+     */
+    private static final String STOPPED_MESSAGE = "Email delivery engine stopped before the email was sent.";
+
+    /**
+     * Opens connections to the mail server.
+     */
+    private final MailTransportFactory transportFactory;
+
+    /**
+     * Pauses the intake of notifications.
+     */
+    private final DeliveryBackpressure backpressure;
+
+    /**
+     * Limits the emails sent to each domain.
+     */
+    private final DomainRateLimiter rateLimiter;
+
+    /**
+     * Emails waiting to be sent.
+     */
+    private final BlockingQueue<Delivery> queue;
+
+    /**
+     * Queue size at which the intake is paused.
+     */
+    private final int highWatermark;
+
+    /**
+     * Queue size at which the intake is resumed.
+     */
+    private final int lowWatermark;
+
+    /**
+     * Number of workers.
+     */
+    private final int workers;
+
+    /**
+     * Time after which an idle worker closes its connection, in milliseconds.
+     */
+    private final long idleTimeout;
+
+    /**
+     * Whether the intake is paused.
+     */
+    private final AtomicBoolean paused = new AtomicBoolean();
+
+    /**
+     * Time spent sending an email.
+     */
+    private final Timer sendTimer;
+
+    /**
+     * Emails sent.
+     */
+    private final Counter sentCounter;
+
+    /**
+     * Emails that couldn't be sent.
+     */
+    private final Counter failedCounter;
+
+    /**
+     * Workers' executor.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Whether the workers keep taking emails.
+     */
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     *
+     * @param transportFactory opens connections to the mail server.
+     * @param backpressure pauses the intake of notifications.
+     * @param meterRegistry is the meter registry.
+     * @param workers is the number of workers.
+     * @param queueCapacity is the number of emails that can wait to be sent.
+     * @param domainRate is the number of emails per second per domain, 0 for no limit.
+     * @param idleTimeout is the time after which an idle worker closes its connection, in milliseconds.
+     */
+    public EmailDeliveryEngine(MailTransportFactory transportFactory,
+                               DeliveryBackpressure backpressure,
+                               MeterRegistry meterRegistry,
+                               @Value("${notification.email.workers:8}") int workers,
+                               @Value("${notification.email.queue-capacity:1000}") int queueCapacity,
+                               @Value("${notification.email.domain-rate:0}") double domainRate,
+                               @Value("${notification.email.idle-timeout-ms:30000}") long idleTimeout) {
+        this.transportFactory = transportFactory;
+        this.backpressure = backpressure;
+        this.rateLimiter = new DomainRateLimiter(domainRate);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.highWatermark = Math.max(1, queueCapacity * 4 / 5);
+        this.lowWatermark = queueCapacity / 2;
+        this.workers = workers;
+        this.idleTimeout = idleTimeout;
+
+        Gauge.builder("notification.email.queue", queue, BlockingQueue::size)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("notification.email.send")
+                .description("Time spent sending an email")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("notification.email.sent")
+                .description("Emails sent")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.email.failed")
+                .description("Emails that couldn't be sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the workers.
+     */
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        running = true;
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "email-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    /**
+     * Stops the workers once the queued emails are sent. The emails still queued when the workers are interrupted
+     * are completed exceptionally, so their notifications are retried.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting for the workers.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(idleTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("{} emails weren't sent before shutdown.", queue.size());
+                executor.shutdownNow();
+                executor.awaitTermination(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            failQueued();
+        }
+    }
+
+    /**
+     * Queues an email. If the queue is full the intake is paused and the caller waits for a free slot.
+     *
+     * @param contact is the recipient's email address.
+     * @param message is the email.
+     *
+     * @return the future completed once the email is sent.
+     */
+    public CompletableFuture<Void> submit(String contact, MimeMessage message) {
+        Delivery delivery = new Delivery(domainOf(contact), message, new CompletableFuture<>());
+
+        if (!running) {
+            delivery.result().completeExceptionally(new IllegalStateException(STOPPED_MESSAGE));
+
+            return delivery.result();
+        }
+
+        if (!queue.offer(delivery)) {
+            pause();
+
+            try {
+                queue.put(delivery);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                delivery.result().completeExceptionally(e);
+
+                return delivery.result();
+            }
+        }
+
+        if (queue.size() >= highWatermark) {
+            pause();
+        }
+
+        return delivery.result();
+    }
+
+    /**
+     * Takes emails from the queue and sends them until the engine is stopped.
+     */
+    private void work() {
+        Transport transport = null;
+
+        try {
+            while (running || !queue.isEmpty()) {
+                Delivery delivery = queue.poll(idleTimeout, TimeUnit.MILLISECONDS);
+
+                if (delivery == null) {
+                    transport = close(transport);
+                    continue;
+                }
+
+                if (paused.get() && queue.size() <= lowWatermark) {
+                    resume();
+                }
+
+                transport = deliver(delivery, transport);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    /**
+     * Sends an email.
+     *
+     * @param delivery is the email to send.
+     * @param transport is the worker's connection, null if it has none.
+     *
+     * @return the connection to use for the next email, null if it was closed.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting for the rate limit.
+     */
+    private Transport deliver(Delivery delivery, Transport transport) throws InterruptedException {
+        try {
+            rateLimiter.acquire(delivery.domain());
+        } catch (InterruptedException e) {
+            delivery.result().completeExceptionally(e);
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        Exception failure = null;
+
+        try {
+            if (transport == null || !transport.isConnected()) {
+                close(transport);
+                transport = transportFactory.connect();
+            }
+
+            MimeMessage message = delivery.message();
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (Exception e) {
+            failure = e;
+
+            if (e instanceof InterruptedException) {
+                // The engine is stopping, the worker leaves the queued emails to the shutdown
+                Thread.currentThread().interrupt();
+            }
+
+            // The connection may be broken, the next email opens a new one
+            transport = close(transport);
+        }
+
+        // The metrics are recorded before the caller is notified, so they include every completed email
+        sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (failure == null) {
+            sentCounter.increment();
+            delivery.result().complete(null);
+        } else {
+            failedCounter.increment();
+            delivery.result().completeExceptionally(failure);
+        }
+
+        return transport;
+    }
+
+    /**
+     * Completes the emails left in the queue exceptionally.
+     */
+    private void failQueued() {
+        List<Delivery> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+
+        for (Delivery delivery : remaining) {
+            failedCounter.increment();
+            delivery.result().completeExceptionally(new IllegalStateException(STOPPED_MESSAGE));
+        }
+    }
+
+    /**
+     * Pauses the intake if it's running.
+     */
+    private void pause() {
+        if (paused.compareAndSet(false, true)) {
+            log.warn("Email queue is full, pausing notifications intake.");
+            backpressure.pause();
+        }
+    }
+
+    /**
+     * Resumes the intake if it's paused.
+     */
+    private void resume() {
+        if (paused.compareAndSet(true, false)) {
+            log.info("Email queue drained, resuming notifications intake.");
+            backpressure.resume();
+        }
+    }
+
+    /**
+     * Closes a connection.
+     *
+     * @param transport is the connection, can be null.
+     *
+     * @return null.
+     */
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Mail server connection couldn't be closed.", e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the domain of an email address.
+     *
+     * @param contact is the email address.
+     *
+     * @return the domain.
+     */
+    private static String domainOf(String contact) {
+        return contact.substring(contact.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Email waiting to be sent.
+     *
+     * @param domain is the recipient's domain.
+     * @param message is the email.
+     * @param result is completed once the email is sent.
+     */
+    private record Delivery(String domain, MimeMessage message, CompletableFuture<Void> result) {
+    }
+}
@@ -11,6 +11,9 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Email implementation of the notification sender.
  */
@@ -27,6 +30,11 @@ public class EmailNotificationSender implements NotificationSender {
      */
     private final JavaMailSender mailSender;
 
+    /**
+     * Delivers the emails in the background.
+     */
+    private final EmailDeliveryEngine deliveryEngine;
+
     /**
      * Returns the contact type for notification.
      *
@@ -38,24 +46,40 @@ public class EmailNotificationSender implements NotificationSender {
     }
 
     /**
-     * Sends the notification.
+     * Queues the notification for delivery.
      *
      * @param contact is the contact to send notification to.
      * @param content is the notification content.
+     *
+     * @return the future completed once the email is sent.
      */
     @Override
-    public void send(String contact, NotificationContent content) {
+    public CompletableFuture<Void> send(String contact, NotificationContent content) {
+        MimeMessage message;
+
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message);
+            message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, content.text() != null, StandardCharsets.UTF_8.name());
             helper.setTo(contact);
             helper.setSubject(content.subject());
-            helper.setText(content.body(), true);
-            mailSender.send(message);
 
-            log.info("Email to {} was successfully sent.", contact);
+            if (content.text() != null) {
+                helper.setText(content.text(), content.body());
+            } else {
+                helper.setText(content.body(), true);
+            }
         } catch (Exception e) {
-            log.error("Email to {} couldn't be sent.", contact, e);
+            log.error("Email to {} couldn't be built.", contact, e);
+
+            return CompletableFuture.failedFuture(e);
         }
+
+        return deliveryEngine.submit(contact, message).whenComplete((result, e) -> {
+            if (e == null) {
+                log.info("Email to {} was successfully sent.", contact);
+            } else {
+                log.error("Email to {} couldn't be sent.", contact, e);
+            }
+        });
     }
 }
@@ -0,0 +1,86 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yashmerino.ecommerce.kafka.events.NotificationPayload;
+import com.yashmerino.ecommerce.kafka.events.PaymentPayload;
+import com.yashmerino.ecommerce.kafka.events.UserRegisteredPayload;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Converts the notifications' payloads to and from the JSON they are stored as. The writer and readers are
+ * built once from the application's object mapper and are thread safe.
+ */
+@Component
+public class NotificationPayloadMapper {
+
+    /**
+     * Payload writer.
+     */
+    private final ObjectWriter writer;
+
+    /**
+     * Payload readers by notification type.
+     */
+    private final Map<NotificationType, ObjectReader> readers = new EnumMap<>(NotificationType.class);
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper is the application's object mapper.
+     */
+    public NotificationPayloadMapper(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer();
+
+        for (NotificationType type : NotificationType.values()) {
+            readers.put(type, objectMapper.readerFor(payloadType(type)));
+        }
+    }
+
+    /**
+     * Converts a payload to JSON.
+     *
+     * @param payload is the payload, can be null.
+     *
+     * @return the JSON.
+     *
+     * @throws JsonProcessingException if the payload couldn't be converted.
+     */
+    public String write(NotificationPayload payload) throws JsonProcessingException {
+        return writer.writeValueAsString(payload);
+    }
+
+    /**
+     * Reads a stored payload.
+     *
+     * @param type is the notification type.
+     * @param json is the payload's JSON.
+     *
+     * @return the payload, null if none was stored.
+     *
+     * @throws JsonProcessingException if the JSON couldn't be read.
+     */
+    public NotificationPayload read(NotificationType type, String json) throws JsonProcessingException {
+        return readers.get(type).readValue(json);
+    }
+
+    /**
+     * Returns the payload type of a notification type.
+     *
+     * @param type is the notification type.
+     *
+     * @return the payload type.
+     */
+    static Class<? extends NotificationPayload> payloadType(NotificationType type) {
+        return switch (type) {
+            case PAYMENT_SUCCESS, PAYMENT_FAILED -> PaymentPayload.class;
+            case USER_REGISTERED -> UserRegisteredPayload.class;
+        };
+    }
+}
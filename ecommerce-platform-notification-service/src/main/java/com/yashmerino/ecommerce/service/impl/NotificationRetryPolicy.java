@@ -0,0 +1,105 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed notification is retried and when. The delay doubles with every attempt and is
+ * jittered so that notifications failed by the same outage aren't all retried at the same moment. An attempt in progress
+ * holds a lease on the notification, so it's due again if the attempt's outcome is never recorded.
+ */
+@Component
+public class NotificationRetryPolicy {
+
+    /**
+     * Maximum number of delivery attempts.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry in milliseconds.
+     */
+    private final long initialDelay;
+
+    /**
+     * Maximum delay between two attempts in milliseconds.
+     */
+    private final long maxDelay;
+
+    /**
+     * Time after which a notification whose attempt's outcome wasn't recorded is due again, in milliseconds.
+     */
+    private final long leaseTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param maxAttempts is the maximum number of delivery attempts.
+     * @param initialDelay is the delay before the first retry in milliseconds.
+     * @param maxDelay is the maximum delay between two attempts in milliseconds.
+     * @param leaseTimeout is the time after which a notification whose attempt's outcome wasn't recorded is due again, in milliseconds.
+     */
+    public NotificationRetryPolicy(@Value("${notification.retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${notification.retry.initial-delay-ms:30000}") long initialDelay,
+                                   @Value("${notification.retry.max-delay-ms:3600000}") long maxDelay,
+                                   @Value("${notification.retry.lease-timeout-ms:300000}") long leaseTimeout) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    /**
+     * Checks whether a notification can be attempted again.
+     *
+     * @param attempts is the number of attempts made.
+     *
+     * @return whether it can be retried.
+     */
+    public boolean canRetry(int attempts) {
+        return attempts < maxAttempts;
+    }
+
+    /**
+     * Returns the delay before the next attempt.
+     *
+     * @param attempts is the number of attempts made.
+     *
+     * @return the delay.
+     */
+    public Duration nextDelay(int attempts) {
+        return nextDelay(attempts, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns the delay before the next attempt: half of the exponential delay plus a random part of the other half.
+     *
+     * @param attempts is the number of attempts made.
+     * @param random is the source of the jitter.
+     *
+     * @return the delay.
+     */
+    Duration nextDelay(int attempts, Random random) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        long delay = Math.min(maxDelay, initialDelay << doublings);
+        long half = delay / 2;
+
+        return Duration.ofMillis(half + (half > 0 ? random.nextLong(half + 1) : 0));
+    }
+
+    /**
+     * Returns the end of the lease taken by an attempt that starts now.
+     *
+     * @param now is the current time.
+     *
+     * @return the time the notification is due again unless the attempt's outcome is recorded.
+     */
+    public LocalDateTime leaseEnd(LocalDateTime now) {
+        return now.plus(Duration.ofMillis(leaseTimeout));
+    }
+}
@@ -0,0 +1,116 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.model.Notification;
+import com.yashmerino.ecommerce.repository.NotificationRepository;
+import com.yashmerino.ecommerce.service.NotificationService;
+import com.yashmerino.ecommerce.utils.NotificationStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Retries the failed notifications once they are due. Due notifications are claimed in batches,
+ * so several instances of the service never retry the same notification. A claim is a lease: the notification
+ * keeps its status with its next attempt pushed back, so it's retried again if the instance dies before recording
+ * the attempt's outcome. New notifications are inserted with the same lease, so a pending notification whose first
+ * attempt was lost is retried too.
+ */
+@Component
+@Slf4j
+public class NotificationRetryScheduler {
+
+    /**
+     * Statuses of the notifications that are claimed once due.
+     */
+    private static final List<NotificationStatus> CLAIMED_STATUSES = List.of(NotificationStatus.PENDING, NotificationStatus.RETRY);
+
+    /**
+     * Notification repository.
+     */
+    private final NotificationRepository notificationRepository;
+
+    /**
+     * Notification service.
+     */
+    private final NotificationService notificationService;
+
+    /**
+     * Transaction template.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Retry policy.
+     */
+    private final NotificationRetryPolicy retryPolicy;
+
+    /**
+     * Maximum number of notifications claimed at once.
+     */
+    private final int batchSize;
+
+    /**
+     * Constructor.
+     *
+     * @param notificationRepository is the notification repository.
+     * @param notificationService is the notification service.
+     * @param transactionTemplate is the transaction template.
+     * @param retryPolicy is the retry policy.
+     * @param batchSize is the maximum number of notifications claimed at once.
+     */
+    public NotificationRetryScheduler(NotificationRepository notificationRepository,
+                                      NotificationService notificationService,
+                                      TransactionTemplate transactionTemplate,
+                                      NotificationRetryPolicy retryPolicy,
+                                      @Value("${notification.retry.batch-size:100}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.retryPolicy = retryPolicy;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Retries the due notifications, batch by batch, until none is left.
+     */
+    @Scheduled(fixedDelayString = "${notification.retry.poll-interval-ms:5000}")
+    public void retryDueNotifications() {
+        List<Notification> due;
+
+        do {
+            due = transactionTemplate.execute(status -> claimDue());
+
+            for (Notification notification : due) {
+                notificationService.retryNotification(notification);
+            }
+        } while (due.size() == batchSize);
+    }
+
+    /**
+     * Claims a batch of due notifications, pending or in retry, by pushing their next attempt back to the lease end.
+     *
+     * @return the claimed notifications.
+     */
+    private List<Notification> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> due = notificationRepository.findDue(CLAIMED_STATUSES, now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseEnd = retryPolicy.leaseEnd(now);
+
+        for (Notification notification : due) {
+            notification.setNextAttemptAt(leaseEnd);
+        }
+
+        if (!due.isEmpty()) {
+            notificationRepository.saveAll(due);
+            log.info("Retrying {} notifications.", due.size());
+        }
+
+        return due;
+    }
+}
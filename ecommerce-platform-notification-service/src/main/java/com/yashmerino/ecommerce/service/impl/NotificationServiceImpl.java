@@ -1,29 +1,27 @@
 package com.yashmerino.ecommerce.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.kafka.NotificationDeadLetterProducer;
+import com.yashmerino.ecommerce.kafka.events.NotificationPayload;
 import com.yashmerino.ecommerce.kafka.events.NotificationRequestedEvent;
 import com.yashmerino.ecommerce.model.Notification;
 import com.yashmerino.ecommerce.model.NotificationContent;
-import com.yashmerino.ecommerce.repository.NotificationRepository;
 import com.yashmerino.ecommerce.service.NotificationSender;
 import com.yashmerino.ecommerce.service.NotificationSenderFactory;
 import com.yashmerino.ecommerce.service.NotificationService;
 import com.yashmerino.ecommerce.service.NotificationTemplate;
 import com.yashmerino.ecommerce.utils.NotificationStatus;
 import com.yashmerino.ecommerce.utils.NotificationType;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 /**
  * Payment service implementation.
@@ -34,9 +32,14 @@ import java.util.Map;
 public class NotificationServiceImpl implements NotificationService {
 
     /**
-     * Notification repository.
+     * Maximum length of a notification's last error.
      */
-    private final NotificationRepository notificationRepository;
+    private static final int LAST_ERROR_LENGTH = 500;
+
+    /**
+     * Writes the notifications in batches.
+     */
+    private final NotificationWriter notificationWriter;
 
     /**
      * Notification sender factory.
@@ -48,82 +51,148 @@ public class NotificationServiceImpl implements NotificationService {
      */
     private final Map<NotificationType, NotificationTemplate> templates;
 
+    /**
+     * Decides when failed notifications are retried.
+     */
+    private final NotificationRetryPolicy retryPolicy;
+
+    /**
+     * Sends the notifications that couldn't be delivered to the dead letter topic.
+     */
+    private final NotificationDeadLetterProducer deadLetterProducer;
+
+    /**
+     * Converts the payloads to and from JSON.
+     */
+    private final NotificationPayloadMapper payloadMapper;
+
     /**
      * Sends the notification.
      *
      * @param event is the event from Kafka topic.
      */
     @Override
-    @Transactional
     public void sendNotification(NotificationRequestedEvent event) {
-        Notification notification = null;
-        try {
-            notification = Notification.builder()
-                    .notificationType(event.notificationType())
-                    .contact(event.contact())
-                    .contactType(event.contactType())
-                    .status(NotificationStatus.PENDING)
-                    .retryCount(0)
-                    .payload(new ObjectMapper().writeValueAsString(event.payload()))
-                    .build();
-        } catch (JsonProcessingException e) {
-            log.error("Notification payload couldn't be converted to JSON.", e);
-            return;
+        sendNotifications(List.of(event));
+    }
+
+    /**
+     * Stores a batch of notifications together, then sends each of them. An event whose payload can't be
+     * converted to JSON is skipped.
+     *
+     * @param events are the events from Kafka topic.
+     */
+    @Override
+    public void sendNotifications(List<NotificationRequestedEvent> events) {
+        List<Notification> notifications = new ArrayList<>(events.size());
+        List<NotificationPayload> payloads = new ArrayList<>(events.size());
+        LocalDateTime leaseEnd = retryPolicy.leaseEnd(LocalDateTime.now());
+
+        for (NotificationRequestedEvent event : events) {
+            try {
+                notifications.add(Notification.builder()
+                        .notificationType(event.notificationType())
+                        .contact(event.contact())
+                        .contactType(event.contactType())
+                        .status(NotificationStatus.PENDING)
+                        .retryCount(0)
+                        .nextAttemptAt(leaseEnd)
+                        .locale(event.locale())
+                        .payload(payloadMapper.write(event.payload()))
+                        .build());
+                payloads.add(event.payload());
+            } catch (JsonProcessingException e) {
+                log.error("Notification payload couldn't be converted to JSON.", e);
+            }
         }
 
-        notificationRepository.save(notification);
+        notificationWriter.insertAll(notifications);
+
+        for (int i = 0; i < notifications.size(); i++) {
+            dispatch(notifications.get(i), payloads.get(i));
+        }
+    }
+
+    /**
+     * Attempts to deliver a notification again.
+     *
+     * @param notification is the notification due for a retry.
+     */
+    @Override
+    public void retryNotification(Notification notification) {
+        NotificationPayload payload;
 
         try {
-            sendNotificationWithRetry(notification, event);
-        } catch (Exception e) {
-            log.error("Notification failed after all retry attempts", e);
+            payload = payloadMapper.read(notification.getNotificationType(), notification.getPayload());
+        } catch (JsonProcessingException e) {
+            recordDelivery(notification, e);
+            return;
         }
+
+        dispatch(notification, payload);
     }
 
     /**
-     * Sends notification with automatic retry on failure.
-     * Uses Spring Retry for exponential backoff (1s, 2s, 4s).
+     * Hands a notification to its sender. The outcome is recorded once the sender completes the delivery.
      *
      * @param notification the notification entity
-     * @param event the notification event
+     * @param payload the notification's payload
      */
-    @Retryable(
-        retryFor = Exception.class,
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000, multiplier = 2),
-        listeners = {"retryListener"}
-    )
-    private void sendNotificationWithRetry(Notification notification, NotificationRequestedEvent event) {
+    private void dispatch(Notification notification, NotificationPayload payload) {
         notification.setRetryCount(notification.getRetryCount() + 1);
-        
-        log.info("Attempting to send notification (attempt {})", notification.getRetryCount());
 
-        NotificationTemplate template = templates.get(event.notificationType());
-        NotificationContent content = template.build(event.payload());
+        log.info("Attempting to send notification (attempt {})", notification.getRetryCount());
 
-        NotificationSender sender = senderFactory.getSender(event.contactType().toString());
-        sender.send(event.contact(), content);
+        try {
+            NotificationTemplate template = templates.get(notification.getNotificationType());
+            Locale locale = notification.getLocale() != null ? Locale.forLanguageTag(notification.getLocale()) : null;
+            NotificationContent content = template.build(payload, locale);
 
-        notification.setStatus(NotificationStatus.SENT);
-        notification.setSentAt(LocalDateTime.ofInstant(Instant.now(), ZoneId.systemDefault()));
-        notificationRepository.save(notification);
-        
-        log.info("Notification sent successfully after {} attempts", notification.getRetryCount());
+            NotificationSender sender = senderFactory.getSender(notification.getContactType().toString());
+            sender.send(notification.getContact(), content)
+                    .whenComplete((result, e) -> recordDelivery(notification, e));
+        } catch (Exception e) {
+            recordDelivery(notification, e);
+        }
     }
 
     /**
-     * Recovery method called after all retry attempts fail.
+     * Records the outcome of a delivery. A failed notification is scheduled for a retry,
+     * or dead-lettered once it ran out of attempts.
      *
-     * @param e the exception that caused the failure
      * @param notification the notification entity
-     * @param event the notification event
+     * @param error the delivery's error, null if it was delivered
      */
-    @Recover
-    private void handleNotificationFailure(Exception e, Notification notification, NotificationRequestedEvent event) {
-        log.error("Notification failed after {} attempts: {}", notification.getRetryCount(), e.getMessage());
-        
+    private void recordDelivery(Notification notification, Throwable error) {
+        if (error == null) {
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setSentAt(LocalDateTime.now());
+            notification.setNextAttemptAt(null);
+            notificationWriter.write(notification);
+
+            log.info("Notification sent successfully after {} attempts", notification.getRetryCount());
+            return;
+        }
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = String.valueOf(cause.getMessage());
+        notification.setLastError(message.length() > LAST_ERROR_LENGTH ? message.substring(0, LAST_ERROR_LENGTH) : message);
+
+        if (retryPolicy.canRetry(notification.getRetryCount())) {
+            notification.setStatus(NotificationStatus.RETRY);
+            notification.setNextAttemptAt(LocalDateTime.now().plus(retryPolicy.nextDelay(notification.getRetryCount())));
+            notificationWriter.write(notification);
+
+            log.warn("Notification attempt {} failed, retrying at {}: {}",
+                    notification.getRetryCount(), notification.getNextAttemptAt(), message);
+            return;
+        }
+
         notification.setStatus(NotificationStatus.FAILED);
-        notification.setLastError(e.getMessage());
-        notificationRepository.save(notification);
+        notification.setNextAttemptAt(null);
+        notificationWriter.write(notification);
+        deadLetterProducer.send(notification);
+
+        log.error("Notification failed after {} attempts: {}", notification.getRetryCount(), message);
     }
 }
@@ -0,0 +1,182 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.model.Notification;
+import com.yashmerino.ecommerce.repository.NotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists notifications. New notifications are inserted right away, the ones taken from a Kafka poll together
+ * in one batched insert, so they're stored before their records are committed. Their delivery state is written behind: the updates are buffered and flushed
+ * as a batched status update once the batch is full or the flush interval elapsed, and a batch that couldn't be
+ * written is kept for the next flush.
+ */
+@Component
+@Slf4j
+public class NotificationWriter {
+
+    /**
+     * Updates the delivery state of a stored notification.
+     */
+    private static final String UPDATE_SQL = "UPDATE notifications SET status = ?, retry_count = ?, last_error = ?, "
+            + "sent_at = ?, next_attempt_at = ?, updated_at = ? WHERE id = ?";
+
+    /**
+     * Notification repository.
+     */
+    private final NotificationRepository notificationRepository;
+
+    /**
+     * JDBC template.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction template.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of notifications after which the buffer is flushed.
+     */
+    private final int batchSize;
+
+    /**
+     * Time spent flushing a batch.
+     */
+    private final Timer flushTimer;
+
+    /**
+     * Notifications waiting to be written, each at most once.
+     */
+    private Set<Notification> buffer = new LinkedHashSet<>();
+
+    /**
+     * Constructor.
+     *
+     * @param notificationRepository is the notification repository.
+     * @param jdbcTemplate is the JDBC template.
+     * @param transactionTemplate is the transaction template.
+     * @param meterRegistry is the meter registry.
+     * @param batchSize is the number of notifications after which the buffer is flushed.
+     */
+    public NotificationWriter(NotificationRepository notificationRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${notification.persistence.batch-size:50}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("notification.persistence.flush")
+                .description("Time spent writing a batch of notifications")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inserts new notifications in one transaction, either all of them are stored or none.
+     *
+     * @param notifications are the notifications.
+     */
+    public void insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAll(notifications));
+    }
+
+    /**
+     * Queues the delivery state of a stored notification to be written. Writing the same notification again before
+     * the flush writes it only once, with its latest state.
+     *
+     * @param notification is the notification.
+     */
+    public void write(Notification notification) {
+        if (notification.getId() == null) {
+            throw new IllegalArgumentException("Notification must be inserted before its state is written.");
+        }
+
+        boolean full;
+
+        synchronized (this) {
+            buffer.add(notification);
+            full = buffer.size() >= batchSize;
+        }
+
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered delivery states. If they couldn't be written, they're buffered again, behind nothing
+     * written meanwhile, since the buffered notifications hold their latest state.
+     */
+    @Scheduled(fixedDelayString = "${notification.persistence.flush-interval-ms:200}")
+    @PreDestroy
+    public synchronized void flush() {
+        Set<Notification> batch = buffer;
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        buffer = new LinkedHashSet<>();
+
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (Notification notification : batch) {
+            updates.add(new Object[]{
+                    notification.getStatus().name(),
+                    notification.getRetryCount(),
+                    notification.getLastError(),
+                    toTimestamp(notification.getSentAt()),
+                    toTimestamp(notification.getNextAttemptAt()),
+                    now,
+                    notification.getId()
+            });
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, updates));
+        } catch (Exception e) {
+            batch.addAll(buffer);
+            buffer = batch;
+
+            log.error("{} notifications couldn't be written, they're retried on the next flush.", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Converts a date time to a JDBC timestamp.
+     *
+     * @param dateTime is the date time, can be null.
+     *
+     * @return the timestamp, null if the date time is null.
+     */
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -0,0 +1,250 @@
+package com.yashmerino.ecommerce.template;
+
+import com.yashmerino.ecommerce.kafka.events.NotificationPayload;
+import com.yashmerino.ecommerce.model.NotificationContent;
+import com.yashmerino.ecommerce.service.NotificationTemplate;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads the notification templates once and renders them. Each notification type has a directory of templates per
+ * locale under <code>templates/notifications</code>: <code>subject.txt</code>, <code>body.html</code> and optionally
+ * <code>body.txt</code> for the plain text alternative. A recipient's locale falls back to its language, then to
+ * the default locale.
+ */
+@Component
+public class NotificationTemplateEngine {
+
+    /**
+     * Location of a template file, by notification type, locale and file name.
+     */
+    private static final String LOCATION = "classpath:templates/notifications/%s/%s/%s";
+
+    /**
+     * Capacity above which a thread's buffer isn't kept, so one large email doesn't pin its memory.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    /**
+     * Rendering buffer of each thread.
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    /**
+     * Locale used when the recipient's one has no templates.
+     */
+    private final Locale defaultLocale;
+
+    /**
+     * Compiled templates by notification type and locale tag.
+     */
+    private final Map<NotificationType, Map<String, CompiledTemplate>> compiledTemplates = new EnumMap<>(NotificationType.class);
+
+    /**
+     * Constructor, compiles all the templates.
+     *
+     * @param resourceLoader is the resource loader.
+     * @param locales are the tags of the locales templates are looked up for.
+     * @param defaultLocale is the tag of the locale used when the recipient's one has no templates.
+     */
+    public NotificationTemplateEngine(ResourceLoader resourceLoader,
+                                      @Value("${notification.templates.locales:en}") List<String> locales,
+                                      @Value("${notification.templates.default-locale:en}") String defaultLocale) {
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale);
+
+        for (NotificationType type : NotificationType.values()) {
+            Map<String, CompiledTemplate> byLocale = new HashMap<>();
+
+            for (String tag : locales) {
+                Locale locale = Locale.forLanguageTag(tag);
+                CompiledTemplate template = compile(resourceLoader, type, locale);
+
+                if (template != null) {
+                    byLocale.put(locale.toLanguageTag(), template);
+                }
+            }
+
+            if (!byLocale.containsKey(this.defaultLocale.toLanguageTag())) {
+                throw new IllegalStateException("Templates of " + type + " are missing for the default locale " + defaultLocale + ".");
+            }
+
+            compiledTemplates.put(type, byLocale);
+        }
+    }
+
+    /**
+     * Returns the templates of all the notification types.
+     *
+     * @return the templates mapped by notification type.
+     */
+    public Map<NotificationType, NotificationTemplate> getTemplates() {
+        Map<NotificationType, NotificationTemplate> templates = new EnumMap<>(NotificationType.class);
+
+        for (NotificationType type : compiledTemplates.keySet()) {
+            templates.put(type, new EngineTemplate(type, this));
+        }
+
+        return templates;
+    }
+
+    /**
+     * Renders a notification.
+     *
+     * @param type is the notification type.
+     * @param locale is the recipient's locale, null for the default one.
+     * @param data are the variables' values.
+     *
+     * @return the notification content.
+     */
+    public NotificationContent render(NotificationType type, Locale locale, Map<String, ?> data) {
+        CompiledTemplate template = resolve(compiledTemplates.get(type), locale);
+        StringBuilder buffer = BUFFER.get();
+
+        try {
+            return new NotificationContent(
+                    render(template.subject(), data, buffer),
+                    render(template.html(), data, buffer),
+                    template.text() != null ? render(template.text(), data, buffer) : null
+            );
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Finds the templates of a locale: the exact one, then its language, then the default one.
+     *
+     * @param byLocale are the templates of a notification type by locale tag.
+     * @param locale is the recipient's locale, can be null.
+     *
+     * @return the templates.
+     */
+    private CompiledTemplate resolve(Map<String, CompiledTemplate> byLocale, Locale locale) {
+        if (locale != null) {
+            CompiledTemplate template = byLocale.get(locale.toLanguageTag());
+
+            if (template == null) {
+                template = byLocale.get(locale.getLanguage());
+            }
+            if (template != null) {
+                return template;
+            }
+        }
+
+        return byLocale.get(defaultLocale.toLanguageTag());
+    }
+
+    /**
+     * Renders a plan into a string through the thread's buffer, a plan without variables is returned as is.
+     *
+     * @param plan is the render plan.
+     * @param data are the variables' values.
+     * @param buffer is the thread's buffer.
+     *
+     * @return the rendered text.
+     */
+    private static String render(RenderPlan plan, Map<String, ?> data, StringBuilder buffer) {
+        if (plan.getConstant() != null) {
+            return plan.getConstant();
+        }
+
+        buffer.setLength(0);
+        plan.render(data, buffer);
+
+        return buffer.toString();
+    }
+
+    /**
+     * Compiles the templates of a notification type for a locale.
+     *
+     * @param resourceLoader is the resource loader.
+     * @param type is the notification type.
+     * @param locale is the locale.
+     *
+     * @return the compiled templates, null if the locale has none.
+     */
+    private static CompiledTemplate compile(ResourceLoader resourceLoader, NotificationType type, Locale locale) {
+        String subject = read(resourceLoader, type, locale, "subject.txt");
+        String html = read(resourceLoader, type, locale, "body.html");
+        String text = read(resourceLoader, type, locale, "body.txt");
+
+        if (subject == null || html == null) {
+            return null;
+        }
+
+        return new CompiledTemplate(
+                RenderPlan.compile(subject, false, locale),
+                RenderPlan.compile(html, true, locale),
+                text != null ? RenderPlan.compile(text, false, locale) : null
+        );
+    }
+
+    /**
+     * Reads a template file.
+     *
+     * @param resourceLoader is the resource loader.
+     * @param type is the notification type.
+     * @param locale is the locale.
+     * @param name is the file's name.
+     *
+     * @return the file's content without surrounding whitespace, null if it doesn't exist.
+     */
+    private static String read(ResourceLoader resourceLoader, NotificationType type, Locale locale, String name) {
+        Resource resource = resourceLoader.getResource(
+                String.format(LOCATION, type.name().toLowerCase(Locale.ROOT), locale.toLanguageTag(), name));
+
+        if (!resource.exists()) {
+            return null;
+        }
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).strip();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Template " + resource.getDescription() + " couldn't be read.", e);
+        }
+    }
+
+    /**
+     * Compiled templates of a notification type for a locale.
+     *
+     * @param subject is the subject's plan.
+     * @param html is the HTML body's plan.
+     * @param text is the plain text body's plan, null if there's none.
+     */
+    private record CompiledTemplate(RenderPlan subject, RenderPlan html, RenderPlan text) {
+    }
+
+    /**
+     * Notification template rendered by the engine.
+     *
+     * @param type is the notification type.
+     * @param engine is the engine.
+     */
+    private record EngineTemplate(NotificationType type, NotificationTemplateEngine engine) implements NotificationTemplate {
+
+        @Override
+        public NotificationType getType() {
+            return type;
+        }
+
+        @Override
+        public NotificationContent build(NotificationPayload payload, Locale locale) {
+            return engine.render(type, locale, payload != null ? payload.templateData() : Map.of());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.yashmerino.ecommerce.template;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Template compiled once into literal and variable segments, so rendering only appends them to a buffer.
+ * Variables are written as <code>{{name}}</code>, or <code>{{name:amount}}</code> for an amount with two decimals.
+ */
+public final class RenderPlan {
+
+    /**
+     * Variable opening delimiter.
+     */
+    private static final String OPEN = "{{";
+
+    /**
+     * Variable closing delimiter.
+     */
+    private static final String CLOSE = "}}";
+
+    /**
+     * Template's segments in order.
+     */
+    private final Segment[] segments;
+
+    /**
+     * Template's text if it has no variables, null otherwise.
+     */
+    private final String constant;
+
+    /**
+     * Constructor.
+     *
+     * @param segments are the template's segments in order.
+     */
+    private RenderPlan(Segment[] segments) {
+        this.segments = segments;
+
+        if (segments.length == 0) {
+            this.constant = "";
+        } else if (segments.length == 1 && segments[0] instanceof Literal literal) {
+            this.constant = literal.text();
+        } else {
+            this.constant = null;
+        }
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param source is the template's source.
+     * @param html is whether the variables are HTML escaped.
+     * @param locale is the locale the values are formatted for.
+     *
+     * @return the render plan.
+     */
+    public static RenderPlan compile(String source, boolean html, Locale locale) {
+        List<Segment> segments = new ArrayList<>();
+        char decimalSeparator = DecimalFormatSymbols.getInstance(locale).getDecimalSeparator();
+        int position = 0;
+
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+
+            if (open < 0) {
+                segments.add(new Literal(source.substring(position)));
+                break;
+            }
+
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Template variable at " + open + " isn't closed.");
+            }
+
+            if (open > position) {
+                segments.add(new Literal(source.substring(position, open)));
+            }
+
+            segments.add(variable(source.substring(open + OPEN.length(), close).trim(), html, decimalSeparator));
+            position = close + CLOSE.length();
+        }
+
+        return new RenderPlan(segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * Returns the template's text if it has no variables, so it can be used without rendering.
+     *
+     * @return the text, null if the template has variables.
+     */
+    public String getConstant() {
+        return constant;
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param data are the variables' values.
+     * @param out is the buffer the template is appended to.
+     */
+    public void render(Map<String, ?> data, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.append(data, out);
+        }
+    }
+
+    /**
+     * Compiles a variable.
+     *
+     * @param expression is the variable's expression, its name optionally followed by a format.
+     * @param html is whether the value is HTML escaped.
+     * @param decimalSeparator is the locale's decimal separator.
+     *
+     * @return the variable segment.
+     */
+    private static Segment variable(String expression, boolean html, char decimalSeparator) {
+        int colon = expression.indexOf(':');
+        String name = colon < 0 ? expression : expression.substring(0, colon).trim();
+        String format = colon < 0 ? null : expression.substring(colon + 1).trim();
+
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Template variable has no name.");
+        }
+        if (format != null && !"amount".equals(format)) {
+            throw new IllegalArgumentException("Unknown format of template variable " + name + ": " + format);
+        }
+
+        return new Variable(name, format != null, decimalSeparator, html);
+    }
+
+    /**
+     * Part of a template.
+     */
+    private sealed interface Segment permits Literal, Variable {
+
+        /**
+         * Appends the segment.
+         *
+         * @param data are the variables' values.
+         * @param out is the buffer.
+         */
+        void append(Map<String, ?> data, StringBuilder out);
+    }
+
+    /**
+     * Text copied as is.
+     *
+     * @param text is the text.
+     */
+    private record Literal(String text) implements Segment {
+
+        @Override
+        public void append(Map<String, ?> data, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    /**
+     * Variable replaced by its value.
+     *
+     * @param name is the variable's name.
+     * @param amount is whether the value is formatted as an amount.
+     * @param decimalSeparator is the locale's decimal separator.
+     * @param html is whether the value is HTML escaped.
+     */
+    private record Variable(String name, boolean amount, char decimalSeparator, boolean html) implements Segment {
+
+        @Override
+        public void append(Map<String, ?> data, StringBuilder out) {
+            Object value = data.get(name);
+
+            if (value == null) {
+                throw new IllegalArgumentException("Template variable " + name + " is missing.");
+            }
+
+            String text = amount ? formatAmount(value) : value.toString();
+
+            if (html) {
+                escape(text, out);
+            } else {
+                out.append(text);
+            }
+        }
+
+        /**
+         * Formats an amount with two decimals and the locale's decimal separator.
+         *
+         * @param value is the amount.
+         *
+         * @return the formatted amount.
+         */
+        private String formatAmount(Object value) {
+            BigDecimal decimal;
+
+            if (value instanceof BigDecimal bigDecimal) {
+                decimal = bigDecimal;
+            } else if (value instanceof Integer || value instanceof Long) {
+                decimal = BigDecimal.valueOf(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                decimal = BigDecimal.valueOf(number.doubleValue());
+            } else {
+                decimal = new BigDecimal(value.toString());
+            }
+
+            String text = decimal.setScale(2, RoundingMode.HALF_UP).toPlainString();
+
+            return decimalSeparator == '.' ? text : text.replace('.', decimalSeparator);
+        }
+
+        /**
+         * Appends a value with the HTML special characters escaped.
+         *
+         * @param text is the value.
+         * @param out is the buffer.
+         */
+        private static void escape(String text, StringBuilder out) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '"' -> out.append("&quot;");
+                    case '\'' -> out.append("&#39;");
+                    default -> out.append(c);
+                }
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ package com.yashmerino.ecommerce.utils;
  */
 public enum NotificationStatus {
     PENDING,
+    RETRY,
     SENT,
     FAILED
 }
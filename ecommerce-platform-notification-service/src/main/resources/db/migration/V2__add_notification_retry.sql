@@ -0,0 +1,3 @@
+ALTER TABLE notifications ADD COLUMN next_attempt_at DATETIME;
+
+CREATE INDEX idx_notifications_status_next_attempt_at ON notifications (status, next_attempt_at);
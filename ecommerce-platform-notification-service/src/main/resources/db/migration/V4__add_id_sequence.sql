@@ -0,0 +1,6 @@
+-- MySQL has no sequences, Hibernate keeps the next id block in a single-row table
+CREATE TABLE id_sequence (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO id_sequence (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM notifications;
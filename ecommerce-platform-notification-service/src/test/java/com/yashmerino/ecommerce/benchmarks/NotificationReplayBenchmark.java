@@ -0,0 +1,129 @@
+package com.yashmerino.ecommerce.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.kafka.events.NotificationRequestedEvent;
+import com.yashmerino.ecommerce.service.impl.NotificationPayloadMapper;
+import com.yashmerino.ecommerce.utils.ContactType;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays one second of traffic at 10k notification events per second through the listener's deserialization and
+ * the payload serialization done before the notification is stored. The score is the time one thread spends on it,
+ * run with <code>-prof gc</code> the <code>gc.alloc.rate.norm</code> is the memory allocated for the 10k events.
+ * <ul>
+ *     <li><code>baseline</code> reads the payload as a map and serializes it with a new object mapper per event.</li>
+ *     <li><code>typed</code> reads the typed payload and serializes it with the shared payload writer.</li>
+ * </ul>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark="NotificationReplayBenchmark -prof gc"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationReplayBenchmark {
+
+    /**
+     * Number of events replayed per invocation.
+     */
+    private static final int EVENTS = 10_000;
+
+    /**
+     * Topic the events are read from.
+     */
+    private static final String TOPIC = "notification.requested";
+
+    /**
+     * Serialized events, as sent by the server.
+     */
+    private byte[][] events;
+
+    /**
+     * Deserializer of the events with a map payload.
+     */
+    private JsonDeserializer<LegacyEvent> legacyDeserializer;
+
+    /**
+     * Deserializer of the events with a typed payload.
+     */
+    private JsonDeserializer<NotificationRequestedEvent> typedDeserializer;
+
+    /**
+     * Payload mapper.
+     */
+    private NotificationPayloadMapper payloadMapper;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        events = new byte[EVENTS][];
+
+        for (int i = 0; i < EVENTS; i++) {
+            LegacyEvent event = switch (i % 3) {
+                case 0 -> new LegacyEvent(NotificationType.PAYMENT_SUCCESS, ContactType.EMAIL, "user" + i + "@example.com",
+                        Map.of("paymentId", i, "orderId", i, "amount", 150.5));
+                case 1 -> new LegacyEvent(NotificationType.PAYMENT_FAILED, ContactType.EMAIL, "user" + i + "@example.com",
+                        Map.of("paymentId", i, "orderId", i, "amount", 99.99));
+                default -> new LegacyEvent(NotificationType.USER_REGISTERED, ContactType.EMAIL, "user" + i + "@example.com", null);
+            };
+
+            events[i] = objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+        }
+
+        legacyDeserializer = new JsonDeserializer<>(LegacyEvent.class, false);
+        typedDeserializer = new JsonDeserializer<>(NotificationRequestedEvent.class, false);
+        payloadMapper = new NotificationPayloadMapper(objectMapper);
+    }
+
+    @TearDown
+    public void tearDown() {
+        legacyDeserializer.close();
+        typedDeserializer.close();
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) throws JsonProcessingException {
+        for (byte[] data : events) {
+            LegacyEvent event = legacyDeserializer.deserialize(TOPIC, data);
+            blackhole.consume(new ObjectMapper().writeValueAsString(event.payload()));
+        }
+    }
+
+    @Benchmark
+    public void typed(Blackhole blackhole) throws JsonProcessingException {
+        for (byte[] data : events) {
+            NotificationRequestedEvent event = typedDeserializer.deserialize(TOPIC, data);
+            blackhole.consume(payloadMapper.write(event.payload()));
+        }
+    }
+
+    /**
+     * Notification event with the payload as a map, the way it was read before payloads were typed.
+     *
+     * @param notificationType is the notification type.
+     * @param contactType is the contact type.
+     * @param contact is the contact data.
+     * @param payload is the payload.
+     */
+    public record LegacyEvent(NotificationType notificationType, ContactType contactType, String contact, Map<String, Object> payload) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.yashmerino.ecommerce.benchmarks;
+
+import com.yashmerino.ecommerce.model.NotificationContent;
+import com.yashmerino.ecommerce.template.NotificationTemplateEngine;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the render throughput of each notification type.
+ * <ul>
+ *     <li><code>baseline</code> builds the content with <code>String.format</code> and casts, the way the templates used to.</li>
+ *     <li><code>compiled</code> renders the subject, HTML and text bodies from the compiled render plans.</li>
+ * </ul>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TemplateRenderBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TemplateRenderBenchmark {
+
+    /**
+     * Notification type rendered.
+     */
+    @Param({"PAYMENT_SUCCESS", "PAYMENT_FAILED", "USER_REGISTERED"})
+    public NotificationType type;
+
+    /**
+     * Recipient's locale tag.
+     */
+    @Param({"en", "ro"})
+    public String locale;
+
+    /**
+     * Template engine.
+     */
+    private NotificationTemplateEngine engine;
+
+    /**
+     * Recipient's locale.
+     */
+    private Locale recipientLocale;
+
+    /**
+     * Event payload.
+     */
+    private final Map<String, Object> payload = Map.of("amount", 150.5, "orderId", 42, "paymentId", 789);
+
+    @Setup
+    public void setUp() {
+        engine = new NotificationTemplateEngine(new DefaultResourceLoader(), List.of("en", "ro"), "en");
+        recipientLocale = Locale.forLanguageTag(locale);
+    }
+
+    @Benchmark
+    public NotificationContent baseline() {
+        Double amount = (Double) payload.get("amount");
+        Integer orderId = (Integer) payload.get("orderId");
+        Integer paymentId = (Integer) payload.get("paymentId");
+
+        return switch (type) {
+            case PAYMENT_SUCCESS -> new NotificationContent(
+                    String.format("Payment with ID %s successful", paymentId),
+                    String.format("Your payment of " + amount + " € for order with ID %s was successful.", orderId));
+            case PAYMENT_FAILED -> new NotificationContent(
+                    String.format("Payment with ID %s failed", paymentId),
+                    String.format("Your payment of %f€ for order with ID %s failed. Please retry in your orders page", amount, orderId));
+            case USER_REGISTERED -> new NotificationContent(
+                    "Welcome to Ecommerce Platform!",
+                    "We're happy to see you using our platform.");
+        };
+    }
+
+    @Benchmark
+    public NotificationContent compiled() {
+        return engine.render(type, recipientLocale, payload);
+    }
+}
@@ -1,6 +1,8 @@
 package com.yashmerino.ecommerce.kafka;
 
 import com.yashmerino.ecommerce.kafka.events.NotificationRequestedEvent;
+import com.yashmerino.ecommerce.kafka.events.PaymentPayload;
+import com.yashmerino.ecommerce.kafka.events.UserRegisteredPayload;
 import com.yashmerino.ecommerce.service.NotificationService;
 import com.yashmerino.ecommerce.utils.ContactType;
 import com.yashmerino.ecommerce.utils.NotificationType;
@@ -11,11 +13,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -31,14 +32,11 @@ class NotificationEventListenerTest {
     private NotificationEventListener listener;
 
     private NotificationRequestedEvent testEvent;
-    private Map<String, Object> payload;
+    private PaymentPayload payload;
 
     @BeforeEach
     void setUp() {
-        payload = new HashMap<>();
-        payload.put("amount", 100.0);
-        payload.put("orderId", 1);
-        payload.put("paymentId", 123);
+        payload = new PaymentPayload(123L, 1L, new BigDecimal("100.0"));
 
         testEvent = new NotificationRequestedEvent(
                 NotificationType.PAYMENT_SUCCESS,
@@ -50,22 +48,22 @@ class NotificationEventListenerTest {
 
     @Test
     void testOnNotificationRequestedSuccess() {
-        doNothing().when(notificationService).sendNotification(any(NotificationRequestedEvent.class));
+        doNothing().when(notificationService).sendNotifications(anyList());
 
-        listener.onNotificationRequested(testEvent);
+        listener.onNotificationRequested(List.of(testEvent));
 
-        verify(notificationService, times(1)).sendNotification(testEvent);
+        verify(notificationService, times(1)).sendNotifications(List.of(testEvent));
     }
 
     @Test
-    void testOnNotificationRequestedHandlesException() {
+    void testOnNotificationRequestedExceptionReachesErrorHandler() {
         doThrow(new RuntimeException("Service error"))
                 .when(notificationService)
-                .sendNotification(any(NotificationRequestedEvent.class));
+                .sendNotifications(anyList());
 
-        assertDoesNotThrow(() -> listener.onNotificationRequested(testEvent));
-        
-        verify(notificationService, times(1)).sendNotification(testEvent);
+        assertThrows(RuntimeException.class, () -> listener.onNotificationRequested(List.of(testEvent)));
+
+        verify(notificationService, times(1)).sendNotifications(List.of(testEvent));
     }
 
     @Test
@@ -74,14 +72,14 @@ class NotificationEventListenerTest {
                 NotificationType.USER_REGISTERED,
                 ContactType.EMAIL,
                 "newuser@example.com",
-                Map.of("username", "newuser")
+                new UserRegisteredPayload(1)
         );
 
-        doNothing().when(notificationService).sendNotification(any(NotificationRequestedEvent.class));
+        doNothing().when(notificationService).sendNotifications(anyList());
 
-        listener.onNotificationRequested(userRegisteredEvent);
+        listener.onNotificationRequested(List.of(testEvent, userRegisteredEvent));
 
-        verify(notificationService, times(1)).sendNotification(userRegisteredEvent);
+        verify(notificationService, times(1)).sendNotifications(List.of(testEvent, userRegisteredEvent));
     }
 
     @Test
@@ -93,22 +91,22 @@ class NotificationEventListenerTest {
                 payload
         );
 
-        doNothing().when(notificationService).sendNotification(any(NotificationRequestedEvent.class));
+        doNothing().when(notificationService).sendNotifications(anyList());
 
-        listener.onNotificationRequested(smsEvent);
+        listener.onNotificationRequested(List.of(smsEvent));
 
-        verify(notificationService, times(1)).sendNotification(smsEvent);
+        verify(notificationService, times(1)).sendNotifications(List.of(smsEvent));
     }
 
     @Test
     void testOnNotificationRequestedMultipleInvocations() {
-        doNothing().when(notificationService).sendNotification(any(NotificationRequestedEvent.class));
+        doNothing().when(notificationService).sendNotifications(anyList());
 
-        listener.onNotificationRequested(testEvent);
-        listener.onNotificationRequested(testEvent);
-        listener.onNotificationRequested(testEvent);
+        listener.onNotificationRequested(List.of(testEvent));
+        listener.onNotificationRequested(List.of(testEvent));
+        listener.onNotificationRequested(List.of(testEvent));
 
         // Assert
-        verify(notificationService, times(3)).sendNotification(testEvent);
+        verify(notificationService, times(3)).sendNotifications(List.of(testEvent));
     }
 }
@@ -0,0 +1,79 @@
+package com.yashmerino.ecommerce.kafka.events;
+
+import com.yashmerino.ecommerce.utils.ContactType;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NotificationRequestedEvent's deserialization.
+ */
+class NotificationRequestedEventTest {
+
+    private final JsonDeserializer<NotificationRequestedEvent> deserializer =
+            new JsonDeserializer<>(NotificationRequestedEvent.class, false);
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    private NotificationRequestedEvent deserialize(String json) {
+        return deserializer.deserialize("notification.requested", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testPaymentPayloadIsTyped() {
+        NotificationRequestedEvent event = deserialize("""
+                {"notificationType":"PAYMENT_FAILED","contactType":"EMAIL","contact":"user@example.com",
+                 "payload":{"paymentId":789,"orderId":42,"amount":150.50},"locale":"ro"}""");
+
+        assertEquals(NotificationType.PAYMENT_FAILED, event.notificationType());
+        assertEquals(ContactType.EMAIL, event.contactType());
+        assertEquals("ro", event.locale());
+        assertEquals(new PaymentPayload(1, 789L, 42L, new BigDecimal("150.50")), event.payload());
+    }
+
+    @Test
+    void testTypeIdAfterPayload() {
+        NotificationRequestedEvent event = deserialize("""
+                {"payload":{"paymentId":1,"orderId":2,"amount":3.0},"contact":"user@example.com","notificationType":"PAYMENT_SUCCESS"}""");
+
+        assertEquals(NotificationType.PAYMENT_SUCCESS, event.notificationType());
+        assertInstanceOf(PaymentPayload.class, event.payload());
+    }
+
+    @Test
+    void testVersionedPayload() {
+        NotificationRequestedEvent event = deserialize("""
+                {"notificationType":"PAYMENT_SUCCESS","contact":"user@example.com",
+                 "payload":{"version":2,"paymentId":1,"orderId":2,"amount":3.0,"currency":"EUR"}}""");
+
+        assertEquals(2, event.payload().version());
+    }
+
+    @Test
+    void testNullPayload() {
+        NotificationRequestedEvent event = deserialize("""
+                {"notificationType":"USER_REGISTERED","contactType":"EMAIL","contact":"user@example.com","payload":null}""");
+
+        assertEquals(NotificationType.USER_REGISTERED, event.notificationType());
+        assertNull(event.payload());
+        assertNull(event.locale());
+    }
+
+    @Test
+    void testUserRegisteredPayload() {
+        NotificationRequestedEvent event = deserialize("""
+                {"notificationType":"USER_REGISTERED","contact":"user@example.com","payload":{}}""");
+
+        assertEquals(new UserRegisteredPayload(1), event.payload());
+        assertTrue(event.payload().templateData().isEmpty());
+    }
+}
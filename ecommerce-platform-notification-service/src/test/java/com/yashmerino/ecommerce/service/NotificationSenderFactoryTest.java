@@ -1,5 +1,6 @@
 package com.yashmerino.ecommerce.service;
 
+import com.yashmerino.ecommerce.service.impl.EmailDeliveryEngine;
 import com.yashmerino.ecommerce.service.impl.EmailNotificationSender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,7 @@ class NotificationSenderFactoryTest {
     @BeforeEach
     void setUp() {
         JavaMailSender mockMailSender = mock(JavaMailSender.class);
-        NotificationSender emailSender = new EmailNotificationSender(mockMailSender);
+        NotificationSender emailSender = new EmailNotificationSender(mockMailSender, mock(EmailDeliveryEngine.class));
         
         List<NotificationSender> senderList = Arrays.asList(emailSender);
         factory = new NotificationSenderFactory(senderList);
@@ -0,0 +1,63 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for DomainRateLimiter.
+ */
+class DomainRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testUnlimitedNeverWaits() {
+        DomainRateLimiter rateLimiter = new DomainRateLimiter(0, () -> 0L);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, rateLimiter.reserve("example.com"));
+        }
+    }
+
+    @Test
+    void testBurstThenSpacedOut() {
+        AtomicLong clock = new AtomicLong(10 * SECOND);
+        DomainRateLimiter rateLimiter = new DomainRateLimiter(4, clock::get);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, rateLimiter.reserve("example.com"));
+        }
+
+        assertEquals(SECOND / 4, rateLimiter.reserve("example.com"));
+        assertEquals(SECOND / 2, rateLimiter.reserve("example.com"));
+    }
+
+    @Test
+    void testDomainsAreLimitedSeparately() {
+        AtomicLong clock = new AtomicLong(10 * SECOND);
+        DomainRateLimiter rateLimiter = new DomainRateLimiter(1, clock::get);
+
+        assertEquals(0, rateLimiter.reserve("example.com"));
+        assertEquals(0, rateLimiter.reserve("example.org"));
+        assertEquals(SECOND, rateLimiter.reserve("example.com"));
+    }
+
+    @Test
+    void testIdleDomainRefills() {
+        AtomicLong clock = new AtomicLong(10 * SECOND);
+        DomainRateLimiter rateLimiter = new DomainRateLimiter(2, clock::get);
+
+        rateLimiter.reserve("example.com");
+        rateLimiter.reserve("example.com");
+        assertTrue(rateLimiter.reserve("example.com") > 0);
+
+        clock.addAndGet(5 * SECOND);
+
+        assertEquals(0, rateLimiter.reserve("example.com"));
+        assertEquals(0, rateLimiter.reserve("example.com"));
+    }
+}
@@ -0,0 +1,189 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.service.DeliveryBackpressure;
+import com.yashmerino.ecommerce.service.MailTransportFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for EmailDeliveryEngine.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailDeliveryEngineTest {
+
+    @Mock
+    private MailTransportFactory transportFactory;
+
+    @Mock
+    private DeliveryBackpressure backpressure;
+
+    @Mock
+    private Transport transport;
+
+    @Mock
+    private MimeMessage message;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmailDeliveryEngine engine;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    private EmailDeliveryEngine start(int workers, int queueCapacity) {
+        engine = new EmailDeliveryEngine(transportFactory, backpressure, meterRegistry, workers, queueCapacity, 0, 1000);
+        engine.start();
+
+        return engine;
+    }
+
+    @Test
+    void testSubmitSendsThroughReusedConnection() throws Exception {
+        when(transportFactory.connect()).thenReturn(transport);
+        when(transport.isConnected()).thenReturn(true);
+
+        start(1, 10);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(engine.submit("user@example.com", message));
+        }
+        for (CompletableFuture<Void> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        verify(transportFactory, times(1)).connect();
+        verify(transport, times(5)).sendMessage(eq(message), any());
+        assertEquals(5, meterRegistry.get("notification.email.sent").counter().count());
+        assertEquals(5, meterRegistry.get("notification.email.send").timer().count());
+    }
+
+    @Test
+    void testFailedSendCompletesExceptionallyAndReconnects() throws Exception {
+        when(transportFactory.connect()).thenReturn(transport);
+        doThrow(new MessagingException("Connection reset"))
+                .doNothing()
+                .when(transport).sendMessage(eq(message), any());
+
+        start(1, 10);
+
+        CompletableFuture<Void> failed = engine.submit("user@example.com", message);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(MessagingException.class, e.getCause());
+
+        engine.submit("user@example.com", message).get(5, TimeUnit.SECONDS);
+
+        verify(transportFactory, times(2)).connect();
+        verify(transport, atLeastOnce()).close();
+        assertEquals(1, meterRegistry.get("notification.email.failed").counter().count());
+        assertEquals(1, meterRegistry.get("notification.email.sent").counter().count());
+    }
+
+    @Test
+    void testFullQueuePausesAndResumesIntake() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(transportFactory.connect()).thenReturn(transport);
+        when(transport.isConnected()).thenReturn(true);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(transport).sendMessage(eq(message), any());
+
+        start(1, 5);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(engine.submit("user@example.com", message));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++) {
+            results.add(engine.submit("user@example.com", message));
+        }
+
+        verify(backpressure).pause();
+        assertEquals(4.0, meterRegistry.get("notification.email.queue").gauge().value());
+
+        release.countDown();
+        for (CompletableFuture<Void> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        verify(backpressure).resume();
+    }
+
+    @Test
+    void testStopSendsQueuedEmails() throws Exception {
+        when(transportFactory.connect()).thenReturn(transport);
+        when(transport.isConnected()).thenReturn(true);
+
+        start(2, 10);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(engine.submit("user" + i + "@example.com", message));
+        }
+
+        engine.stop();
+        engine = null;
+
+        for (CompletableFuture<Void> result : results) {
+            assertTrue(result.isDone());
+            assertFalse(result.isCompletedExceptionally());
+        }
+        verify(transport, atLeastOnce()).close();
+    }
+
+    @Test
+    void testStopFailsEmailsLeftInQueue() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+
+        when(transportFactory.connect()).thenReturn(transport);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            new CountDownLatch(1).await();
+            return null;
+        }).when(transport).sendMessage(eq(message), any());
+
+        start(1, 10);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(engine.submit("user@example.com", message));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            results.add(engine.submit("user@example.com", message));
+        }
+
+        engine.stop();
+
+        for (CompletableFuture<Void> result : results) {
+            assertTrue(result.isCompletedExceptionally());
+        }
+        assertTrue(engine.submit("user@example.com", message).isCompletedExceptionally());
+        assertEquals(4, meterRegistry.get("notification.email.failed").counter().count());
+        engine = null;
+    }
+}
@@ -12,8 +12,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +31,9 @@ class EmailNotificationSenderTest {
     @Mock
     private MimeMessage mimeMessage;
 
+    @Mock
+    private EmailDeliveryEngine deliveryEngine;
+
     @InjectMocks
     private EmailNotificationSender emailNotificationSender;
 
@@ -52,12 +58,14 @@ class EmailNotificationSenderTest {
         );
 
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+        when(deliveryEngine.submit(contact, mimeMessage)).thenReturn(CompletableFuture.completedFuture(null));
 
-        emailNotificationSender.send(contact, content);
+        CompletableFuture<Void> result = emailNotificationSender.send(contact, content);
 
         verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(deliveryEngine).submit(contact, mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
+        assertFalse(result.isCompletedExceptionally());
     }
 
     @Test
@@ -69,12 +77,14 @@ class EmailNotificationSenderTest {
         );
 
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+        when(deliveryEngine.submit(contact, mimeMessage)).thenReturn(CompletableFuture.completedFuture(null));
 
-        emailNotificationSender.send(contact, content);
+        CompletableFuture<Void> result = emailNotificationSender.send(contact, content);
 
         verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(deliveryEngine).submit(contact, mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
+        assertFalse(result.isCompletedExceptionally());
     }
 
     @Test
@@ -87,10 +97,39 @@ class EmailNotificationSenderTest {
 
         when(mailSender.createMimeMessage()).thenThrow(new RuntimeException("Mail server error"));
 
-        assertDoesNotThrow(() -> emailNotificationSender.send(contact, content));
-        
+        CompletableFuture<Void> result = assertDoesNotThrow(() -> emailNotificationSender.send(contact, content));
+
+        assertTrue(result.isCompletedExceptionally());
         verify(mailSender).createMimeMessage();
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(deliveryEngine, never()).submit(anyString(), any(MimeMessage.class));
+    }
+
+    @Test
+    void testSendReturnsDeliveryFailure() {
+        String contact = "user@example.com";
+        NotificationContent content = new NotificationContent("Test Subject", "Test Body");
+
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(deliveryEngine.submit(contact, mimeMessage))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Mail server error")));
+
+        CompletableFuture<Void> result = emailNotificationSender.send(contact, content);
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void testSendWithPlainTextAlternative() {
+        String contact = "user@example.com";
+        NotificationContent content = new NotificationContent("Test Subject", "<p>Test Body</p>", "Test Body");
+
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(deliveryEngine.submit(contact, mimeMessage)).thenReturn(CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Void> result = emailNotificationSender.send(contact, content);
+
+        verify(deliveryEngine).submit(contact, mimeMessage);
+        assertFalse(result.isCompletedExceptionally());
     }
 
     @Test
@@ -99,11 +138,13 @@ class EmailNotificationSenderTest {
         NotificationContent content = new NotificationContent("", "");
 
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+        when(deliveryEngine.submit(contact, mimeMessage)).thenReturn(CompletableFuture.completedFuture(null));
 
-        emailNotificationSender.send(contact, content);
+        CompletableFuture<Void> result = emailNotificationSender.send(contact, content);
 
         verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(deliveryEngine).submit(contact, mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
+        assertFalse(result.isCompletedExceptionally());
     }
 }
@@ -0,0 +1,50 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.kafka.events.PaymentPayload;
+import com.yashmerino.ecommerce.kafka.events.UserRegisteredPayload;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NotificationPayloadMapper.
+ */
+class NotificationPayloadMapperTest {
+
+    private final NotificationPayloadMapper payloadMapper = new NotificationPayloadMapper(new ObjectMapper());
+
+    @Test
+    void testPaymentPayloadRoundTrip() throws Exception {
+        PaymentPayload payload = new PaymentPayload(789L, 42L, new BigDecimal("150.50"));
+
+        String json = payloadMapper.write(payload);
+
+        assertEquals("{\"version\":1,\"paymentId\":789,\"orderId\":42,\"amount\":150.50}", json);
+        assertEquals(payload, payloadMapper.read(NotificationType.PAYMENT_FAILED, json));
+    }
+
+    @Test
+    void testUserRegisteredPayloadRoundTrip() throws Exception {
+        UserRegisteredPayload payload = new UserRegisteredPayload(1);
+
+        assertEquals(payload, payloadMapper.read(NotificationType.USER_REGISTERED, payloadMapper.write(payload)));
+    }
+
+    @Test
+    void testNullPayload() throws Exception {
+        assertEquals("null", payloadMapper.write(null));
+        assertNull(payloadMapper.read(NotificationType.USER_REGISTERED, "null"));
+    }
+
+    @Test
+    void testPayloadStoredBeforeTypingIsRead() throws Exception {
+        PaymentPayload payload = (PaymentPayload) payloadMapper.read(NotificationType.PAYMENT_SUCCESS,
+                "{\"amount\":100.0,\"orderId\":1,\"paymentId\":123}");
+
+        assertEquals(new PaymentPayload(1, 123L, 1L, new BigDecimal("100.0")), payload);
+    }
+}
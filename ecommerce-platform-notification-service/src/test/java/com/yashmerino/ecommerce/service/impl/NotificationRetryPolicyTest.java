@@ -0,0 +1,63 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NotificationRetryPolicy.
+ */
+class NotificationRetryPolicyTest {
+
+    private final NotificationRetryPolicy retryPolicy = new NotificationRetryPolicy(5, 1000, 10000, 60000);
+
+    @Test
+    void testCanRetryUntilMaxAttempts() {
+        assertTrue(retryPolicy.canRetry(1));
+        assertTrue(retryPolicy.canRetry(4));
+        assertFalse(retryPolicy.canRetry(5));
+    }
+
+    @Test
+    void testDelayDoublesWithinJitterBounds() {
+        Random random = new Random(42);
+
+        for (int attempts = 1; attempts <= 4; attempts++) {
+            long delay = 1000L << (attempts - 1);
+
+            for (int i = 0; i < 100; i++) {
+                Duration next = retryPolicy.nextDelay(attempts, random);
+
+                assertTrue(next.toMillis() >= delay / 2, "Delay below half of " + delay);
+                assertTrue(next.toMillis() <= delay, "Delay above " + delay);
+            }
+        }
+    }
+
+    @Test
+    void testDelayIsCapped() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retryPolicy.nextDelay(50, random).toMillis() <= 10000);
+        }
+    }
+
+    @Test
+    void testDelayIsJittered() {
+        Random random = new Random(42);
+
+        assertNotEquals(retryPolicy.nextDelay(3, random), retryPolicy.nextDelay(3, random));
+    }
+
+    @Test
+    void testLeaseEndsAfterLeaseTimeout() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(now.plusSeconds(60), retryPolicy.leaseEnd(now));
+    }
+}
@@ -0,0 +1,117 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.model.Notification;
+import com.yashmerino.ecommerce.repository.NotificationRepository;
+import com.yashmerino.ecommerce.service.NotificationService;
+import com.yashmerino.ecommerce.utils.NotificationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for NotificationRetryScheduler.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationRetrySchedulerTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private NotificationRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(i -> ((TransactionCallback<?>) i.getArgument(0)).doInTransaction(null));
+
+        scheduler = new NotificationRetryScheduler(notificationRepository, notificationService, transactionTemplate,
+                new NotificationRetryPolicy(3, 1000, 60000, 60000), 2);
+    }
+
+    private Notification retry() {
+        return Notification.builder()
+                .status(NotificationStatus.RETRY)
+                .retryCount(1)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    @Test
+    void testNothingDue() {
+        when(notificationRepository.findDue(eq(List.of(NotificationStatus.PENDING, NotificationStatus.RETRY)), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of());
+
+        scheduler.retryDueNotifications();
+
+        verify(notificationRepository, never()).saveAll(any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void testDueNotificationsAreLeasedThenRetried() {
+        Notification first = retry();
+        Notification second = retry();
+        Notification third = retry();
+
+        when(notificationRepository.findDue(eq(List.of(NotificationStatus.PENDING, NotificationStatus.RETRY)), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        LocalDateTime before = LocalDateTime.now();
+        scheduler.retryDueNotifications();
+
+        for (Notification notification : List.of(first, second, third)) {
+            assertEquals(NotificationStatus.RETRY, notification.getStatus());
+            assertFalse(notification.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+        }
+
+        InOrder inOrder = inOrder(notificationRepository, notificationService);
+        inOrder.verify(notificationRepository).saveAll(List.of(first, second));
+        inOrder.verify(notificationService).retryNotification(first);
+        inOrder.verify(notificationService).retryNotification(second);
+        inOrder.verify(notificationRepository).saveAll(List.of(third));
+        inOrder.verify(notificationService).retryNotification(third);
+        verify(notificationRepository, times(2)).findDue(any(), any(), any());
+    }
+
+    @Test
+    void testPendingNotificationWithExpiredLeaseIsRetried() {
+        Notification pending = Notification.builder()
+                .status(NotificationStatus.PENDING)
+                .retryCount(0)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+
+        when(notificationRepository.findDue(eq(List.of(NotificationStatus.PENDING, NotificationStatus.RETRY)), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(pending));
+
+        LocalDateTime before = LocalDateTime.now();
+        scheduler.retryDueNotifications();
+
+        assertEquals(NotificationStatus.PENDING, pending.getStatus());
+        assertFalse(pending.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+
+        InOrder inOrder = inOrder(notificationRepository, notificationService);
+        inOrder.verify(notificationRepository).saveAll(List.of(pending));
+        inOrder.verify(notificationService).retryNotification(pending);
+    }
+}
@@ -1,24 +1,34 @@
 package com.yashmerino.ecommerce.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.kafka.NotificationDeadLetterProducer;
 import com.yashmerino.ecommerce.kafka.events.NotificationRequestedEvent;
+import com.yashmerino.ecommerce.kafka.events.PaymentPayload;
 import com.yashmerino.ecommerce.model.Notification;
 import com.yashmerino.ecommerce.model.NotificationContent;
-import com.yashmerino.ecommerce.repository.NotificationRepository;
 import com.yashmerino.ecommerce.service.NotificationSender;
 import com.yashmerino.ecommerce.service.NotificationSenderFactory;
 import com.yashmerino.ecommerce.service.NotificationTemplate;
 import com.yashmerino.ecommerce.utils.ContactType;
+import com.yashmerino.ecommerce.utils.NotificationStatus;
 import com.yashmerino.ecommerce.utils.NotificationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,7 +41,7 @@ import static org.mockito.Mockito.*;
 class NotificationServiceImplTest {
 
     @Mock
-    private NotificationRepository notificationRepository;
+    private NotificationWriter notificationWriter;
 
     @Mock
     private NotificationSenderFactory senderFactory;
@@ -45,18 +55,24 @@ class NotificationServiceImplTest {
     @Mock
     private NotificationTemplate notificationTemplate;
 
+    @Mock
+    private NotificationDeadLetterProducer deadLetterProducer;
+
+    @Spy
+    private NotificationRetryPolicy retryPolicy = new NotificationRetryPolicy(3, 1000, 60000, 60000);
+
+    @Spy
+    private NotificationPayloadMapper payloadMapper = new NotificationPayloadMapper(new ObjectMapper());
+
     @InjectMocks
     private NotificationServiceImpl notificationService;
 
     private NotificationRequestedEvent testEvent;
-    private Map<String, Object> payload;
+    private PaymentPayload payload;
 
     @BeforeEach
     void setUp() {
-        payload = new HashMap<>();
-        payload.put("amount", 100.0);
-        payload.put("orderId", 1);
-        payload.put("paymentId", 123);
+        payload = new PaymentPayload(123L, 1L, new BigDecimal("100.0"));
 
         testEvent = new NotificationRequestedEvent(
                 NotificationType.PAYMENT_SUCCESS,
@@ -74,14 +90,14 @@ class NotificationServiceImplTest {
         );
 
         when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
-        when(notificationTemplate.build(payload)).thenReturn(content);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
         when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(notificationSender.send("test@example.com", content)).thenReturn(CompletableFuture.completedFuture(null));
 
         notificationService.sendNotification(testEvent);
 
         ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
-        verify(notificationRepository, atLeast(1)).save(notificationCaptor.capture());
+        verify(notificationWriter, atLeast(1)).write(notificationCaptor.capture());
         verify(notificationSender).send("test@example.com", content);
 
         Notification savedNotification = notificationCaptor.getValue();
@@ -89,6 +105,165 @@ class NotificationServiceImplTest {
         assertEquals(NotificationType.PAYMENT_SUCCESS, savedNotification.getNotificationType());
         assertEquals("test@example.com", savedNotification.getContact());
         assertEquals(ContactType.EMAIL, savedNotification.getContactType());
+        assertEquals(NotificationStatus.SENT, savedNotification.getStatus());
+        assertNotNull(savedNotification.getSentAt());
+    }
+
+    @Test
+    void testSendNotificationIsInsertedPendingWithLease() {
+        NotificationContent content = new NotificationContent(
+                "Payment Successful",
+                "Your payment was successful"
+        );
+
+        when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
+        when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
+        when(notificationSender.send("test@example.com", content)).thenReturn(new CompletableFuture<>());
+
+        LocalDateTime before = LocalDateTime.now();
+        notificationService.sendNotification(testEvent);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> notificationsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(notificationWriter).insertAll(notificationsCaptor.capture());
+        verify(notificationWriter, never()).write(any());
+
+        Notification insertedNotification = notificationsCaptor.getValue().get(0);
+        assertEquals(NotificationStatus.PENDING, insertedNotification.getStatus());
+        assertFalse(insertedNotification.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+    }
+
+    @Test
+    void testSendNotificationsInsertsBatchOnceThenSendsEach() throws JsonProcessingException {
+        PaymentPayload invalidPayload = new PaymentPayload(456L, 2L, new BigDecimal("50.0"));
+        NotificationRequestedEvent invalidEvent = new NotificationRequestedEvent(
+                NotificationType.PAYMENT_SUCCESS,
+                ContactType.EMAIL,
+                "invalid@example.com",
+                invalidPayload
+        );
+        NotificationRequestedEvent smsEvent = new NotificationRequestedEvent(
+                NotificationType.PAYMENT_SUCCESS,
+                ContactType.SMS,
+                "+1234567890",
+                payload
+        );
+        NotificationContent content = new NotificationContent(
+                "Payment Successful",
+                "Your payment was successful"
+        );
+
+        doAnswer(i -> {
+            if (invalidPayload.equals(i.getArgument(0))) {
+                throw new JsonMappingException(null, "Invalid payload");
+            }
+            return i.callRealMethod();
+        }).when(payloadMapper).write(any());
+        when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
+        when(senderFactory.getSender(anyString())).thenReturn(notificationSender);
+        when(notificationSender.send(anyString(), eq(content))).thenReturn(new CompletableFuture<>());
+
+        notificationService.sendNotifications(List.of(testEvent, invalidEvent, smsEvent));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> notificationsCaptor = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(notificationWriter, notificationSender);
+        inOrder.verify(notificationWriter).insertAll(notificationsCaptor.capture());
+        inOrder.verify(notificationSender).send("test@example.com", content);
+        inOrder.verify(notificationSender).send("+1234567890", content);
+        verify(notificationWriter, times(1)).insertAll(any());
+        verify(notificationSender, never()).send(eq("invalid@example.com"), any());
+
+        List<Notification> insertedNotifications = notificationsCaptor.getValue();
+        assertEquals(2, insertedNotifications.size());
+        assertEquals("test@example.com", insertedNotifications.get(0).getContact());
+        assertEquals("+1234567890", insertedNotifications.get(1).getContact());
+    }
+
+    @Test
+    void testSendNotificationDeliveryFailedSchedulesRetry() {
+        NotificationContent content = new NotificationContent(
+                "Payment Successful",
+                "Your payment was successful"
+        );
+
+        when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
+        when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
+        when(notificationSender.send("test@example.com", content))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Mailbox unavailable")));
+
+        LocalDateTime before = LocalDateTime.now();
+        notificationService.sendNotification(testEvent);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> notificationsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(notificationWriter).insertAll(notificationsCaptor.capture());
+        verify(notificationWriter).write(notificationsCaptor.getValue().get(0));
+        verifyNoInteractions(deadLetterProducer);
+
+        Notification savedNotification = notificationsCaptor.getValue().get(0);
+        assertEquals(NotificationStatus.RETRY, savedNotification.getStatus());
+        assertEquals(1, savedNotification.getRetryCount());
+        assertEquals("Mailbox unavailable", savedNotification.getLastError());
+        assertTrue(savedNotification.getNextAttemptAt().isAfter(before));
+        assertNull(savedNotification.getSentAt());
+    }
+
+    @Test
+    void testRetryNotificationOutOfAttemptsIsDeadLettered() {
+        Notification notification = Notification.builder()
+                .notificationType(NotificationType.PAYMENT_SUCCESS)
+                .contactType(ContactType.EMAIL)
+                .contact("test@example.com")
+                .status(NotificationStatus.PENDING)
+                .retryCount(2)
+                .payload("{\"amount\":100.0,\"orderId\":1,\"paymentId\":123}")
+                .build();
+        NotificationContent content = new NotificationContent("Payment Successful", "Your payment was successful");
+
+        when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
+        when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
+        when(notificationSender.send("test@example.com", content))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Mailbox unavailable")));
+
+        notificationService.retryNotification(notification);
+
+        assertEquals(NotificationStatus.FAILED, notification.getStatus());
+        assertEquals(3, notification.getRetryCount());
+        assertNull(notification.getNextAttemptAt());
+        verify(notificationWriter).write(notification);
+        verify(deadLetterProducer).send(notification);
+    }
+
+    @Test
+    void testRetryNotificationSent() {
+        Notification notification = Notification.builder()
+                .notificationType(NotificationType.PAYMENT_SUCCESS)
+                .contactType(ContactType.EMAIL)
+                .contact("test@example.com")
+                .status(NotificationStatus.PENDING)
+                .retryCount(1)
+                .payload("{\"amount\":100.0,\"orderId\":1,\"paymentId\":123}")
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        NotificationContent content = new NotificationContent("Payment Successful", "Your payment was successful");
+
+        when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
+        when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
+        when(notificationSender.send("test@example.com", content)).thenReturn(CompletableFuture.completedFuture(null));
+
+        notificationService.retryNotification(notification);
+
+        assertEquals(NotificationStatus.SENT, notification.getStatus());
+        assertEquals(2, notification.getRetryCount());
+        assertNull(notification.getNextAttemptAt());
+        verify(notificationWriter).write(notification);
+        verifyNoInteractions(deadLetterProducer);
     }
 
     @Test
@@ -99,24 +274,23 @@ class NotificationServiceImplTest {
         );
 
         when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
-        when(notificationTemplate.build(payload)).thenReturn(content);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
         when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(notificationSender.send("test@example.com", content)).thenReturn(CompletableFuture.completedFuture(null));
 
         notificationService.sendNotification(testEvent);
 
         verify(notificationSender).send("test@example.com", content);
-        verify(notificationRepository, atLeast(1)).save(any(Notification.class));
+        verify(notificationWriter, atLeast(1)).write(any(Notification.class));
     }
 
     @Test
     void testSendNotificationTemplateNotFound() {
         when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(null);
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArguments()[0]);
 
         assertDoesNotThrow(() -> notificationService.sendNotification(testEvent));
         
-        verify(notificationRepository, atLeast(1)).save(any(Notification.class));
+        verify(notificationWriter, atLeast(1)).write(any(Notification.class));
     }
 
     @Test
@@ -127,15 +301,14 @@ class NotificationServiceImplTest {
         );
 
         when(templates.get(NotificationType.PAYMENT_SUCCESS)).thenReturn(notificationTemplate);
-        when(notificationTemplate.build(payload)).thenReturn(content);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
         when(senderFactory.getSender("EMAIL")).thenReturn(notificationSender);
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArguments()[0]);
         doThrow(new RuntimeException("Email service unavailable")).when(notificationSender)
                 .send(anyString(), any(NotificationContent.class));
 
         assertDoesNotThrow(() -> notificationService.sendNotification(testEvent));
         
-        verify(notificationRepository, atLeast(1)).save(any(Notification.class));
+        verify(notificationWriter, atLeast(1)).write(any(Notification.class));
     }
 
     @Test
@@ -153,14 +326,14 @@ class NotificationServiceImplTest {
         );
 
         when(templates.get(NotificationType.USER_REGISTERED)).thenReturn(notificationTemplate);
-        when(notificationTemplate.build(payload)).thenReturn(content);
+        when(notificationTemplate.build(payload, null)).thenReturn(content);
         when(senderFactory.getSender("SMS")).thenReturn(notificationSender);
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(notificationSender.send("+1234567890", content)).thenReturn(CompletableFuture.completedFuture(null));
 
         notificationService.sendNotification(smsEvent);
 
         ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
-        verify(notificationRepository, atLeast(1)).save(notificationCaptor.capture());
+        verify(notificationWriter, atLeast(1)).write(notificationCaptor.capture());
         verify(notificationSender).send("+1234567890", content);
 
         Notification savedNotification = notificationCaptor.getValue();
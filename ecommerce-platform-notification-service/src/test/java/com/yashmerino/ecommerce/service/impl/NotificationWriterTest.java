@@ -0,0 +1,168 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.model.Notification;
+import com.yashmerino.ecommerce.repository.NotificationRepository;
+import com.yashmerino.ecommerce.utils.NotificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for NotificationWriter.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationWriterTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private NotificationWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(i -> {
+            i.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        writer = new NotificationWriter(notificationRepository, jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), 3);
+    }
+
+    private Notification notification(Long id) {
+        Notification notification = Notification.builder()
+                .status(NotificationStatus.PENDING)
+                .retryCount(1)
+                .build();
+        notification.setId(id);
+
+        return notification;
+    }
+
+    @Test
+    void testFlushWithoutNotifications() {
+        writer.flush();
+
+        verifyNoInteractions(transactionTemplate, notificationRepository, jdbcTemplate);
+    }
+
+    @Test
+    void testInsertAllIsWrittenRightAwayInOneTransaction() {
+        List<Notification> notifications = List.of(notification(null), notification(null));
+
+        writer.insertAll(notifications);
+
+        InOrder inOrder = inOrder(transactionTemplate, notificationRepository);
+        inOrder.verify(transactionTemplate).executeWithoutResult(any());
+        inOrder.verify(notificationRepository).saveAll(notifications);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testInsertAllWithoutNotifications() {
+        writer.insertAll(List.of());
+
+        verifyNoInteractions(transactionTemplate, notificationRepository, jdbcTemplate);
+    }
+
+    @Test
+    void testNotificationsAreWrittenOnFlush() {
+        Notification updated = notification(7L);
+        updated.setStatus(NotificationStatus.SENT);
+
+        writer.write(updated);
+
+        verifyNoInteractions(transactionTemplate);
+
+        writer.flush();
+
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verifyNoInteractions(notificationRepository);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+
+        Object[] row = captor.getValue().get(0);
+        assertEquals(1, captor.getValue().size());
+        assertEquals("SENT", row[0]);
+        assertEquals(1, row[1]);
+        assertEquals(7L, row[6]);
+    }
+
+    @Test
+    void testNotInsertedNotificationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> writer.write(notification(null)));
+    }
+
+    @Test
+    void testFullBatchIsFlushed() {
+        writer.write(notification(1L));
+        writer.write(notification(2L));
+        writer.write(notification(3L));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 3));
+
+        writer.flush();
+
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+
+    @Test
+    void testSameNotificationIsWrittenOnce() {
+        Notification notification = notification(7L);
+
+        writer.write(notification);
+        writer.write(notification);
+        writer.flush();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 1));
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        Notification notification = notification(7L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"))
+                .thenReturn(new int[]{1});
+
+        writer.write(notification);
+
+        assertDoesNotThrow(() -> writer.flush());
+
+        notification.setStatus(NotificationStatus.SENT);
+        writer.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), captor.capture());
+        assertEquals("SENT", captor.getValue().get(0)[0]);
+
+        writer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,124 @@
+package com.yashmerino.ecommerce.template;
+
+import com.yashmerino.ecommerce.kafka.events.PaymentPayload;
+import com.yashmerino.ecommerce.model.NotificationContent;
+import com.yashmerino.ecommerce.service.NotificationTemplate;
+import com.yashmerino.ecommerce.utils.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NotificationTemplateEngine.
+ */
+class NotificationTemplateEngineTest {
+
+    private NotificationTemplateEngine engine;
+
+    private Map<String, Object> payment;
+
+    @BeforeEach
+    void setUp() {
+        engine = new NotificationTemplateEngine(new DefaultResourceLoader(), List.of("en", "ro"), "en");
+
+        payment = new HashMap<>();
+        payment.put("amount", 150.50);
+        payment.put("orderId", 42);
+        payment.put("paymentId", 789);
+    }
+
+    @Test
+    void testTemplatesCoverAllNotificationTypes() {
+        Map<NotificationType, NotificationTemplate> templates = engine.getTemplates();
+
+        for (NotificationType type : NotificationType.values()) {
+            assertEquals(type, templates.get(type).getType());
+        }
+    }
+
+    @Test
+    void testPaymentSuccess() {
+        NotificationContent content = engine.render(NotificationType.PAYMENT_SUCCESS, null, payment);
+
+        assertEquals("Payment with ID 789 successful", content.subject());
+        assertEquals("Your payment of 150.50 € for order with ID 42 was successful.", content.text());
+        assertTrue(content.body().startsWith("<html>"));
+        assertTrue(content.body().contains("150.50 €"));
+        assertTrue(content.body().contains("order with ID 42"));
+    }
+
+    @Test
+    void testPaymentFailed() {
+        NotificationContent content = engine.render(NotificationType.PAYMENT_FAILED, Locale.ENGLISH, payment);
+
+        assertEquals("Payment with ID 789 failed", content.subject());
+        assertTrue(content.text().contains("150.50 €"));
+        assertTrue(content.text().contains("order with ID 42 failed"));
+        assertTrue(content.body().contains("Please retry in your orders page."));
+    }
+
+    @Test
+    void testUserRegistered() {
+        NotificationContent content = engine.render(NotificationType.USER_REGISTERED, null, new HashMap<>());
+
+        assertEquals("Welcome to Ecommerce Platform!", content.subject());
+        assertEquals("We're happy to see you using our platform.", content.text());
+        assertTrue(content.body().contains("We're happy to see you using our platform."));
+    }
+
+    @Test
+    void testRendersRecipientLocale() {
+        NotificationContent content = engine.render(NotificationType.PAYMENT_SUCCESS, Locale.forLanguageTag("ro"), payment);
+
+        assertEquals("Plata cu ID-ul 789 a fost efectuată", content.subject());
+        assertTrue(content.text().contains("150,50 €"));
+    }
+
+    @Test
+    void testFallsBackToLanguageThenDefaultLocale() {
+        NotificationContent regional = engine.render(NotificationType.PAYMENT_FAILED, Locale.forLanguageTag("ro-MD"), payment);
+        NotificationContent unknown = engine.render(NotificationType.PAYMENT_FAILED, Locale.JAPANESE, payment);
+
+        assertEquals("Plata cu ID-ul 789 a eșuat", regional.subject());
+        assertEquals("Payment with ID 789 failed", unknown.subject());
+    }
+
+    @Test
+    void testBuildThroughTemplate() {
+        NotificationTemplate template = engine.getTemplates().get(NotificationType.PAYMENT_SUCCESS);
+        NotificationContent content = template.build(new PaymentPayload(789L, 42L, new BigDecimal("150.5")), null);
+
+        assertEquals("Payment with ID 789 successful", content.subject());
+        assertEquals("Your payment of 150.50 € for order with ID 42 was successful.", content.text());
+    }
+
+    @Test
+    void testBuildWithoutPayload() {
+        NotificationContent content = engine.getTemplates().get(NotificationType.USER_REGISTERED).build(null, null);
+
+        assertEquals("Welcome to Ecommerce Platform!", content.subject());
+    }
+
+    @Test
+    void testMissingVariableFails() {
+        payment.remove("orderId");
+
+        assertThrows(IllegalArgumentException.class, () -> engine.render(NotificationType.PAYMENT_SUCCESS, null, payment));
+    }
+
+    @Test
+    void testMissingDefaultLocaleFailsAtStartup() {
+        DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+        List<String> locales = List.of("en");
+
+        assertThrows(IllegalStateException.class, () -> new NotificationTemplateEngine(resourceLoader, locales, "de"));
+    }
+}
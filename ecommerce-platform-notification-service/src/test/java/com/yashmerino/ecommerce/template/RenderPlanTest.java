@@ -0,0 +1,72 @@
+package com.yashmerino.ecommerce.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RenderPlan.
+ */
+class RenderPlanTest {
+
+    private static String render(RenderPlan plan, Map<String, ?> data) {
+        StringBuilder out = new StringBuilder();
+        plan.render(data, out);
+
+        return out.toString();
+    }
+
+    @Test
+    void testLiteralOnly() {
+        RenderPlan plan = RenderPlan.compile("No variables here.", false, Locale.ENGLISH);
+
+        assertEquals("No variables here.", render(plan, Map.of()));
+        assertEquals("No variables here.", plan.getConstant());
+    }
+
+    @Test
+    void testVariables() {
+        RenderPlan plan = RenderPlan.compile("{{greeting}}, order {{ orderId }}!", false, Locale.ENGLISH);
+
+        assertEquals("Hello, order 42!", render(plan, Map.of("greeting", "Hello", "orderId", 42)));
+        assertNull(plan.getConstant());
+    }
+
+    @Test
+    void testAmountUsesLocaleSeparator() {
+        RenderPlan english = RenderPlan.compile("{{amount:amount}}", false, Locale.ENGLISH);
+        RenderPlan romanian = RenderPlan.compile("{{amount:amount}}", false, Locale.forLanguageTag("ro"));
+
+        assertEquals("99.99", render(english, Map.of("amount", 99.99)));
+        assertEquals("0.00", render(english, Map.of("amount", 0.0)));
+        assertEquals("10.00", render(english, Map.of("amount", 10)));
+        assertEquals("12.35", render(english, Map.of("amount", new BigDecimal("12.345"))));
+        assertEquals("99,99", render(romanian, Map.of("amount", 99.99)));
+    }
+
+    @Test
+    void testHtmlEscapesVariablesOnly() {
+        RenderPlan plan = RenderPlan.compile("<p>{{name}}</p>", true, Locale.ENGLISH);
+
+        assertEquals("<p>&lt;b&gt;Tom &amp; &quot;Jerry&#39;s&quot;&lt;/b&gt;</p>",
+                render(plan, Map.of("name", "<b>Tom & \"Jerry's\"</b>")));
+    }
+
+    @Test
+    void testMissingVariable() {
+        RenderPlan plan = RenderPlan.compile("Order {{orderId}}", false, Locale.ENGLISH);
+
+        assertThrows(IllegalArgumentException.class, () -> render(plan, Map.of()));
+    }
+
+    @Test
+    void testInvalidTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> RenderPlan.compile("Order {{orderId", false, Locale.ENGLISH));
+        assertThrows(IllegalArgumentException.class, () -> RenderPlan.compile("Order {{}}", false, Locale.ENGLISH));
+        assertThrows(IllegalArgumentException.class, () -> RenderPlan.compile("{{orderId:date}}", false, Locale.ENGLISH));
+    }
+}
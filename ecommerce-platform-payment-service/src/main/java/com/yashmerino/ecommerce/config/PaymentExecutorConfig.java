@@ -0,0 +1,42 @@
+package com.yashmerino.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuration of the executor that runs the Stripe calls of a batch in parallel.
+ */
+@Configuration
+public class PaymentExecutorConfig {
+
+    /**
+     * Maximum number of Stripe calls in flight.
+     */
+    @Value("${payment.executor.threads:16}")
+    private int threads;
+
+    /**
+     * Provides the executor for the Stripe calls. The threads only wait on Stripe, so the pool is sized
+     * by the number of parallel calls rather than by the number of cores.
+     *
+     * @return the payment executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService paymentExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "payment-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
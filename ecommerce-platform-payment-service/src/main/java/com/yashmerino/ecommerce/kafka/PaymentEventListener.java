@@ -6,20 +6,33 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
- * Kafka payment events listener.
+ * Kafka payment events listener. Records are consumed in batches, one consumer per
+ * <code>payment.listener.concurrency</code> partitions.
  */
 @Component
 @RequiredArgsConstructor
 public class PaymentEventListener {
 
+    /**
+     * Payment service.
+     */
     private final PaymentService paymentService;
 
+    /**
+     * Processes a batch of payment requests.
+     *
+     * @param events are the events polled from the topic.
+     */
     @KafkaListener(
         topics = "payment.requested",
-        groupId = "payment-service"
+        groupId = "payment-service",
+        batch = "true",
+        concurrency = "${payment.listener.concurrency:3}"
     )
-    public void onPaymentRequested(PaymentRequestedEvent event) {
-        paymentService.processPayment(event);
+    public void onPaymentRequested(List<PaymentRequestedEvent> events) {
+        paymentService.processPayments(events);
     }
 }
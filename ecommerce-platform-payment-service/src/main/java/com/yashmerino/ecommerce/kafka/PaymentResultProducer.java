@@ -3,9 +3,16 @@ package com.yashmerino.ecommerce.kafka;
 import com.yashmerino.ecommerce.kafka.events.PaymentResultEvent;
 import com.yashmerino.ecommerce.utils.PaymentStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Kafka component that sends payment result event to topic.
  */
@@ -44,4 +51,31 @@ public class PaymentResultProducer {
             new PaymentResultEvent(orderId, paymentId, PaymentStatus.FAILED, errorMessage)
         );
     }
+
+    /**
+     * Sends the results of a batch on kafka topic, keyed by order ID, flushes them in one go and waits until every
+     * result is acknowledged, so the batch isn't committed before its results are sent.
+     *
+     * @param results are the payment results.
+     * @throws KafkaException if a result couldn't be sent.
+     */
+    public void sendResults(List<PaymentResultEvent> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(results.size());
+
+        for (PaymentResultEvent result : results) {
+            sends.add(kafkaTemplate.send("payment.result", result.orderId().toString(), result));
+        }
+
+        kafkaTemplate.flush();
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw new KafkaException("Payment results couldn't be sent.", e.getCause());
+        }
+    }
 }
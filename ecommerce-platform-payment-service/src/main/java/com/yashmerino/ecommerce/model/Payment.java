@@ -18,7 +18,7 @@ import java.math.BigDecimal;
 @Getter
 @Setter
 @Entity(name = "payments")
-@Table(name = "payments")
+@Table(name = "payments", uniqueConstraints = @UniqueConstraint(name = "uk_payments_request_id", columnNames = "request_id"))
 public class Payment extends BaseEntity {
 
     /**
@@ -43,4 +43,16 @@ public class Payment extends BaseEntity {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private PaymentStatus status;
+
+    /**
+     * ID of the payment on the main server, identifies the payment request.
+     */
+    @Column(name = "request_id")
+    private Long requestId;
+
+    /**
+     * Error message if payment failed.
+     */
+    @Column(length = 1024)
+    private String errorMessage;
 }
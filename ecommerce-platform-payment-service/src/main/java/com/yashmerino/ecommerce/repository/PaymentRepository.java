@@ -26,11 +26,32 @@ package com.yashmerino.ecommerce.repository;
 
 import com.yashmerino.ecommerce.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Payments' repository.
  */
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * Returns the payment made for a payment request.
+     *
+     * @param requestId is the ID of the payment on the main server.
+     *
+     * @return Optional of payment.
+     */
+    Optional<Payment> findByRequestId(Long requestId);
+
+    /**
+     * Returns the IDs of all the processed payment requests.
+     *
+     * @return List of request IDs.
+     */
+    @Query("SELECT p.requestId FROM payments p WHERE p.requestId IS NOT NULL")
+    List<Long> findAllRequestIds();
 }
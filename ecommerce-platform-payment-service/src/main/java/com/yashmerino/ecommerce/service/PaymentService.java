@@ -2,6 +2,8 @@ package com.yashmerino.ecommerce.service;
 
 import com.yashmerino.ecommerce.kafka.events.PaymentRequestedEvent;
 
+import java.util.List;
+
 /**
  * Interface for payment service.
  */
@@ -12,4 +14,11 @@ public interface PaymentService {
      * @param event is the event from Kafka topic.
      */
     void processPayment(PaymentRequestedEvent event);
+
+    /**
+     * Processes a batch of payments in parallel, the payments of the same order are processed in order.
+     *
+     * @param events are the events from Kafka topic.
+     */
+    void processPayments(List<PaymentRequestedEvent> events);
 }
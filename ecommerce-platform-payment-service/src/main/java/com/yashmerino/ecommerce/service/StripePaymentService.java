@@ -16,10 +16,11 @@ public interface StripePaymentService {
      * @param amount is the payment's amount.
      * @param currency is the payment's currency.
      * @param paymentMethodId is the stripe payment method ID.
+     * @param idempotencyKey is the key Stripe uses to recognize a retried charge.
      *
      * @return The Stripe payment result.
      *
      * @throws StripeException if payment failed.
      */
-    StripePaymentResult charge(BigDecimal amount, String currency, String paymentMethodId) throws StripeException;
+    StripePaymentResult charge(BigDecimal amount, String currency, String paymentMethodId, String idempotencyKey) throws StripeException;
 }
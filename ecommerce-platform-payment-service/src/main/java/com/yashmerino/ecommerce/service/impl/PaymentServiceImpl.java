@@ -1,26 +1,47 @@
 package com.yashmerino.ecommerce.service.impl;
 
+import com.stripe.exception.CardException;
+import com.stripe.exception.StripeException;
 import com.yashmerino.ecommerce.kafka.PaymentResultProducer;
 import com.yashmerino.ecommerce.kafka.events.PaymentRequestedEvent;
+import com.yashmerino.ecommerce.kafka.events.PaymentResultEvent;
 import com.yashmerino.ecommerce.model.Payment;
 import com.yashmerino.ecommerce.model.stripe.StripePaymentResult;
 import com.yashmerino.ecommerce.repository.PaymentRepository;
 import com.yashmerino.ecommerce.service.PaymentService;
 import com.yashmerino.ecommerce.service.StripePaymentService;
 import com.yashmerino.ecommerce.utils.PaymentStatus;
-import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 /**
  * Payment service implementation.
  */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class PaymentServiceImpl implements PaymentService {
 
+    /**
+     * Maximum length of a stored error message.
+     */
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1024;
+
     /**
      * Stripe payment service.
      */
@@ -36,42 +57,258 @@ public class PaymentServiceImpl implements PaymentService {
      */
     private final PaymentResultProducer resultProducer;
 
+    /**
+     * Filter of the processed payment requests.
+     */
+    private final ProcessedPaymentFilter processedPaymentFilter;
+
+    /**
+     * Executor that runs the Stripe calls of a batch.
+     */
+    private final ExecutorService paymentExecutor;
+
+    /**
+     * Number of succeeded payments.
+     */
+    private final Counter succeededCounter;
+
+    /**
+     * Number of failed payments.
+     */
+    private final Counter failedCounter;
+
+    /**
+     * Number of payment requests that were already processed.
+     */
+    private final Counter duplicateCounter;
+
+    /**
+     * Time spent processing a batch.
+     */
+    private final Timer batchTimer;
+
+    /**
+     * Number of Stripe calls in flight.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param stripeService is the stripe payment service.
+     * @param paymentRepository is the payment repository.
+     * @param resultProducer is the payment result producer.
+     * @param processedPaymentFilter is the filter of the processed payment requests.
+     * @param paymentExecutor is the executor that runs the Stripe calls.
+     * @param meterRegistry is the registry of the payment metrics.
+     */
+    public PaymentServiceImpl(StripePaymentService stripeService, PaymentRepository paymentRepository,
+                              PaymentResultProducer resultProducer, ProcessedPaymentFilter processedPaymentFilter,
+                              ExecutorService paymentExecutor, MeterRegistry meterRegistry) {
+        this.stripeService = stripeService;
+        this.paymentRepository = paymentRepository;
+        this.resultProducer = resultProducer;
+        this.processedPaymentFilter = processedPaymentFilter;
+        this.paymentExecutor = paymentExecutor;
+
+        this.succeededCounter = Counter.builder("payment.processed")
+                .tag("status", "succeeded")
+                .description("Processed payments.")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.processed")
+                .tag("status", "failed")
+                .description("Processed payments.")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("payment.duplicates")
+                .description("Payment requests that were already processed.")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("payment.batch")
+                .description("Time spent processing a batch of payment requests.")
+                .register(meterRegistry);
+        Gauge.builder("payment.in.flight", inFlight, AtomicInteger::get)
+                .description("Stripe calls in flight.")
+                .register(meterRegistry);
+    }
+
     /**
      * Processes the payment.
      *
      * @param event is the event from Kafka topic.
      */
     @Override
-    @Transactional
     public void processPayment(PaymentRequestedEvent event) {
+        PaymentResultEvent result = charge(event);
+
+        if (result.status() == PaymentStatus.SUCCEEDED) {
+            resultProducer.sendSucceeded(result.orderId(), result.paymentId());
+        } else {
+            resultProducer.sendFailed(result.orderId(), result.paymentId(), result.errorMessage());
+        }
+    }
+
+    /**
+     * Processes a batch of payments in parallel, the payments of the same order are processed in order.
+     * The results of the batch are sent together once every payment is processed.
+     *
+     * @param events are the events from Kafka topic.
+     */
+    @Override
+    public void processPayments(List<PaymentRequestedEvent> events) {
+        batchTimer.record(() -> {
+            Map<Long, List<PaymentRequestedEvent>> eventsByOrder = events.stream()
+                    .collect(Collectors.groupingBy(PaymentRequestedEvent::orderId, LinkedHashMap::new, Collectors.toList()));
+
+            List<CompletableFuture<List<PaymentResultEvent>>> futures = eventsByOrder.values().stream()
+                    .map(orderEvents -> CompletableFuture.supplyAsync(() -> orderEvents.stream().map(this::charge).toList(), paymentExecutor))
+                    .toList();
+
+            List<PaymentResultEvent> results = new ArrayList<>(events.size());
+            RuntimeException error = null;
+
+            for (CompletableFuture<List<PaymentResultEvent>> future : futures) {
+                try {
+                    results.addAll(future.join());
+                } catch (CompletionException e) {
+                    error = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+
+            resultProducer.sendResults(results);
+
+            if (error != null) {
+                throw error;
+            }
+        });
+    }
+
+    /**
+     * Charges the payment and saves it. A request that was already processed isn't charged again,
+     * its stored result is returned instead. Only definitive outcomes are saved, a success or a decline,
+     * other errors are thrown so the request is redelivered.
+     *
+     * @param event is the event from Kafka topic.
+     * @return the payment result.
+     * @throws IllegalStateException if the charge's outcome is unknown.
+     */
+    private PaymentResultEvent charge(PaymentRequestedEvent event) {
+        Optional<Payment> processed = findProcessed(event.paymentId());
+
+        if (processed.isPresent()) {
+            duplicateCounter.increment();
+            log.info("Payment request with ID {} was already processed, its result is sent again.", event.paymentId());
+
+            return toResult(event, processed.get());
+        }
+
+        Payment payment;
+        inFlight.incrementAndGet();
+
         try {
             StripePaymentResult result =
                     stripeService.charge(
                             event.amount(),
                             "EUR",
-                            event.stripeToken()
+                            event.stripeToken(),
+                            getIdempotencyKey(event.paymentId())
                     );
 
-            Payment payment = new Payment(
+            payment = new Payment(
                     event.orderId(),
                     result.getPaymentIntentId(),
                     event.amount(),
-                    PaymentStatus.SUCCEEDED
+                    PaymentStatus.SUCCEEDED,
+                    event.paymentId(),
+                    null
             );
 
+            log.info("Payment processed successfully for order with ID {} (server payment ID: {})", event.orderId(), event.paymentId());
+        } catch (CardException | IllegalArgumentException e) {
+            // The card was declined or the request was rejected before reaching Stripe, a retry gets the same outcome
+            log.warn("Payment for order with ID {} was declined: {}", event.orderId(), e.getMessage());
+            payment = new Payment(event.orderId(), null, event.amount(), PaymentStatus.FAILED, event.paymentId(), truncate(e.getMessage()));
+        } catch (StripeException e) {
+            // The outcome is unknown, e.g. a timeout after Stripe charged or a concurrent charge with the same key.
+            // Nothing is stored, the redelivered request is charged again with the same idempotency key.
+            throw new IllegalStateException("Payment for order with ID " + event.orderId() + " couldn't be completed.", e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+
+        try {
             paymentRepository.save(payment);
+        } catch (DataIntegrityViolationException e) {
+            // Another consumer processed the same request concurrently, Stripe charged it only once
+            Optional<Payment> concurrent = event.paymentId() != null
+                    ? paymentRepository.findByRequestId(event.paymentId())
+                    : Optional.empty();
 
-            // Send back the original paymentId from server, not the new ID from payment-service DB
-            resultProducer.sendSucceeded(event.orderId(), event.paymentId());
-            log.info("Payment processed successfully for order with ID {} (server payment ID: {})", event.orderId(), event.paymentId());
-        } catch (Exception e) {
-            log.error("Payment for order with ID {} couldn't be made.", event.orderId(), e);
-            paymentRepository.save(
-                    new Payment(event.orderId(), null, event.amount(), PaymentStatus.FAILED)
-            );
+            if (concurrent.isEmpty()) {
+                throw e;
+            }
+
+            processedPaymentFilter.add(event.paymentId());
+            duplicateCounter.increment();
+            return toResult(event, concurrent.get());
+        }
+
+        if (event.paymentId() != null) {
+            processedPaymentFilter.add(event.paymentId());
+        }
+
+        if (payment.getStatus() == PaymentStatus.SUCCEEDED) {
+            succeededCounter.increment();
+        } else {
+            failedCounter.increment();
+        }
 
-            // Send back the original paymentId from server
-            resultProducer.sendFailed(event.orderId(), event.paymentId(), e.getMessage());
+        return toResult(event, payment);
+    }
+
+    /**
+     * Returns the payment made for a payment request, the database is only queried if the request may have been processed.
+     *
+     * @param requestId is the ID of the payment on the main server.
+     * @return Optional of payment.
+     */
+    private Optional<Payment> findProcessed(Long requestId) {
+        if (requestId == null || !processedPaymentFilter.mightContain(requestId)) {
+            return Optional.empty();
         }
+
+        return paymentRepository.findByRequestId(requestId);
+    }
+
+    /**
+     * Returns the Stripe idempotency key of a payment request.
+     *
+     * @param requestId is the ID of the payment on the main server.
+     * @return the idempotency key, <code>null</code> if the request has no ID.
+     */
+    static String getIdempotencyKey(Long requestId) {
+        return requestId != null ? "payment-" + requestId : null;
+    }
+
+    /**
+     * Truncates an error message to the size of the column.
+     *
+     * @param errorMessage is the error message.
+     * @return the truncated error message.
+     */
+    private static String truncate(String errorMessage) {
+        return errorMessage != null && errorMessage.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH)
+                : errorMessage;
+    }
+
+    /**
+     * Builds the result of a payment.
+     *
+     * @param event is the event from Kafka topic.
+     * @param payment is the payment.
+     * @return the payment result.
+     */
+    private static PaymentResultEvent toResult(PaymentRequestedEvent event, Payment payment) {
+        // Send back the original paymentId from server
+        return new PaymentResultEvent(event.orderId(), event.paymentId(), payment.getStatus(), payment.getErrorMessage());
     }
 }
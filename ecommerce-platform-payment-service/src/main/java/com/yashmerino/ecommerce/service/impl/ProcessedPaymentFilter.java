@@ -0,0 +1,119 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the processed payment requests. A request the filter has never seen is new for sure,
+ * so only the possible replays have to be looked up in the database.
+ */
+@Component
+@Slf4j
+public class ProcessedPaymentFilter {
+
+    /**
+     * Number of hash functions.
+     */
+    private static final int HASHES = 5;
+
+    /**
+     * Payment repository.
+     */
+    private final PaymentRepository paymentRepository;
+
+    /**
+     * Filter's bits.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * Number of filter's bits.
+     */
+    private final long size;
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param paymentRepository is the payment repository.
+     * @param size is the number of filter's bits, rounded up to a multiple of 64.
+     */
+    public ProcessedPaymentFilter(PaymentRepository paymentRepository,
+                                  @Value("${payment.idempotency.filter-bits:8388608}") long size) {
+        this.paymentRepository = paymentRepository;
+        this.bits = new AtomicLongArray((int) ((size + 63) / 64));
+        this.size = bits.length() * 64L;
+    }
+
+    /**
+     * Loads the processed requests before the listeners start consuming.
+     */
+    @PostConstruct
+    public void load() {
+        List<Long> requestIds = paymentRepository.findAllRequestIds();
+        requestIds.forEach(this::add);
+
+        log.info("Loaded {} processed payment requests.", requestIds.size());
+    }
+
+    /**
+     * Marks a request as processed.
+     *
+     * @param requestId is the ID of the payment on the main server.
+     */
+    public void add(long requestId) {
+        long hash = mix(requestId);
+        long step = mix(hash);
+
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * step, size);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            do {
+                current = bits.get(index);
+            } while ((current & mask) == 0 && !bits.compareAndSet(index, current, current | mask));
+        }
+    }
+
+    /**
+     * Checks whether a request may have been processed.
+     *
+     * @param requestId is the ID of the payment on the main server.
+     * @return <code>false</code> if the request was never processed.
+     */
+    public boolean mightContain(long requestId) {
+        long hash = mix(requestId);
+        long step = mix(hash);
+
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * step, size);
+
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Spreads the bits of a value (SplitMix64 finalizer).
+     *
+     * @param value is the value.
+     * @return the hash.
+     */
+    private static long mix(long value) {
+        long hash = value + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,167 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.StripeException;
+import com.yashmerino.ecommerce.model.stripe.StripePaymentResult;
+import com.yashmerino.ecommerce.service.StripePaymentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stripe stand-in for load tests. Charges take a log-normally distributed time and fail at a configured rate,
+ * a retried idempotency key gets the first outcome back like it does with Stripe. Only the outcomes of the most recently
+ * used keys are kept, so long load runs don't grow the heap.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "stripe.simulator.enabled", havingValue = "true")
+public class SimulatedStripePaymentService implements StripePaymentService {
+
+    /**
+     * Median latency of a charge in milliseconds.
+     */
+    private final double medianLatency;
+
+    /**
+     * Standard deviation of the latency's logarithm, 0 for a constant latency.
+     */
+    private final double latencySigma;
+
+    /**
+     * Probability of a charge being declined.
+     */
+    private final double failureRate;
+
+    /**
+     * Maximum number of kept outcomes.
+     */
+    private final int maxOutcomes;
+
+    /**
+     * Outcomes of the charges by idempotency key, in access order so the least recently used one is evicted first.
+     */
+    private final Map<String, Outcome> outcomes;
+
+    /**
+     * Constructor.
+     *
+     * @param medianLatency is the median latency of a charge in milliseconds.
+     * @param latencySigma is the standard deviation of the latency's logarithm.
+     * @param failureRate is the probability of a charge being declined.
+     * @param maxOutcomes is the maximum number of kept outcomes.
+     */
+    public SimulatedStripePaymentService(@Value("${stripe.simulator.latency.median-ms:300}") double medianLatency,
+                                         @Value("${stripe.simulator.latency.sigma:0.5}") double latencySigma,
+                                         @Value("${stripe.simulator.failure-rate:0.05}") double failureRate,
+                                         @Value("${stripe.simulator.max-outcomes:100000}") int maxOutcomes) {
+        this.medianLatency = medianLatency;
+        this.latencySigma = latencySigma;
+        this.failureRate = failureRate;
+        this.maxOutcomes = maxOutcomes;
+        this.outcomes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > SimulatedStripePaymentService.this.maxOutcomes;
+            }
+        };
+
+        log.warn("Stripe simulator is enabled, no real charges are made.");
+    }
+
+    /**
+     * Simulates a stripe payment.
+     *
+     * @param amount is the payment's amount.
+     * @param currency is the payment's currency.
+     * @param paymentMethodId is the stripe payment method ID.
+     * @param idempotencyKey is the key Stripe uses to recognize a retried charge.
+     *
+     * @return the simulated payment result.
+     *
+     * @throws StripeException if payment is declined.
+     */
+    @Override
+    public StripePaymentResult charge(BigDecimal amount, String currency, String paymentMethodId, String idempotencyKey) throws StripeException {
+        if (amount == null || currency == null || paymentMethodId == null) {
+            throw new IllegalArgumentException("Amount, currency and payment method are required.");
+        }
+
+        Random random = ThreadLocalRandom.current();
+        sleep(nextLatency(random));
+
+        Outcome outcome = idempotencyKey != null ? outcome(idempotencyKey, random) : nextOutcome(random);
+
+        if (outcome.declined()) {
+            throw new CardException("Your card was declined.", null, "card_declined", null, "generic_decline", null, 402, null);
+        }
+
+        return new StripePaymentResult(outcome.paymentIntentId(), "succeeded");
+    }
+
+    /**
+     * Returns the latency of the next charge.
+     *
+     * @param random is the random number generator.
+     * @return the latency in milliseconds.
+     */
+    long nextLatency(Random random) {
+        return Math.round(medianLatency * Math.exp(latencySigma * random.nextGaussian()));
+    }
+
+    /**
+     * Returns the outcome of a charge with an idempotency key, the first outcome if the key was already used.
+     *
+     * @param idempotencyKey is the idempotency key.
+     * @param random is the random number generator.
+     * @return the outcome.
+     */
+    private Outcome outcome(String idempotencyKey, Random random) {
+        synchronized (outcomes) {
+            return outcomes.computeIfAbsent(idempotencyKey, key -> nextOutcome(random));
+        }
+    }
+
+    /**
+     * Returns the outcome of a new charge.
+     *
+     * @param random is the random number generator.
+     * @return the outcome.
+     */
+    private Outcome nextOutcome(Random random) {
+        return new Outcome("pi_sim_" + UUID.randomUUID().toString().replace("-", ""), random.nextDouble() < failureRate);
+    }
+
+    /**
+     * Waits like a blocking Stripe call.
+     *
+     * @param latency is the latency in milliseconds.
+     * @throws ApiConnectionException if the thread is interrupted.
+     */
+    private static void sleep(long latency) throws ApiConnectionException {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("Simulated charge was interrupted.", e);
+        }
+    }
+
+    /**
+     * Outcome of a simulated charge.
+     *
+     * @param paymentIntentId is the payment intent ID.
+     * @param declined is whether the charge was declined.
+     */
+    private record Outcome(String paymentIntentId, boolean declined) {
+    }
+}
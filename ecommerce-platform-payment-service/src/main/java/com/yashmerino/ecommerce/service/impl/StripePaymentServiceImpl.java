@@ -2,9 +2,11 @@ package com.yashmerino.ecommerce.service.impl;
 
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 import com.yashmerino.ecommerce.model.stripe.StripePaymentResult;
 import com.yashmerino.ecommerce.service.StripePaymentService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -13,6 +15,7 @@ import java.math.BigDecimal;
  * Stripe payment service implementation.
  */
 @Service
+@ConditionalOnProperty(name = "stripe.simulator.enabled", havingValue = "false", matchIfMissing = true)
 public class StripePaymentServiceImpl implements StripePaymentService {
 
     /**
@@ -21,6 +24,7 @@ public class StripePaymentServiceImpl implements StripePaymentService {
      * @param amount is the payment's amount.
      * @param currency is the payment's currency.
      * @param paymentMethodId is the stripe payment method ID.
+     * @param idempotencyKey is the key Stripe uses to recognize a retried charge.
      *
      * @return the Stripe payment result.
      *
@@ -29,7 +33,8 @@ public class StripePaymentServiceImpl implements StripePaymentService {
     public StripePaymentResult charge(
             BigDecimal amount,
             String currency,
-            String paymentMethodId) throws StripeException {
+            String paymentMethodId,
+            String idempotencyKey) throws StripeException {
 
         PaymentIntentCreateParams params =
             PaymentIntentCreateParams.builder()
@@ -47,7 +52,11 @@ public class StripePaymentServiceImpl implements StripePaymentService {
                 )
                 .build();
 
-        PaymentIntent intent = PaymentIntent.create(params);
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .build();
+
+        PaymentIntent intent = PaymentIntent.create(params, options);
 
         return new StripePaymentResult(intent.getId(), intent.getStatus());
     }
@@ -0,0 +1,4 @@
+ALTER TABLE payments
+    ADD COLUMN request_id BIGINT,
+    ADD COLUMN error_message VARCHAR(1024),
+    ADD CONSTRAINT uk_payments_request_id UNIQUE (request_id);
@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -37,8 +38,8 @@ class PaymentEventListenerTest {
                 "tok_visa"
         );
 
-        listener.onPaymentRequested(event);
+        listener.onPaymentRequested(List.of(event));
 
-        verify(paymentService, times(1)).processPayment(event);
+        verify(paymentService, times(1)).processPayments(List.of(event));
     }
 }
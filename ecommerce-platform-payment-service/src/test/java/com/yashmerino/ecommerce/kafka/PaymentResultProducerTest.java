@@ -8,7 +8,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -63,4 +69,40 @@ class PaymentResultProducerTest {
         assertEquals(PaymentStatus.FAILED, capturedEvent.status());
         assertEquals(errorMessage, capturedEvent.errorMessage());
     }
+
+    @Test
+    void testSendResultsKeyedByOrderAndFlushed() {
+        PaymentResultEvent succeeded = new PaymentResultEvent(1L, 100L, PaymentStatus.SUCCEEDED, null);
+        PaymentResultEvent failed = new PaymentResultEvent(2L, 101L, PaymentStatus.FAILED, "Payment declined");
+
+        when(kafkaTemplate.send(eq("payment.result"), anyString(), any())).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        producer.sendResults(List.of(succeeded, failed));
+
+        verify(kafkaTemplate).send("payment.result", "1", succeeded);
+        verify(kafkaTemplate).send("payment.result", "2", failed);
+        verify(kafkaTemplate, times(1)).flush();
+    }
+
+    @Test
+    void testSendResultsThrowsWhenSendFails() {
+        PaymentResultEvent succeeded = new PaymentResultEvent(1L, 100L, PaymentStatus.SUCCEEDED, null);
+        PaymentResultEvent failed = new PaymentResultEvent(2L, 101L, PaymentStatus.FAILED, "Payment declined");
+
+        when(kafkaTemplate.send("payment.result", "1", succeeded)).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        when(kafkaTemplate.send("payment.result", "2", failed)).thenReturn(CompletableFuture.failedFuture(new TimeoutException("Expiring 1 record")));
+
+        List<PaymentResultEvent> results = List.of(succeeded, failed);
+        KafkaException exception = assertThrows(KafkaException.class, () -> producer.sendResults(results));
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        verify(kafkaTemplate).flush();
+    }
+
+    @Test
+    void testSendResultsEmptyBatch() {
+        producer.sendResults(List.of());
+
+        verifyNoInteractions(kafkaTemplate);
+    }
 }
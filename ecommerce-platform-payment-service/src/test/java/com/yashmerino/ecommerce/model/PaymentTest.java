@@ -61,12 +61,14 @@ class PaymentTest {
         BigDecimal amount = new BigDecimal("150.50");
         PaymentStatus status = PaymentStatus.SUCCEEDED;
 
-        Payment newPayment = new Payment(orderId, stripeId, amount, status);
+        Payment newPayment = new Payment(orderId, stripeId, amount, status, 100L, null);
 
         assertEquals(orderId, newPayment.getOrderId());
         assertEquals(stripeId, newPayment.getStripePaymentId());
         assertEquals(amount, newPayment.getAmount());
         assertEquals(status, newPayment.getStatus());
+        assertEquals(100L, newPayment.getRequestId());
+        assertNull(newPayment.getErrorMessage());
     }
 
     @Test
@@ -77,5 +79,7 @@ class PaymentTest {
         assertNull(emptyPayment.getStripePaymentId());
         assertNull(emptyPayment.getAmount());
         assertNull(emptyPayment.getStatus());
+        assertNull(emptyPayment.getRequestId());
+        assertNull(emptyPayment.getErrorMessage());
     }
 }
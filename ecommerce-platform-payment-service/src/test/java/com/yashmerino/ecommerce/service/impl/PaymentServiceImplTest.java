@@ -1,25 +1,38 @@
 package com.yashmerino.ecommerce.service.impl;
 
 import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.IdempotencyException;
 import com.stripe.exception.StripeException;
 import com.yashmerino.ecommerce.kafka.PaymentResultProducer;
 import com.yashmerino.ecommerce.kafka.events.PaymentRequestedEvent;
+import com.yashmerino.ecommerce.kafka.events.PaymentResultEvent;
 import com.yashmerino.ecommerce.model.Payment;
 import com.yashmerino.ecommerce.model.stripe.StripePaymentResult;
 import com.yashmerino.ecommerce.repository.PaymentRepository;
 import com.yashmerino.ecommerce.service.StripePaymentService;
 import com.yashmerino.ecommerce.utils.PaymentStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,11 +50,23 @@ class PaymentServiceImplTest {
     @Mock
     private PaymentResultProducer resultProducer;
 
+    private final ExecutorService paymentExecutor = Executors.newFixedThreadPool(4);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProcessedPaymentFilter processedPaymentFilter;
+
     private PaymentServiceImpl paymentService;
 
     @BeforeEach
     void setUp() {
-        paymentService = new PaymentServiceImpl(stripePaymentService, paymentRepository, resultProducer);
+        processedPaymentFilter = new ProcessedPaymentFilter(paymentRepository, 1024);
+        paymentService = new PaymentServiceImpl(stripePaymentService, paymentRepository, resultProducer, processedPaymentFilter, paymentExecutor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentExecutor.shutdownNow();
     }
 
     @Test
@@ -54,12 +79,12 @@ class PaymentServiceImplTest {
         PaymentRequestedEvent event = new PaymentRequestedEvent(paymentId, orderId, amount, stripeToken);
         StripePaymentResult stripeResult = new StripePaymentResult("pi_success_123", "succeeded");
 
-        when(stripePaymentService.charge(amount, "EUR", stripeToken))
+        when(stripePaymentService.charge(amount, "EUR", stripeToken, "payment-" + paymentId))
                 .thenReturn(stripeResult);
 
         paymentService.processPayment(event);
 
-        verify(stripePaymentService).charge(amount, "EUR", stripeToken);
+        verify(stripePaymentService).charge(amount, "EUR", stripeToken, "payment-" + paymentId);
         verify(paymentRepository).save(any(Payment.class));
         verify(resultProducer).sendSucceeded(orderId, paymentId);
         verify(resultProducer, never()).sendFailed(anyLong(), anyLong(), anyString());
@@ -84,13 +109,12 @@ class PaymentServiceImplTest {
 
         PaymentRequestedEvent event = new PaymentRequestedEvent(paymentId, orderId, amount, stripeToken);
 
-        StripeException stripeException = new ApiConnectionException(errorMessage);
-        when(stripePaymentService.charge(amount, "EUR", stripeToken))
-                .thenThrow(stripeException);
+        when(stripePaymentService.charge(amount, "EUR", stripeToken, "payment-" + paymentId))
+                .thenThrow(declined(errorMessage));
 
         paymentService.processPayment(event);
 
-        verify(stripePaymentService).charge(amount, "EUR", stripeToken);
+        verify(stripePaymentService).charge(amount, "EUR", stripeToken, "payment-" + paymentId);
         verify(paymentRepository).save(any(Payment.class));
         verify(resultProducer).sendFailed(orderId, paymentId, errorMessage);
         verify(resultProducer, never()).sendSucceeded(anyLong(), anyLong());
@@ -112,7 +136,7 @@ class PaymentServiceImplTest {
         PaymentRequestedEvent smallEvent = new PaymentRequestedEvent(102L, 3L, smallAmount, "pm_small");
         StripePaymentResult smallResult = new StripePaymentResult("pi_small", "succeeded");
 
-        when(stripePaymentService.charge(smallAmount, "EUR", "pm_small"))
+        when(stripePaymentService.charge(smallAmount, "EUR", "pm_small", "payment-102"))
                 .thenReturn(smallResult);
 
         paymentService.processPayment(smallEvent);
@@ -125,7 +149,7 @@ class PaymentServiceImplTest {
         PaymentRequestedEvent largeEvent = new PaymentRequestedEvent(103L, 4L, largeAmount, "pm_large");
         StripePaymentResult largeResult = new StripePaymentResult("pi_large", "succeeded");
 
-        when(stripePaymentService.charge(largeAmount, "EUR", "pm_large"))
+        when(stripePaymentService.charge(largeAmount, "EUR", "pm_large", "payment-103"))
                 .thenReturn(largeResult);
 
         paymentService.processPayment(largeEvent);
@@ -143,7 +167,7 @@ class PaymentServiceImplTest {
         PaymentRequestedEvent event = new PaymentRequestedEvent(paymentId, orderId, amount, stripeToken);
         StripePaymentResult result = new StripePaymentResult("pi_test_intent", "succeeded");
 
-        when(stripePaymentService.charge(amount, "EUR", stripeToken))
+        when(stripePaymentService.charge(amount, "EUR", stripeToken, "payment-" + paymentId))
                 .thenReturn(result);
 
         paymentService.processPayment(event);
@@ -168,16 +192,198 @@ class PaymentServiceImplTest {
         PaymentRequestedEvent event = new PaymentRequestedEvent(paymentId, orderId, amount, stripeToken);
 
         RuntimeException runtimeException = new RuntimeException("Unexpected error");
-        when(stripePaymentService.charge(amount, "EUR", stripeToken))
+        when(stripePaymentService.charge(amount, "EUR", stripeToken, "payment-" + paymentId))
                 .thenThrow(runtimeException);
 
+        assertThrows(RuntimeException.class, () -> paymentService.processPayment(event));
+
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(resultProducer);
+    }
+
+    @Test
+    void testProcessPaymentUnknownOutcomeIsNotStored() throws StripeException {
+        PaymentRequestedEvent event = new PaymentRequestedEvent(120L, 20L, new BigDecimal("40.00"), "pm_timeout");
+
+        when(stripePaymentService.charge(event.amount(), "EUR", "pm_timeout", "payment-120"))
+                .thenThrow(new ApiConnectionException("Read timed out"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> paymentService.processPayment(event));
+
+        assertInstanceOf(ApiConnectionException.class, exception.getCause());
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(resultProducer);
+        assertEquals(0.0, meterRegistry.get("payment.processed").tag("status", "failed").counter().count());
+    }
+
+    @Test
+    void testProcessPaymentIdempotencyConflictIsNotStored() throws StripeException {
+        PaymentRequestedEvent event = new PaymentRequestedEvent(121L, 21L, new BigDecimal("40.00"), "pm_racer");
+
+        when(stripePaymentService.charge(event.amount(), "EUR", "pm_racer", "payment-121"))
+                .thenThrow(new IdempotencyException("Keys for idempotent requests can only be used once at a time.", null, "idempotency_key_in_use", 409));
+
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayment(event));
+
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void testProcessPaymentsRedeliversBatchWhenOutcomeIsUnknown() throws StripeException {
+        PaymentRequestedEvent first = new PaymentRequestedEvent(122L, 22L, new BigDecimal("10.00"), "pm_first");
+        PaymentRequestedEvent second = new PaymentRequestedEvent(123L, 23L, new BigDecimal("20.00"), "pm_second");
+
+        when(stripePaymentService.charge(first.amount(), "EUR", "pm_first", "payment-122"))
+                .thenReturn(new StripePaymentResult("pi_first", "succeeded"));
+        when(stripePaymentService.charge(second.amount(), "EUR", "pm_second", "payment-123"))
+                .thenThrow(new ApiConnectionException("Read timed out"));
+
+        List<PaymentRequestedEvent> events = List.of(first, second);
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayments(events));
+
+        verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(resultProducer).sendResults(List.of(new PaymentResultEvent(22L, 122L, PaymentStatus.SUCCEEDED, null)));
+    }
+
+    @Test
+    void testProcessPaymentsSendsResultsOfTheBatch() throws StripeException {
+        PaymentRequestedEvent first = new PaymentRequestedEvent(106L, 7L, new BigDecimal("10.00"), "pm_first");
+        PaymentRequestedEvent second = new PaymentRequestedEvent(107L, 8L, new BigDecimal("20.00"), "pm_second");
+
+        when(stripePaymentService.charge(first.amount(), "EUR", "pm_first", "payment-106"))
+                .thenReturn(new StripePaymentResult("pi_first", "succeeded"));
+        when(stripePaymentService.charge(second.amount(), "EUR", "pm_second", "payment-107"))
+                .thenThrow(declined("Card declined"));
+
+        paymentService.processPayments(List.of(first, second));
+
+        verify(paymentRepository, times(2)).save(any(Payment.class));
+        verify(resultProducer).sendResults(List.of(
+                new PaymentResultEvent(7L, 106L, PaymentStatus.SUCCEEDED, null),
+                new PaymentResultEvent(8L, 107L, PaymentStatus.FAILED, "Card declined")
+        ));
+        verify(resultProducer, never()).sendSucceeded(anyLong(), anyLong());
+
+        assertEquals(1.0, meterRegistry.get("payment.processed").tag("status", "succeeded").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.processed").tag("status", "failed").counter().count());
+        assertEquals(1, meterRegistry.get("payment.batch").timer().count());
+        assertEquals(0.0, meterRegistry.get("payment.in.flight").gauge().value());
+    }
+
+    @Test
+    void testProcessPaymentsKeepsOrderOfTheSameOrder() throws StripeException {
+        PaymentRequestedEvent first = new PaymentRequestedEvent(108L, 9L, new BigDecimal("10.00"), "pm_first");
+        PaymentRequestedEvent second = new PaymentRequestedEvent(109L, 9L, new BigDecimal("20.00"), "pm_second");
+
+        when(stripePaymentService.charge(any(), eq("EUR"), any(), any()))
+                .thenReturn(new StripePaymentResult("pi_test", "succeeded"));
+
+        paymentService.processPayments(List.of(first, second));
+
+        InOrder inOrder = inOrder(stripePaymentService);
+        inOrder.verify(stripePaymentService).charge(first.amount(), "EUR", "pm_first", "payment-108");
+        inOrder.verify(stripePaymentService).charge(second.amount(), "EUR", "pm_second", "payment-109");
+
+        verify(resultProducer).sendResults(List.of(
+                new PaymentResultEvent(9L, 108L, PaymentStatus.SUCCEEDED, null),
+                new PaymentResultEvent(9L, 109L, PaymentStatus.SUCCEEDED, null)
+        ));
+    }
+
+    @Test
+    void testProcessPaymentsSendsCompletedResultsBeforeFailing() throws StripeException {
+        PaymentRequestedEvent first = new PaymentRequestedEvent(110L, 10L, new BigDecimal("10.00"), "pm_first");
+        PaymentRequestedEvent second = new PaymentRequestedEvent(111L, 11L, new BigDecimal("20.00"), "pm_second");
+
+        when(stripePaymentService.charge(first.amount(), "EUR", "pm_first", "payment-110"))
+                .thenReturn(new StripePaymentResult("pi_first", "succeeded"));
+        when(stripePaymentService.charge(second.amount(), "EUR", "pm_second", "payment-111"))
+                .thenThrow(declined("Card declined"));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+
+            if (payment.getStatus() == PaymentStatus.FAILED) {
+                throw new IllegalStateException("Database is down");
+            }
+
+            return payment;
+        });
+
+        List<PaymentRequestedEvent> events = List.of(first, second);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> paymentService.processPayments(events));
+
+        assertEquals("Database is down", exception.getMessage());
+        verify(resultProducer).sendResults(List.of(new PaymentResultEvent(10L, 110L, PaymentStatus.SUCCEEDED, null)));
+    }
+
+    @Test
+    void testProcessPaymentReplayIsNotChargedAgain() throws StripeException {
+        PaymentRequestedEvent event = new PaymentRequestedEvent(112L, 12L, new BigDecimal("30.00"), "pm_replay");
+
+        when(stripePaymentService.charge(event.amount(), "EUR", "pm_replay", "payment-112"))
+                .thenReturn(new StripePaymentResult("pi_replay", "succeeded"));
+
         paymentService.processPayment(event);
 
         ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
         verify(paymentRepository).save(paymentCaptor.capture());
+        assertEquals(112L, paymentCaptor.getValue().getRequestId());
+
+        when(paymentRepository.findByRequestId(112L)).thenReturn(Optional.of(paymentCaptor.getValue()));
+
+        paymentService.processPayment(event);
+
+        verify(stripePaymentService, times(1)).charge(any(), any(), any(), any());
+        verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(resultProducer, times(2)).sendSucceeded(12L, 112L);
+        assertEquals(1.0, meterRegistry.get("payment.duplicates").counter().count());
+    }
+
+    @Test
+    void testProcessPaymentReplaySendsStoredFailure() {
+        Payment failed = new Payment(13L, null, new BigDecimal("40.00"), PaymentStatus.FAILED, 113L, "Card declined");
+        processedPaymentFilter.add(113L);
+
+        when(paymentRepository.findByRequestId(113L)).thenReturn(Optional.of(failed));
+
+        paymentService.processPayment(new PaymentRequestedEvent(113L, 13L, new BigDecimal("40.00"), "pm_declined"));
+
+        verifyNoInteractions(stripePaymentService);
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(resultProducer).sendFailed(13L, 113L, "Card declined");
+    }
+
+    @Test
+    void testProcessPaymentNewRequestSkipsLookup() throws StripeException {
+        PaymentRequestedEvent event = new PaymentRequestedEvent(114L, 14L, new BigDecimal("50.00"), "pm_new");
+
+        when(stripePaymentService.charge(event.amount(), "EUR", "pm_new", "payment-114"))
+                .thenReturn(new StripePaymentResult("pi_new", "succeeded"));
+
+        paymentService.processPayment(event);
+
+        verify(paymentRepository, never()).findByRequestId(anyLong());
+        assertTrue(processedPaymentFilter.mightContain(114L));
+    }
+
+    @Test
+    void testProcessPaymentConcurrentDuplicateSendsStoredResult() throws StripeException {
+        PaymentRequestedEvent event = new PaymentRequestedEvent(115L, 15L, new BigDecimal("60.00"), "pm_concurrent");
+        Payment stored = new Payment(15L, "pi_concurrent", new BigDecimal("60.00"), PaymentStatus.SUCCEEDED, 115L, null);
+
+        when(stripePaymentService.charge(event.amount(), "EUR", "pm_concurrent", "payment-115"))
+                .thenReturn(new StripePaymentResult("pi_concurrent", "succeeded"));
+        when(paymentRepository.save(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_request_id"));
+        when(paymentRepository.findByRequestId(115L)).thenReturn(Optional.of(stored));
+
+        paymentService.processPayment(event);
+
+        verify(resultProducer).sendSucceeded(15L, 115L);
+        assertEquals(1.0, meterRegistry.get("payment.duplicates").counter().count());
+        assertEquals(0.0, meterRegistry.get("payment.processed").tag("status", "succeeded").counter().count());
+    }
 
-        Payment failedPayment = paymentCaptor.getValue();
-        assertEquals(PaymentStatus.FAILED, failedPayment.getStatus());
-        assertEquals(orderId, failedPayment.getOrderId());
+    private static CardException declined(String message) {
+        return new CardException(message, null, null, null, null, null, 402, null);
     }
 }
@@ -0,0 +1,54 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.yashmerino.ecommerce.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProcessedPaymentFilter.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProcessedPaymentFilterTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void testAddedRequestsAreAlwaysFound() {
+        ProcessedPaymentFilter filter = new ProcessedPaymentFilter(paymentRepository, 1 << 16);
+
+        LongStream.rangeClosed(1, 1000).forEach(filter::add);
+
+        assertTrue(LongStream.rangeClosed(1, 1000).allMatch(filter::mightContain));
+    }
+
+    @Test
+    void testFalsePositivesAreRare() {
+        ProcessedPaymentFilter filter = new ProcessedPaymentFilter(paymentRepository, 1 << 16);
+
+        LongStream.rangeClosed(1, 1000).forEach(filter::add);
+
+        long falsePositives = LongStream.rangeClosed(1_000_001, 1_010_000).filter(filter::mightContain).count();
+        assertTrue(falsePositives < 100, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void testLoadAddsProcessedRequests() {
+        when(paymentRepository.findAllRequestIds()).thenReturn(List.of(7L, 42L));
+
+        ProcessedPaymentFilter filter = new ProcessedPaymentFilter(paymentRepository, 1024);
+        filter.load();
+
+        assertTrue(filter.mightContain(7L));
+        assertTrue(filter.mightContain(42L));
+        assertFalse(filter.mightContain(8L));
+    }
+}
@@ -0,0 +1,94 @@
+package com.yashmerino.ecommerce.service.impl;
+
+import com.stripe.exception.CardException;
+import com.stripe.exception.StripeException;
+import com.yashmerino.ecommerce.model.stripe.StripePaymentResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SimulatedStripePaymentService.
+ */
+class SimulatedStripePaymentServiceTest {
+
+    @Test
+    void testChargeSucceeds() throws StripeException {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(1, 0, 0, 10);
+
+        StripePaymentResult result = service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1");
+
+        assertTrue(result.getPaymentIntentId().startsWith("pi_sim_"));
+        assertEquals("succeeded", result.getStatus());
+    }
+
+    @Test
+    void testChargeDeclined() {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(1, 0, 1, 10);
+
+        CardException exception = assertThrows(CardException.class,
+                () -> service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1"));
+
+        assertEquals("card_declined", exception.getCode());
+    }
+
+    @Test
+    void testRetriedIdempotencyKeyReturnsTheSameIntent() throws StripeException {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(1, 0, 0, 10);
+
+        StripePaymentResult first = service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1");
+        StripePaymentResult retry = service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1");
+        StripePaymentResult other = service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-2");
+
+        assertEquals(first.getPaymentIntentId(), retry.getPaymentIntentId());
+        assertNotEquals(first.getPaymentIntentId(), other.getPaymentIntentId());
+    }
+
+    @Test
+    void testLeastRecentlyUsedOutcomeIsEvicted() throws StripeException {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(0, 0, 0, 2);
+
+        StripePaymentResult first = service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1");
+        StripePaymentResult second = service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-2");
+        service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1");
+        service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-3");
+
+        assertEquals(first.getPaymentIntentId(), service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-1").getPaymentIntentId());
+        assertNotEquals(second.getPaymentIntentId(), service.charge(BigDecimal.TEN, "EUR", "pm_card_visa", "payment-2").getPaymentIntentId());
+    }
+
+    @Test
+    void testLatencyIsLogNormalAroundTheMedian() {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(100, 0.5, 0, 10);
+        Random random = new Random(42);
+
+        long[] latencies = new long[10_000];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = service.nextLatency(random);
+        }
+        Arrays.sort(latencies);
+
+        assertTrue(latencies[0] > 0);
+        assertEquals(100, latencies[latencies.length / 2], 5);
+        // p99 of a log-normal distribution is median * e^(2.326 * sigma)
+        assertEquals(100 * Math.exp(2.326 * 0.5), latencies[latencies.length * 99 / 100], 15);
+    }
+
+    @Test
+    void testConstantLatency() {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(250, 0, 0, 10);
+
+        assertEquals(250, service.nextLatency(new Random()));
+    }
+
+    @Test
+    void testChargeWithInvalidParameters() {
+        SimulatedStripePaymentService service = new SimulatedStripePaymentService(1, 0, 0, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> service.charge(null, "EUR", "pm_card_visa", "payment-1"));
+    }
+}
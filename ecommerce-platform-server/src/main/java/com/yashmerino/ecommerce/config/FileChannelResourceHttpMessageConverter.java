@@ -0,0 +1,91 @@
+package com.yashmerino.ecommerce.config;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Resource converter that writes files with {@link FileChannel#transferTo} instead of copying them through a heap buffer.
+ */
+public class FileChannelResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    /**
+     * Writes the resource's content, files are transferred from their channel.
+     *
+     * @param resource      is the resource.
+     * @param outputMessage is the output message.
+     * @throws IOException if the content couldn't be written.
+     */
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+        if (!resource.isFile()) {
+            super.writeContent(resource, outputMessage);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            transfer(channel, 0, channel.size(), outputMessage.getBody());
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            // Same as the parent converter: the file disappeared after the headers were written.
+        }
+    }
+
+    /**
+     * Transfers a range of the file to the output stream.
+     *
+     * @param channel  is the file's channel.
+     * @param position is the range's first byte.
+     * @param count    is the range's length.
+     * @param out      is the output stream, it's flushed but not closed.
+     * @throws IOException if the range couldn't be transferred.
+     */
+    static void transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long end = position + count;
+
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+
+            if (transferred <= 0) {
+                break;
+            }
+
+            position += transferred;
+        }
+
+        out.flush();
+    }
+}
@@ -0,0 +1,71 @@
+package com.yashmerino.ecommerce.config;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Resource region converter that answers single range requests for files with {@link FileChannel#transferTo}.
+ */
+public class FileChannelResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+    /**
+     * Writes the region's headers and content, regions of files are transferred from their channel.
+     *
+     * @param region        is the resource region.
+     * @param outputMessage is the output message.
+     * @throws IOException if the region couldn't be written.
+     */
+    @Override
+    protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+        Resource resource = region.getResource();
+
+        if (!resource.isFile()) {
+            super.writeResourceRegion(region, outputMessage);
+            return;
+        }
+
+        long start = region.getPosition();
+        long resourceLength = resource.contentLength();
+        long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+        long rangeLength = end - start + 1;
+
+        HttpHeaders responseHeaders = outputMessage.getHeaders();
+        responseHeaders.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + resourceLength);
+        responseHeaders.setContentLength(rangeLength);
+
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            FileChannelResourceHttpMessageConverter.transfer(channel, start, rangeLength, outputMessage.getBody());
+        }
+    }
+}
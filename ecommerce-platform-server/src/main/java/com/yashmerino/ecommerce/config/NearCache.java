@@ -0,0 +1,380 @@
+package com.yashmerino.ecommerce.config;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that keeps a bounded local copy of the entries of a Redis cache, so repeated reads don't pay the network hop and the deserialization.
+ * Evictions are applied to Redis, then published to the other nodes, which drop their local copies.
+ * Local entries live for a short time, which bounds the staleness if an invalidation is lost.
+ */
+public class NearCache implements Cache {
+
+    /**
+     * Local level of the metrics.
+     */
+    static final String LOCAL_LEVEL = "local";
+
+    /**
+     * Redis level of the metrics.
+     */
+    static final String REDIS_LEVEL = "redis";
+
+    /**
+     * Redis cache.
+     */
+    private final Cache redisCache;
+
+    /**
+     * Cache manager, publishes the evictions.
+     */
+    private final NearCacheManager cacheManager;
+
+    /**
+     * Time after which a local entry is read from Redis again, in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Maximum number of local entries.
+     */
+    private final int maxSize;
+
+    /**
+     * Local entries by key, in access order so the least recently used one is evicted first.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Number of invalidations, a value read from Redis while an invalidation happened isn't kept locally.
+     */
+    private long invalidations;
+
+    /**
+     * Reads served from the local entries.
+     */
+    private final Counter localHits;
+
+    /**
+     * Reads that went to Redis.
+     */
+    private final Counter localMisses;
+
+    /**
+     * Reads served from Redis.
+     */
+    private final Counter redisHits;
+
+    /**
+     * Reads that weren't cached at all.
+     */
+    private final Counter redisMisses;
+
+    /**
+     * Constructor.
+     *
+     * @param redisCache    is the Redis cache.
+     * @param cacheManager  is the cache manager that publishes the evictions.
+     * @param ttl           is the time after which a local entry is read from Redis again, in milliseconds.
+     * @param maxSize       is the maximum number of local entries.
+     * @param meterRegistry is the registry of the cache's metrics.
+     */
+    public NearCache(Cache redisCache, NearCacheManager cacheManager, long ttl, int maxSize, MeterRegistry meterRegistry) {
+        this.redisCache = redisCache;
+        this.cacheManager = cacheManager;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > NearCache.this.maxSize;
+            }
+        };
+
+        this.localHits = counter(meterRegistry, LOCAL_LEVEL, "hit");
+        this.localMisses = counter(meterRegistry, LOCAL_LEVEL, "miss");
+        this.redisHits = counter(meterRegistry, REDIS_LEVEL, "hit");
+        this.redisMisses = counter(meterRegistry, REDIS_LEVEL, "miss");
+
+        hitRatio(meterRegistry, LOCAL_LEVEL, localHits, localMisses);
+        hitRatio(meterRegistry, REDIS_LEVEL, redisHits, redisMisses);
+    }
+
+    /**
+     * Returns the cache's name.
+     *
+     * @return the name.
+     */
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    /**
+     * Returns the underlying Redis cache.
+     *
+     * @return the Redis cache's native cache.
+     */
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    /**
+     * Returns the local entry or reads it from Redis and keeps it locally.
+     *
+     * @param key is the entry's key.
+     * @return the value or <code>null</code> if it isn't cached.
+     */
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        long invalidationsBeforeRead;
+
+        synchronized (entries) {
+            Entry entry = entries.get(localKey);
+
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                localHits.increment();
+                return entry.value();
+            }
+
+            invalidationsBeforeRead = invalidations;
+        }
+
+        localMisses.increment();
+        ValueWrapper value = redisCache.get(key);
+
+        if (value == null) {
+            redisMisses.increment();
+            return null;
+        }
+
+        redisHits.increment();
+
+        synchronized (entries) {
+            if (invalidations == invalidationsBeforeRead) {
+                putLocal(localKey, value);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the cached value of the required type.
+     *
+     * @param key  is the entry's key.
+     * @param type is the value's type.
+     * @return the value or <code>null</code> if it isn't cached.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+
+        return (T) value;
+    }
+
+    /**
+     * Returns the cached value or loads it through Redis.
+     *
+     * @param key         is the entry's key.
+     * @param valueLoader loads the value on a miss.
+     * @return the value.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        T value = redisCache.get(key, valueLoader);
+
+        synchronized (entries) {
+            putLocal(localKey(key), new SimpleValueWrapper(value));
+        }
+
+        return value;
+    }
+
+    /**
+     * Caches a value in Redis and locally. The other nodes aren't notified, they read the new value once their copy expires.
+     *
+     * @param key   is the entry's key.
+     * @param value is the value.
+     */
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+
+        synchronized (entries) {
+            putLocal(localKey(key), new SimpleValueWrapper(value));
+        }
+    }
+
+    /**
+     * Caches a value in Redis if there isn't one yet, the local entry is read from Redis again.
+     *
+     * @param key   is the entry's key.
+     * @param value is the value.
+     * @return the value that was already cached or <code>null</code>.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        evictLocal(localKey(key));
+
+        return existing;
+    }
+
+    /**
+     * Evicts an entry from Redis and from the local caches of all the nodes.
+     *
+     * @param key is the entry's key.
+     */
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        evictLocal(localKey(key));
+        cacheManager.publishEviction(getName(), localKey(key));
+    }
+
+    /**
+     * Evicts all the entries from Redis and from the local caches of all the nodes.
+     */
+    @Override
+    public void clear() {
+        redisCache.clear();
+        clearLocal();
+        cacheManager.publishEviction(getName(), null);
+    }
+
+    /**
+     * Evicts a local entry.
+     *
+     * @param localKey is the entry's local key.
+     */
+    void evictLocal(String localKey) {
+        synchronized (entries) {
+            entries.remove(localKey);
+            invalidations++;
+        }
+    }
+
+    /**
+     * Evicts all the local entries.
+     */
+    void clearLocal() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations++;
+        }
+    }
+
+    /**
+     * Returns the local key of a cache key, the same string Redis keys are built from.
+     *
+     * @param key is the cache key.
+     * @return the local key.
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Keeps a value locally, the caller holds the entries' lock.
+     *
+     * @param localKey is the entry's local key.
+     * @param value    is the value.
+     */
+    private void putLocal(String localKey, ValueWrapper value) {
+        if (maxSize > 0 && ttl > 0) {
+            entries.put(localKey, new Entry(value, System.currentTimeMillis() + ttl));
+        }
+    }
+
+    /**
+     * Registers the counter of the reads of a level with a result.
+     *
+     * @param meterRegistry is the meter registry.
+     * @param level         is the cache level.
+     * @param result        is the read's result.
+     * @return the counter.
+     */
+    private Counter counter(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.near.gets")
+                .description("Reads of a cache level.")
+                .tag("cache", getName())
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the hit ratio of a level.
+     *
+     * @param meterRegistry is the meter registry.
+     * @param level         is the cache level.
+     * @param hits          is the counter of the level's hits.
+     * @param misses        is the counter of the level's misses.
+     */
+    private void hitRatio(MeterRegistry meterRegistry, String level, Counter hits, Counter misses) {
+        Gauge.builder("cache.near.hit.ratio", () -> {
+                    double reads = hits.count() + misses.count();
+                    return reads > 0 ? hits.count() / reads : 0.0;
+                })
+                .description("Share of the reads of a cache level that were hits.")
+                .tag("cache", getName())
+                .tag("level", level)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Local entry.
+     *
+     * @param value     is the cached value.
+     * @param expiresAt is the time after which the value is read from Redis again.
+     */
+    private record Entry(ValueWrapper value, long expiresAt) {
+    }
+}
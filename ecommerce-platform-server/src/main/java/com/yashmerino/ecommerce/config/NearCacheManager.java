@@ -0,0 +1,177 @@
+package com.yashmerino.ecommerce.config;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager that puts a local cache in front of the configured Redis caches, the other caches are Redis only.
+ * Evictions are published on a Redis channel, each node drops its local copies of the evicted entries.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager, MessageListener {
+
+    /**
+     * Channel of the evictions.
+     */
+    public static final String EVICTIONS_CHANNEL = "cache:evictions";
+
+    /**
+     * Redis cache manager.
+     */
+    private final CacheManager redisCacheManager;
+
+    /**
+     * Names of the caches with a local copy.
+     */
+    private final Set<String> nearCacheNames;
+
+    /**
+     * Caches with a local copy by name.
+     */
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+    /**
+     * Redis template, publishes the evictions.
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Registry of the caches' metrics.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Id of this node, so it ignores its own evictions.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Constructor.
+     *
+     * @param redisCacheManager     is the Redis cache manager.
+     * @param redisTemplate         is the Redis template.
+     * @param applicationProperties is the application properties.
+     * @param meterRegistry         is the registry of the caches' metrics.
+     */
+    public NearCacheManager(CacheManager redisCacheManager, StringRedisTemplate redisTemplate,
+                            ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.nearCacheNames = Set.copyOf(applicationProperties.nearCacheNames);
+        this.redisTemplate = redisTemplate;
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns a cache, with a local copy if it's one of the configured caches.
+     *
+     * @param name is the cache's name.
+     * @return the cache or <code>null</code> if there's no such cache.
+     */
+    @Override
+    public Cache getCache(String name) {
+        if (!nearCacheNames.contains(name)) {
+            return redisCacheManager.getCache(name);
+        }
+
+        return nearCaches.computeIfAbsent(name, cacheName -> {
+            Cache redisCache = redisCacheManager.getCache(cacheName);
+
+            return redisCache != null ? new NearCache(redisCache, this, applicationProperties.nearCacheTtl,
+                    applicationProperties.nearCacheMaxSize, meterRegistry) : null;
+        });
+    }
+
+    /**
+     * Returns the caches' names.
+     *
+     * @return the names.
+     */
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * Publishes an eviction to the other nodes.
+     *
+     * @param cacheName is the cache's name.
+     * @param localKey  is the evicted entry's local key, <code>null</code> if all the entries were evicted.
+     */
+    void publishEviction(String cacheName, String localKey) {
+        String message = nodeId + " " + cacheName + (localKey != null ? " " + localKey : "");
+
+        redisTemplate.convertAndSend(EVICTIONS_CHANNEL, message);
+    }
+
+    /**
+     * Drops the local copies of the entries evicted by another node.
+     *
+     * @param message is the eviction, the node's id, the cache's name and the key if a single entry was evicted.
+     * @param pattern is the channel's pattern.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] eviction = new String(message.getBody(), StandardCharsets.UTF_8).split(" ", 3);
+
+        if (eviction.length < 2 || eviction[0].equals(nodeId)) {
+            return;
+        }
+
+        NearCache cache = nearCaches.get(eviction[1]);
+
+        if (cache == null) {
+            return;
+        }
+
+        if (eviction.length == 3) {
+            cache.evictLocal(eviction[2]);
+        } else {
+            cache.clearLocal();
+        }
+
+        log.debug("Evicted the local copy of {} from {}.", eviction.length == 3 ? eviction[2] : "all the entries", eviction[1]);
+    }
+}
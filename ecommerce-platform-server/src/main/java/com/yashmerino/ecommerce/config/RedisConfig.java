@@ -4,10 +4,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
@@ -48,4 +56,45 @@ public class RedisConfig {
                         )
                 );
     }
+
+    /**
+     * Cache manager with a local copy of the configured caches in front of Redis.
+     *
+     * @param connectionFactory     is the Redis connection factory.
+     * @param cacheConfiguration    is the Redis cache configuration.
+     * @param redisTemplate         is the Redis template that publishes the evictions.
+     * @param applicationProperties is the application properties.
+     * @param meterRegistry         is the registry of the caches' metrics.
+     * @return NearCacheManager
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisCacheConfiguration cacheConfiguration,
+                                         StringRedisTemplate redisTemplate, ApplicationProperties applicationProperties,
+                                         MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new NearCacheManager(redisCacheManager, redisTemplate, applicationProperties, meterRegistry);
+    }
+
+    /**
+     * Listens to the evictions of the other nodes.
+     *
+     * @param connectionFactory is the Redis connection factory.
+     * @param cacheManager      is the cache manager that drops the local copies.
+     * @return RedisMessageListenerContainer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public RedisMessageListenerContainer cacheEvictionsListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        NearCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(NearCacheManager.EVICTIONS_CHANNEL));
+
+        return container;
+    }
 }
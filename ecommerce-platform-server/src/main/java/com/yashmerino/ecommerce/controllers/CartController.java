@@ -23,6 +23,7 @@ package com.yashmerino.ecommerce.controllers;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.yashmerino.ecommerce.model.dto.CartItemsBatchDTO;
 import com.yashmerino.ecommerce.model.dto.SuccessDTO;
 import com.yashmerino.ecommerce.services.interfaces.CartService;
 import com.yashmerino.ecommerce.swagger.SwaggerConfig;
@@ -34,6 +35,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -84,4 +86,35 @@ public class CartController {
 
         return new ResponseEntity<>(successDTO, HttpStatus.OK);
     }
+
+    /**
+     * Adds products to the cart or updates their quantities if they're already there.
+     *
+     * @param cartItemsBatchDTO are the products and their quantities.
+     * @return <code>ResponseEntity</code>
+     */
+    @Operation(summary = "Adds products to the cart or updates their quantities if they're already there.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = SwaggerHttpStatus.OK, description = SwaggerMessages.ITEMS_SUCCESSFULLY_UPSERTED,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.BAD_REQUEST, description = SwaggerMessages.BAD_REQUEST,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.FORBIDDEN, description = SwaggerMessages.FORBIDDEN,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.UNAUTHORIZED, description = SwaggerMessages.UNAUTHORIZED,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.NOT_FOUND, description = SwaggerMessages.PRODUCT_DOES_NOT_EXIST,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    @PostMapping("/items:batch")
+    public ResponseEntity<SuccessDTO> upsertItems(@Valid @RequestBody CartItemsBatchDTO cartItemsBatchDTO) {
+        cartService.upsertItems(cartItemsBatchDTO.getItems());
+
+        SuccessDTO successDTO = new SuccessDTO();
+        successDTO.setStatus(200);
+        successDTO.setMessage("cart_items_updated_successfully");
+
+        return new ResponseEntity<>(successDTO, HttpStatus.OK);
+    }
 }
@@ -31,6 +31,7 @@ import com.yashmerino.ecommerce.services.interfaces.CartItemService;
 import com.yashmerino.ecommerce.swagger.SwaggerConfig;
 import com.yashmerino.ecommerce.swagger.SwaggerHttpStatus;
 import com.yashmerino.ecommerce.swagger.SwaggerMessages;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
 import com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -40,6 +41,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -162,9 +164,13 @@ public class CartItemController {
     }
 
     /**
-     * Returns all the cart items.
+     * Returns all the cart items. Cursor pages ordered by id are returned when either the cursor or the limit is given.
      *
      * @param username is the user's username.
+     * @param pageable is the page object.
+     * @param after is the cursor returned with the previous page, optional.
+     * @param limit is the cursor page size, defaults to the page size.
+     * @param count whether to count the items of a cursor page.
      * @return <code>List of CartItems</code>
      */
     @Operation(summary = "Returns all the items from the cart.")
@@ -180,7 +186,17 @@ public class CartItemController {
             @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
                     content = @Content)})
     @GetMapping
-    public PaginatedDTO<CartItemDTO> getCartItems(@RequestParam String username, Pageable pageable) {
+    public PaginatedDTO<CartItemDTO> getCartItems(@RequestParam String username, Pageable pageable,
+                                                  @RequestParam(required = false) String after,
+                                                  @Min(1) @Max(KeysetCursor.MAX_LIMIT) @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(defaultValue = "false") boolean count) {
+        if (after != null || limit != null) {
+            PaginatedDTO<CartItemDTO> paginated = cartItemService.getCartItemsAfter(username, after, limit != null ? limit : pageable.getPageSize(), count);
+            paginated.setTotalPrice(cartItemService.getTotalCartPrice(username));
+
+            return paginated;
+        }
+
         Page<CartItem> page = cartItemService.getCartItems(username, pageable);
 
         List<CartItemDTO> items = page.getContent().stream()
@@ -8,12 +8,15 @@ import com.yashmerino.ecommerce.services.interfaces.OrderService;
 import com.yashmerino.ecommerce.swagger.SwaggerConfig;
 import com.yashmerino.ecommerce.swagger.SwaggerHttpStatus;
 import com.yashmerino.ecommerce.swagger.SwaggerMessages;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -67,17 +70,54 @@ public class OrderController {
         return new ResponseEntity<>(successWithIdDTO, HttpStatus.OK);
     }
 
+    /**
+     * Places an order for the items of the current user's cart and empties the cart.
+     *
+     * @return SuccessDTO.
+     */
+    @Operation(summary = "Places an order for the items of the current user's cart.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = SwaggerHttpStatus.OK, description = SwaggerMessages.ORDER_PLACED,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.BAD_REQUEST, description = SwaggerMessages.BAD_REQUEST,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.FORBIDDEN, description = SwaggerMessages.FORBIDDEN,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.UNAUTHORIZED, description = SwaggerMessages.UNAUTHORIZED,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    @PostMapping("/checkout")
+    public ResponseEntity<SuccessWithIdDTO> checkout() {
+        Long id = this.orderService.checkout();
+
+        SuccessWithIdDTO successWithIdDTO = new SuccessWithIdDTO();
+        successWithIdDTO.setStatus(200);
+        successWithIdDTO.setMessage("order_placed_successfully");
+        successWithIdDTO.setId(id);
+
+        return new ResponseEntity<>(successWithIdDTO, HttpStatus.OK);
+    }
+
     /**
      * Gets all orders for the current user with their payment information.
      *
-     * @param page page number (default 0)
-     * @param size page size (default 10)
+     * Pages can be requested by number or, to avoid skipping rows on deep pages, after the cursor returned with the previous page.
+     * Cursor pages are used when either the cursor or the limit is given.
+     *
+     * @param page  page number (default 0)
+     * @param size  page size (default 10)
+     * @param after cursor returned with the previous page, optional
+     * @param limit cursor page size, defaults to the page size
+     * @param count whether to count the orders of a cursor page
      * @return Paginated DTO of orders with payments.
      */
     @Operation(summary = "Gets all orders for the current user with their payment information.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = SwaggerHttpStatus.OK, description = SwaggerMessages.ORDERS_RETURNED,
                     content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.BAD_REQUEST, description = SwaggerMessages.BAD_REQUEST,
+                    content = @Content),
             @ApiResponse(responseCode = SwaggerHttpStatus.FORBIDDEN, description = SwaggerMessages.FORBIDDEN,
                     content = @Content),
             @ApiResponse(responseCode = SwaggerHttpStatus.UNAUTHORIZED, description = SwaggerMessages.UNAUTHORIZED,
@@ -87,8 +127,13 @@ public class OrderController {
     @GetMapping("/my-orders")
     public ResponseEntity<PaginatedDTO<OrderWithPaymentDTO>> getUserOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        PaginatedDTO<OrderWithPaymentDTO> orders = this.orderService.getUserOrders(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @Min(1) @Max(KeysetCursor.MAX_LIMIT) @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean count) {
+        PaginatedDTO<OrderWithPaymentDTO> orders = after != null || limit != null
+                ? this.orderService.getUserOrdersAfter(after, limit != null ? limit : size, count)
+                : this.orderService.getUserOrders(page, size);
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 }
@@ -23,7 +23,6 @@ package com.yashmerino.ecommerce.controllers;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
-import com.yashmerino.ecommerce.model.Product;
 import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
 import com.yashmerino.ecommerce.model.dto.ProductDTO;
 import com.yashmerino.ecommerce.model.dto.SuccessDTO;
@@ -33,7 +32,8 @@ import com.yashmerino.ecommerce.services.interfaces.ProductService;
 import com.yashmerino.ecommerce.swagger.SwaggerConfig;
 import com.yashmerino.ecommerce.swagger.SwaggerHttpStatus;
 import com.yashmerino.ecommerce.swagger.SwaggerMessages;
-import com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
+import com.yashmerino.ecommerce.utils.PhotoResponses;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -43,7 +43,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.websocket.server.PathParam;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -53,10 +56,6 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
-
-import static com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter.convertToProductDTO;
-
 /**
  * Product's controller.
  */
@@ -165,16 +164,18 @@ public class ProductController {
                     content = @Content)})
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProduct(@PathVariable Long id) {
-        Product product = productService.getProduct(id);
-        ProductDTO productDTO = convertToProductDTO(product);
+        ProductDTO productDTO = productService.getProductDTO(id);
 
         return new ResponseEntity<>(productDTO, HttpStatus.OK);
     }
 
     /**
-     * Returns all the products.
+     * Returns all the products. Cursor pages ordered by id are returned when either the cursor or the limit is given.
      *
      * @param pageable is the page data.
+     * @param after is the cursor returned with the previous page, optional.
+     * @param limit is the cursor page size, defaults to the page size.
+     * @param count whether to count the products of a cursor page.
      *
      * @return <code>Page of ProductDTOs</code>.
      */
@@ -191,23 +192,15 @@ public class ProductController {
             @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
                     content = @Content)})
     @GetMapping
-    public PaginatedDTO<ProductDTO> getProducts(Pageable pageable) {
-        Page<Product> page = productService.getAllProducts(pageable);
-
-        List<ProductDTO> products = page.getContent().stream()
-                .map(RequestBodyToEntityConverter::convertToProductDTO)
-                .toList();
-
-        PaginatedDTO<ProductDTO> paginated = new PaginatedDTO<>();
-        paginated.setData(products);
-        paginated.setCurrentPage(page.getNumber());
-        paginated.setTotalPages(page.getTotalPages());
-        paginated.setTotalItems(page.getTotalElements());
-        paginated.setPageSize(page.getSize());
-        paginated.setHasNext(page.hasNext());
-        paginated.setHasPrevious(page.hasPrevious());
-
-        return paginated;
+    public PaginatedDTO<ProductDTO> getProducts(Pageable pageable,
+                                                @RequestParam(required = false) String after,
+                                                @Min(1) @Max(KeysetCursor.MAX_LIMIT) @RequestParam(required = false) Integer limit,
+                                                @RequestParam(defaultValue = "false") boolean count) {
+        if (after != null || limit != null) {
+            return productService.getProductsAfter(after, limit != null ? limit : pageable.getPageSize(), count);
+        }
+
+        return productService.getProductsPage(pageable);
     }
 
     /**
@@ -231,14 +224,10 @@ public class ProductController {
                     content = @Content)})
     @GetMapping("/search")
     public PaginatedDTO<ProductDTO> search(@RequestParam(name = "query") String query, Pageable pageable) {
-        Page<Product> page = productService.search(query, pageable);
-
-        List<ProductDTO> products = page.getContent().stream()
-                .map(RequestBodyToEntityConverter::convertToProductDTO)
-                .toList();
+        Page<ProductDTO> page = productService.search(query, pageable);
 
         PaginatedDTO<ProductDTO> paginated = new PaginatedDTO<>();
-        paginated.setData(products);
+        paginated.setData(page.getContent());
         paginated.setCurrentPage(page.getNumber());
         paginated.setTotalPages(page.getTotalPages());
         paginated.setTotalItems(page.getTotalElements());
@@ -250,10 +239,39 @@ public class ProductController {
     }
 
     /**
-     * Returns all the seller's products.
+     * Rebuilds the products' search index.
+     *
+     * @return <code>ResponseEntity</code>
+     */
+    @Operation(summary = "Rebuilds the products' search index.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = SwaggerHttpStatus.OK, description = SwaggerMessages.SEARCH_INDEX_REBUILT,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.FORBIDDEN, description = SwaggerMessages.FORBIDDEN,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.UNAUTHORIZED, description = SwaggerMessages.UNAUTHORIZED,
+                    content = @Content),
+            @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<SuccessDTO> rebuildSearchIndex() {
+        productService.rebuildSearchIndex();
+
+        SuccessDTO successDTO = new SuccessDTO();
+        successDTO.setStatus(200);
+        successDTO.setMessage("search_index_rebuilt_successfully");
+
+        return new ResponseEntity<>(successDTO, HttpStatus.OK);
+    }
+
+    /**
+     * Returns all the seller's products. Cursor pages ordered by id are returned when either the cursor or the limit is given.
      *
      * @param username is the seller's username.
      * @param pageable is the page details.
+     * @param after is the cursor returned with the previous page, optional.
+     * @param limit is the cursor page size, defaults to the page size.
+     * @param count whether to count the products of a cursor page.
      *
      * @return <code>Page of ProductDTOs</code>.
      */
@@ -270,15 +288,18 @@ public class ProductController {
             @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
                     content = @Content)})
     @GetMapping("/seller/{username}")
-    public PaginatedDTO<ProductDTO> getSellerProducts(@PathVariable String username, Pageable pageable) {
-        Page<Product> page = productService.getSellerProducts(username, pageable);
+    public PaginatedDTO<ProductDTO> getSellerProducts(@PathVariable String username, Pageable pageable,
+                                                      @RequestParam(required = false) String after,
+                                                      @Min(1) @Max(KeysetCursor.MAX_LIMIT) @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(defaultValue = "false") boolean count) {
+        if (after != null || limit != null) {
+            return productService.getSellerProductsAfter(username, after, limit != null ? limit : pageable.getPageSize(), count);
+        }
 
-        List<ProductDTO> products = page.getContent().stream()
-                .map(RequestBodyToEntityConverter::convertToProductDTO)
-                .toList();
+        Page<ProductDTO> page = productService.getSellerProducts(username, pageable);
 
         PaginatedDTO<ProductDTO> paginated = new PaginatedDTO<>();
-        paginated.setData(products);
+        paginated.setData(page.getContent());
         paginated.setCurrentPage(page.getNumber());
         paginated.setTotalPages(page.getTotalPages());
         paginated.setTotalItems(page.getTotalElements());
@@ -347,7 +368,7 @@ public class ProductController {
     }
 
     /**
-     * Returns product's photo as array of bytes.
+     * Streams product's photo, conditional and range requests are supported.
      *
      * @param id is the product's id.
      * @return <code>ResponseEntity</code>
@@ -355,17 +376,15 @@ public class ProductController {
     @Operation(summary = "Returns product photo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = SwaggerHttpStatus.OK, description = SwaggerMessages.PRODUCT_PHOTO_RETURNED,
-                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
-                            schema = @Schema(implementation = byte[].class))}),
+                    content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                            schema = @Schema(type = "string", format = "binary"))}),
             @ApiResponse(responseCode = SwaggerHttpStatus.NOT_FOUND, description = SwaggerMessages.PRODUCT_DOES_NOT_EXIST,
                     content = @Content),
             @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
                     content = @Content)})
     @GetMapping(path = "/{id}/photo")
-    public ResponseEntity<byte[]> getProductPhoto(@PathVariable Long id) {
-        byte[] photo = productService.getProduct(id).getPhoto();
-
-        return new ResponseEntity<>(photo, HttpStatus.OK);
+    public ResponseEntity<Resource> getProductPhoto(@PathVariable Long id) {
+        return PhotoResponses.of(productService.getPhoto(id));
     }
 
     /**
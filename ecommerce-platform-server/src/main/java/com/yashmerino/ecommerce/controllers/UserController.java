@@ -30,6 +30,7 @@ import com.yashmerino.ecommerce.services.interfaces.UserService;
 import com.yashmerino.ecommerce.swagger.SwaggerConfig;
 import com.yashmerino.ecommerce.swagger.SwaggerHttpStatus;
 import com.yashmerino.ecommerce.swagger.SwaggerMessages;
+import com.yashmerino.ecommerce.utils.PhotoResponses;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -38,6 +39,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -120,7 +122,7 @@ public class UserController {
     }
 
     /**
-     * Returns user's photo as array of bytes.
+     * Streams user's photo, conditional and range requests are supported.
      *
      * @param username is the user's username.
      * @return <code>ResponseEntity</code>
@@ -128,17 +130,15 @@ public class UserController {
     @Operation(summary = "Returns user photo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = SwaggerHttpStatus.OK, description = SwaggerMessages.USER_PHOTO_RETURNED,
-                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
-                            schema = @Schema(implementation = byte[].class))}),
+                    content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                            schema = @Schema(type = "string", format = "binary"))}),
             @ApiResponse(responseCode = SwaggerHttpStatus.NOT_FOUND, description = SwaggerMessages.USER_DOES_NOT_EXIST,
                     content = @Content),
             @ApiResponse(responseCode = SwaggerHttpStatus.INTERNAL_SERVER_ERROR, description = SwaggerMessages.INTERNAL_SERVER_ERROR,
                     content = @Content)})
     @GetMapping(path = "/{username}/photo")
-    public ResponseEntity<byte[]> getUserPhoto(@PathVariable String username) {
-        byte[] photo = userService.getByUsername(username).getPhoto();
-
-        return new ResponseEntity<>(photo, HttpStatus.OK);
+    public ResponseEntity<Resource> getUserPhoto(@PathVariable String username) {
+        return PhotoResponses.of(userService.getPhoto(username));
     }
 
     /**
@@ -25,6 +25,7 @@ package com.yashmerino.ecommerce.exceptions;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -228,4 +229,21 @@ public class ApiExceptionHandler {
 
         return new ResponseEntity<>(errors, HttpStatus.FORBIDDEN);
     }
+
+    /**
+     * Handles the {@link ConcurrencyFailureException}, e.g. a resource that was changed by a concurrent request.
+     *
+     * @param e is the thrown exception.
+     * @return <code>ResponseEntity</code>
+     */
+    @ExceptionHandler(value = {ConcurrencyFailureException.class})
+    @ResponseStatus(value = HttpStatus.CONFLICT)
+    public ResponseEntity<CustomErrorResponse> concurrencyFailureExceptionHandler(ConcurrencyFailureException e) {
+        CustomErrorResponse errors = new CustomErrorResponse();
+        errors.setTimestamp(LocalDateTime.now());
+        errors.setError(e.getMessage());
+        errors.setStatus(HttpStatus.CONFLICT.value());
+
+        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
+    }
 }
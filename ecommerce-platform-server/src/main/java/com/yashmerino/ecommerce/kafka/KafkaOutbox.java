@@ -0,0 +1,75 @@
+package com.yashmerino.ecommerce.kafka;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.model.OutboxEvent;
+import com.yashmerino.ecommerce.repositories.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Writes Kafka events to the outbox table. They're committed or rolled back together with the change they describe
+ * and published by the {@link OutboxRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+public class KafkaOutbox {
+
+    /**
+     * Outbox events' repository.
+     */
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Object mapper used to serialize the events.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Adds an event to the outbox, the caller's transaction is required.
+     *
+     * @param topic is the topic to publish the event to.
+     * @param key   is the record key, <code>null</code> to let the producer pick the partition.
+     * @param event is the event.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(String topic, String key, Object event) {
+        String payload;
+
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Couldn't serialize the event.", e);
+        }
+
+        outboxEventRepository.save(new OutboxEvent(null, topic, key, event.getClass().getName(), payload, Instant.now()));
+    }
+}
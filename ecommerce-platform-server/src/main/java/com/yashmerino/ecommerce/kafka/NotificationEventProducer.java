@@ -9,14 +9,13 @@ import com.yashmerino.ecommerce.utils.ContactType;
 import com.yashmerino.ecommerce.utils.NotificationType;
 import com.yashmerino.ecommerce.utils.PaymentStatus;
 import lombok.AllArgsConstructor;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Kafka's notification events producer.
+ * Kafka's notification events producer. Events are written to the outbox and published by the relay.
  */
 @Service
 @AllArgsConstructor
@@ -28,12 +27,12 @@ public class NotificationEventProducer {
     private final PaymentRepository paymentRepository;
 
     /**
-     * Kafka template used to send events.
+     * Outbox the events are written to.
      */
-    private final KafkaTemplate<String, NotificationRequestedEvent> kafkaTemplate;
+    private final KafkaOutbox kafkaOutbox;
 
     /**
-     * Sends a payment notification request event to Kafka topic.
+     * Sends a payment notification request event to Kafka topic, within the caller's transaction.
      *
      * @param event is the Kafka event object.
      */
@@ -57,11 +56,11 @@ public class NotificationEventProducer {
                         payload
                 );
 
-        kafkaTemplate.send("notification.requested", notificationRequestedEvent);
+        kafkaOutbox.add("notification.requested", null, notificationRequestedEvent);
     }
 
     /**
-     * Sends a welcome notification request event to Kafka topic.
+     * Sends a welcome notification request event to Kafka topic, within the caller's transaction.
      */
     public void sendWelcomeNotificationRequested(final String email) {
         NotificationRequestedEvent notificationRequestedEvent =
@@ -72,6 +71,6 @@ public class NotificationEventProducer {
                         null
                 );
 
-        kafkaTemplate.send("notification.requested", notificationRequestedEvent);
+        kafkaOutbox.add("notification.requested", null, notificationRequestedEvent);
     }
 }
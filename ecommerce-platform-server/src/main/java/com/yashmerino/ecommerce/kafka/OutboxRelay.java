@@ -0,0 +1,276 @@
+package com.yashmerino.ecommerce.kafka;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.model.OutboxEvent;
+import com.yashmerino.ecommerce.repositories.OutboxEventRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the outbox events to Kafka in batches. A batch is locked, sent, and deleted in one transaction, so the
+ * events are published at least once. Only the relay holding the oldest events publishes, and an event is sent only
+ * after the previous event with the same key was acknowledged, so the events of a key are published in the order
+ * they were written.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    /**
+     * Package of the events that can be published.
+     */
+    static final String EVENTS_PACKAGE = "com.yashmerino.ecommerce.kafka.events.";
+
+    /**
+     * Outbox events' repository.
+     */
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Kafka template used to send events.
+     */
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    /**
+     * Object mapper used to deserialize the events.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Transaction template, the batch stays locked until it's published.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Number of published events.
+     */
+    private final Counter publishedCounter;
+
+    /**
+     * Number of events that couldn't be published.
+     */
+    private final Counter failedCounter;
+
+    /**
+     * Time spent publishing a batch.
+     */
+    private final Timer batchTimer;
+
+    /**
+     * Age in milliseconds of the oldest event waiting to be published.
+     */
+    private final AtomicLong lag = new AtomicLong();
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param outboxEventRepository is the outbox events' repository.
+     * @param kafkaTemplate is the kafka template used to send events.
+     * @param objectMapper is the object mapper.
+     * @param transactionManager is the transaction manager.
+     * @param applicationProperties is the application properties.
+     * @param meterRegistry is the registry of the relay's metrics.
+     */
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                       ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Events published by the outbox relay.")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Events the outbox relay couldn't publish.")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time spent publishing a batch of outbox events.")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lag, AtomicLong::get)
+                .description("Age of the oldest outbox event waiting to be published.")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes the pending events, batch after batch, until the outbox is drained or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:200}")
+    public void relay() {
+        if (!applicationProperties.outboxRelayEnabled) {
+            return;
+        }
+
+        int batchSize = applicationProperties.outboxRelayBatchSize;
+        Integer published;
+
+        do {
+            published = batchTimer.record(() -> transactionTemplate.execute(status -> publishBatch(batchSize)));
+        } while (published != null && published == batchSize);
+    }
+
+    /**
+     * Publishes a batch of events and deletes the ones Kafka acknowledged. The events are sent in rounds, each round
+     * sends the next event of every key, and a key whose event failed isn't sent anymore, its remaining events are
+     * retried on the next run. The batch is skipped if older events are locked by another relay.
+     *
+     * @param batchSize is the maximum number of events.
+     * @return the number of events removed from the outbox.
+     */
+    int publishBatch(int batchSize) {
+        List<OutboxEvent> events = outboxEventRepository.lockBatch(PageRequest.of(0, batchSize));
+
+        if (events.isEmpty()) {
+            lag.set(0);
+            return 0;
+        }
+
+        lag.set(Duration.between(events.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+        if (outboxEventRepository.findMinId().filter(minId -> minId < events.get(0).getId()).isPresent()) {
+            log.debug("Older outbox events are being published by another relay.");
+            return 0;
+        }
+
+        List<OutboxEvent> pending = new ArrayList<>(events);
+        Set<String> failedKeys = new HashSet<>();
+        List<Long> done = new ArrayList<>(events.size());
+
+        while (!pending.isEmpty()) {
+            Map<String, OutboxEvent> round = new LinkedHashMap<>();
+
+            for (OutboxEvent event : pending) {
+                round.putIfAbsent(event.getMessageKey(), event);
+            }
+
+            List<CompletableFuture<SendResult<String, Object>>> results = new ArrayList<>(round.size());
+
+            for (OutboxEvent event : round.values()) {
+                Object value = deserialize(event);
+                results.add(value != null ? kafkaTemplate.send(event.getTopic(), event.getMessageKey(), value) : null);
+            }
+
+            int i = 0;
+
+            for (OutboxEvent event : round.values()) {
+                if (awaitResult(event, results.get(i++))) {
+                    done.add(event.getId());
+                } else {
+                    failedKeys.add(event.getMessageKey());
+                }
+            }
+
+            pending.removeAll(round.values());
+            pending.removeIf(event -> failedKeys.contains(event.getMessageKey()));
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(done);
+
+        return done.size();
+    }
+
+    /**
+     * Waits until Kafka acknowledges an event.
+     *
+     * @param event  is the event.
+     * @param result is the send result, <code>null</code> if the event couldn't be read.
+     * @return whether the event can be removed from the outbox.
+     */
+    private boolean awaitResult(OutboxEvent event, CompletableFuture<SendResult<String, Object>> result) {
+        if (result == null) {
+            failedCounter.increment();
+            return true;
+        }
+
+        try {
+            result.get(applicationProperties.outboxRelaySendTimeout, TimeUnit.MILLISECONDS);
+            publishedCounter.increment();
+
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Outbox event {} couldn't be published to {}.", event.getId(), event.getTopic(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        failedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Deserializes an event.
+     *
+     * @param event is the outbox event.
+     * @return the event or <code>null</code> if it can never be published.
+     */
+    private Object deserialize(OutboxEvent event) {
+        try {
+            if (!event.getEventType().startsWith(EVENTS_PACKAGE)) {
+                throw new ClassNotFoundException(event.getEventType());
+            }
+
+            return objectMapper.readValue(event.getPayload(), Class.forName(event.getEventType()));
+        } catch (ClassNotFoundException | JsonProcessingException e) {
+            log.error("Outbox event {} can't be read and is dropped.", event.getId(), e);
+            return null;
+        }
+    }
+}
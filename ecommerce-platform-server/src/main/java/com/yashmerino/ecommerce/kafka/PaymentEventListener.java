@@ -3,10 +3,12 @@ package com.yashmerino.ecommerce.kafka;
 import com.yashmerino.ecommerce.kafka.events.PaymentResultEvent;
 import com.yashmerino.ecommerce.model.Payment;
 import com.yashmerino.ecommerce.repositories.PaymentRepository;
+import com.yashmerino.ecommerce.services.OrderSummaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Kafka payment events listener.
@@ -26,8 +28,15 @@ public class PaymentEventListener {
      */
     private final PaymentRepository paymentRepository;
 
+    /**
+     * Writes the orders' summaries.
+     */
+    private final OrderSummaryWriter orderSummaryWriter;
+
     /**
      * When payment result read - update payment status and send notification event to Kafka notification topic.
+     * The status, the order's summary and the notification are committed together. If the transaction fails,
+     * the exception reaches the container's error handler and the record is consumed again.
      *
      * @param event is the event read from Kafka topic.
      */
@@ -35,22 +44,20 @@ public class PaymentEventListener {
         topics = "payment.result",
         groupId = "main-server"
     )
+    @Transactional
     public void onPaymentRequested(PaymentResultEvent event) {
-        try {
-            // Update payment status on server (using paymentId sent from server to payment-service)
-            Payment payment = paymentRepository.findById(event.paymentId()).orElse(null);
-            if (payment != null) {
-                payment.setStatus(event.status());
-                paymentRepository.save(payment);
-                log.info("Payment status updated to {} for payment ID {} (order ID {})", event.status(), event.paymentId(), event.orderId());
-            } else {
-                log.warn("Payment not found for payment ID {} (order ID {})", event.paymentId(), event.orderId());
-            }
-
-            // Send notification
-            notificationEventProducer.sendPaymentNotificationRequested(event);
-        } catch (Exception e) {
-            log.error("Payment couldn't be processed.", e);
+        // Update payment status on server (using paymentId sent from server to payment-service)
+        Payment payment = paymentRepository.findById(event.paymentId()).orElse(null);
+        if (payment != null) {
+            payment.setStatus(event.status());
+            paymentRepository.save(payment);
+            orderSummaryWriter.paymentChanged(payment);
+            log.info("Payment status updated to {} for payment ID {} (order ID {})", event.status(), event.paymentId(), event.orderId());
+        } else {
+            log.warn("Payment not found for payment ID {} (order ID {})", event.paymentId(), event.orderId());
         }
+
+        // Send notification
+        notificationEventProducer.sendPaymentNotificationRequested(event);
     }
 }
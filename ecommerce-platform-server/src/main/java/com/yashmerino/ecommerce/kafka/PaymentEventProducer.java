@@ -1,36 +1,34 @@
 package com.yashmerino.ecommerce.kafka;
 
 import com.yashmerino.ecommerce.kafka.events.PaymentRequestedEvent;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 /**
- * Kafka's payment events producer.
+ * Kafka's payment events producer. Events are written to the outbox and published by the relay.
  */
 @Service
 public class PaymentEventProducer {
 
     /**
-     * Kafka template used to send events.
+     * Outbox the events are written to.
      */
-    private final KafkaTemplate<String, PaymentRequestedEvent> kafkaTemplate;
+    private final KafkaOutbox kafkaOutbox;
 
     /**
      * Constructor to inject dependencies.
      *
-     * @param kafkaTemplate is the kafka template used to send events.
+     * @param kafkaOutbox is the outbox the events are written to.
      */
-    public PaymentEventProducer(
-            KafkaTemplate<String, PaymentRequestedEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public PaymentEventProducer(KafkaOutbox kafkaOutbox) {
+        this.kafkaOutbox = kafkaOutbox;
     }
 
     /**
-     * Sends a payment request event to Kafka topic.
+     * Sends a payment request event to Kafka topic, within the caller's transaction.
      *
      * @param event is the Kafka event object.
      */
     public void sendPaymentRequested(PaymentRequestedEvent event) {
-        kafkaTemplate.send("payment.requested", event.orderId().toString(), event);
+        kafkaOutbox.add("payment.requested", event.orderId().toString(), event);
     }
 }
@@ -34,6 +34,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -63,6 +64,19 @@ public class Cart extends BaseEntity {
     @OneToOne(mappedBy = "cart")
     private User user;
 
+    /**
+     * Total price of the cart's items. It's kept up to date by the queries that change the items,
+     * so it's never written from the entity.
+     */
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    /**
+     * Number of units in the cart. It's kept up to date like the total.
+     */
+    @Column(nullable = false, updatable = false)
+    private Integer itemCount = 0;
+
     /**
      * Adds an item to the cart.
      *
@@ -27,14 +27,18 @@ package com.yashmerino.ecommerce.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.yashmerino.ecommerce.model.base.BaseEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
+
 /**
  * JPA Entity for cart's item.
  */
@@ -43,14 +47,14 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity(name = "cart_items")
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = {"cart_id", "product_id"}))
 public class CartItem extends BaseEntity {
 
     /**
      * The cart item's product.
      */
     @JsonBackReference
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -68,7 +72,7 @@ public class CartItem extends BaseEntity {
      * The cart item's cart.
      */
     @JsonBackReference
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id")
     private Cart cart;
 
@@ -76,4 +80,13 @@ public class CartItem extends BaseEntity {
      * Quantity of cart's item.
      */
     private Integer quantity;
+
+    /**
+     * Returns the item's price times its quantity.
+     *
+     * @return the subtotal.
+     */
+    public BigDecimal subtotal() {
+        return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity));
+    }
 }
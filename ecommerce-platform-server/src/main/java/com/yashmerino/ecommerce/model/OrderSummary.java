@@ -0,0 +1,106 @@
+package com.yashmerino.ecommerce.model;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.OrderStatus;
+import com.yashmerino.ecommerce.utils.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity for the read model of a user's order with its latest payment.
+ * A row is written when the order is placed and updated whenever its payments change,
+ * so the user's orders are listed from this table alone.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity(name = "order_summaries")
+@Table(name = "order_summaries")
+public class OrderSummary {
+
+    /**
+     * Order's ID.
+     */
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    /**
+     * ID of the user who placed the order.
+     */
+    private Long userId;
+
+    /**
+     * Total amount of the order.
+     */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    /**
+     * Order's status.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus orderStatus;
+
+    /**
+     * Number of ordered units.
+     */
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    /**
+     * Order's creation date.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Latest payment's ID.
+     */
+    private Long paymentId;
+
+    /**
+     * Latest payment's amount.
+     */
+    @Column(precision = 19, scale = 2)
+    private BigDecimal paymentAmount;
+
+    /**
+     * Latest payment's status.
+     */
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus paymentStatus;
+
+    /**
+     * Latest payment's creation date.
+     */
+    private LocalDateTime paymentCreatedAt;
+}
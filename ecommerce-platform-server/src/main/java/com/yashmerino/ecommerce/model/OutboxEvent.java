@@ -0,0 +1,82 @@
+package com.yashmerino.ecommerce.model;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Kafka event written in the same transaction as the change it describes and published later by the outbox relay.
+ */
+@Entity(name = "outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class OutboxEvent {
+
+    /**
+     * Outbox event's id, events are published in id order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Topic to publish the event to.
+     */
+    @Column(nullable = false)
+    private String topic;
+
+    /**
+     * Record key, <code>null</code> to let the producer pick the partition.
+     */
+    @Column(name = "message_key")
+    private String messageKey;
+
+    /**
+     * Class of the event.
+     */
+    @Column(nullable = false)
+    private String eventType;
+
+    /**
+     * Event serialized as JSON.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    /**
+     * Creation date, used to measure how far the relay lags behind.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -90,10 +90,9 @@ public class Product extends BaseEntity {
     private Set<CartItem> cartItems = new HashSet<>();
 
     /**
-     * Product's photo.
+     * Key of the product's photo in the photo storage.
      */
-    @Lob
-    @Column(name = "photo", length = 100000)
+    @Column(name = "photo_key", length = 64)
     @Nullable
-    private byte[] photo;
+    private String photoKey;
 }
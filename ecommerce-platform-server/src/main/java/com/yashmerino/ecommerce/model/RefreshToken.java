@@ -50,11 +50,17 @@ public class RefreshToken {
     private Long id;
 
     /**
-     * The refresh token string.
+     * The refresh token string, only known when the token is created.
      */
-    @Column(nullable = false, unique = true)
+    @Transient
     private String token;
 
+    /**
+     * Hex encoded SHA-256 hash of the token, tokens are stored and looked up by their hash.
+     */
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
     /**
      * User associated with this refresh token.
      */
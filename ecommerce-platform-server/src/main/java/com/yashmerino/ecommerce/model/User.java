@@ -81,10 +81,9 @@ public class User extends NamedEntity {
     private Set<Role> roles = new HashSet<>();
 
     /**
-     * User's photo.
+     * Key of the user's photo in the photo storage.
      */
-    @Lob
-    @Column(name = "photo", length = 100000)
+    @Column(name = "photo_key", length = 64)
     @Nullable
-    private byte[] photo;
+    private String photoKey;
 }
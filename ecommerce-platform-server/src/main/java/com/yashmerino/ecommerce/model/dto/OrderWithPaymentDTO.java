@@ -27,6 +27,11 @@ public class OrderWithPaymentDTO {
      */
     private OrderStatus orderStatus;
 
+    /**
+     * Number of ordered units.
+     */
+    private Integer itemCount;
+
     /**
      * Order creation date.
      */
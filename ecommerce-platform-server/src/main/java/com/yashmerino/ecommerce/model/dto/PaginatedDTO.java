@@ -1,10 +1,13 @@
 package com.yashmerino.ecommerce.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * DTO that contains data alongside page details.
@@ -17,12 +20,24 @@ public class PaginatedDTO<T> {
     private List<T> data;
     private int currentPage;
     private int totalPages;
-    private long totalItems;
+
+    /**
+     * Total number of items, omitted from cursor pages unless it was requested.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalItems;
+
     private int pageSize;
     private double totalPrice;
     private boolean hasNext;
     private boolean hasPrevious;
 
+    /**
+     * Cursor of the next page, omitted when there's no next page.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * Builds a paginated DTO from page.
      *
@@ -43,4 +58,37 @@ public class PaginatedDTO<T> {
         response.setHasPrevious(page.hasPrevious());
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a cursor paginated DTO from rows fetched with a limit one above the page size.
+     *
+     * @param rows        are the rows, the one over the limit only tells that there is a next page.
+     * @param limit       is the page size.
+     * @param hasPrevious whether the page was requested after a cursor.
+     * @param cursorOf    returns the cursor that points after a row.
+     * @param mapper      maps the rows of the page to the data.
+     *
+     * @return Paginated DTO.
+     *
+     * @param <R> is the type of the rows.
+     * @param <T> is the type of the data stored in the page.
+     */
+    public static <R, T> PaginatedDTO<T> buildCursorResponse(List<R> rows, int limit, boolean hasPrevious,
+                                                             Function<R, KeysetCursor> cursorOf, Function<List<R>, List<T>> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<R> page = hasNext ? rows.subList(0, limit) : rows;
+
+        PaginatedDTO<T> response = new PaginatedDTO<>();
+        response.setData(mapper.apply(page));
+        response.setPageSize(limit);
+        response.setHasNext(hasNext);
+        response.setHasPrevious(hasPrevious);
+
+        if (hasNext) {
+            KeysetCursor cursor = cursorOf.apply(page.get(page.size() - 1));
+            response.setNextCursor(cursor != null ? cursor.encode() : null);
+        }
+
+        return response;
+    }
+}
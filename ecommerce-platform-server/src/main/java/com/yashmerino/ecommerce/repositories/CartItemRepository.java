@@ -28,10 +28,15 @@ import com.yashmerino.ecommerce.model.CartItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Cart Items' repository.
  */
@@ -39,8 +44,34 @@ import org.springframework.stereotype.Repository;
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Page<CartItem> findAllByCartUserUsername(String username, Pageable pageable);
 
-    @Query("SELECT SUM(c.price * c.quantity) FROM cart_items c WHERE c.cart.user.username = :username")
-    Double getTotalPriceByUsername(@Param("username") String username);
+    @Query("SELECT c FROM cart_items c WHERE c.cart.user.username = :username AND c.id > :afterId ORDER BY c.id")
+    List<CartItem> findAllByCartUserUsernameAfter(@Param("username") String username, @Param("afterId") Long afterId, Pageable pageable);
+
+    long countByCartUserUsername(String username);
 
     void deleteByCartId(final Long cartId);
+
+    @Modifying
+    @Query("DELETE FROM cart_items c WHERE c.cart.id = :cartId")
+    int deleteAllInBulkByCartId(@Param("cartId") final Long cartId);
+
+    @Query("SELECT c FROM cart_items c JOIN FETCH c.product WHERE c.cart.id = :cartId ORDER BY c.id")
+    List<CartItem> findAllWithProductByCartId(@Param("cartId") final Long cartId);
+
+    List<CartItem> findAllByCartId(final Long cartId);
+
+    @Query("SELECT c FROM cart_items c JOIN FETCH c.product WHERE c.id = :id AND c.cart.id = :cartId")
+    Optional<CartItem> findByIdAndCartId(@Param("id") final Long id, @Param("cartId") final Long cartId);
+
+    @Modifying
+    @Query("UPDATE cart_items c SET c.quantity = :quantity WHERE c.id = :id AND c.cart.id = :cartId")
+    int updateQuantityByIdAndCartId(@Param("id") final Long id, @Param("cartId") final Long cartId, @Param("quantity") final Integer quantity);
+
+    @Modifying
+    @Query("DELETE FROM cart_items c WHERE c.id = :id AND c.cart.id = :cartId")
+    int deleteByIdAndCartId(@Param("id") final Long id, @Param("cartId") final Long cartId);
+
+    Optional<CartItem> findByCartIdAndProductId(final Long cartId, final Long productId);
+
+    List<CartItem> findAllByCartIdAndProductIdIn(final Long cartId, final Collection<Long> productIds);
 }
@@ -25,8 +25,18 @@ package com.yashmerino.ecommerce.repositories;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Cart;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Optional;
 
 /**
  * Carts' repository.
@@ -34,4 +44,110 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
+    /**
+     * Total price of a cart's items.
+     */
+    String ITEMS_TOTAL = "ROUND(COALESCE((SELECT SUM(i.price * i.quantity) FROM cart_items i WHERE i.cart_id = c.id), 0), 2)";
+
+    /**
+     * Number of units in a cart.
+     */
+    String ITEMS_COUNT = "COALESCE((SELECT SUM(i.quantity) FROM cart_items i WHERE i.cart_id = c.id), 0)";
+
+    @Query("SELECT u.cart.id FROM users u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    /**
+     * Returns a cart and locks its row until the transaction ends, so changes of the cart wait for each other.
+     *
+     * @param id is the cart's id.
+     *
+     * @return the cart, empty if there's no such cart.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM carts c WHERE c.id = :id")
+    Optional<Cart> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Returns the total price of a user's cart.
+     *
+     * @param username is the user's username.
+     * @return the cart's total.
+     */
+    @Query("SELECT c.total FROM users u JOIN u.cart c WHERE u.username = :username")
+    Optional<BigDecimal> findTotalByUsername(@Param("username") String username);
+
+    /**
+     * Adds the change of the cart's items to its total and number of units, in place.
+     *
+     * @param id is the cart's id.
+     * @param total is the change of the total, negative if items were removed.
+     * @param itemCount is the change of the number of units, negative if items were removed.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE carts c SET c.total = c.total + :total, c.itemCount = c.itemCount + :itemCount WHERE c.id = :id")
+    void addToTotals(@Param("id") Long id, @Param("total") BigDecimal total, @Param("itemCount") int itemCount);
+
+    /**
+     * Adds the change of one of the cart's items to the cart's total and number of units, if the item is in the cart.
+     * The item's price and quantity are read by this statement, which locks the cart's row, so changes of the cart's
+     * items wait for each other and the change added is the one applied to the item next. It needs repeatable read:
+     * MySQL then reads the item with a lock, and databases that read it from a snapshot reject the statement if the
+     * cart changed meanwhile.
+     *
+     * @param id is the cart's id.
+     * @param itemId is the cart item's id.
+     * @param quantity is the item's new quantity, 0 if it's deleted.
+     *
+     * @return the number of updated carts, 0 if the item isn't in the cart.
+     */
+    @Modifying
+    @Query(value = "UPDATE carts c SET "
+            + "total = total + ROUND((SELECT i.price * (:quantity - i.quantity) FROM cart_items i WHERE i.id = :itemId AND i.cart_id = c.id), 2), "
+            + "item_count = item_count + (SELECT :quantity - i.quantity FROM cart_items i WHERE i.id = :itemId AND i.cart_id = c.id) "
+            + "WHERE c.id = :id AND EXISTS (SELECT 1 FROM cart_items i WHERE i.id = :itemId AND i.cart_id = c.id)", nativeQuery = true)
+    int addItemChangeToTotals(@Param("id") Long id, @Param("itemId") Long itemId, @Param("quantity") int quantity);
+
+    /**
+     * Sets the total and the number of units of an emptied cart to zero.
+     *
+     * @param id is the cart's id.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE carts c SET c.total = 0, c.itemCount = 0 WHERE c.id = :id")
+    void resetTotals(@Param("id") Long id);
+
+    /**
+     * Computes the totals and the numbers of units of carts again from their items.
+     *
+     * @param ids are the carts' ids.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE carts c SET total = " + ITEMS_TOTAL + ", item_count = " + ITEMS_COUNT + " WHERE c.id IN :ids", nativeQuery = true)
+    void recalculateTotals(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Computes the totals and the numbers of units of the carts in an id range again from their items,
+     * only for the carts where they drifted.
+     *
+     * @param fromId is the first cart's id.
+     * @param toId is the last cart's id.
+     * @return the number of carts that were fixed.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE carts c SET total = " + ITEMS_TOTAL + ", item_count = " + ITEMS_COUNT + " WHERE c.id BETWEEN :fromId AND :toId "
+            + "AND (c.total <> " + ITEMS_TOTAL + " OR c.item_count <> " + ITEMS_COUNT + ")", nativeQuery = true)
+    int reconcileTotals(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Returns the highest cart id.
+     *
+     * @return the id, empty if there are no carts.
+     */
+    @Query("SELECT MAX(c.id) FROM carts c")
+    Optional<Long> findMaxId();
 }
@@ -25,8 +25,6 @@ package com.yashmerino.ecommerce.repositories;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Order;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -35,12 +33,4 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    /**
-     * Find all orders for a specific user with pagination.
-     *
-     * @param userId the user's ID
-     * @param pageable pagination information
-     * @return page of orders
-     */
-    Page<Order> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
 }
@@ -0,0 +1,124 @@
+package com.yashmerino.ecommerce.repositories;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.model.OrderSummary;
+import com.yashmerino.ecommerce.utils.PaymentStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Orders' summaries repository.
+ */
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+    /**
+     * Find the summaries of a user's orders, newest first, with pagination.
+     *
+     * @param userId the user's ID
+     * @param pageable pagination information
+     * @return page of summaries
+     */
+    Page<OrderSummary> findByUserIdOrderByCreatedAtDescOrderIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * Find the summaries of a user's latest orders, newest first, without counting them.
+     *
+     * @param userId   the user's ID
+     * @param pageable maximum number of orders
+     * @return list of summaries
+     */
+    @Query("SELECT s FROM order_summaries s WHERE s.userId = :userId ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<OrderSummary> findLatestByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Count the orders of a user.
+     *
+     * @param userId the user's ID
+     * @return number of orders
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Find the summaries of a user's orders placed before an order, newest first, without counting or skipping rows.
+     *
+     * @param userId    the user's ID
+     * @param createdAt creation date of the last order of the previous page
+     * @param orderId   ID of the last order of the previous page
+     * @param pageable  maximum number of orders
+     * @return list of summaries
+     */
+    @Query("SELECT s FROM order_summaries s WHERE s.userId = :userId " +
+            "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId)) " +
+            "ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<OrderSummary> findByUserIdBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("orderId") Long orderId, Pageable pageable);
+
+    /**
+     * Insert the summary of a new order, without looking it up first.
+     *
+     * @param orderId     the order's ID
+     * @param userId      the user's ID
+     * @param totalAmount the order's total amount
+     * @param orderStatus the order's status
+     * @param itemCount   number of ordered units
+     * @param createdAt   the order's creation date
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO order_summaries (order_id, user_id, total_amount, order_status, item_count, created_at) " +
+            "VALUES (:orderId, :userId, :totalAmount, :orderStatus, :itemCount, :createdAt)", nativeQuery = true)
+    void insert(@Param("orderId") Long orderId, @Param("userId") Long userId, @Param("totalAmount") BigDecimal totalAmount,
+                @Param("orderStatus") String orderStatus, @Param("itemCount") int itemCount,
+                @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Set the latest payment of an order. A payment older than the one already set is ignored,
+     * so a late status change of a previous payment doesn't replace the latest one.
+     *
+     * @param orderId   the order's ID
+     * @param paymentId the payment's ID
+     * @param amount    the payment's amount
+     * @param status    the payment's status
+     * @param createdAt the payment's creation date
+     * @return number of updated summaries
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE order_summaries s SET s.paymentId = :paymentId, s.paymentAmount = :amount, s.paymentStatus = :status, " +
+            "s.paymentCreatedAt = :createdAt WHERE s.orderId = :orderId AND (s.paymentId IS NULL OR s.paymentId <= :paymentId)")
+    int updatePayment(@Param("orderId") Long orderId, @Param("paymentId") Long paymentId, @Param("amount") BigDecimal amount,
+                      @Param("status") PaymentStatus status, @Param("createdAt") LocalDateTime createdAt);
+}
@@ -25,12 +25,20 @@ package com.yashmerino.ecommerce.repositories;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.model.projections.ProductCategoryView;
+import com.yashmerino.ecommerce.model.projections.ProductListView;
+import com.yashmerino.ecommerce.model.projections.ProductPriceView;
+import com.yashmerino.ecommerce.model.projections.ProductSearchView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Products' repository.
  */
@@ -38,26 +46,102 @@ import org.springframework.stereotype.Repository;
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     /**
-     * Return seller's products.
+     * Returns a page of products' listing fields.
+     *
+     * @param pageable is the page object.
+     *
+     * @return Page of product list views.
+     */
+    @Query(
+            value = "SELECT p.id AS id, p.name AS name, p.price AS price, p.description AS description FROM products p",
+            countQuery = "SELECT count(p) FROM products p"
+    )
+    Page<ProductListView> findListViews(Pageable pageable);
+
+    /**
+     * Returns a page of seller's products' listing fields.
      *
      * @param userId is the seller's id.
+     * @param pageable is the page object.
      *
-     * @return List of Products.
+     * @return Page of product list views.
      */
     @Query(
-            value = "SELECT * FROM products p WHERE p.user_id = ?1",
-            countQuery = "SELECT count(*) FROM products p WHERE p.user_id = ?1",
-            nativeQuery = true
+            value = "SELECT p.id AS id, p.name AS name, p.price AS price, p.description AS description FROM products p WHERE p.user.id = :userId",
+            countQuery = "SELECT count(p) FROM products p WHERE p.user.id = :userId"
     )
-    Page<Product> getProductsBySellerId(Long userId, Pageable pageable);
+    Page<ProductListView> findListViewsBySellerId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Returns the listing fields of the products that come after the given id.
+     *
+     * @param afterId is the id after which to start.
+     * @param pageable is the pageable object used to limit the page.
+     *
+     * @return List of product list views ordered by id.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.description AS description FROM products p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductListView> findListViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Returns the listing fields of the seller's products that come after the given id.
+     *
+     * @param userId is the seller's id.
+     * @param afterId is the id after which to start.
+     * @param pageable is the pageable object used to limit the page.
+     *
+     * @return List of product list views ordered by id.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.description AS description FROM products p WHERE p.user.id = :userId AND p.id > :afterId ORDER BY p.id")
+    List<ProductListView> findListViewsBySellerIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Counts the seller's products.
+     *
+     * @param userId is the seller's id.
+     *
+     * @return the number of products.
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Returns the listing fields of the given products.
+     *
+     * @param ids is the products' ids.
+     *
+     * @return List of product list views.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.description AS description FROM products p WHERE p.id IN :ids")
+    List<ProductListView> findListViewsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the fields of the given products that are copied into cart items.
+     *
+     * @param ids is the products' ids.
+     *
+     * @return List of product price views.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price FROM products p WHERE p.id IN :ids")
+    List<ProductPriceView> findPriceViewsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the searchable fields of the products that come after the given id.
+     *
+     * @param afterId is the id after which to start.
+     * @param pageable is the pageable object used to limit the batch.
+     *
+     * @return List of product search views ordered by id.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description FROM products p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSearchView> findSearchViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
-     * Returns products that contain the query in their name.
+     * Returns the categories of the given products.
      *
-     * @param query is the query.
-     * @param pageable is the pageable object.
+     * @param ids is the products' ids.
      *
-     * @return The page of products.
+     * @return List of product category views.
      */
-    Page<Product> findByNameContaining(String query, Pageable pageable);
+    @Query("SELECT p.id AS productId, c.id AS categoryId, c.name AS categoryName FROM products p JOIN p.categories c WHERE p.id IN :ids")
+    List<ProductCategoryView> findCategoriesByProductIds(@Param("ids") Collection<Long> ids);
 }
@@ -26,11 +26,14 @@ package com.yashmerino.ecommerce.repositories;
 
 import com.yashmerino.ecommerce.model.RefreshToken;
 import com.yashmerino.ecommerce.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -40,12 +43,40 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
     /**
-     * Find refresh token by token string.
+     * Find refresh token by the token's hash.
      *
-     * @param token the token string.
+     * @param tokenHash the token's hash.
      * @return Optional of RefreshToken.
      */
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Delete a refresh token by the token's hash.
+     *
+     * @param tokenHash the token's hash.
+     */
+    @Modifying
+    @Query("DELETE FROM refresh_tokens rt WHERE rt.tokenHash = :tokenHash")
+    void deleteByTokenHash(String tokenHash);
+
+    /**
+     * Finds the ids of a user's tokens, newest first.
+     *
+     * @param userId the user ID.
+     * @return the tokens' ids.
+     */
+    @Query("SELECT rt.id FROM refresh_tokens rt WHERE rt.user.id = :userId ORDER BY rt.createdAt DESC, rt.id DESC")
+    List<Long> findIdsByUserNewestFirst(Long userId);
+
+    /**
+     * Finds the ids of the tokens that expired or were revoked.
+     *
+     * @param now the current time.
+     * @param pageable the maximum number of ids.
+     * @return the tokens' ids.
+     */
+    @Query("SELECT rt.id FROM refresh_tokens rt WHERE rt.expiryDate < :now OR rt.revoked = true")
+    List<Long> findExpiredOrRevokedIds(Instant now, Pageable pageable);
 
     /**
      * Delete all refresh tokens for a user.
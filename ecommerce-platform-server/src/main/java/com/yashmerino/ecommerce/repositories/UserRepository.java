@@ -26,7 +26,10 @@ package com.yashmerino.ecommerce.repositories;
 
 import com.yashmerino.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -51,4 +54,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return <code>true</code> if exists and <code>false</code> otherwise.
      */
     Boolean existsByUsername(final String username);
+
+    /**
+     * Replaces a user's password hash.
+     *
+     * @param id is the user's id.
+     * @param password is the new password hash.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE users u SET u.password = :password WHERE u.id = :id")
+    void updatePassword(final Long id, final String password);
 }
@@ -72,6 +72,20 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), this.mapRolesToAuthorities(user.getRoles()));
     }
 
+    /**
+     * Loads the principal of a user by username, without the password.
+     *
+     * @param username is the username to be loaded.
+     * @return user's principal.
+     * @throws UsernameNotFoundException if username was not found.
+     */
+    public JwtPrincipal loadPrincipalByUsername(final String username) throws UsernameNotFoundException {
+        User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("Username not found."));
+
+        return new JwtPrincipal(user.getId(), user.getUsername(), user.getCart() != null ? user.getCart().getId() : null,
+                this.mapRolesToAuthorities(user.getRoles()));
+    }
+
     /**
      * Maps user's roles to <code>GrantedAuthority</code> object.
      *
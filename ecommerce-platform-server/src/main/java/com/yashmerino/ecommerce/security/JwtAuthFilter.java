@@ -24,6 +24,7 @@ package com.yashmerino.ecommerce.security;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,6 +37,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import static com.yashmerino.ecommerce.security.SecurityConstants.AUTH_HEADER;
 import static com.yashmerino.ecommerce.security.SecurityConstants.JWT_HEADER;
@@ -55,25 +57,30 @@ public class JwtAuthFilter extends OncePerRequestFilter {
      */
     private final CustomUserDetailsService customUserDetailsService;
 
+    /**
+     * Principal cache.
+     */
+    private final PrincipalCache principalCache;
+
     /**
      * Constructor.
      *
      * @param tokenGenerator           is the token generator.
      * @param customUserDetailsService is the service that deals with user's details.
+     * @param principalCache           is the principal cache.
      */
-    public JwtAuthFilter(JwtProvider tokenGenerator, CustomUserDetailsService customUserDetailsService) {
+    public JwtAuthFilter(JwtProvider tokenGenerator, CustomUserDetailsService customUserDetailsService, PrincipalCache principalCache) {
         this.tokenGenerator = tokenGenerator;
         this.customUserDetailsService = customUserDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String token = this.getJWTFromRequest(request);
 
-        if (StringUtils.hasText(token) && tokenGenerator.validateToken(token)) {
-            String username = tokenGenerator.getUsernameFromJWT(token);
-
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+        if (StringUtils.hasText(token)) {
+            UserDetails userDetails = this.getPrincipal(tokenGenerator.validateAndGetClaims(token));
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
             authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -84,6 +91,26 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Returns the principal of a valid token.
+     * The principal is built from the token's claims, unless the principal cache is enabled or the token
+     * was issued without claims, then it's loaded from the database through the cache.
+     *
+     * @param claims are the verified claims of the JWT token.
+     * @return the principal.
+     */
+    private UserDetails getPrincipal(Claims claims) {
+        Optional<JwtPrincipal> principal = tokenGenerator.getPrincipal(claims);
+
+        if (principal.isPresent() && !principalCache.isEnabled()) {
+            return principal.get();
+        }
+
+        String username = claims.getSubject();
+
+        return principalCache.get(username, customUserDetailsService::loadPrincipalByUsername);
+    }
+
     /**
      * Extracts JWT token from request.
      *
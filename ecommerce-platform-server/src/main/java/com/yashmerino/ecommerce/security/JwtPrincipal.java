@@ -0,0 +1,110 @@
+package com.yashmerino.ecommerce.security;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Authenticated user built from the JWT token's claims, it doesn't carry the password.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements UserDetails {
+
+    /**
+     * User's id.
+     */
+    private final Long id;
+
+    /**
+     * User's username.
+     */
+    private final String username;
+
+    /**
+     * User's cart id, <code>null</code> if the user doesn't have a cart.
+     */
+    private final Long cartId;
+
+    /**
+     * User's authorities.
+     */
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    /**
+     * Returns user's password, it's never known from the token.
+     *
+     * @return <code>null</code>
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    /**
+     * Returns whether the account isn't expired.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    /**
+     * Returns whether the account isn't locked.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    /**
+     * Returns whether the credentials aren't expired.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    /**
+     * Returns whether the account is enabled.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
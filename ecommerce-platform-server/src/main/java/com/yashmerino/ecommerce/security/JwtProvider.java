@@ -26,17 +26,24 @@ package com.yashmerino.ecommerce.security;
 
 import com.yashmerino.ecommerce.utils.ApplicationProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.yashmerino.ecommerce.security.SecurityConstants.JWT_EXPIRATION;
 import static io.jsonwebtoken.SignatureAlgorithm.HS512;
@@ -49,38 +56,98 @@ import static io.jsonwebtoken.SignatureAlgorithm.HS512;
 public class JwtProvider {
 
     /**
-     * Application properties.
+     * Claim with user's id.
      */
-    private final ApplicationProperties applicationProperties;
+    static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Claim with user's roles.
+     */
+    static final String ROLES_CLAIM = "roles";
+
+    /**
+     * Claim with user's cart id.
+     */
+    static final String CART_ID_CLAIM = "cid";
+
+    /**
+     * Key used to sign and verify tokens, decoded once from the JWT secret.
+     */
+    private final Key signingKey;
+
+    /**
+     * Parser that verifies tokens. It's immutable and thread-safe, so it's built only once.
+     */
+    private final JwtParser parser;
+
+    /**
+     * Cache of already verified tokens.
+     */
+    private final VerifiedTokenCache verifiedTokenCache;
 
     /**
      * Constructor.
      *
      * @param applicationProperties is the application's properties.
+     * @param verifiedTokenCache    is the cache of already verified tokens.
      */
-    public JwtProvider(ApplicationProperties applicationProperties) {
-        this.applicationProperties = applicationProperties;
+    public JwtProvider(ApplicationProperties applicationProperties, VerifiedTokenCache verifiedTokenCache) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(applicationProperties.jwtSecret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     /**
      * Generates a token.
      *
+     * User's id, cart id and roles are added as claims, so requests can be authenticated and authorized without loading the user.
+     *
      * @param authentication is the authentication object.
+     * @param userId         is the user's id.
+     * @param cartId         is the user's cart id, <code>null</code> if the user doesn't have a cart.
      * @return JWT Token.
      */
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, Long userId, Long cartId) {
         String username = authentication.getName();
+        List<String> roles = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
         Date currentDate = new Date();
         Date expiringDate = new Date(currentDate.getTime() + JWT_EXPIRATION);
 
         return Jwts.builder()
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, roles)
+                .claim(CART_ID_CLAIM, cartId)
                 .setIssuedAt(currentDate)
                 .setExpiration(expiringDate)
-                .signWith(getSigningKey(), HS512)
+                .signWith(signingKey, HS512)
                 .compact();
     }
 
+    /**
+     * Validates a JWT Token and returns its claims. The token is parsed at most once, verified tokens are cached until they expire.
+     *
+     * @param token is the JWT token.
+     * @return the token's claims.
+     */
+    public Claims validateAndGetClaims(final String token) {
+        Claims claims = verifiedTokenCache.get(token);
+
+        if (claims != null) {
+            return claims;
+        }
+
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (Exception e) {
+            throw new AuthenticationCredentialsNotFoundException("JWT Token is not valid, it could be because it's expired or incorrect.");
+        }
+
+        verifiedTokenCache.put(token, claims);
+
+        return claims;
+    }
+
     /**
      * Returns the username from a JWT Token.
      *
@@ -88,13 +155,40 @@ public class JwtProvider {
      * @return the username.
      */
     public String getUsernameFromJWT(final String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return validateAndGetClaims(token).getSubject();
+    }
 
-        return claims.getSubject();
+    /**
+     * Returns the principal from a JWT Token's claims.
+     *
+     * @param token is the JWT token.
+     * @return <code>Optional of JwtPrincipal</code>, empty if the token doesn't have user's id and roles.
+     */
+    public Optional<JwtPrincipal> getPrincipalFromJWT(final String token) {
+        return getPrincipal(validateAndGetClaims(token));
+    }
+
+    /**
+     * Returns the principal from verified claims.
+     *
+     * @param claims are the token's claims.
+     * @return <code>Optional of JwtPrincipal</code>, empty if the claims don't have user's id and roles.
+     */
+    public Optional<JwtPrincipal> getPrincipal(final Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Number cartId = claims.get(CART_ID_CLAIM, Number.class);
+
+        if (userId == null || roles == null) {
+            return Optional.empty();
+        }
+
+        Set<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toSet());
+
+        return Optional.of(new JwtPrincipal(userId.longValue(), claims.getSubject(),
+                cartId != null ? cartId.longValue() : null, authorities));
     }
 
     /**
@@ -104,12 +198,8 @@ public class JwtProvider {
      * @return <code>true</code> if JWT token is valid and <code>false</code> otherwise.
      */
     public boolean validateToken(final String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            throw new AuthenticationCredentialsNotFoundException("JWT Token is not valid, it could be because it's expired or incorrect.");
-        }
+        validateAndGetClaims(token);
+        return true;
     }
 
     /**
@@ -122,14 +212,4 @@ public class JwtProvider {
         new SecureRandom().nextBytes(randomBytes);
         return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
-
-    /**
-     * Gets signing key from JWT secret.
-     *
-     * @return <code>Key</code>.
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(applicationProperties.jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
@@ -0,0 +1,153 @@
+package com.yashmerino.ecommerce.security;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of the principals loaded from the database.
+ * Entries live for a short time and are evicted explicitly when user's roles change or the user logs out,
+ * so requests don't hit the database while role changes still apply quickly.
+ */
+@Component
+public class PrincipalCache {
+
+    /**
+     * Time after which an entry is reloaded, in milliseconds. Zero disables the cache.
+     */
+    private final long ttl;
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int maxSize;
+
+    /**
+     * Cached principals by username, in access order so the least recently used one is evicted first.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Number of invalidations, a principal loaded while an invalidation happened isn't cached.
+     */
+    private long invalidations;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationProperties is the application's properties.
+     */
+    public PrincipalCache(ApplicationProperties applicationProperties) {
+        this.ttl = applicationProperties.jwtPrincipalCacheTtl;
+        this.maxSize = applicationProperties.jwtPrincipalCacheMaxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns whether the cache is enabled.
+     *
+     * @return <code>true</code> if principals are cached.
+     */
+    public boolean isEnabled() {
+        return ttl > 0;
+    }
+
+    /**
+     * Returns the cached principal or loads it.
+     *
+     * @param username is the user's username.
+     * @param loader   loads the principal on a miss.
+     * @return the principal.
+     */
+    public JwtPrincipal get(String username, Function<String, JwtPrincipal> loader) {
+        if (!isEnabled()) {
+            return loader.apply(username);
+        }
+
+        long now = System.currentTimeMillis();
+        long invalidationsBeforeLoad;
+
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+
+            if (entry != null && entry.expiresAt() > now) {
+                return entry.principal();
+            }
+
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        JwtPrincipal principal = loader.apply(username);
+
+        synchronized (entries) {
+            if (invalidations == invalidationsBeforeLoad) {
+                entries.put(username, new Entry(principal, now + ttl));
+            }
+        }
+
+        return principal;
+    }
+
+    /**
+     * Evicts user's principal.
+     *
+     * @param username is the user's username.
+     */
+    public void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+            invalidations++;
+        }
+    }
+
+    /**
+     * Evicts all the principals.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations++;
+        }
+    }
+
+    /**
+     * Cached principal.
+     *
+     * @param principal is the principal.
+     * @param expiresAt is the time after which the principal is reloaded.
+     */
+    private record Entry(JwtPrincipal principal, long expiresAt) {
+    }
+}
@@ -24,6 +24,7 @@ package com.yashmerino.ecommerce.security;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
 import com.yashmerino.ecommerce.utils.Role;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,7 +34,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -79,6 +79,11 @@ public class SecurityConfig {
      */
     private static final String PRODUCTS_ALL_ENDPOINTS = "/api/product/**";
 
+    /**
+     * Endpoint that rebuilds the products' search index.
+     */
+    private static final String PRODUCTS_SEARCH_REBUILD_ENDPOINT = "/api/product/search/rebuild";
+
     /**
      * Regex for all the endpoints related to cart items.
      */
@@ -124,17 +129,24 @@ public class SecurityConfig {
      */
     private final CustomUserDetailsService customUserDetailsService;
 
+    /**
+     * Principal cache.
+     */
+    private final PrincipalCache principalCache;
+
     /**
      * Constructor.
      *
      * @param jwtAuthEntryPoint        is the auth entry point.
      * @param tokenGenerator           is the token generator.
      * @param customUserDetailsService is the service that deals with user's details.
+     * @param principalCache           is the principal cache.
      */
-    public SecurityConfig(JwtAuthEntryPoint jwtAuthEntryPoint, JwtProvider tokenGenerator, CustomUserDetailsService customUserDetailsService) {
+    public SecurityConfig(JwtAuthEntryPoint jwtAuthEntryPoint, JwtProvider tokenGenerator, CustomUserDetailsService customUserDetailsService, PrincipalCache principalCache) {
         this.jwtAuthEntryPoint = jwtAuthEntryPoint;
         this.tokenGenerator = tokenGenerator;
         this.customUserDetailsService = customUserDetailsService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -168,6 +180,7 @@ public class SecurityConfig {
                         .requestMatchers(ORDERS_ALL_ENDPOINTS).hasAnyAuthority(Role.USER.name())
                         .requestMatchers(PAYMENTS_ALL_ENDPOINTS).hasAnyAuthority(Role.USER.name())
                         .requestMatchers(CARTS_ALL_ENDPOINTS).hasAnyAuthority(Role.USER.name())
+                        .requestMatchers(HttpMethod.POST, PRODUCTS_SEARCH_REBUILD_ENDPOINT).hasAuthority(Role.ADMIN.name())
                         .requestMatchers(HttpMethod.POST, PRODUCTS_ALL_ENDPOINTS).hasAuthority(Role.SELLER.name())
                         .requestMatchers(HttpMethod.PUT, PRODUCTS_ALL_ENDPOINTS).hasAuthority(Role.SELLER.name())
                         .requestMatchers(HttpMethod.DELETE, PRODUCTS_ALL_ENDPOINTS).hasAuthority(Role.SELLER.name())
@@ -197,15 +210,16 @@ public class SecurityConfig {
     /**
      * Generates an BCrypt password encoder.
      *
+     * @param applicationProperties is the application properties.
      * @return an BCrypt password encoder.
      */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties) {
+        return new StrengthAwareBCryptPasswordEncoder(applicationProperties.bcryptStrength);
     }
 
     @Bean
     public JwtAuthFilter jwtAuthenticationFilter() {
-        return new JwtAuthFilter(tokenGenerator, customUserDetailsService);
+        return new JwtAuthFilter(tokenGenerator, customUserDetailsService, principalCache);
     }
 }
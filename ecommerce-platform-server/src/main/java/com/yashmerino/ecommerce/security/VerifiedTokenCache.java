@@ -0,0 +1,131 @@
+package com.yashmerino.ecommerce.security;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the claims of already verified tokens, keyed by the token's SHA-256 hash.
+ * An entry is used only until the token expires, so a cached token is never accepted longer than a parsed one.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * Maximum number of entries. Zero disables the cache.
+     */
+    private final int maxSize;
+
+    /**
+     * Claims by token hash, in access order so the least recently used one is evicted first.
+     */
+    private final Map<String, Claims> entries;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationProperties is the application's properties.
+     */
+    public VerifiedTokenCache(ApplicationProperties applicationProperties) {
+        this.maxSize = applicationProperties.jwtVerifiedTokenCacheMaxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the claims of a verified token that hasn't expired yet.
+     *
+     * @param token is the JWT token.
+     * @return the claims or <code>null</code> if the token isn't cached.
+     */
+    public Claims get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+
+        String key = hash(token);
+
+        synchronized (entries) {
+            Claims claims = entries.get(key);
+
+            if (claims == null) {
+                return null;
+            }
+
+            if (claims.getExpiration() == null || claims.getExpiration().getTime() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+
+            return claims;
+        }
+    }
+
+    /**
+     * Caches the claims of a verified token.
+     *
+     * @param token  is the JWT token.
+     * @param claims is the token's claims.
+     */
+    public void put(String token, Claims claims) {
+        if (maxSize <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+
+        String key = hash(token);
+
+        synchronized (entries) {
+            entries.put(key, claims);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of the token.
+     *
+     * @param token is the JWT token.
+     * @return Base64 encoded hash.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
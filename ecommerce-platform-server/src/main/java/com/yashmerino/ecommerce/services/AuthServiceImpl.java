@@ -36,12 +36,13 @@ import com.yashmerino.ecommerce.model.dto.auth.RegisterDTO;
 import com.yashmerino.ecommerce.repositories.RoleRepository;
 import com.yashmerino.ecommerce.repositories.UserRepository;
 import com.yashmerino.ecommerce.security.JwtProvider;
+import com.yashmerino.ecommerce.security.PrincipalCache;
 import com.yashmerino.ecommerce.services.interfaces.AuthService;
 import com.yashmerino.ecommerce.services.interfaces.CartService;
 import com.yashmerino.ecommerce.services.interfaces.RefreshTokenService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -49,6 +50,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.stream.Collectors;
@@ -64,11 +66,6 @@ import java.util.Optional;
 @Service
 public class AuthServiceImpl implements AuthService {
 
-    /**
-     * Authentication manager.
-     */
-    private final AuthenticationManager authenticationManager;
-
     /**
      * Users' repository.
      */
@@ -105,9 +102,15 @@ public class AuthServiceImpl implements AuthService {
     private final NotificationEventProducer notificationEventProducer;
 
     /**
-     * Registers the user.
+     * Principal cache.
+     */
+    private final PrincipalCache principalCache;
+
+    /**
+     * Registers the user. The welcome notification is written to the outbox in the same transaction as the user.
      */
     @Override
+    @Transactional
     public void register(RegisterDTO registerDTO) {
         if (userRepository.existsByUsername(registerDTO.getUsername())) { // NOSONAR - The user repository cannot be null.
             throw new UsernameAlreadyTakenException("username_taken");
@@ -141,25 +144,30 @@ public class AuthServiceImpl implements AuthService {
     }
 
     /**
-     * Logins the user.
+     * Logins the user. The user is loaded once and authenticated against the loaded password hash,
+     * which is replaced if it was hashed with another strength.
      *
      * @param loginDTO is the login DTO.
      * @return AuthResponseDTO with access and refresh tokens.
      */
     @Override
     public AuthResponseDTO login(LoginDTO loginDTO) {
-        if (!userRepository.existsByUsername(loginDTO.getUsername())) {
-            throw new UserDoesntExistException("username_not_found");
+        User user = userRepository.findByUsername(loginDTO.getUsername())
+                .orElseThrow(() -> new UserDoesntExistException("username_not_found"));
+
+        if (!passwordEncoder.matches(loginDTO.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
         }
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginDTO.getUsername(), loginDTO.getPassword()));
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(loginDTO.getPassword()));
+            userRepository.updatePassword(user.getId(), user.getPassword());
+        }
 
-        User user = userRepository.findByUsername(loginDTO.getUsername())
-                .orElseThrow(() -> new UserDoesntExistException("username_not_found"));
+        Authentication authentication = authenticate(user);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String accessToken = jwtProvider.generateToken(authentication);
+        String accessToken = generateToken(authentication, user);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
 
         return new AuthResponseDTO(accessToken, refreshToken.getToken());
@@ -175,24 +183,43 @@ public class AuthServiceImpl implements AuthService {
     public String refreshAccessToken(String refreshToken) {
         RefreshToken validatedToken = refreshTokenService.verifyRefreshToken(refreshToken);
         User user = validatedToken.getUser();
-        
+
+        return generateToken(authenticate(user), user);
+    }
+
+    /**
+     * Generates an access token that carries the user's id and cart id.
+     *
+     * @param authentication the user's authentication.
+     * @param user the user.
+     * @return the access token.
+     */
+    private String generateToken(Authentication authentication, User user) {
+        return jwtProvider.generateToken(authentication, user.getId(), user.getCart() != null ? user.getCart().getId() : null);
+    }
+
+    /**
+     * Builds the authentication of a user whose credentials were checked.
+     *
+     * @param user the user.
+     * @return the user's authentication.
+     */
+    private Authentication authenticate(User user) {
         Collection<GrantedAuthority> authorities = user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.getName()))
                 .collect(Collectors.toList());
-        
-        Authentication authentication = new UsernamePasswordAuthenticationToken(
-                user.getUsername(), null, authorities);
-        
-        return jwtProvider.generateToken(authentication);
+
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), null, authorities);
     }
 
     /**
-     * Logs out the user by revoking their refresh tokens.
+     * Logs out the user by revoking their refresh tokens and evicting their cached principal.
      *
      * @param username the username.
      */
     @Override
     public void logout(String username) {
         refreshTokenService.revokeUserTokens(username);
+        principalCache.invalidate(username);
     }
 }
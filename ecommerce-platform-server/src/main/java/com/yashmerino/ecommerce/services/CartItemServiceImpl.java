@@ -26,17 +26,28 @@ package com.yashmerino.ecommerce.services;
 
 import com.yashmerino.ecommerce.model.CartItem;
 import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.model.dto.CartItemDTO;
+import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
 import com.yashmerino.ecommerce.repositories.CartItemRepository;
-import com.yashmerino.ecommerce.repositories.UserRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.security.JwtPrincipal;
 import com.yashmerino.ecommerce.services.interfaces.CartItemService;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
+import com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -50,6 +61,16 @@ public class CartItemServiceImpl implements CartItemService {
      */
     private final CartItemRepository cartItemRepository;
 
+    /**
+     * Cart repository, keeps the carts' totals.
+     */
+    private final CartRepository cartRepository;
+
+    /**
+     * Redis cart store, used instead of the repository when it's enabled.
+     */
+    private final RedisCartStore redisCartStore;
+
     /**
      * Access denied message translation key.
      */
@@ -60,91 +81,88 @@ public class CartItemServiceImpl implements CartItemService {
      */
     private static final String CART_ITEM_NOT_FOUND_MESSAGE = "cartitem_not_found";
 
+    /**
+     * Cart item removed from the cart by a request that didn't wait for the cart, message translation key.
+     */
+    private static final String CART_ITEM_CHANGED_MESSAGE = "cartitem_changed_meanwhile";
+
     /**
      * Constructor to inject dependencies.
      *
      * @param cartItemRepository is the cart item repository.
+     * @param cartRepository     is the cart repository.
+     * @param redisCartStore     is the Redis cart store.
      */
-    public CartItemServiceImpl(CartItemRepository cartItemRepository) {
+    public CartItemServiceImpl(CartItemRepository cartItemRepository, CartRepository cartRepository, RedisCartStore redisCartStore) {
         this.cartItemRepository = cartItemRepository;
+        this.cartRepository = cartRepository;
+        this.redisCartStore = redisCartStore;
     }
 
     /**
-     * Deletes a cart item.
+     * Deletes a cart item of the current user's cart and takes it out of the cart's total.
+     * Checking that the item is in the cart and taking it out of the total is one statement, see
+     * {@link CartRepository#addItemChangeToTotals(Long, Long, int)}.
      *
      * @param id is the cart item's id.
      */
     @Override
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
     public void deleteCartItem(final Long id) {
-        Optional<CartItem> cartItemOptional = cartItemRepository.findById(id);
+        Long cartId = getCurrentCartId();
 
-        if (cartItemOptional.isPresent()) {
-            CartItem cartItem = cartItemOptional.get();
+        if (redisCartStore.isEnabled()) {
+            redisCartStore.deleteItem(cartId, id);
+            return;
+        }
 
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String currentUserUsername = auth.getName();
+        changeTotals(id, cartId, 0);
 
-            if (!cartItem.getCart().getUser().getUsername().equals(currentUserUsername)) {
-                throw new AccessDeniedException(ACCESS_DENIED_MESSAGE);
-            }
-        } else {
-            throw new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE);
+        if (cartItemRepository.deleteByIdAndCartId(id, cartId) == 0) {
+            throw new ConcurrencyFailureException(CART_ITEM_CHANGED_MESSAGE);
         }
-
-        cartItemRepository.deleteById(id);
     }
 
     /**
-     * Changes the quantity of a cart item.
+     * Changes the quantity of a cart item of the current user's cart and the cart's total with it.
+     * Checking that the item is in the cart and adding the change to the total is one statement, see
+     * {@link CartRepository#addItemChangeToTotals(Long, Long, int)}.
      *
      * @param id       is the cart item's id.
      * @param quantity is the cart item's quantity.
      */
     @Override
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
     public void changeQuantity(final Long id, final Integer quantity) {
-        Optional<CartItem> cartItemOptional = cartItemRepository.findById(id);
-
-        if (cartItemOptional.isPresent()) {
-            CartItem cartItem = cartItemOptional.get();
+        Long cartId = getCurrentCartId();
 
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String currentUserUsername = auth.getName();
+        if (redisCartStore.isEnabled()) {
+            redisCartStore.changeQuantity(cartId, id, quantity);
+            return;
+        }
 
-            if (!cartItem.getCart().getUser().getUsername().equals(currentUserUsername)) {
-                throw new AccessDeniedException(ACCESS_DENIED_MESSAGE);
-            }
+        changeTotals(id, cartId, quantity);
 
-            cartItem.setQuantity(quantity);
-            cartItemRepository.save(cartItem);
-        } else {
-            throw new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE);
+        if (cartItemRepository.updateQuantityByIdAndCartId(id, cartId, quantity) == 0) {
+            throw new ConcurrencyFailureException(CART_ITEM_CHANGED_MESSAGE);
         }
     }
 
     /**
-     * Returns a cart item.
+     * Returns a cart item of the current user's cart.
      *
      * @param id is the cart item's id.
      * @return <code>CartItem</code>
      */
     @Override
     public CartItem getCartItem(final Long id) {
-        Optional<CartItem> cartItemOptional = cartItemRepository.findById(id);
-
-        if (cartItemOptional.isPresent()) {
-            CartItem cartItem = cartItemOptional.get();
-
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String currentUserUsername = auth.getName();
-
-            if (!cartItem.getCart().getUser().getUsername().equals(currentUserUsername)) {
-                throw new AccessDeniedException(ACCESS_DENIED_MESSAGE);
-            }
+        Long cartId = getCurrentCartId();
 
-            return cartItem;
-        } else {
-            throw new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE);
+        if (redisCartStore.isEnabled()) {
+            return redisCartStore.getItem(cartId, id);
         }
+
+        return findInCart(id, cartId);
     }
 
     /**
@@ -164,11 +182,61 @@ public class CartItemServiceImpl implements CartItemService {
             throw new AccessDeniedException(ACCESS_DENIED_MESSAGE);
         }
 
+        if (redisCartStore.isEnabled()) {
+            return redisCartStore.getItems(redisCartStore.getCartId(username), pageable);
+        }
+
         return cartItemRepository.findAllByCartUserUsername(username, pageable);
     }
 
     /**
-     * Calculates the total price of the cart.
+     * Returns the cart items that come after the cursor, ordered by id.
+     *
+     * @param username is the user's username.
+     * @param after is the cursor returned with the previous page, <code>null</code> for the first page.
+     * @param limit is the page size.
+     * @param count whether to count all the cart items.
+     *
+     * @return Paginated DTO of CartItemDTOs.
+     */
+    @Override
+    public PaginatedDTO<CartItemDTO> getCartItemsAfter(String username, String after, int limit, boolean count) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String currentUserUsername = auth.getName();
+
+        if (!username.equals(currentUserUsername)) {
+            throw new AccessDeniedException(ACCESS_DENIED_MESSAGE);
+        }
+
+        Long afterId = after != null ? KeysetCursor.decode(after).getId() : 0L;
+        List<CartItem> items;
+        Long totalItems = null;
+
+        if (redisCartStore.isEnabled()) {
+            Long cartId = redisCartStore.getCartId(username);
+            items = redisCartStore.getItemsAfter(cartId, afterId, limit + 1);
+
+            if (count) {
+                totalItems = redisCartStore.countItems(cartId);
+            }
+        } else {
+            items = cartItemRepository.findAllByCartUserUsernameAfter(username, afterId, PageRequest.of(0, limit + 1));
+
+            if (count) {
+                totalItems = cartItemRepository.countByCartUserUsername(username);
+            }
+        }
+
+        PaginatedDTO<CartItemDTO> paginated = PaginatedDTO.buildCursorResponse(items, limit, after != null,
+                item -> KeysetCursor.of(item.getId()),
+                page -> page.stream().map(RequestBodyToEntityConverter::convertToCartItemDTO).toList());
+        paginated.setTotalItems(totalItems);
+
+        return paginated;
+    }
+
+    /**
+     * Returns the total price of the cart, kept up to date on every change of its items.
      *
      * @param username is the user whose cart to use.
      *
@@ -183,9 +251,11 @@ public class CartItemServiceImpl implements CartItemService {
             throw new AccessDeniedException("access_denied");
         }
 
+        if (redisCartStore.isEnabled()) {
+            return redisCartStore.getTotalPrice(redisCartStore.getCartId(username));
+        }
 
-        Double total = cartItemRepository.getTotalPriceByUsername(username);
-        return total != null ? total : 0.0;
+        return cartRepository.findTotalByUsername(username).map(BigDecimal::doubleValue).orElse(0.0);
     }
 
     /**
@@ -197,4 +267,64 @@ public class CartItemServiceImpl implements CartItemService {
     public void save(final CartItem cartItem) {
         cartItemRepository.save(cartItem);
     }
+
+    /**
+     * Returns the current user's cart id, carried by the principal when the user was authenticated with a token.
+     *
+     * @return the cart's id, <code>null</code> if the user doesn't have a cart.
+     */
+    private Long getCurrentCartId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth.getPrincipal() instanceof JwtPrincipal principal && principal.getCartId() != null) {
+            return principal.getCartId();
+        }
+
+        if (redisCartStore.isEnabled()) {
+            return redisCartStore.getCartId(auth.getName());
+        }
+
+        return cartRepository.findIdByUsername(auth.getName()).orElse(null);
+    }
+
+    /**
+     * Returns a cart item of the current user's cart.
+     *
+     * @param id     is the cart item's id.
+     * @param cartId is the current user's cart id, <code>null</code> if the user has no cart.
+     * @return <code>CartItem</code>
+     */
+    private CartItem findInCart(final Long id, final Long cartId) {
+        Optional<CartItem> cartItem = cartId != null ? cartItemRepository.findByIdAndCartId(id, cartId) : Optional.empty();
+
+        return cartItem.orElseThrow(() -> notInCart(id));
+    }
+
+    /**
+     * Adds the change of a cart item of the current user's cart to the cart's totals.
+     *
+     * @param id       is the cart item's id.
+     * @param cartId   is the current user's cart id, <code>null</code> if the user has no cart.
+     * @param quantity is the item's new quantity, 0 if it's deleted.
+     */
+    private void changeTotals(final Long id, final Long cartId, final int quantity) {
+        if (cartId == null || cartRepository.addItemChangeToTotals(cartId, id, quantity) == 0) {
+            throw notInCart(id);
+        }
+    }
+
+    /**
+     * Returns the error for a cart item that isn't in the current user's cart.
+     * The item is looked up only on this path, to tell a missing item from someone else's.
+     *
+     * @param id is the cart item's id.
+     * @return <code>AccessDeniedException</code> if the item exists, <code>EntityNotFoundException</code> otherwise.
+     */
+    private RuntimeException notInCart(final Long id) {
+        if (cartItemRepository.existsById(id)) {
+            return new AccessDeniedException(ACCESS_DENIED_MESSAGE);
+        }
+
+        return new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE);
+    }
 }
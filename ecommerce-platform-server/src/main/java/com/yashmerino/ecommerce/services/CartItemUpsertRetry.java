@@ -0,0 +1,82 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a change of a cart's items in its own transaction and runs it again if it lost a race with another request
+ * adding the same product. The unique (cart_id, product_id) constraint rejects the second insert, the new attempt
+ * finds the item the other request inserted and updates it.
+ */
+@Component
+@Slf4j
+public class CartItemUpsertRetry {
+
+    /**
+     * Maximum number of attempts of a change.
+     */
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Transaction in which a change is made.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor.
+     *
+     * @param transactionManager is the transaction manager.
+     */
+    public CartItemUpsertRetry(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs a change of a cart's items, again if it inserted an item that another request inserted meanwhile.
+     * A change that joined the caller's transaction isn't run again, the transaction is marked for rollback.
+     *
+     * @param change is the change.
+     */
+    public void execute(Runnable change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> change.run());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+
+                log.debug("Cart item was inserted concurrently, attempt {} of {}.", attempt + 1, MAX_ATTEMPTS);
+            }
+        }
+    }
+}
@@ -25,18 +25,30 @@ package com.yashmerino.ecommerce.services;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Cart;
+import com.yashmerino.ecommerce.model.CartItem;
 import com.yashmerino.ecommerce.model.User;
+import com.yashmerino.ecommerce.model.dto.CartItemQuantityDTO;
+import com.yashmerino.ecommerce.model.projections.ProductPriceView;
 import com.yashmerino.ecommerce.repositories.CartItemRepository;
 import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.repositories.ProductRepository;
 import com.yashmerino.ecommerce.services.interfaces.CartService;
 import com.yashmerino.ecommerce.services.interfaces.UserService;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation for cart service.
@@ -55,13 +67,28 @@ public class CartServiceImpl implements CartService {
      */
     private final CartItemRepository cartItemRepository;
 
+    /**
+     * Product repository.
+     */
+    private final ProductRepository productRepository;
+
     /**
      * User service.
      */
     private final UserService userService;
 
     /**
-     * Clears the current user's cart.
+     * Redis cart store.
+     */
+    private final RedisCartStore redisCartStore;
+
+    /**
+     * Retry of the changes that raced another request adding the same product.
+     */
+    private final CartItemUpsertRetry cartItemUpsertRetry;
+
+    /**
+     * Clears the current user's cart and its total.
      */
     @Override
     @Transactional
@@ -70,6 +97,79 @@ public class CartServiceImpl implements CartService {
         User user = userService.getByUsername(userDetails.getUsername());
 
         cartItemRepository.deleteByCartId(user.getCart().getId());
+        cartRepository.resetTotals(user.getCart().getId());
+        redisCartStore.clear(user.getCart().getId());
+    }
+
+    /**
+     * Adds products to the current user's cart or updates their quantities if they're already there.
+     * The products' prices and the existing cart items are loaded with one query each and everything, the cart's total included, is saved in one transaction.
+     * If a product is listed more than once, its last quantity is used.
+     *
+     * @param items are the products and their quantities.
+     */
+    @Override
+    public void upsertItems(final List<CartItemQuantityDTO> items) {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = userService.getByUsername(userDetails.getUsername());
+        Cart cart = user.getCart();
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartItemQuantityDTO item : items) {
+            quantities.put(item.getProductId(), item.getQuantity());
+        }
+
+        cartItemUpsertRetry.execute(() -> upsertItems(cart, quantities));
+    }
+
+    /**
+     * Adds products to a cart or updates their quantities if they're already there.
+     *
+     * @param cart       is the cart.
+     * @param quantities are the products' quantities by their ids.
+     */
+    private void upsertItems(final Cart cart, final Map<Long, Integer> quantities) {
+        redisCartStore.lockAndFlush(cart.getId());
+
+        Map<Long, ProductPriceView> products = productRepository.findPriceViewsByIds(quantities.keySet()).stream()
+                .collect(Collectors.toMap(ProductPriceView::getId, Function.identity()));
+
+        if (products.size() != quantities.size()) {
+            throw new EntityNotFoundException("Product couldn't be found!");
+        }
+
+        Map<Long, CartItem> cartItems = cartItemRepository.findAllByCartIdAndProductIdIn(cart.getId(), quantities.keySet()).stream()
+                .collect(Collectors.toMap(cartItem -> cartItem.getProduct().getId(), Function.identity()));
+
+        List<CartItem> upserted = new ArrayList<>(quantities.size());
+        BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 0;
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            ProductPriceView product = products.get(entry.getKey());
+            CartItem cartItem = cartItems.get(entry.getKey());
+
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(productRepository.getReferenceById(product.getId()));
+            } else {
+                total = total.subtract(cartItem.subtotal());
+                itemCount -= cartItem.getQuantity();
+            }
+
+            cartItem.setName(product.getName());
+            cartItem.setPrice(product.getPrice());
+            cartItem.setQuantity(entry.getValue());
+            upserted.add(cartItem);
+
+            total = total.add(cartItem.subtotal());
+            itemCount += cartItem.getQuantity();
+        }
+
+        cartItemRepository.saveAll(upserted);
+        cartRepository.addToTotals(cart.getId(), total, itemCount);
+        redisCartStore.evict(cart.getId());
     }
 
     /**
@@ -0,0 +1,106 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the carts' totals again from their items and fixes the ones that drifted from the incremental updates,
+ * e.g. after concurrent changes of the same item. The carts are checked in id ranges, each range in its own transaction.
+ */
+@Component
+@Slf4j
+public class CartTotalsReconciler {
+
+    /**
+     * Cart repository.
+     */
+    private final CartRepository cartRepository;
+
+    /**
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Number of fixed carts.
+     */
+    private final Counter reconciledCounter;
+
+    /**
+     * Time spent checking the carts.
+     */
+    private final Timer reconcileTimer;
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param cartRepository is the cart repository.
+     * @param applicationProperties is the application properties.
+     * @param meterRegistry is the registry of the reconciliation's metrics.
+     */
+    public CartTotalsReconciler(CartRepository cartRepository, ApplicationProperties applicationProperties,
+                                MeterRegistry meterRegistry) {
+        this.cartRepository = cartRepository;
+        this.applicationProperties = applicationProperties;
+
+        this.reconciledCounter = Counter.builder("carts.totals.reconciled")
+                .description("Carts whose totals drifted and were fixed by the reconciliation.")
+                .register(meterRegistry);
+        this.reconcileTimer = Timer.builder("carts.totals.reconcile")
+                .description("Time spent checking the carts' totals.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks all the carts, range after range.
+     */
+    @Scheduled(fixedDelayString = "${cart.totals.reconcile.interval:3600000}",
+            initialDelayString = "${cart.totals.reconcile.interval:3600000}")
+    public void reconcile() {
+        reconcileTimer.record(() -> {
+            long batchSize = applicationProperties.cartTotalsReconcileBatchSize;
+            long maxId = cartRepository.findMaxId().orElse(0L);
+            long reconciled = 0;
+
+            for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+                reconciled += cartRepository.reconcileTotals(fromId, fromId + batchSize - 1);
+            }
+
+            reconciledCounter.increment(reconciled);
+
+            if (reconciled > 0) {
+                log.warn("Fixed the totals of {} carts.", reconciled);
+            }
+        });
+    }
+}
@@ -0,0 +1,555 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.model.Category;
+import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.model.projections.ProductCategoryView;
+import com.yashmerino.ecommerce.model.projections.ProductSearchView;
+import com.yashmerino.ecommerce.repositories.CategoryRepository;
+import com.yashmerino.ecommerce.repositories.ProductRepository;
+import com.yashmerino.ecommerce.services.interfaces.ProductSearchEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Product search engine that keeps an inverted index of the products in memory.
+ * Every term of the product's name, categories and description points to the products that contain it,
+ * so a query only touches the postings of its own terms instead of scanning the products table.
+ */
+@Service
+@Slf4j
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+
+    /**
+     * Weight of a term found in product's name.
+     */
+    private static final float NAME_WEIGHT = 3.0f;
+
+    /**
+     * Weight of a term found in product's categories.
+     */
+    private static final float CATEGORY_WEIGHT = 2.0f;
+
+    /**
+     * Weight of a term found in product's description.
+     */
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    /**
+     * Factor applied to the score when the query term only matches the beginning of an indexed term.
+     */
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    /**
+     * Number of products loaded per batch when the index is rebuilt.
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * Pattern used to split text into terms.
+     */
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Product repository.
+     */
+    private final ProductRepository productRepository;
+
+    /**
+     * Category repository.
+     */
+    private final CategoryRepository categoryRepository;
+
+    /**
+     * Lock that guards the index.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Current index.
+     */
+    private Index index = new Index();
+
+    /**
+     * Changes made while the index is rebuilt, replayed on the new index before it replaces the current one.
+     * <code>null</code> when no rebuild is running.
+     */
+    private List<Change> rebuildChanges;
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param productRepository  is the product repository.
+     * @param categoryRepository is the category repository.
+     */
+    public InMemoryProductSearchEngine(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Builds the index once the application is started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Searches for products by query.
+     * Every term of the query must match, the last one may also match the beginning of a term.
+     *
+     * @param query    is the query.
+     * @param pageable is the page object.
+     *
+     * @return page of matching products' ids, most relevant first.
+     */
+    @Override
+    public Page<Long> search(String query, Pageable pageable) {
+        Set<String> terms = tokenize(query);
+
+        if (terms.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        Map<Long, Float> scores;
+
+        lock.readLock().lock();
+        try {
+            scores = score(new ArrayList<>(terms));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return toPage(scores, pageable);
+    }
+
+    /**
+     * Adds a product to the index or replaces the indexed version of it, once the current transaction commits.
+     *
+     * @param product is the product.
+     */
+    @Override
+    public void index(Product product) {
+        Map<String, Float> terms = extractTerms(product.getName(), product.getDescription(), resolveCategoryNames(product.getCategories()));
+
+        afterCommit(new Change(product.getId(), terms));
+    }
+
+    /**
+     * Removes a product from the index, once the current transaction commits.
+     *
+     * @param id is the product's id.
+     */
+    @Override
+    public void remove(Long id) {
+        afterCommit(new Change(id, null));
+    }
+
+    /**
+     * Rebuilds the whole index from the database.
+     * Products are read in batches by id without their photos, the current index keeps serving queries until the new one is ready.
+     * The changes made meanwhile are replayed on the new index, so the ones the batches missed aren't lost.
+     *
+     * @return the number of indexed products.
+     */
+    @Override
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        Index rebuilt = new Index();
+
+        lock.writeLock().lock();
+        try {
+            rebuildChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            load(rebuilt);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuildChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            rebuildChanges.forEach(change -> change.applyTo(rebuilt));
+            rebuildChanges = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Product search index rebuilt with {} products in {} ms.", rebuilt.size(), System.currentTimeMillis() - start);
+        return rebuilt.size();
+    }
+
+    /**
+     * Applies a change to the index after the current transaction commits or right away if there's no transaction,
+     * so a rolled back change never reaches the index.
+     *
+     * @param change is the change.
+     */
+    private void afterCommit(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    /**
+     * Applies a change to the index and records it for the running rebuild.
+     *
+     * @param change is the change.
+     */
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(index);
+
+            if (rebuildChanges != null) {
+                rebuildChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads all the products into an index.
+     *
+     * @param rebuilt is the index.
+     */
+    private void load(Index rebuilt) {
+        Pageable batch = PageRequest.of(0, REBUILD_BATCH_SIZE);
+        long lastId = 0L;
+
+        List<ProductSearchView> products = productRepository.findSearchViewsAfter(lastId, batch);
+        while (!products.isEmpty()) {
+            List<Long> ids = products.stream().map(ProductSearchView::getId).toList();
+            Map<Long, List<String>> categories = productRepository.findCategoriesByProductIds(ids).stream()
+                    .collect(Collectors.groupingBy(ProductCategoryView::getProductId,
+                            Collectors.mapping(ProductCategoryView::getCategoryName, Collectors.toList())));
+
+            for (ProductSearchView product : products) {
+                rebuilt.add(product.getId(), extractTerms(product.getName(), product.getDescription(),
+                        categories.getOrDefault(product.getId(), List.of())));
+            }
+
+            lastId = ids.get(ids.size() - 1);
+            products = productRepository.findSearchViewsAfter(lastId, batch);
+        }
+    }
+
+    /**
+     * Scores the products that match all the terms.
+     *
+     * @param terms is the query's terms.
+     *
+     * @return map of products' ids to their scores.
+     */
+    private Map<Long, Float> score(List<String> terms) {
+        Map<Long, Float> scores = null;
+
+        for (int i = 0; i < terms.size(); i++) {
+            boolean prefix = i == terms.size() - 1;
+            Map<Long, Float> termScores = index.match(terms.get(i), prefix);
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * Returns the requested page of the scored products.
+     * Only the best <code>offset + page size</code> products are kept in a heap instead of sorting all the matches.
+     *
+     * @param scores   is the map of products' ids to their scores.
+     * @param pageable is the page object.
+     *
+     * @return page of products' ids, most relevant first.
+     */
+    private Page<Long> toPage(Map<Long, Float> scores, Pageable pageable) {
+        Comparator<Map.Entry<Long, Float>> byRelevance = Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long limit = pageable.isPaged() ? offset + pageable.getPageSize() : scores.size();
+
+        if (offset >= scores.size()) {
+            return new PageImpl<>(List.of(), pageable, scores.size());
+        }
+
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(byRelevance.reversed());
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            best.offer(entry);
+
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(best);
+        ranked.sort(byRelevance);
+
+        List<Long> ids = ranked.stream()
+                .skip(offset)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        return new PageImpl<>(ids, pageable, scores.size());
+    }
+
+    /**
+     * Extracts the weighted terms of a product.
+     *
+     * @param name          is the product's name.
+     * @param description   is the product's description.
+     * @param categoryNames is the product's categories' names.
+     *
+     * @return map of terms to their weights.
+     */
+    private Map<String, Float> extractTerms(String name, String description, Collection<String> categoryNames) {
+        Map<String, Float> terms = new HashMap<>();
+
+        addTerms(terms, name, NAME_WEIGHT);
+        addTerms(terms, description, DESCRIPTION_WEIGHT);
+        for (String categoryName : categoryNames) {
+            addTerms(terms, categoryName, CATEGORY_WEIGHT);
+        }
+
+        return terms;
+    }
+
+    /**
+     * Adds the terms of a text with the given weight.
+     *
+     * @param terms  is the map of terms to their weights.
+     * @param text   is the text.
+     * @param weight is the weight of the text's terms.
+     */
+    private void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Resolves the names of the categories, the ones that came without a name are loaded from the database.
+     *
+     * @param categories is the product's categories.
+     *
+     * @return list of categories' names.
+     */
+    private List<String> resolveCategoryNames(Set<Category> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Long> unnamed = new ArrayList<>();
+
+        for (Category category : categories) {
+            if (category.getName() != null) {
+                names.add(category.getName());
+            } else if (category.getId() != null) {
+                unnamed.add(category.getId());
+            }
+        }
+
+        if (!unnamed.isEmpty()) {
+            categoryRepository.findAllById(unnamed).forEach(category -> names.add(category.getName()));
+        }
+
+        return names;
+    }
+
+    /**
+     * Splits a text into lowercase terms.
+     *
+     * @param text is the text.
+     *
+     * @return ordered set of terms.
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+
+        if (text == null) {
+            return terms;
+        }
+
+        for (String term : TERM_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * Change of an indexed product.
+     *
+     * @param id    is the product's id.
+     * @param terms is the map of product's terms to their weights, <code>null</code> if the product was removed.
+     */
+    private record Change(Long id, Map<String, Float> terms) {
+
+        /**
+         * Applies the change to an index.
+         *
+         * @param index is the index.
+         */
+        void applyTo(Index index) {
+            index.remove(id);
+
+            if (terms != null) {
+                index.add(id, terms);
+            }
+        }
+    }
+
+    /**
+     * Inverted index of the products.
+     */
+    private static final class Index {
+
+        /**
+         * Terms sorted alphabetically, so the terms that start with a prefix are next to each other.
+         */
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+        /**
+         * Terms of every indexed product, used to remove a product from the postings.
+         */
+        private final Map<Long, Set<String>> documents = new HashMap<>();
+
+        /**
+         * Adds a product to the index.
+         *
+         * @param id    is the product's id.
+         * @param terms is the map of product's terms to their weights.
+         */
+        void add(Long id, Map<String, Float> terms) {
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(id, weight));
+            documents.put(id, new HashSet<>(terms.keySet()));
+        }
+
+        /**
+         * Removes a product from the index.
+         *
+         * @param id is the product's id.
+         */
+        void remove(Long id) {
+            Set<String> terms = documents.remove(id);
+
+            if (terms == null) {
+                return;
+            }
+
+            for (String term : terms) {
+                Map<Long, Float> products = postings.get(term);
+                products.remove(id);
+
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        /**
+         * Returns the products that contain the term.
+         * Rare terms score higher than common ones and exact matches score higher than prefix matches.
+         *
+         * @param term   is the term.
+         * @param prefix is whether the term may match the beginning of an indexed term.
+         *
+         * @return map of products' ids to their scores.
+         */
+        Map<Long, Float> match(String term, boolean prefix) {
+            Map<Long, Float> scores = new HashMap<>();
+            Map<String, Map<Long, Float>> matches = prefix
+                    ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                    : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+            for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+                float factor = match.getKey().length() == term.length() ? 1.0f : PREFIX_MATCH_FACTOR;
+                float idf = (float) Math.log(1.0 + (double) documents.size() / match.getValue().size());
+
+                match.getValue().forEach((id, weight) -> scores.merge(id, weight * idf * factor, Math::max));
+            }
+
+            return scores;
+        }
+
+        /**
+         * Returns the number of indexed products.
+         *
+         * @return the number of indexed products.
+         */
+        int size() {
+            return documents.size();
+        }
+    }
+}
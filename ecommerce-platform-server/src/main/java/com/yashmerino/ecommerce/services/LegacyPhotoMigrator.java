@@ -0,0 +1,131 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves photos that are still stored in the <code>photo</code> BLOB columns into the photo storage.
+ * Rows are read in batches by id and the BLOB is cleared once its key is written, so the migration can be interrupted and resumed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LegacyPhotoMigrator {
+
+    /**
+     * Tables that have legacy photos.
+     */
+    private static final List<String> TABLES = List.of("products", "users");
+
+    /**
+     * How many rows are read at once.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * JDBC template.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Photo storage.
+     */
+    private final PhotoStorage photoStorage;
+
+    /**
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Migrates the legacy photos once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!applicationProperties.photoStorageMigrateLegacy) {
+            return;
+        }
+
+        for (String table : TABLES) {
+            int migrated = migrate(table);
+
+            if (migrated > 0) {
+                log.info("Moved {} photos from {} to the photo storage.", migrated, table);
+            }
+        }
+    }
+
+    /**
+     * Migrates the legacy photos of a table.
+     *
+     * @param table is the table's name.
+     * @return the number of migrated photos.
+     */
+    int migrate(String table) {
+        String select = "SELECT id, photo FROM " + table + " WHERE id > ? AND photo IS NOT NULL AND photo_key IS NULL ORDER BY id LIMIT " + BATCH_SIZE;
+        String update = "UPDATE " + table + " SET photo_key = ?, photo = NULL WHERE id = ?";
+
+        int migrated = 0;
+        long lastId = 0;
+
+        while (true) {
+            List<Object[]> keys = new ArrayList<>();
+
+            jdbcTemplate.query(select, rs -> {
+                long id = rs.getLong("id");
+
+                try (InputStream photo = rs.getBinaryStream("photo")) {
+                    keys.add(new Object[]{photoStorage.store(photo), id});
+                } catch (IOException e) {
+                    log.error("Couldn't move the photo of {} {}.", table, id, e);
+                    keys.add(new Object[]{null, id});
+                }
+            }, lastId);
+
+            if (keys.isEmpty()) {
+                return migrated;
+            }
+
+            lastId = (long) keys.get(keys.size() - 1)[1];
+            keys.removeIf(key -> key[0] == null);
+
+            jdbcTemplate.batchUpdate(update, keys);
+            migrated += keys.size();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Photo storage on the local filesystem.
+ * Photos are content-addressed: the key is the SHA-256 of the content, so the same photo is stored once
+ * and a stored file never changes.
+ */
+@Service
+public class LocalPhotoStorage implements PhotoStorage {
+
+    /**
+     * Photo storage type of this storage.
+     */
+    static final String TYPE = "local";
+
+    /**
+     * Valid photo key.
+     */
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * Directory for uploads that are still being written.
+     */
+    private static final String UPLOADS_DIRECTORY = "uploads";
+
+    /**
+     * Storage's root directory.
+     */
+    private final Path root;
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param applicationProperties is the application properties.
+     * @throws IllegalStateException if another photo storage type is configured.
+     */
+    public LocalPhotoStorage(ApplicationProperties applicationProperties) {
+        if (!TYPE.equals(applicationProperties.photoStorageType)) {
+            throw new IllegalStateException("Unsupported photo.storage.type '" + applicationProperties.photoStorageType
+                    + "', the only available photo storage is '" + TYPE + "'.");
+        }
+
+        this.root = Path.of(applicationProperties.photoStorageRoot).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Streams the photo into a temporary file while hashing it and moves it under its key.
+     *
+     * @param content is the photo's content.
+     * @return the key of the stored photo.
+     * @throws IOException if the photo couldn't be stored.
+     */
+    @Override
+    public String store(InputStream content) throws IOException {
+        Path uploads = Files.createDirectories(root.resolve(UPLOADS_DIRECTORY));
+        Path upload = Files.createTempFile(uploads, "photo-", ".tmp");
+
+        try {
+            MessageDigest digest = newDigest();
+
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            return key;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Returns the stored photo.
+     *
+     * @param key is the photo's key.
+     * @return <code>Optional of Resource</code>, empty if nothing is stored under the key.
+     */
+    @Override
+    public Optional<Resource> load(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+
+        Path path = resolve(key);
+
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    /**
+     * Returns the path of the photo, files are spread over two levels of directories by the key's prefix.
+     *
+     * @param key is the photo's key.
+     * @return <code>Path</code>
+     */
+    private Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    /**
+     * Returns a new SHA-256 digest.
+     *
+     * @return <code>MessageDigest</code>
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -24,27 +24,41 @@ package com.yashmerino.ecommerce.services;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.yashmerino.ecommerce.exceptions.InvalidInputException;
+import com.yashmerino.ecommerce.model.CartItem;
 import com.yashmerino.ecommerce.model.Order;
-import com.yashmerino.ecommerce.model.Payment;
+import com.yashmerino.ecommerce.model.OrderSummary;
 import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.model.dto.OrderDTO;
 import com.yashmerino.ecommerce.model.dto.OrderWithPaymentDTO;
 import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
+import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
 import com.yashmerino.ecommerce.repositories.OrderRepository;
-import com.yashmerino.ecommerce.repositories.PaymentRepository;
+import com.yashmerino.ecommerce.repositories.OrderSummaryRepository;
 import com.yashmerino.ecommerce.services.interfaces.OrderService;
 import com.yashmerino.ecommerce.services.interfaces.UserService;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
+import com.yashmerino.ecommerce.utils.OrderStatus;
 import com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -55,21 +69,52 @@ import java.util.List;
 @AllArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    /**
+     * Inserts an order's line item.
+     */
+    private static final String INSERT_ITEM = "INSERT INTO order_items (created_at, updated_at, created_by, updated_by, "
+            + "order_id, product_id, name, unit_price, quantity) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     /**
      * Order repository.
      */
     private final OrderRepository orderRepository;
 
     /**
-     * Payment repository.
+     * Orders' summaries repository, the user's orders are listed from it.
      */
-    private final PaymentRepository paymentRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     /**
      * User service.
      */
     private final UserService userService;
 
+    /**
+     * Redis cart store, flushed before an order is placed.
+     */
+    private final RedisCartStore redisCartStore;
+
+    /**
+     * Cart items' repository.
+     */
+    private final CartItemRepository cartItemRepository;
+
+    /**
+     * Cart repository, keeps the carts' totals.
+     */
+    private final CartRepository cartRepository;
+
+    /**
+     * JDBC template, writes the line items in batches.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes the orders' summaries.
+     */
+    private final OrderSummaryWriter orderSummaryWriter;
+
     /**
      * Places a new order.
      *
@@ -78,6 +123,7 @@ public class OrderServiceImpl implements OrderService {
      * @return the new order's ID.
      */
     @Override
+    @Transactional
     public Long placeOrder(OrderDTO orderDTO) {
         Order order = RequestBodyToEntityConverter.convertToOrder(orderDTO);
 
@@ -85,13 +131,68 @@ public class OrderServiceImpl implements OrderService {
         User user = userService.getByUsername(userDetails.getUsername());
         order.setUser(user);
 
+        if (redisCartStore.isEnabled()) {
+            redisCartStore.flush(user.getCart().getId());
+        }
+
+        order = orderRepository.save(order);
+        orderSummaryWriter.orderPlaced(order, 0);
+
+        return order.getId();
+    }
+
+    /**
+     * Places an order for the items of the current user's cart and empties the cart, in one transaction.
+     * The cart's row is locked first, so concurrent checkouts of the cart are placed one after the other.
+     * The cart items are read with their products in one query, the total is computed from the products' current prices
+     * and the line items keep those prices. If the cart gained items while the order was placed, nothing is committed.
+     *
+     * @return the new order's ID.
+     */
+    @Override
+    @Transactional
+    public Long checkout() {
+        User user = getCurrentUser();
+        Long cartId = user.getCart().getId();
+
+        cartRepository.findByIdForUpdate(cartId);
+        redisCartStore.lockAndFlush(cartId);
+
+        List<CartItem> items = cartItemRepository.findAllWithProductByCartId(cartId);
+
+        if (items.isEmpty()) {
+            throw new InvalidInputException("cart_is_empty");
+        }
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int itemCount = 0;
+        for (CartItem item : items) {
+            totalAmount = totalAmount.add(getUnitPrice(item).multiply(BigDecimal.valueOf(item.getQuantity())));
+            itemCount += item.getQuantity();
+        }
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(totalAmount);
+        order.setStatus(OrderStatus.CREATED);
         order = orderRepository.save(order);
 
+        insertItems(order, items, user.getUsername());
+        orderSummaryWriter.orderPlaced(order, itemCount);
+
+        if (cartItemRepository.deleteAllInBulkByCartId(cartId) != items.size()) {
+            throw new ConcurrencyFailureException("cart_changed_during_checkout");
+        }
+
+        cartRepository.resetTotals(cartId);
+        redisCartStore.clear(cartId);
+
         return order.getId();
     }
 
     /**
      * Gets all orders for the current user with their payment information.
+     * The orders are read from their summaries, which already hold the latest payment, so a page is one indexed query.
      *
      * @param page page number
      * @param size page size
@@ -99,33 +200,138 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public PaginatedDTO<OrderWithPaymentDTO> getUserOrders(int page, int size) {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userService.getByUsername(userDetails.getUsername());
+        User user = getCurrentUser();
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orderPage = orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), pageable);
-        
-        List<OrderWithPaymentDTO> result = new ArrayList<>();
+        Page<OrderSummary> summaryPage = orderSummaryRepository.findByUserIdOrderByCreatedAtDescOrderIdDesc(user.getId(), pageable);
 
-        for (Order order : orderPage.getContent()) {
-            OrderWithPaymentDTO dto = new OrderWithPaymentDTO();
-            dto.setOrderId(order.getId());
-            dto.setTotalAmount(order.getTotalAmount());
-            dto.setOrderStatus(order.getStatus());
-            dto.setCreatedAt(order.getCreatedAt() != null ? order.getCreatedAt().toInstant(ZoneOffset.UTC) : null);
-
-            Payment payment = paymentRepository.findFirstByOrderIdOrderByCreatedAtDesc(order.getId());
-            if (payment != null) {
-                dto.setPaymentId(payment.getId());
-                dto.setPaymentAmount(payment.getAmount());
-                dto.setPaymentStatus(payment.getStatus());
-                dto.setPaymentCreatedAt(payment.getCreatedAt() != null ? payment.getCreatedAt().toInstant(ZoneOffset.UTC) : null);
+        Page<OrderWithPaymentDTO> dtoPage = new PageImpl<>(toOrdersWithPayments(summaryPage.getContent()), pageable, summaryPage.getTotalElements());
+
+        PaginatedDTO<OrderWithPaymentDTO> paginated = PaginatedDTO.buildPaginatedResponse(dtoPage);
+        if (summaryPage.hasNext()) {
+            KeysetCursor cursor = getCursor(summaryPage.getContent().get(summaryPage.getNumberOfElements() - 1));
+            paginated.setNextCursor(cursor != null ? cursor.encode() : null);
+        }
+
+        return paginated;
+    }
+
+    /**
+     * Gets the current user's orders placed before the cursor with their payment information.
+     * The page is found with a seek on (created at, id), so deep pages don't scan the skipped orders and are only counted on request.
+     *
+     * @param after cursor returned with the previous page, <code>null</code> for the first page
+     * @param limit page size
+     * @param count whether to count all the user's orders
+     * @return orders with payments and the cursor of the next page.
+     */
+    @Override
+    public PaginatedDTO<OrderWithPaymentDTO> getUserOrdersAfter(String after, int limit, boolean count) {
+        KeysetCursor cursor = after != null ? KeysetCursor.decode(after) : null;
+        LocalDateTime createdAt = null;
+
+        if (cursor != null) {
+            try {
+                createdAt = LocalDateTime.parse(cursor.getSortKey());
+            } catch (DateTimeParseException e) {
+                throw new InvalidInputException("invalid_cursor");
             }
+        }
+
+        User user = getCurrentUser();
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<OrderSummary> summaries = cursor != null
+                ? orderSummaryRepository.findByUserIdBefore(user.getId(), createdAt, cursor.getId(), pageable)
+                : orderSummaryRepository.findLatestByUserId(user.getId(), pageable);
+
+        PaginatedDTO<OrderWithPaymentDTO> paginated = PaginatedDTO.buildCursorResponse(summaries, limit, cursor != null,
+                OrderServiceImpl::getCursor, this::toOrdersWithPayments);
+
+        if (count) {
+            paginated.setTotalItems(orderSummaryRepository.countByUserId(user.getId()));
+        }
+
+        return paginated;
+    }
+
+    /**
+     * Returns the current user.
+     *
+     * @return <code>User</code>
+     */
+    private User getCurrentUser() {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userService.getByUsername(userDetails.getUsername());
+    }
+
+    /**
+     * Maps orders' summaries to DTOs.
+     *
+     * @param summaries are the orders' summaries.
+     * @return <code>List of OrderWithPaymentDTO</code>
+     */
+    private List<OrderWithPaymentDTO> toOrdersWithPayments(List<OrderSummary> summaries) {
+        List<OrderWithPaymentDTO> result = new ArrayList<>(summaries.size());
+
+        for (OrderSummary summary : summaries) {
+            OrderWithPaymentDTO dto = new OrderWithPaymentDTO();
+            dto.setOrderId(summary.getOrderId());
+            dto.setTotalAmount(summary.getTotalAmount());
+            dto.setOrderStatus(summary.getOrderStatus());
+            dto.setItemCount(summary.getItemCount());
+            dto.setCreatedAt(summary.getCreatedAt() != null ? summary.getCreatedAt().toInstant(ZoneOffset.UTC) : null);
+            dto.setPaymentId(summary.getPaymentId());
+            dto.setPaymentAmount(summary.getPaymentAmount());
+            dto.setPaymentStatus(summary.getPaymentStatus());
+            dto.setPaymentCreatedAt(summary.getPaymentCreatedAt() != null ? summary.getPaymentCreatedAt().toInstant(ZoneOffset.UTC) : null);
 
             result.add(dto);
         }
 
-        Page<OrderWithPaymentDTO> dtoPage = new PageImpl<>(result, pageable, orderPage.getTotalElements());
-        return PaginatedDTO.buildPaginatedResponse(dtoPage);
+        return result;
+    }
+
+    /**
+     * Writes an order's line items with one batch.
+     *
+     * @param order is the order.
+     * @param items are the cart items that were ordered.
+     * @param username is the username of the user who placed the order.
+     */
+    private void insertItems(Order order, List<CartItem> items, String username) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(items.size());
+
+        for (CartItem item : items) {
+            rows.add(new Object[]{now, now, username, username, order.getId(), item.getProduct().getId(),
+                    item.getProduct().getName(), getUnitPrice(item), item.getQuantity()});
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ITEM, rows);
+    }
+
+    /**
+     * Returns the current price of a cart item's product.
+     *
+     * @param item is the cart item.
+     * @return the price, rounded to cents.
+     */
+    private static BigDecimal getUnitPrice(CartItem item) {
+        return BigDecimal.valueOf(item.getProduct().getPrice()).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the cursor that points after an order.
+     *
+     * @param summary is the order's summary.
+     * @return <code>KeysetCursor</code> or <code>null</code> if the order has no creation date.
+     */
+    private static KeysetCursor getCursor(OrderSummary summary) {
+        if (summary.getCreatedAt() == null) {
+            return null;
+        }
+
+        return new KeysetCursor(summary.getCreatedAt().toString(), summary.getOrderId());
     }
 }
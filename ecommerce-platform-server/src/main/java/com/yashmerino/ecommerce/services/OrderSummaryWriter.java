@@ -0,0 +1,66 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.model.Order;
+import com.yashmerino.ecommerce.model.Payment;
+import com.yashmerino.ecommerce.repositories.OrderSummaryRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the orders' summaries up to date. Each change writes only the summary's affected columns,
+ * in the transaction that changed the order or the payment.
+ */
+@Component
+@AllArgsConstructor
+public class OrderSummaryWriter {
+
+    /**
+     * Orders' summaries repository.
+     */
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    /**
+     * Writes the summary of a new order.
+     *
+     * @param order is the saved order.
+     * @param itemCount is the number of ordered units.
+     */
+    public void orderPlaced(Order order, int itemCount) {
+        orderSummaryRepository.insert(order.getId(), order.getUser().getId(), order.getTotalAmount(),
+                order.getStatus().name(), itemCount, order.getCreatedAt());
+    }
+
+    /**
+     * Updates an order's summary after one of its payments was created or changed its status.
+     *
+     * @param payment is the saved payment.
+     */
+    public void paymentChanged(Payment payment) {
+        orderSummaryRepository.updatePayment(payment.getOrder().getId(), payment.getId(), payment.getAmount(),
+                payment.getStatus(), payment.getCreatedAt());
+    }
+}
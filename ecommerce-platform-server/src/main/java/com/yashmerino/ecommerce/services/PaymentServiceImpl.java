@@ -35,6 +35,7 @@ import com.yashmerino.ecommerce.utils.PaymentStatus;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Implementation for payment service.
@@ -58,18 +59,26 @@ public class PaymentServiceImpl implements PaymentService {
      */
     private final PaymentEventProducer paymentEventProducer;
 
+    /**
+     * Writes the orders' summaries.
+     */
+    private final OrderSummaryWriter orderSummaryWriter;
+
     /**
      * Sends an event to Kafka topic to process the payment for an order.
+     * The event is written to the outbox in the same transaction as the payment.
      *
      * @param orderId is the payment's order ID.
      * @param paymentDTO is the payment's DTO.
      */
     @Override
+    @Transactional
     public void pay(Long orderId, PaymentDTO paymentDTO) {
         Order order = this.orderRepository.findById(orderId).orElseThrow(() -> new EntityNotFoundException("order_not_found"));
 
         Payment payment = new Payment(order, order.getTotalAmount(), PaymentStatus.PENDING);
         payment = paymentRepository.save(payment);
+        orderSummaryWriter.paymentChanged(payment);
 
         PaymentRequestedEvent event = new PaymentRequestedEvent(payment.getId(), orderId, order.getTotalAmount(), paymentDTO.getStripeToken());
         paymentEventProducer.sendPaymentRequested(event);
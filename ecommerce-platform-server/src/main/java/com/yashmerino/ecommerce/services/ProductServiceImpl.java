@@ -27,19 +27,31 @@ package com.yashmerino.ecommerce.services;
 import com.yashmerino.ecommerce.exceptions.CouldntUploadPhotoException;
 import com.yashmerino.ecommerce.model.Cart;
 import com.yashmerino.ecommerce.model.CartItem;
+import com.yashmerino.ecommerce.model.Category;
 import com.yashmerino.ecommerce.model.Product;
 import com.yashmerino.ecommerce.model.User;
+import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
 import com.yashmerino.ecommerce.model.dto.ProductDTO;
+import com.yashmerino.ecommerce.model.projections.ProductCategoryView;
+import com.yashmerino.ecommerce.model.projections.ProductListView;
 import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
 import com.yashmerino.ecommerce.repositories.ProductRepository;
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
+import com.yashmerino.ecommerce.services.interfaces.ProductSearchEngine;
 import com.yashmerino.ecommerce.services.interfaces.ProductService;
 import com.yashmerino.ecommerce.services.interfaces.UserService;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
 import com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -49,7 +61,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation for product service.
@@ -73,6 +94,31 @@ public class ProductServiceImpl implements ProductService {
      */
     private final CartItemRepository cartItemRepository;
 
+    /**
+     * Cart repository.
+     */
+    private final CartRepository cartRepository;
+
+    /**
+     * Product search engine.
+     */
+    private final ProductSearchEngine productSearchEngine;
+
+    /**
+     * Photo storage.
+     */
+    private final PhotoStorage photoStorage;
+
+    /**
+     * Redis cart store.
+     */
+    private final RedisCartStore redisCartStore;
+
+    /**
+     * Retry of the changes that raced another request adding the same product.
+     */
+    private final CartItemUpsertRetry cartItemUpsertRetry;
+
     /**
      * Returns the product.
      *
@@ -90,14 +136,50 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    /**
+     * Returns the product's DTO, cached until the product changes.
+     *
+     * @param id is the product's id.
+     * @return <code>ProductDTO</code>
+     */
+    @Override
+    @Cacheable(value = "products", key = "#id")
+    public ProductDTO getProductDTO(Long id) {
+        Product product = this.getProduct(id);
+
+        ProductDTO productDTO = RequestBodyToEntityConverter.convertToProductDTO(product);
+        productDTO.setCategories(new HashSet<>(product.getCategories()));
+
+        return productDTO;
+    }
+
     /**
      * Returns all the products.
      *
-     * @return <code>Page of Products</code>
+     * @return <code>Page of ProductDTOs</code>
      */
     @Override
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public Page<ProductDTO> getAllProducts(Pageable pageable) {
+        Page<ProductListView> page = productRepository.findListViews(pageable);
+
+        return new PageImpl<>(toProductDTOs(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Returns a page of all the products, cached until a product changes.
+     *
+     * @param pageable is the page object.
+     *
+     * @return Paginated DTO of ProductDTOs.
+     */
+    @Override
+    @Cacheable(value = "productPages", key = "'page:' + #pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort")
+    public PaginatedDTO<ProductDTO> getProductsPage(Pageable pageable) {
+        PaginatedDTO<ProductDTO> paginated = PaginatedDTO.buildPaginatedResponse(getAllProducts(pageable));
+        // Cached pages are deserialized from Redis by their type, which the immutable lists don't support.
+        paginated.setData(new ArrayList<>(paginated.getData()));
+
+        return paginated;
     }
 
     /**
@@ -106,11 +188,22 @@ public class ProductServiceImpl implements ProductService {
      * @param query is the query.
      * @param pageable is the page object.
      *
-     * @return <code>Page of Products</code>
+     * @return <code>Page of ProductDTOs</code>
      */
     @Override
-    public Page<Product> search(String query, Pageable pageable) {
-        return productRepository.findByNameContaining(query, pageable);
+    public Page<ProductDTO> search(String query, Pageable pageable) {
+        Page<Long> ids = productSearchEngine.search(query, pageable);
+
+        Map<Long, Integer> ranks = new HashMap<>();
+        for (Long id : ids.getContent()) {
+            ranks.put(id, ranks.size());
+        }
+
+        List<ProductListView> products = ids.isEmpty() ? List.of() : productRepository.findListViewsByIds(ids.getContent()).stream()
+                .sorted(Comparator.comparing(product -> ranks.get(product.getId())))
+                .toList();
+
+        return new PageImpl<>(toProductDTOs(products), pageable, ids.getTotalElements());
     }
 
     /**
@@ -119,8 +212,12 @@ public class ProductServiceImpl implements ProductService {
      * @param product is the product's object.
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = "products", key = "#product.id"),
+            @CacheEvict(value = "productPages", allEntries = true)})
     public void save(Product product) {
         productRepository.save(product);
+        productSearchEngine.index(product);
     }
 
     /**
@@ -129,10 +226,14 @@ public class ProductServiceImpl implements ProductService {
      * @param id is the product's id.
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = "products", key = "#id"),
+            @CacheEvict(value = "productPages", allEntries = true)})
     public void delete(Long id) {
         Product product = this.getProduct(id);
 
         productRepository.delete(product);
+        productSearchEngine.remove(id);
     }
 
     /**
@@ -141,18 +242,74 @@ public class ProductServiceImpl implements ProductService {
      * @param username is the seller's username.
      * @param pageable is the page details.
      *
-     * @return Page of Products.
+     * @return Page of ProductDTOs.
+     */
+    @Override
+    public Page<ProductDTO> getSellerProducts(String username, Pageable pageable) {
+        User user = userService.getByUsername(username);
+
+        Page<ProductListView> page = productRepository.findListViewsBySellerId(user.getId(), pageable);
+
+        return new PageImpl<>(toProductDTOs(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Returns the products that come after the cursor, ordered by id.
+     *
+     * @param after is the cursor returned with the previous page, <code>null</code> for the first page.
+     * @param limit is the page size.
+     * @param count whether to count all the products.
+     *
+     * @return Paginated DTO of ProductDTOs.
      */
     @Override
-    public Page<Product> getSellerProducts(String username, Pageable pageable) {
+    @Cacheable(value = "productPages", key = "'after:' + #after + ':' + #limit + ':' + #count")
+    public PaginatedDTO<ProductDTO> getProductsAfter(String after, int limit, boolean count) {
+        Long afterId = after != null ? KeysetCursor.decode(after).getId() : 0L;
+
+        List<ProductListView> products = productRepository.findListViewsAfter(afterId, PageRequest.of(0, limit + 1));
+
+        PaginatedDTO<ProductDTO> paginated = PaginatedDTO.buildCursorResponse(products, limit, after != null,
+                product -> KeysetCursor.of(product.getId()), this::toProductDTOs);
+        paginated.setData(new ArrayList<>(paginated.getData()));
+
+        if (count) {
+            paginated.setTotalItems(productRepository.count());
+        }
+
+        return paginated;
+    }
+
+    /**
+     * Returns seller's products that come after the cursor, ordered by id.
+     *
+     * @param username is the seller's username.
+     * @param after is the cursor returned with the previous page, <code>null</code> for the first page.
+     * @param limit is the page size.
+     * @param count whether to count all the seller's products.
+     *
+     * @return Paginated DTO of ProductDTOs.
+     */
+    @Override
+    public PaginatedDTO<ProductDTO> getSellerProductsAfter(String username, String after, int limit, boolean count) {
+        Long afterId = after != null ? KeysetCursor.decode(after).getId() : 0L;
         User user = userService.getByUsername(username);
 
-        Long userId = user.getId();
-        return productRepository.getProductsBySellerId(userId, pageable);
+        List<ProductListView> products = productRepository.findListViewsBySellerIdAfter(user.getId(), afterId, PageRequest.of(0, limit + 1));
+
+        PaginatedDTO<ProductDTO> paginated = PaginatedDTO.buildCursorResponse(products, limit, after != null,
+                product -> KeysetCursor.of(product.getId()), this::toProductDTOs);
+
+        if (count) {
+            paginated.setTotalItems(productRepository.countByUserId(user.getId()));
+        }
+
+        return paginated;
     }
 
     /**
-     * Add product to the cart.
+     * Add product to the cart. If the product is already in the cart, its quantity is increased.
+     * The cart's total is updated in the same transaction.
      *
      * @param id       is the product's id.
      * @param quantity is the quantity.
@@ -165,14 +322,33 @@ public class ProductServiceImpl implements ProductService {
         User user = userService.getByUsername(userDetails.getUsername());
 
         Cart cart = user.getCart();
+        cartItemUpsertRetry.execute(() -> addProductToCart(cart, product, quantity));
+    }
+
+    /**
+     * Adds a product to a cart or increases its quantity if it's already there.
+     *
+     * @param cart     is the cart.
+     * @param product  is the product.
+     * @param quantity is the quantity.
+     */
+    private void addProductToCart(final Cart cart, final Product product, final Integer quantity) {
+        redisCartStore.lockAndFlush(cart.getId());
+
+        Optional<CartItem> existingCartItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), product.getId());
+
+        BigDecimal oldSubtotal = existingCartItem.map(CartItem::subtotal).orElse(BigDecimal.ZERO);
+        int oldQuantity = existingCartItem.map(CartItem::getQuantity).orElse(0);
 
-        CartItem cartItem = new CartItem();
+        CartItem cartItem = existingCartItem.orElseGet(CartItem::new);
         cartItem.setCart(cart);
         cartItem.setProduct(product);
-        cartItem.setQuantity(quantity);
+        cartItem.setQuantity(existingCartItem.map(item -> item.getQuantity() + quantity).orElse(quantity));
         cartItem.setName(product.getName());
         cartItem.setPrice(product.getPrice());
         cartItemRepository.save(cartItem);
+        cartRepository.addToTotals(cart.getId(), cartItem.subtotal().subtract(oldSubtotal), cartItem.getQuantity() - oldQuantity);
+        redisCartStore.evict(cart.getId());
     }
 
     /**
@@ -182,6 +358,7 @@ public class ProductServiceImpl implements ProductService {
      * @return the product's id.
      */
     @Override
+    @CacheEvict(value = "productPages", allEntries = true)
     public Long addProduct(ProductDTO productDTO) {
         Product product = RequestBodyToEntityConverter.convertToProduct(productDTO);
 
@@ -190,6 +367,7 @@ public class ProductServiceImpl implements ProductService {
         User user = userService.getByUsername(userDetails.getUsername());
         product.setUser(user);
         productRepository.save(product);
+        productSearchEngine.index(product);
 
         return product.getId();
     }
@@ -213,8 +391,8 @@ public class ProductServiceImpl implements ProductService {
             throw new AccessDeniedException("access_denied");
         }
 
-        try {
-            product.setPhoto(photo.getBytes());
+        try (InputStream content = photo.getInputStream()) {
+            product.setPhotoKey(photoStorage.store(content));
         } catch (IOException e) {
             throw new CouldntUploadPhotoException("product_photo_not_uploaded");
         }
@@ -222,6 +400,17 @@ public class ProductServiceImpl implements ProductService {
         productRepository.save(product);
     }
 
+    /**
+     * Returns product's photo.
+     *
+     * @param id is the product's id.
+     * @return <code>Optional of Resource</code>, empty if the product has no photo.
+     */
+    @Override
+    public Optional<Resource> getPhoto(Long id) {
+        return photoStorage.load(this.getProduct(id).getPhotoKey());
+    }
+
     /**
      * Updates product.
      *
@@ -229,6 +418,9 @@ public class ProductServiceImpl implements ProductService {
      * @param productDTO is the product DTO.
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = "products", key = "#id"),
+            @CacheEvict(value = "productPages", allEntries = true)})
     public void updateProduct(Long id, ProductDTO productDTO) {
         Product product = this.getProduct(id);
 
@@ -246,5 +438,42 @@ public class ProductServiceImpl implements ProductService {
         product.setDescription(productDTO.getDescription());
 
         productRepository.save(product);
+        productSearchEngine.index(product);
+    }
+
+    /**
+     * Rebuilds the products' search index.
+     *
+     * @return the number of indexed products.
+     */
+    @Override
+    public int rebuildSearchIndex() {
+        return productSearchEngine.rebuild();
+    }
+
+    /**
+     * Converts a page of product list views to DTOs, the categories of the whole page are fetched with one query.
+     *
+     * @param products is the product list views.
+     * @return <code>List of ProductDTOs</code>
+     */
+    private List<ProductDTO> toProductDTOs(List<ProductListView> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = products.stream().map(ProductListView::getId).toList();
+        Map<Long, Set<Category>> categories = new HashMap<>();
+
+        for (ProductCategoryView view : productRepository.findCategoriesByProductIds(ids)) {
+            Category category = new Category(view.getCategoryName());
+            category.setId(view.getCategoryId());
+
+            categories.computeIfAbsent(view.getProductId(), id -> new HashSet<>()).add(category);
+        }
+
+        return products.stream()
+                .map(product -> RequestBodyToEntityConverter.convertToProductDTO(product, categories.getOrDefault(product.getId(), new HashSet<>())))
+                .toList();
     }
 }
@@ -0,0 +1,720 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.model.Cart;
+import com.yashmerino.ecommerce.model.CartItem;
+import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.model.dto.CartItemDTO;
+import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import com.yashmerino.ecommerce.utils.RequestBodyToEntityConverter;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps the active carts in Redis and writes their changes behind to the database.
+ * <p>
+ * Each cart is a Redis hash of its items by id. Changing a quantity or deleting an item only touches the hash and marks
+ * the cart as dirty, a scheduled job then writes the dirty carts to <code>cart_items</code> in JDBC batches.
+ * Carts are moved to a flushing set while they're written, so carts whose flush was interrupted by a crash are
+ * written again on startup. Items are added through the database, so the cart is locked and flushed before and evicted
+ * after. While it's locked, changes of its items in Redis are rejected, they'd be lost with the evicted hash.
+ * <p>
+ * The store is used only when <code>cart.store.type=redis</code>.
+ */
+@Slf4j
+@Component
+public class RedisCartStore {
+
+    /**
+     * Set of carts with changes that aren't written to the database yet.
+     */
+    static final String DIRTY_CARTS_KEY = "carts:dirty";
+
+    /**
+     * Set of carts that are being written to the database.
+     */
+    static final String FLUSHING_CARTS_KEY = "carts:flushing";
+
+    /**
+     * Field that marks a cart's hash as loaded, so empty carts aren't loaded again.
+     */
+    static final String LOADED_FIELD = "loaded";
+
+    /**
+     * Cart item not found message translation key.
+     */
+    private static final String CART_ITEM_NOT_FOUND_MESSAGE = "cartitem_not_found";
+
+    /**
+     * Cart changed in the database meanwhile message translation key.
+     */
+    private static final String CART_LOCKED_MESSAGE = "cart_changed_meanwhile";
+
+    /**
+     * Time after which a cart's lock expires if the application stopped before releasing it.
+     */
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Updates the quantity of a cart item.
+     */
+    private static final String UPDATE_QUANTITY = "UPDATE cart_items SET quantity = ?, updated_at = ? WHERE id = ? AND cart_id = ?";
+
+    /**
+     * Deletes a cart item.
+     */
+    private static final String DELETE_ITEM = "DELETE FROM cart_items WHERE id = ? AND cart_id = ?";
+
+    /**
+     * Loads a cart's items unless it's already loaded.
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end
+            redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Locks a cart while its items are changed in the database, a cart can be locked by several transactions.
+     */
+    static final RedisScript<Long> LOCK_SCRIPT = new DefaultRedisScript<>("""
+            local locks = redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return locks
+            """, Long.class);
+
+    /**
+     * Releases a lock of a cart.
+     */
+    static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            local locks = redis.call('DECR', KEYS[1])
+            if locks <= 0 then redis.call('DEL', KEYS[1]) end
+            return locks
+            """, Long.class);
+
+    /**
+     * Replaces an item that's still in the cart and marks the cart as dirty, unless the cart is locked.
+     */
+    static final RedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[3]) == 1 then return -1 end
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return 0 end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('PERSIST', KEYS[1])
+            redis.call('SADD', KEYS[2], ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * Removes an item from the cart, remembers it for the flush and marks the cart as dirty, unless the cart is locked.
+     */
+    static final RedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[4]) == 1 then return -1 end
+            if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then return 0 end
+            redis.call('PERSIST', KEYS[1])
+            redis.call('SADD', KEYS[2], ARGV[1])
+            redis.call('SADD', KEYS[3], ARGV[2])
+            return 1
+            """, Long.class);
+
+    /**
+     * Redis template.
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Object mapper that serializes the cart items.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Cart repository.
+     */
+    private final CartRepository cartRepository;
+
+    /**
+     * Cart item repository.
+     */
+    private final CartItemRepository cartItemRepository;
+
+    /**
+     * JDBC template.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction in which a batch of carts is written.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Constructor.
+     *
+     * @param redisTemplate         is the Redis template.
+     * @param objectMapper          is the object mapper.
+     * @param cartRepository        is the cart repository.
+     * @param cartItemRepository    is the cart item repository.
+     * @param jdbcTemplate          is the JDBC template.
+     * @param transactionManager    is the transaction manager.
+     * @param applicationProperties is the application's properties.
+     */
+    public RedisCartStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, CartRepository cartRepository,
+                          CartItemRepository cartItemRepository, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Checks whether the carts are kept in Redis.
+     *
+     * @return <code>true</code> if the Redis cart store is enabled.
+     */
+    public boolean isEnabled() {
+        return "redis".equals(applicationProperties.cartStoreType);
+    }
+
+    /**
+     * Returns the id of a user's cart.
+     *
+     * @param username is the user's username.
+     * @return the cart's id.
+     */
+    public Long getCartId(String username) {
+        String key = "cart:user:" + username;
+        String cartId = redisTemplate.opsForValue().get(key);
+
+        if (cartId != null) {
+            return Long.valueOf(cartId);
+        }
+
+        Long id = cartRepository.findIdByUsername(username).orElseThrow(() -> new EntityNotFoundException("username_not_found"));
+        redisTemplate.opsForValue().set(key, id.toString(), Duration.ofMillis(applicationProperties.cartStoreTtl));
+
+        return id;
+    }
+
+    /**
+     * Returns a cart item.
+     *
+     * @param cartId is the cart's id.
+     * @param itemId is the cart item's id.
+     * @return <code>CartItem</code>
+     */
+    public CartItem getItem(Long cartId, Long itemId) {
+        return findItem(cartId, itemId)
+                .map(item -> toCartItem(cartId, item))
+                .orElseThrow(() -> new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE));
+    }
+
+    /**
+     * Returns a page of the cart's items ordered by id.
+     *
+     * @param cartId   is the cart's id.
+     * @param pageable is the page object.
+     * @return <code>Page of CartItem</code>
+     */
+    public Page<CartItem> getItems(Long cartId, Pageable pageable) {
+        List<CartItemDTO> items = getAllItems(cartId);
+        items.sort(Comparator.comparing(CartItemDTO::getId));
+
+        int from = (int) Math.min(pageable.getOffset(), items.size());
+        int to = Math.min(from + pageable.getPageSize(), items.size());
+
+        List<CartItem> content = items.subList(from, to).stream()
+                .map(item -> toCartItem(cartId, item))
+                .toList();
+
+        return new PageImpl<>(content, pageable, items.size());
+    }
+
+    /**
+     * Returns the cart's items that come after the given id, ordered by id.
+     *
+     * @param cartId  is the cart's id.
+     * @param afterId is the id after which to start.
+     * @param limit   is the maximum number of items.
+     * @return <code>List of CartItem</code>
+     */
+    public List<CartItem> getItemsAfter(Long cartId, Long afterId, int limit) {
+        return getAllItems(cartId).stream()
+                .filter(item -> item.getId() > afterId)
+                .sorted(Comparator.comparing(CartItemDTO::getId))
+                .limit(limit)
+                .map(item -> toCartItem(cartId, item))
+                .toList();
+    }
+
+    /**
+     * Counts the cart's items.
+     *
+     * @param cartId is the cart's id.
+     * @return the number of items.
+     */
+    public long countItems(Long cartId) {
+        return getAllItems(cartId).size();
+    }
+
+    /**
+     * Calculates the total price of the cart.
+     *
+     * @param cartId is the cart's id.
+     * @return the total price.
+     */
+    public double getTotalPrice(Long cartId) {
+        return getAllItems(cartId).stream()
+                .mapToDouble(item -> item.getPrice() * item.getQuantity())
+                .sum();
+    }
+
+    /**
+     * Changes the quantity of a cart item.
+     *
+     * @param cartId   is the cart's id.
+     * @param itemId   is the cart item's id.
+     * @param quantity is the new quantity.
+     */
+    public void changeQuantity(Long cartId, Long itemId, Integer quantity) {
+        CartItemDTO item = findItem(cartId, itemId).orElseThrow(() -> new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE));
+        item.setQuantity(quantity);
+
+        Long updated = redisTemplate.execute(UPDATE_SCRIPT, List.of(itemsKey(cartId), DIRTY_CARTS_KEY, lockKey(cartId)),
+                itemId.toString(), serialize(item), cartId.toString());
+
+        checkChanged(updated);
+    }
+
+    /**
+     * Deletes a cart item.
+     *
+     * @param cartId is the cart's id.
+     * @param itemId is the cart item's id.
+     */
+    public void deleteItem(Long cartId, Long itemId) {
+        load(cartId);
+
+        Long deleted = redisTemplate.execute(DELETE_SCRIPT, List.of(itemsKey(cartId), deletedKey(cartId), DIRTY_CARTS_KEY, lockKey(cartId)),
+                itemId.toString(), cartId.toString());
+
+        checkChanged(deleted);
+    }
+
+    /**
+     * Locks a cart until the current transaction completes and writes its pending changes to the database, before its
+     * items are changed in the database. Changes of its items in Redis are rejected until then, so none is made between
+     * the flush and the cart's eviction. If there's no transaction, the lock is released right away.
+     *
+     * @param cartId is the cart's id.
+     */
+    public void lockAndFlush(Long cartId) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        redisTemplate.execute(LOCK_SCRIPT, List.of(lockKey(cartId)), String.valueOf(LOCK_TIMEOUT.toMillis()));
+        afterCompletion(() -> redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey(cartId))));
+
+        flush(cartId);
+    }
+
+    /**
+     * Writes a cart's pending changes to the database, e.g. before an order is placed.
+     * If the write fails, the cart is marked as dirty again so the scheduled flush retries it.
+     *
+     * @param cartId is the cart's id.
+     */
+    public void flush(Long cartId) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        String member = cartId.toString();
+        boolean dirty = Boolean.TRUE.equals(redisTemplate.opsForSet().move(DIRTY_CARTS_KEY, member, FLUSHING_CARTS_KEY));
+
+        try {
+            write(List.of(cartId));
+        } catch (RuntimeException e) {
+            if (dirty) {
+                redisTemplate.opsForSet().move(FLUSHING_CARTS_KEY, member, DIRTY_CARTS_KEY);
+            }
+
+            throw e;
+        }
+
+        redisTemplate.opsForSet().remove(FLUSHING_CARTS_KEY, member);
+    }
+
+    /**
+     * Removes a cart from Redis after its items were changed in the database, so it's loaded again on the next access.
+     * The cart should be locked and flushed first. If a transaction is active, the cart is removed after it commits.
+     *
+     * @param cartId is the cart's id.
+     */
+    public void evict(Long cartId) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        afterCommit(() -> redisTemplate.delete(itemsKey(cartId)));
+    }
+
+    /**
+     * Removes a cart that was cleared in the database together with its pending changes.
+     * If a transaction is active, the cart is removed after it commits.
+     *
+     * @param cartId is the cart's id.
+     */
+    public void clear(Long cartId) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        afterCommit(() -> {
+            redisTemplate.delete(List.of(itemsKey(cartId), deletedKey(cartId)));
+            redisTemplate.opsForSet().remove(DIRTY_CARTS_KEY, cartId.toString());
+        });
+    }
+
+    /**
+     * Writes the dirty carts to the database in batches.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.redis.flush-interval:1000}")
+    public void flushDirtyCarts() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        int batchSize = applicationProperties.cartStoreFlushBatchSize;
+        List<String> members;
+
+        do {
+            members = redisTemplate.opsForSet().distinctRandomMembers(DIRTY_CARTS_KEY, batchSize).stream()
+                    .filter(member -> Boolean.TRUE.equals(redisTemplate.opsForSet().move(DIRTY_CARTS_KEY, member, FLUSHING_CARTS_KEY)))
+                    .toList();
+
+            if (members.isEmpty()) {
+                return;
+            }
+
+            try {
+                write(members.stream().map(Long::valueOf).toList());
+                redisTemplate.opsForSet().remove(FLUSHING_CARTS_KEY, members.toArray());
+            } catch (RuntimeException e) {
+                log.error("Couldn't write {} carts to the database, they'll be retried.", members.size(), e);
+                members.forEach(member -> redisTemplate.opsForSet().move(FLUSHING_CARTS_KEY, member, DIRTY_CARTS_KEY));
+                return;
+            }
+        } while (members.size() == batchSize);
+    }
+
+    /**
+     * Writes the carts whose flush was interrupted and all the dirty carts once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Set<String> interrupted = redisTemplate.opsForSet().members(FLUSHING_CARTS_KEY);
+
+        if (interrupted != null && !interrupted.isEmpty()) {
+            log.info("Replaying {} carts whose write to the database was interrupted.", interrupted.size());
+            interrupted.forEach(member -> redisTemplate.opsForSet().move(FLUSHING_CARTS_KEY, member, DIRTY_CARTS_KEY));
+        }
+
+        flushDirtyCarts();
+    }
+
+    /**
+     * Writes the carts' quantities and deletions to the database in one transaction and computes the carts' totals again.
+     * Carts without pending changes get their expiration back.
+     *
+     * @param cartIds are the carts' ids.
+     */
+    void write(List<Long> cartIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        Map<Long, Set<String>> deletedItems = new HashMap<>();
+
+        for (Long cartId : cartIds) {
+            Set<String> deleted = redisTemplate.opsForSet().members(deletedKey(cartId));
+
+            if (deleted != null && !deleted.isEmpty()) {
+                deletedItems.put(cartId, deleted);
+                deleted.forEach(itemId -> deletes.add(new Object[]{Long.valueOf(itemId), cartId}));
+            }
+
+            redisTemplate.<String, String>opsForHash().entries(itemsKey(cartId)).forEach((itemId, value) -> {
+                if (!LOADED_FIELD.equals(itemId)) {
+                    updates.add(new Object[]{deserialize(value).getQuantity(), now, Long.valueOf(itemId), cartId});
+                }
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_QUANTITY, updates);
+            jdbcTemplate.batchUpdate(DELETE_ITEM, deletes);
+            cartRepository.recalculateTotals(cartIds);
+        });
+
+        deletedItems.forEach((cartId, deleted) -> redisTemplate.opsForSet().remove(deletedKey(cartId), deleted.toArray()));
+
+        for (Long cartId : cartIds) {
+            redisTemplate.expire(itemsKey(cartId), Duration.ofMillis(applicationProperties.cartStoreTtl));
+        }
+    }
+
+    /**
+     * Checks the result of a change of a cart's items.
+     *
+     * @param result is the script's result, <code>-1</code> if the cart is locked and <code>0</code> if there's no such item.
+     */
+    private static void checkChanged(Long result) {
+        if (result != null && result < 0) {
+            throw new ConcurrencyFailureException(CART_LOCKED_MESSAGE);
+        }
+
+        if (result == null || result == 0) {
+            throw new EntityNotFoundException(CART_ITEM_NOT_FOUND_MESSAGE);
+        }
+    }
+
+    /**
+     * Loads a cart's items from the database unless they're already in Redis.
+     *
+     * @param cartId is the cart's id.
+     */
+    private void load(Long cartId) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(itemsKey(cartId)))) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(applicationProperties.cartStoreTtl));
+        args.add(LOADED_FIELD);
+        args.add("1");
+
+        for (CartItem cartItem : cartItemRepository.findAllByCartId(cartId)) {
+            args.add(cartItem.getId().toString());
+            args.add(serialize(RequestBodyToEntityConverter.convertToCartItemDTO(cartItem)));
+        }
+
+        redisTemplate.execute(LOAD_SCRIPT, List.of(itemsKey(cartId)), args.toArray());
+    }
+
+    /**
+     * Returns a cart item from Redis.
+     *
+     * @param cartId is the cart's id.
+     * @param itemId is the cart item's id.
+     * @return <code>Optional of CartItemDTO</code>
+     */
+    private Optional<CartItemDTO> findItem(Long cartId, Long itemId) {
+        load(cartId);
+
+        String value = redisTemplate.<String, String>opsForHash().get(itemsKey(cartId), itemId.toString());
+
+        return Optional.ofNullable(value).map(this::deserialize);
+    }
+
+    /**
+     * Returns all the cart's items from Redis.
+     *
+     * @param cartId is the cart's id.
+     * @return <code>List of CartItemDTO</code>
+     */
+    private List<CartItemDTO> getAllItems(Long cartId) {
+        load(cartId);
+
+        List<CartItemDTO> items = new ArrayList<>();
+        redisTemplate.<String, String>opsForHash().entries(itemsKey(cartId)).forEach((itemId, value) -> {
+            if (!LOADED_FIELD.equals(itemId)) {
+                items.add(deserialize(value));
+            }
+        });
+
+        return items;
+    }
+
+    /**
+     * Runs an action after the current transaction commits or right away if there's no transaction.
+     *
+     * @param action is the action.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs an action after the current transaction commits or rolls back or right away if there's no transaction.
+     *
+     * @param action is the action.
+     */
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Converts a stored item to a detached cart item.
+     *
+     * @param cartId is the cart's id.
+     * @param item   is the stored item.
+     * @return <code>CartItem</code>
+     */
+    private static CartItem toCartItem(Long cartId, CartItemDTO item) {
+        Product product = new Product();
+        product.setId(item.getProductId());
+
+        Cart cart = new Cart();
+        cart.setId(cartId);
+
+        CartItem cartItem = new CartItem(product, item.getName(), item.getPrice(), cart, item.getQuantity());
+        cartItem.setId(item.getId());
+
+        return cartItem;
+    }
+
+    /**
+     * Serializes an item.
+     *
+     * @param item is the item.
+     * @return JSON.
+     */
+    private String serialize(CartItemDTO item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Couldn't serialize the cart item.", e);
+        }
+    }
+
+    /**
+     * Deserializes an item.
+     *
+     * @param value is the JSON.
+     * @return <code>CartItemDTO</code>
+     */
+    private CartItemDTO deserialize(String value) {
+        try {
+            return objectMapper.readValue(value, CartItemDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Couldn't deserialize the cart item.", e);
+        }
+    }
+
+    /**
+     * Returns the key of a cart's items.
+     *
+     * @param cartId is the cart's id.
+     * @return the key.
+     */
+    private static String itemsKey(Long cartId) {
+        return "cart:" + cartId + ":items";
+    }
+
+    /**
+     * Returns the key of a cart's deleted items that aren't deleted from the database yet.
+     *
+     * @param cartId is the cart's id.
+     * @return the key.
+     */
+    private static String deletedKey(Long cartId) {
+        return "cart:" + cartId + ":deleted";
+    }
+
+    /**
+     * Returns the key of a cart's lock, held while its items are changed in the database.
+     *
+     * @param cartId is the cart's id.
+     * @return the key.
+     */
+    private static String lockKey(Long cartId) {
+        return "cart:" + cartId + ":lock";
+    }
+}
@@ -33,11 +33,17 @@ import com.yashmerino.ecommerce.repositories.RefreshTokenRepository;
 import com.yashmerino.ecommerce.repositories.UserRepository;
 import com.yashmerino.ecommerce.security.JwtProvider;
 import com.yashmerino.ecommerce.services.interfaces.RefreshTokenService;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
 
 import static com.yashmerino.ecommerce.security.SecurityConstants.REFRESH_TOKEN_EXPIRATION;
 
@@ -64,7 +70,12 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     private final JwtProvider jwtProvider;
 
     /**
-     * Creates a new refresh token for the user.
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Creates a new refresh token for the user. If the user has as many tokens as allowed, the oldest ones are deleted.
      *
      * @param user the user.
      * @return RefreshToken entity.
@@ -72,9 +83,14 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Override
     @Transactional
     public RefreshToken createRefreshToken(User user) {
+        evictOldestTokens(user);
+
+        String token = jwtProvider.generateRefreshToken();
+
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUser(user);
-        refreshToken.setToken(jwtProvider.generateRefreshToken());
+        refreshToken.setToken(token);
+        refreshToken.setTokenHash(hashToken(token));
         refreshToken.setExpiryDate(Instant.now().plusMillis(REFRESH_TOKEN_EXPIRATION));
         refreshToken.setCreatedAt(Instant.now());
         refreshToken.setRevoked(false);
@@ -91,7 +107,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
      */
     @Override
     public RefreshToken verifyRefreshToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hashToken(token))
                 .orElseThrow(() -> new RuntimeException("refresh_token_not_found"));
 
         if (refreshToken.isRevoked()) {
@@ -128,6 +144,40 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Override
     @Transactional
     public void deleteRefreshToken(String token) {
-        refreshTokenRepository.findByToken(token).ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.deleteByTokenHash(hashToken(token));
+    }
+
+    /**
+     * Deletes the oldest tokens of a user, leaving room for a new one.
+     *
+     * @param user the user.
+     */
+    private void evictOldestTokens(User user) {
+        int maxTokens = applicationProperties.refreshTokenMaxPerUser;
+
+        if (maxTokens <= 0 || user.getId() == null) {
+            return;
+        }
+
+        List<Long> ids = refreshTokenRepository.findIdsByUserNewestFirst(user.getId());
+
+        if (ids.size() >= maxTokens) {
+            refreshTokenRepository.deleteAllByIdInBatch(ids.subList(maxTokens - 1, ids.size()));
+        }
+    }
+
+    /**
+     * Hashes a refresh token.
+     *
+     * @param token the refresh token string.
+     * @return the hex encoded SHA-256 hash of the token.
+     */
+    static String hashToken(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 isn't supported.", e);
+        }
     }
 }
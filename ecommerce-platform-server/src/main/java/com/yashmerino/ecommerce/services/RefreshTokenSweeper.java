@@ -0,0 +1,126 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.repositories.RefreshTokenRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes the expired and revoked refresh tokens in batches, each batch in its own transaction,
+ * so the refresh tokens table doesn't grow with every login.
+ */
+@Component
+@Slf4j
+public class RefreshTokenSweeper {
+
+    /**
+     * Refresh token repository.
+     */
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    /**
+     * Application properties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Number of deleted tokens.
+     */
+    private final Counter sweptCounter;
+
+    /**
+     * Time spent sweeping the tokens.
+     */
+    private final Timer sweepTimer;
+
+    /**
+     * Number of tokens left after the last sweep.
+     */
+    private final AtomicLong tokens = new AtomicLong();
+
+    /**
+     * Constructor to inject dependencies.
+     *
+     * @param refreshTokenRepository is the refresh token repository.
+     * @param applicationProperties is the application properties.
+     * @param meterRegistry is the registry of the sweeper's metrics.
+     */
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository, ApplicationProperties applicationProperties,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.applicationProperties = applicationProperties;
+
+        this.sweptCounter = Counter.builder("refresh_tokens.swept")
+                .description("Expired and revoked refresh tokens deleted by the sweeper.")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("refresh_tokens.sweep")
+                .description("Time spent deleting the expired and revoked refresh tokens.")
+                .register(meterRegistry);
+        Gauge.builder("refresh_tokens.size", tokens, AtomicLong::get)
+                .description("Refresh tokens left after the last sweep.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deletes the expired and revoked tokens, batch after batch, until none is left.
+     */
+    @Scheduled(fixedDelayString = "${refresh-token.sweep.interval:600000}")
+    public void sweep() {
+        sweepTimer.record(() -> {
+            int batchSize = applicationProperties.refreshTokenSweepBatchSize;
+            Instant now = Instant.now();
+            long swept = 0;
+            List<Long> ids;
+
+            do {
+                ids = refreshTokenRepository.findExpiredOrRevokedIds(now, PageRequest.of(0, batchSize));
+
+                if (!ids.isEmpty()) {
+                    refreshTokenRepository.deleteAllByIdInBatch(ids);
+                    sweptCounter.increment(ids.size());
+                    swept += ids.size();
+                }
+            } while (ids.size() == batchSize);
+
+            tokens.set(refreshTokenRepository.count());
+
+            if (swept > 0) {
+                log.info("Deleted {} expired or revoked refresh tokens.", swept);
+            }
+        });
+    }
+}
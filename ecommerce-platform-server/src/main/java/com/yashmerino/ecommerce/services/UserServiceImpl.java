@@ -29,10 +29,13 @@ import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.model.dto.auth.UserDTO;
 import com.yashmerino.ecommerce.model.dto.auth.UserInfoDTO;
 import com.yashmerino.ecommerce.repositories.UserRepository;
+import com.yashmerino.ecommerce.security.PrincipalCache;
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
 import com.yashmerino.ecommerce.services.interfaces.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.Resource;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -40,6 +43,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 
 /**
@@ -53,13 +57,27 @@ public class UserServiceImpl implements UserService {
      */
     private final UserRepository userRepository;
 
+    /**
+     * Photo storage.
+     */
+    private final PhotoStorage photoStorage;
+
+    /**
+     * Principal cache, evicted when the user changes.
+     */
+    private final PrincipalCache principalCache;
+
     /**
      * Constructor to inject dependencies.
      *
      * @param userRepository is the user repository.
+     * @param photoStorage   is the photo storage.
+     * @param principalCache is the principal cache.
      */
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, PhotoStorage photoStorage, PrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.photoStorage = photoStorage;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -86,7 +104,7 @@ public class UserServiceImpl implements UserService {
      * @return <code>User</code>
      */
     @Override
-    @Cacheable(value = "userPhotos", key = "#username", condition = "#result != null && #result.photo != null")
+    @Cacheable(value = "userPhotos", key = "#username", condition = "#result != null && #result.photoKey != null")
     public User getByUsername(String username) {
         Optional<User> userOptional = userRepository.findByUsername(username);
 
@@ -133,8 +151,8 @@ public class UserServiceImpl implements UserService {
             throw new AccessDeniedException("access_denied");
         }
 
-        try {
-            user.setPhoto(photo.getBytes());
+        try (InputStream content = photo.getInputStream()) {
+            user.setPhotoKey(photoStorage.store(content));
         } catch (IOException e) {
             throw new CouldntUploadPhotoException("user_photo_not_uploaded");
         }
@@ -142,6 +160,17 @@ public class UserServiceImpl implements UserService {
         userRepository.save(user);
     }
 
+    /**
+     * Returns user's photo.
+     *
+     * @param username is the user's username.
+     * @return <code>Optional of Resource</code>, empty if the user has no photo.
+     */
+    @Override
+    public Optional<Resource> getPhoto(String username) {
+        return photoStorage.load(this.getByUsername(username).getPhotoKey());
+    }
+
     /**
      * Updates user information.
      *
@@ -161,5 +190,6 @@ public class UserServiceImpl implements UserService {
 
         user.setEmail(userDTO.getEmail());
         userRepository.save(user);
+        principalCache.invalidate(username);
     }
 }
@@ -25,6 +25,8 @@ package com.yashmerino.ecommerce.services.interfaces;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.CartItem;
+import com.yashmerino.ecommerce.model.dto.CartItemDTO;
+import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -66,6 +68,18 @@ public interface CartItemService {
      */
      Page<CartItem> getCartItems(String username, Pageable pageable);
 
+    /**
+     * Returns the cart items that come after the cursor, ordered by id.
+     *
+     * @param username is the user's username.
+     * @param after is the cursor returned with the previous page, <code>null</code> for the first page.
+     * @param limit is the page size.
+     * @param count whether to count all the cart items.
+     *
+     * @return Paginated DTO of CartItemDTOs.
+     */
+    PaginatedDTO<CartItemDTO> getCartItemsAfter(String username, String after, int limit, boolean count);
+
     /**
      * Calculates the total cart price.
      *
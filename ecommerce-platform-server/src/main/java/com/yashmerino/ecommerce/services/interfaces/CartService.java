@@ -25,7 +25,9 @@ package com.yashmerino.ecommerce.services.interfaces;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Cart;
+import com.yashmerino.ecommerce.model.dto.CartItemQuantityDTO;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -38,6 +40,13 @@ public interface CartService {
      */
     void clearCart();
 
+    /**
+     * Adds products to the current user's cart or updates their quantities if they're already there.
+     *
+     * @param items are the products and their quantities.
+     */
+    void upsertItems(final List<CartItemQuantityDTO> items);
+
     /**
      * Returns the cart.
      *
@@ -17,6 +17,13 @@ public interface OrderService {
      */
     Long placeOrder(final OrderDTO orderDTO);
 
+    /**
+     * Places an order for the items of the current user's cart and empties the cart.
+     *
+     * @return the new order's ID.
+     */
+    Long checkout();
+
     /**
      * Gets all orders for the current user with their payment information.
      *
@@ -25,4 +32,14 @@ public interface OrderService {
      * @return paginated orders with payments.
      */
     PaginatedDTO<OrderWithPaymentDTO> getUserOrders(int page, int size);
+
+    /**
+     * Gets the current user's orders placed before the cursor with their payment information.
+     *
+     * @param after cursor returned with the previous page, <code>null</code> for the first page
+     * @param limit page size
+     * @param count whether to count all the user's orders
+     * @return orders with payments and the cursor of the next page.
+     */
+    PaginatedDTO<OrderWithPaymentDTO> getUserOrdersAfter(String after, int limit, boolean count);
 }
@@ -0,0 +1,67 @@
+package com.yashmerino.ecommerce.services.interfaces;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Full-text search engine for products.
+ */
+public interface ProductSearchEngine {
+
+    /**
+     * Searches for products by query.
+     * Products are matched by name, categories and description and are ranked by relevance.
+     *
+     * @param query    is the query.
+     * @param pageable is the page object.
+     *
+     * @return page of matching products' ids, most relevant first.
+     */
+    Page<Long> search(String query, Pageable pageable);
+
+    /**
+     * Adds a product to the index or replaces the indexed version of it.
+     *
+     * @param product is the product.
+     */
+    void index(Product product);
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param id is the product's id.
+     */
+    void remove(Long id);
+
+    /**
+     * Rebuilds the whole index from the database.
+     *
+     * @return the number of indexed products.
+     */
+    int rebuild();
+}
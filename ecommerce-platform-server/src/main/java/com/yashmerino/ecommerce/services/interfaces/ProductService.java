@@ -25,11 +25,15 @@ package com.yashmerino.ecommerce.services.interfaces;
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
 import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
 import com.yashmerino.ecommerce.model.dto.ProductDTO;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+
 /**
  * Interface for product service.
  */
@@ -43,14 +47,31 @@ public interface ProductService {
      */
     Product getProduct(final Long id);
 
+    /**
+     * Returns the product's DTO.
+     *
+     * @param id is the product's id.
+     * @return <code>ProductDTO</code>
+     */
+    ProductDTO getProductDTO(final Long id);
+
     /**
      * Returns all the products.
      *
      * @param pageable is the page object.
      *
-     * @return <code>Page of Products</code>
+     * @return <code>Page of ProductDTOs</code>
+     */
+    Page<ProductDTO> getAllProducts(Pageable pageable);
+
+    /**
+     * Returns a page of all the products.
+     *
+     * @param pageable is the page object.
+     *
+     * @return Paginated DTO of ProductDTOs.
      */
-    Page<Product> getAllProducts(Pageable pageable);
+    PaginatedDTO<ProductDTO> getProductsPage(Pageable pageable);
 
     /**
      * Searches for products using a query.
@@ -58,9 +79,9 @@ public interface ProductService {
      * @param query is the query.
      * @param pageable is the page object.
      *
-     * @return <code>Page of Products</code>
+     * @return <code>Page of ProductDTOs</code>
      */
-    Page<Product> search(String query, Pageable pageable);
+    Page<ProductDTO> search(String query, Pageable pageable);
 
     /**
      * Saves a product.
@@ -82,9 +103,32 @@ public interface ProductService {
      * @param username is the seller's username.
      * @param pageable is the page details.
      *
-     * @return Page of Products.
+     * @return Page of ProductDTOs.
+     */
+    Page<ProductDTO> getSellerProducts(String username, Pageable pageable);
+
+    /**
+     * Returns the products that come after the cursor, ordered by id.
+     *
+     * @param after is the cursor returned with the previous page, <code>null</code> for the first page.
+     * @param limit is the page size.
+     * @param count whether to count all the products.
+     *
+     * @return Paginated DTO of ProductDTOs.
+     */
+    PaginatedDTO<ProductDTO> getProductsAfter(String after, int limit, boolean count);
+
+    /**
+     * Returns seller's products that come after the cursor, ordered by id.
+     *
+     * @param username is the seller's username.
+     * @param after is the cursor returned with the previous page, <code>null</code> for the first page.
+     * @param limit is the page size.
+     * @param count whether to count all the seller's products.
+     *
+     * @return Paginated DTO of ProductDTOs.
      */
-    Page<Product> getSellerProducts(String username, Pageable pageable);
+    PaginatedDTO<ProductDTO> getSellerProductsAfter(String username, String after, int limit, boolean count);
 
     /**
      * Add product to the cart.
@@ -110,6 +154,14 @@ public interface ProductService {
      */
     void updatePhoto(Long id, MultipartFile photo);
 
+    /**
+     * Returns product's photo.
+     *
+     * @param id is the product's id.
+     * @return <code>Optional of Resource</code>, empty if the product has no photo.
+     */
+    Optional<Resource> getPhoto(Long id);
+
     /**
      * Updates product.
      *
@@ -117,4 +169,11 @@ public interface ProductService {
      * @param productDTO is the product DTO.
      */
     void updateProduct(Long id, ProductDTO productDTO);
+
+    /**
+     * Rebuilds the products' search index.
+     *
+     * @return the number of indexed products.
+     */
+    int rebuildSearchIndex();
 }
@@ -27,8 +27,11 @@ package com.yashmerino.ecommerce.services.interfaces;
 import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.model.dto.auth.UserDTO;
 import com.yashmerino.ecommerce.model.dto.auth.UserInfoDTO;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+
 /**
  * Interface for user service.
  */
@@ -66,6 +69,14 @@ public interface UserService {
      */
     void updatePhoto(String username, MultipartFile photo);
 
+    /**
+     * Returns user's photo.
+     *
+     * @param username is the user's username.
+     * @return <code>Optional of Resource</code>, empty if the user has no photo.
+     */
+    Optional<Resource> getPhoto(String username);
+
     /**
      * Updates user information.
      *
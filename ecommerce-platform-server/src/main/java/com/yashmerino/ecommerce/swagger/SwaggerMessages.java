@@ -96,6 +96,11 @@ public class SwaggerMessages {
      */
     public static final String QUANTITY_SUCCESSFULLY_CHANGED = "Quantity of the item successfully changed!";
 
+    /**
+     * Message when the cart items are successfully added or updated.
+     */
+    public static final String ITEMS_SUCCESSFULLY_UPSERTED = "Items successfully added to the cart!";
+
     /**
      * Message when the cart item is returned.
      */
@@ -185,4 +190,14 @@ public class SwaggerMessages {
      * Message when user orders are successfully returned.
      */
     public static final String ORDERS_RETURNED = "Order information was successfully retrieved.";
+
+    /**
+     * Message when an order is placed from the cart.
+     */
+    public static final String ORDER_PLACED = "Order was successfully placed.";
+
+    /**
+     * Message when products' search index is rebuilt.
+     */
+    public static final String SEARCH_INDEX_REBUILT = "Products' search index was successfully rebuilt.";
 }
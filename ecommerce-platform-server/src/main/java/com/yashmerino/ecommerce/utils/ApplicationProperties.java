@@ -26,6 +26,8 @@ package com.yashmerino.ecommerce.utils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Class that stores properties.
  */
@@ -36,4 +38,118 @@ public class ApplicationProperties {
      */
     @Value("${jwt.secret}")
     public String jwtSecret;
+
+    /**
+     * Time in milliseconds for which principals loaded from the database are cached, zero builds them from the token's claims.
+     */
+    @Value("${jwt.principal-cache.ttl:0}")
+    public long jwtPrincipalCacheTtl;
+
+    /**
+     * Maximum number of cached principals.
+     */
+    @Value("${jwt.principal-cache.max-size:10000}")
+    public int jwtPrincipalCacheMaxSize;
+
+    /**
+     * Maximum number of cached verified tokens, zero parses every token.
+     */
+    @Value("${jwt.verified-token-cache.max-size:10000}")
+    public int jwtVerifiedTokenCacheMaxSize;
+
+    /**
+     * Log rounds of the BCrypt password hashes. Passwords hashed with another strength are hashed again on login.
+     */
+    @Value("${security.bcrypt.strength:10}")
+    public int bcryptStrength;
+
+    /**
+     * Type of the photo storage, only "local" is available.
+     */
+    @Value("${photo.storage.type:local}")
+    public String photoStorageType;
+
+    /**
+     * Root directory of the local photo storage.
+     */
+    @Value("${photo.storage.local.root:photos}")
+    public String photoStorageRoot;
+
+    /**
+     * Whether photos left in the old BLOB columns are moved to the photo storage on startup.
+     */
+    @Value("${photo.storage.migrate-legacy:true}")
+    public boolean photoStorageMigrateLegacy;
+
+    /**
+     * Where the active carts are kept, <code>database</code> or <code>redis</code> to keep them in Redis and write them behind to the database.
+     */
+    @Value("${cart.store.type:database}")
+    public String cartStoreType;
+
+    /**
+     * Maximum number of carts written from Redis to the database at once.
+     */
+    @Value("${cart.store.redis.flush-batch-size:100}")
+    public int cartStoreFlushBatchSize;
+
+    /**
+     * Time in milliseconds for which a cart without pending changes is kept in Redis.
+     */
+    @Value("${cart.store.redis.ttl:86400000}")
+    public long cartStoreTtl;
+
+    /**
+     * Whether the outbox relay publishes the outbox events to Kafka.
+     */
+    @Value("${outbox.relay.enabled:true}")
+    public boolean outboxRelayEnabled;
+
+    /**
+     * Maximum number of outbox events published in one transaction.
+     */
+    @Value("${outbox.relay.batch-size:100}")
+    public int outboxRelayBatchSize;
+
+    /**
+     * Time in milliseconds the relay waits for Kafka to acknowledge an event.
+     */
+    @Value("${outbox.relay.send-timeout:10000}")
+    public long outboxRelaySendTimeout;
+
+    /**
+     * Maximum number of refresh tokens of a user, the oldest ones are deleted on login. Zero allows any number.
+     */
+    @Value("${refresh-token.max-per-user:5}")
+    public int refreshTokenMaxPerUser;
+
+    /**
+     * Maximum number of expired or revoked refresh tokens deleted at once.
+     */
+    @Value("${refresh-token.sweep.batch-size:1000}")
+    public int refreshTokenSweepBatchSize;
+
+    /**
+     * Number of carts whose totals are checked at once by the reconciliation.
+     */
+    @Value("${cart.totals.reconcile.batch-size:1000}")
+    public int cartTotalsReconcileBatchSize;
+
+    /**
+     * Caches that keep a local copy of their Redis entries.
+     */
+    @Value("${cache.near.names:categories,products,productPages}")
+    public List<String> nearCacheNames;
+
+    /**
+     * Maximum number of entries of each local cache.
+     */
+    @Value("${cache.near.max-size:1000}")
+    public int nearCacheMaxSize;
+
+    /**
+     * Time in milliseconds after which a local entry is read from Redis again, it bounds the staleness if an invalidation is lost.
+     */
+    @Value("${cache.near.ttl:30000}")
+    public long nearCacheTtl;
 }
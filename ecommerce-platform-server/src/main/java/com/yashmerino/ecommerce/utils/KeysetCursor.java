@@ -0,0 +1,99 @@
+package com.yashmerino.ecommerce.utils;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.exceptions.InvalidInputException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after which a keyset page starts: the sort key and the id of the last row of the previous page.
+ * Clients get it as an opaque URL-safe string.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    /**
+     * Largest page size that can be requested after a cursor.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Separator between the id and the sort key.
+     */
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Sort key of the last row.
+     */
+    private final String sortKey;
+
+    /**
+     * Id of the last row.
+     */
+    private final Long id;
+
+    /**
+     * Creates a cursor for rows ordered by id only.
+     *
+     * @param id is the id of the last row.
+     * @return <code>KeysetCursor</code>
+     */
+    public static KeysetCursor of(Long id) {
+        return new KeysetCursor(String.valueOf(id), id);
+    }
+
+    /**
+     * Encodes the cursor.
+     *
+     * @return opaque cursor.
+     */
+    public String encode() {
+        String value = id + String.valueOf(SEPARATOR) + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor.
+     *
+     * @param cursor is the opaque cursor.
+     * @return <code>KeysetCursor</code>
+     * @throws InvalidInputException if the cursor is malformed.
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+
+            return new KeysetCursor(value.substring(separator + 1), Long.valueOf(value.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidInputException("invalid_cursor");
+        }
+    }
+}
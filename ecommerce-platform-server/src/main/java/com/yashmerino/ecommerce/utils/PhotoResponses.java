@@ -0,0 +1,74 @@
+package com.yashmerino.ecommerce.utils;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Builds the responses for photo endpoints.
+ */
+public final class PhotoResponses {
+
+    /**
+     * Private constructor to not allow instantiation.
+     */
+    private PhotoResponses() {
+    }
+
+    /**
+     * Returns the photo response.
+     * The photo is streamed with its content hash as ETag, so clients revalidate with <code>If-None-Match</code>
+     * and Spring answers conditional and range requests. Missing photos are returned as an empty body, like before.
+     *
+     * @param photo is the stored photo.
+     * @return <code>ResponseEntity</code>
+     */
+    public static ResponseEntity<Resource> of(Optional<Resource> photo) {
+        if (photo.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.OK);
+        }
+
+        Resource resource = photo.get();
+
+        try {
+            return ResponseEntity.ok()
+                    .eTag(resource.getFilename())
+                    .lastModified(resource.lastModified())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(resource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -31,8 +31,11 @@ import com.yashmerino.ecommerce.model.dto.CartItemDTO;
 import com.yashmerino.ecommerce.model.dto.CategoryDTO;
 import com.yashmerino.ecommerce.model.dto.OrderDTO;
 import com.yashmerino.ecommerce.model.dto.ProductDTO;
+import com.yashmerino.ecommerce.model.projections.ProductListView;
 import org.aspectj.weaver.ast.Or;
 
+import java.util.Set;
+
 /**
  * Utils class that converts request body to an entity;
  */
@@ -93,6 +96,24 @@ public class RequestBodyToEntityConverter {
         return productDTO;
     }
 
+    /**
+     * Converts a product list view to ProductDTO.
+     *
+     * @param product    is the product list view.
+     * @param categories is the product's categories.
+     * @return <code>ProductDTO</code>
+     */
+    public static ProductDTO convertToProductDTO(final ProductListView product, final Set<Category> categories) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(product.getId().toString());
+        productDTO.setName(product.getName());
+        productDTO.setDescription(product.getDescription());
+        productDTO.setPrice(product.getPrice());
+        productDTO.setCategories(categories);
+
+        return productDTO;
+    }
+
     /**
      * Converts a cart item entity to cart item DTO.
      *
@@ -0,0 +1,17 @@
+-- Line items of the orders, written at checkout with the products' names and prices at that time.
+CREATE TABLE order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME,
+    updated_at DATETIME,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    order_id BIGINT NOT NULL,
+    product_id BIGINT,
+    name VARCHAR(255) NOT NULL,
+    unit_price DECIMAL(19,2) NOT NULL,
+    quantity INT NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_order_items_order (order_id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE,
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE SET NULL
+) ENGINE=InnoDB;
@@ -0,0 +1,28 @@
+-- Read model of the users' orders with their latest payment, a page of a user's orders is read from it alone.
+CREATE TABLE order_summaries (
+    order_id BIGINT NOT NULL,
+    user_id BIGINT,
+    total_amount DECIMAL(19,2) NOT NULL,
+    order_status VARCHAR(255) NOT NULL,
+    item_count INT NOT NULL,
+    created_at DATETIME,
+    payment_id BIGINT,
+    payment_amount DECIMAL(19,2),
+    payment_status VARCHAR(255),
+    payment_created_at DATETIME,
+    PRIMARY KEY (order_id),
+    KEY idx_order_summaries_user_created (user_id, created_at, order_id),
+    CONSTRAINT fk_order_summaries_order FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+INSERT INTO order_summaries (order_id, user_id, total_amount, order_status, item_count, created_at)
+SELECT o.id, o.user_id, o.total_amount, o.status,
+       COALESCE((SELECT SUM(i.quantity) FROM order_items i WHERE i.order_id = o.id), 0), o.created_at
+FROM orders o;
+
+UPDATE order_summaries s
+JOIN payments p ON p.id = (SELECT MAX(latest.id) FROM payments latest WHERE latest.order_id = s.order_id)
+SET s.payment_id = p.id,
+    s.payment_amount = p.amount,
+    s.payment_status = p.status,
+    s.payment_created_at = p.created_at;
@@ -0,0 +1,8 @@
+-- The carts keep their total and number of units, updated with every change of their items.
+ALTER TABLE carts
+    ADD COLUMN total DECIMAL(19,2) NOT NULL DEFAULT 0,
+    ADD COLUMN item_count INT NOT NULL DEFAULT 0;
+
+UPDATE carts c
+SET c.total = ROUND(COALESCE((SELECT SUM(i.price * i.quantity) FROM cart_items i WHERE i.cart_id = c.id), 0), 2),
+    c.item_count = COALESCE((SELECT SUM(i.quantity) FROM cart_items i WHERE i.cart_id = c.id), 0);
@@ -0,0 +1,4 @@
+-- Photos are moved to the photo storage, rows only keep the key.
+-- The old BLOB columns are emptied by the application on startup and can be dropped afterwards.
+ALTER TABLE products ADD COLUMN photo_key VARCHAR(64);
+ALTER TABLE users ADD COLUMN photo_key VARCHAR(64);
@@ -0,0 +1,15 @@
+-- A product can be in a cart only once, adding it again increases the quantity.
+-- Existing duplicates are merged into the oldest row before the constraint is added.
+UPDATE cart_items ci
+JOIN (
+    SELECT MIN(id) AS id, SUM(quantity) AS quantity
+    FROM cart_items
+    GROUP BY cart_id, product_id
+    HAVING COUNT(*) > 1
+) merged ON merged.id = ci.id
+SET ci.quantity = merged.quantity;
+
+DELETE ci FROM cart_items ci
+JOIN cart_items kept ON kept.cart_id = ci.cart_id AND kept.product_id = ci.product_id AND kept.id < ci.id;
+
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id);
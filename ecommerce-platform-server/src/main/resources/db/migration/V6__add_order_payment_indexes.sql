@@ -0,0 +1,5 @@
+-- Orders of a user are listed newest first and paged by (created_at, id).
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id);
+
+-- The latest payment of each listed order is looked up by (order_id, created_at).
+CREATE INDEX idx_payments_order_created ON payments (order_id, created_at);
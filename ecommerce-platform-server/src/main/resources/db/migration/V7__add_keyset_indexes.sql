@@ -0,0 +1,7 @@
+-- Cursor pages of a seller's products and of a cart's items seek on (owner, id).
+CREATE INDEX idx_products_user_id_id ON products (user_id, id);
+CREATE INDEX idx_cart_items_cart_id_id ON cart_items (cart_id, id);
+
+-- The composite indexes cover the foreign keys, the single column ones are redundant.
+DROP INDEX idx_products_user_id ON products;
+DROP INDEX idx_cart_items_cart ON cart_items;
@@ -0,0 +1,10 @@
+-- Kafka events are written here in the same transaction as the change they describe and published by the relay.
+CREATE TABLE outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    event_type VARCHAR(255) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,16 @@
+-- Refresh tokens are looked up by the SHA-256 of the token, the tokens themselves are no longer stored.
+ALTER TABLE refresh_tokens ADD COLUMN token_hash VARCHAR(64);
+UPDATE refresh_tokens SET token_hash = SHA2(token, 256);
+ALTER TABLE refresh_tokens MODIFY token_hash VARCHAR(64) NOT NULL;
+CREATE UNIQUE INDEX uk_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+
+-- Dropping the column drops its unique and lookup indexes.
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+-- The sweeper deletes the expired and revoked tokens.
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+CREATE INDEX idx_refresh_tokens_revoked ON refresh_tokens (revoked);
+
+-- A user's tokens are read newest first to evict the oldest sessions, the composite index covers the foreign key.
+CREATE INDEX idx_refresh_tokens_user_id_created_at ON refresh_tokens (user_id, created_at);
+DROP INDEX idx_refresh_tokens_user_id ON refresh_tokens;
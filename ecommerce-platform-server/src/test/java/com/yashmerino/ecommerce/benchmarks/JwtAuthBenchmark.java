@@ -0,0 +1,140 @@
+package com.yashmerino.ecommerce.benchmarks;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.security.JwtPrincipal;
+import com.yashmerino.ecommerce.security.JwtProvider;
+import com.yashmerino.ecommerce.security.VerifiedTokenCache;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Key;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of authenticating a request from a JWT token.
+ * <ul>
+ *     <li><code>baseline</code> decodes the key and builds a parser for each of the two parses the filter used to do.</li>
+ *     <li><code>singleParse</code> uses the shared key and parser and parses the token once.</li>
+ *     <li><code>verifiedTokenCache</code> additionally serves an already verified token from the cache.</li>
+ * </ul>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtAuthBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthBenchmark {
+
+    /**
+     * Secret used to sign the token.
+     */
+    private static final String SECRET = "640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316";
+
+    /**
+     * Provider without verified token cache.
+     */
+    private JwtProvider uncachedProvider;
+
+    /**
+     * Provider with verified token cache.
+     */
+    private JwtProvider cachedProvider;
+
+    /**
+     * Token that's authenticated.
+     */
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedProvider = provider(0);
+        cachedProvider = provider(10000);
+
+        token = uncachedProvider.generateToken(new UsernamePasswordAuthenticationToken("user", null,
+                List.of(new SimpleGrantedAuthority("USER"))), 1L, 1L);
+    }
+
+    @Benchmark
+    public Claims baseline() {
+        parseWithNewKey();
+        return parseWithNewKey();
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> singleParse() {
+        return uncachedProvider.getPrincipal(uncachedProvider.validateAndGetClaims(token));
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> verifiedTokenCache() {
+        return cachedProvider.getPrincipal(cachedProvider.validateAndGetClaims(token));
+    }
+
+    /**
+     * Parses the token the way it was done before the key and parser were shared.
+     *
+     * @return the token's claims.
+     */
+    private Claims parseWithNewKey() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Creates a provider.
+     *
+     * @param cacheSize is the size of the verified token cache.
+     * @return the provider.
+     */
+    private static JwtProvider provider(int cacheSize) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.jwtSecret = SECRET;
+        applicationProperties.jwtVerifiedTokenCacheMaxSize = cacheSize;
+
+        return new JwtProvider(applicationProperties, new VerifiedTokenCache(applicationProperties));
+    }
+}
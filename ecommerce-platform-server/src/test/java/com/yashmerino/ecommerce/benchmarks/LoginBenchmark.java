@@ -0,0 +1,145 @@
+package com.yashmerino.ecommerce.benchmarks;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.security.JwtProvider;
+import com.yashmerino.ecommerce.security.StrengthAwareBCryptPasswordEncoder;
+import com.yashmerino.ecommerce.security.VerifiedTokenCache;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the logins per second one core can serve, leaving out the database. A login checks the password,
+ * then issues the access and refresh tokens, for each BCrypt strength.
+ * <ul>
+ *     <li><code>login</code> logs in with a password hashed with the configured strength.</li>
+ *     <li><code>loginWithRehash</code> logs in with a password hashed with another strength, which is hashed again.</li>
+ * </ul>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LoginBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class LoginBenchmark {
+
+    /**
+     * Secret used to sign the tokens.
+     */
+    private static final String SECRET = "640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316";
+
+    /**
+     * User's password.
+     */
+    private static final String PASSWORD = "correct horse battery staple";
+
+    /**
+     * BCrypt strength.
+     */
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    /**
+     * Password encoder.
+     */
+    private StrengthAwareBCryptPasswordEncoder passwordEncoder;
+
+    /**
+     * JWT provider.
+     */
+    private JwtProvider jwtProvider;
+
+    /**
+     * Password hashed with the configured strength.
+     */
+    private String hash;
+
+    /**
+     * Password hashed with another strength.
+     */
+    private String outdatedHash;
+
+    @Setup
+    public void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.jwtSecret = SECRET;
+
+        jwtProvider = new JwtProvider(applicationProperties, new VerifiedTokenCache(applicationProperties));
+        passwordEncoder = new StrengthAwareBCryptPasswordEncoder(strength);
+        hash = passwordEncoder.encode(PASSWORD);
+        outdatedHash = new StrengthAwareBCryptPasswordEncoder(strength - 2).encode(PASSWORD);
+    }
+
+    @Benchmark
+    public void login(Blackhole blackhole) {
+        login(hash, blackhole);
+    }
+
+    @Benchmark
+    public void loginWithRehash(Blackhole blackhole) {
+        login(outdatedHash, blackhole);
+    }
+
+    /**
+     * Logs in the way the auth service does once the user is loaded.
+     *
+     * @param storedHash is the user's stored hash.
+     * @param blackhole consumes the results.
+     */
+    private void login(String storedHash, Blackhole blackhole) {
+        if (!passwordEncoder.matches(PASSWORD, storedHash)) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        if (passwordEncoder.upgradeEncoding(storedHash)) {
+            blackhole.consume(passwordEncoder.encode(PASSWORD));
+        }
+
+        blackhole.consume(jwtProvider.generateToken(new UsernamePasswordAuthenticationToken("user", null,
+                List.of(new SimpleGrantedAuthority("USER"))), 1L, 1L));
+        blackhole.consume(jwtProvider.generateRefreshToken());
+    }
+}
@@ -0,0 +1,201 @@
+package com.yashmerino.ecommerce.config;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NearCacheManager and NearCache.
+ */
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager redisCacheManager;
+
+    private MeterRegistry meterRegistry;
+
+    private NearCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.nearCacheNames = List.of("products");
+        applicationProperties.nearCacheMaxSize = 2;
+        applicationProperties.nearCacheTtl = 60000;
+
+        redisCacheManager = new ConcurrentMapCacheManager();
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new NearCacheManager(redisCacheManager, redisTemplate, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testGetReadsRedisOnceThenServesLocalCopy() {
+        redisCacheManager.getCache("products").put(1L, "Phone");
+        Cache cache = cacheManager.getCache("products");
+
+        assertEquals("Phone", cache.get(1L, String.class));
+
+        redisCacheManager.getCache("products").put(1L, "Laptop");
+
+        assertEquals("Phone", cache.get(1L, String.class));
+        assertEquals(1.0, gets("local", "hit"));
+        assertEquals(1.0, gets("local", "miss"));
+        assertEquals(1.0, gets("redis", "hit"));
+        assertEquals(0.5, meterRegistry.get("cache.near.hit.ratio").tags("cache", "products", "level", "local").gauge().value());
+    }
+
+    @Test
+    void testGetMissesBothLevels() {
+        assertNull(cacheManager.getCache("products").get(1L));
+
+        assertEquals(1.0, gets("local", "miss"));
+        assertEquals(1.0, gets("redis", "miss"));
+    }
+
+    @Test
+    void testPutWritesBothLevels() {
+        Cache cache = cacheManager.getCache("products");
+
+        cache.put(1L, "Phone");
+
+        assertEquals("Phone", redisCacheManager.getCache("products").get(1L, String.class));
+
+        redisCacheManager.getCache("products").evict(1L);
+
+        assertEquals("Phone", cache.get(1L, String.class));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testLeastRecentlyUsedLocalEntryIsEvicted() {
+        Cache cache = cacheManager.getCache("products");
+
+        cache.put(1L, "Phone");
+        cache.put(2L, "Laptop");
+        cache.get(1L);
+        cache.put(3L, "Tablet");
+        redisCacheManager.getCache("products").clear();
+
+        assertEquals("Phone", cache.get(1L, String.class));
+        assertEquals("Tablet", cache.get(3L, String.class));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void testEvictIsPublishedToOtherNodes() {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "Phone");
+
+        cache.evict(1L);
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(NearCacheManager.EVICTIONS_CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith(" products 1"));
+        assertNull(cache.get(1L));
+        assertNull(redisCacheManager.getCache("products").get(1L));
+    }
+
+    @Test
+    void testClearIsPublishedToOtherNodes() {
+        cacheManager.getCache("products").clear();
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(NearCacheManager.EVICTIONS_CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith(" products"));
+    }
+
+    @Test
+    void testEvictionOfAnotherNodeDropsLocalCopy() {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "Phone");
+        cache.put(2L, "Laptop");
+        redisCacheManager.getCache("products").put(1L, "Tablet");
+
+        cacheManager.onMessage(message("another-node products 1"), null);
+
+        assertEquals("Tablet", cache.get(1L, String.class));
+
+        redisCacheManager.getCache("products").clear();
+        cacheManager.onMessage(message("another-node products"), null);
+
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void testOwnEvictionIsIgnored() {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "Phone");
+        cache.evict(2L);
+
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(NearCacheManager.EVICTIONS_CHANNEL), published.capture());
+        redisCacheManager.getCache("products").clear();
+
+        cacheManager.onMessage(message(published.getValue().replace(" 2", "")), null);
+
+        assertEquals("Phone", cache.get(1L, String.class));
+    }
+
+    @Test
+    void testOtherCachesAreRedisOnly() {
+        Cache cache = cacheManager.getCache("productPhotos");
+
+        assertSame(redisCacheManager.getCache("productPhotos"), cache);
+
+        cache.evict(1L);
+
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    private double gets(String level, String result) {
+        return meterRegistry.get("cache.near.gets").tags("cache", "products", "level", level, "result", result).counter().count();
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(NearCacheManager.EVICTIONS_CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -26,7 +26,10 @@ package com.yashmerino.ecommerce.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yashmerino.ecommerce.kafka.NotificationEventProducer;
 import com.yashmerino.ecommerce.model.dto.auth.LoginDTO;
+import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.model.dto.auth.RegisterDTO;
+import com.yashmerino.ecommerce.repositories.UserRepository;
+import com.yashmerino.ecommerce.security.CustomUserDetailsService;
 import jakarta.servlet.http.Cookie;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,16 +40,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static com.yashmerino.ecommerce.utils.Role.USER;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -89,6 +99,18 @@ class AuthControllerTest {
     @MockBean
     private NotificationEventProducer notificationEventProducer;
 
+    /**
+     * Custom user details service spy.
+     */
+    @SpyBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    /**
+     * Users' repository.
+     */
+    @Autowired
+    private UserRepository userRepository;
+
     @BeforeEach
     void setup() {
         registerDTO = new RegisterDTO();
@@ -214,6 +236,33 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.refreshToken").exists());
     }
 
+    /**
+     * Tests that the access token authenticates requests from its claims, without loading the user.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    void accessTokenAuthenticatesWithoutLoadingUserTest() throws Exception {
+        doNothing().when(notificationEventProducer).sendWelcomeNotificationRequested(anyString());
+
+        mvc.perform(post("/api/auth/register").contentType(
+                APPLICATION_JSON).content(objectMapper.writeValueAsString(registerDTO))).andExpect(status().isOk());
+
+        MvcResult result = mvc.perform(post("/api/auth/login").contentType(
+                APPLICATION_JSON).content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String accessToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("accessToken").asText();
+        clearInvocations(customUserDetailsService);
+
+        mvc.perform(get("/api/order/my-orders").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        verify(customUserDetailsService, never()).loadUserByUsername(anyString());
+        verify(customUserDetailsService, never()).loadPrincipalByUsername(anyString());
+    }
+
     /**
      * Tests /login with a non-existing username.
      *
@@ -228,6 +277,51 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.error").value("username_not_found"));
     }
 
+    /**
+     * Tests /login with a wrong password.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    void loginWrongPasswordTest() throws Exception {
+        doNothing().when(notificationEventProducer).sendWelcomeNotificationRequested(anyString());
+
+        mvc.perform(post("/api/auth/register").contentType(
+                APPLICATION_JSON).content(objectMapper.writeValueAsString(registerDTO))).andExpect(status().isOk());
+
+        loginDTO.setPassword("wrong");
+
+        mvc.perform(post("/api/auth/login").contentType(
+                APPLICATION_JSON).content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad credentials"));
+    }
+
+    /**
+     * Tests that /login loads the user once and rehashes a password hashed with another strength.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    void loginRehashesPasswordTest() throws Exception {
+        doNothing().when(notificationEventProducer).sendWelcomeNotificationRequested(anyString());
+
+        mvc.perform(post("/api/auth/register").contentType(
+                APPLICATION_JSON).content(objectMapper.writeValueAsString(registerDTO))).andExpect(status().isOk());
+
+        User user = userRepository.findByUsername("test").orElseThrow();
+        user.setPassword(new BCryptPasswordEncoder(4).encode("test"));
+        userRepository.save(user);
+        clearInvocations(customUserDetailsService);
+
+        mvc.perform(post("/api/auth/login").contentType(
+                APPLICATION_JSON).content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isOk());
+
+        assertTrue(userRepository.findByUsername("test").orElseThrow().getPassword().startsWith("$2a$10$"));
+        verify(customUserDetailsService, never()).loadUserByUsername(anyString());
+    }
+
     /**
      * Tests /login without username.
      *
@@ -23,17 +23,36 @@ package com.yashmerino.ecommerce.controllers;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.yashmerino.ecommerce.model.Cart;
+import com.yashmerino.ecommerce.model.CartItem;
+import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.services.CartTotalsReconciler;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,6 +71,36 @@ class CartControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    /**
+     * Cart items' repository.
+     */
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    /**
+     * Carts' repository.
+     */
+    @Autowired
+    private CartRepository cartRepository;
+
+    /**
+     * Carts' totals reconciliation.
+     */
+    @Autowired
+    private CartTotalsReconciler cartTotalsReconciler;
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Entity manager factory, exposes the statistics of the statements.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
      * Test clear cart.
      *
@@ -64,5 +113,146 @@ class CartControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(200))
                 .andExpect(jsonPath("$.message").value("cart_cleared_successfully"));
+
+        assertCartTotals("0.00", 0);
+    }
+
+    /**
+     * Test batch upsert of cart items.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void upsertItemsTest() throws Exception {
+        mvc.perform(post("/api/cart/items:batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 1, \"quantity\": 3}, {\"productId\": 2, \"quantity\": 2}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(200))
+                .andExpect(jsonPath("$.message").value("cart_items_updated_successfully"));
+
+        assertEquals(Map.of(1L, 3, 2L, 2), getCartQuantities());
+        assertCartTotals("21.00", 5);
+
+        mvc.perform(post("/api/cart/items:batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 2, \"quantity\": 5}]}"))
+                .andExpect(status().isOk());
+
+        assertEquals(Map.of(1L, 3, 2L, 5), getCartQuantities());
+        assertCartTotals("30.00", 8);
+    }
+
+    /**
+     * Tests that a batch upsert loads only the products' prices, not the whole products with their categories and sellers.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void upsertItemsStatementCountTest() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        mvc.perform(post("/api/cart/items:batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 1, \"quantity\": 3}, {\"productId\": 2, \"quantity\": 2}]}"))
+                .andExpect(status().isOk());
+
+        // User, cart, prices, existing cart items, insert, update and totals.
+        assertEquals(7, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Product.class.getName()).getLoadCount());
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(Map.of(1L, 3, 2L, 2), getCartQuantities());
+    }
+
+    /**
+     * Test batch upsert with a product that doesn't exist.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void upsertItemsProductNotFoundTest() throws Exception {
+        mvc.perform(post("/api/cart/items:batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 2, \"quantity\": 2}, {\"productId\": 999, \"quantity\": 1}]}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Product couldn't be found!"));
+
+        assertEquals(Map.of(1L, 1), getCartQuantities());
+        assertCartTotals("5.00", 1);
+    }
+
+    /**
+     * Test batch upsert with invalid items.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void upsertItemsInvalidTest() throws Exception {
+        mvc.perform(post("/api/cart/items:batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 2, \"quantity\": 0}]}"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(post("/api/cart/items:batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"items\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test that adding a product that's already in the cart increases its quantity.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void addProductAlreadyInCartTest() throws Exception {
+        mvc.perform(get("/api/product/1/add?quantity=2"))
+                .andExpect(status().isOk());
+
+        assertEquals(Map.of(1L, 3), getCartQuantities());
+        assertCartTotals("15.00", 3);
+    }
+
+    /**
+     * Test that the reconciliation fixes the totals that drifted.
+     */
+    @Test
+    void reconcileTotalsTest() {
+        jdbcTemplate.update("UPDATE carts SET total = 99, item_count = 7 WHERE id = 1");
+
+        cartTotalsReconciler.reconcile();
+
+        assertCartTotals("5.00", 1);
+    }
+
+    /**
+     * Checks the user's cart's total and number of units.
+     *
+     * @param total is the expected total.
+     * @param itemCount is the expected number of units.
+     */
+    private void assertCartTotals(String total, int itemCount) {
+        Cart cart = cartRepository.findById(1L).orElseThrow();
+
+        assertEquals(new BigDecimal(total), cart.getTotal());
+        assertEquals(itemCount, cart.getItemCount());
+    }
+
+    /**
+     * Returns the quantities of the user's cart items by product id.
+     *
+     * @return quantities by product id.
+     */
+    private Map<Long, Integer> getCartQuantities() {
+        return cartItemRepository.findAllByCartIdAndProductIdIn(1L, List.of(1L, 2L, 999L)).stream()
+                .collect(Collectors.toMap(cartItem -> cartItem.getProduct().getId(), CartItem::getQuantity));
     }
 }
@@ -23,18 +23,37 @@ package com.yashmerino.ecommerce.controllers;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.security.JwtPrincipal;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -55,6 +74,18 @@ class CartItemControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    /**
+     * Object mapper.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * JDBC template to read the cart's totals.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     /**
      * Test get cart item.
      *
@@ -87,6 +118,37 @@ class CartItemControllerTest {
                 .andExpect(jsonPath("$.error").value("access_denied"));
     }
 
+    /**
+     * Test get cart item that doesn't exist.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getCartItemNotFoundTest() throws Exception {
+        mvc.perform(get("/api/cartItem/100"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("cartitem_not_found"));
+    }
+
+    /**
+     * Test get cart item with the cart id carried by the token's principal.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    void getCartItemWithPrincipalCartIdTest() throws Exception {
+        mvc.perform(get("/api/cartItem/1").with(authentication(principal(1L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.cartId").value(1));
+
+        mvc.perform(get("/api/cartItem/1").with(authentication(principal(2L))))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error").value("access_denied"));
+    }
+
     /**
      * Test delete cart item.
      *
@@ -99,6 +161,11 @@ class CartItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(200))
                 .andExpect(jsonPath("$.message").value("cartitem_deleted_successfully"));
+
+        mvc.perform(get("/api/cartItem?username=user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(0))
+                .andExpect(jsonPath("$.totalPrice").value(0.0));
     }
 
     /**
@@ -115,6 +182,20 @@ class CartItemControllerTest {
                 .andExpect(jsonPath("$.error").value("access_denied"));
     }
 
+    /**
+     * Test delete cart item that doesn't exist.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void deleteCartItemNotFoundTest() throws Exception {
+        mvc.perform(delete("/api/cartItem/100"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("cartitem_not_found"));
+    }
+
     /**
      * Test change item's quantity.
      *
@@ -131,6 +212,54 @@ class CartItemControllerTest {
         mvc.perform(get("/api/cartItem/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.quantity").value(5));
+
+        mvc.perform(get("/api/cartItem?username=user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPrice").value(25.0));
+    }
+
+    /**
+     * Test concurrent quantity changes of the same item keep the cart's totals in line with the item.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    void concurrentChangeQuantityTest() throws Exception {
+        int changes = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(changes);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < changes; i++) {
+                int quantity = i + 2;
+
+                statuses.add(executor.submit(() -> {
+                    start.await();
+
+                    return mvc.perform(post("/api/cartItem/1/quantity?quantity=" + quantity).with(user("user").authorities(new SimpleGrantedAuthority("USER"))))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get(30, TimeUnit.SECONDS));
+            }
+
+            assertTrue(results.contains(200));
+            assertEquals(changes, Collections.frequency(results, 200) + Collections.frequency(results, 409));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> totals = jdbcTemplate.queryForMap("SELECT c.total, c.item_count, i.price * i.quantity AS subtotal, i.quantity " +
+                "FROM carts c JOIN cart_items i ON i.cart_id = c.id WHERE i.id = 1");
+
+        assertEquals(0, ((BigDecimal) totals.get("TOTAL")).compareTo(BigDecimal.valueOf(((Number) totals.get("SUBTOTAL")).doubleValue())));
+        assertEquals(totals.get("QUANTITY"), totals.get("ITEM_COUNT"));
     }
 
     /**
@@ -147,6 +276,24 @@ class CartItemControllerTest {
                 .andExpect(jsonPath("$.error").value("access_denied"));
     }
 
+    /**
+     * Test change quantity of a cart item that doesn't exist.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void changeQuantityNotFoundTest() throws Exception {
+        mvc.perform(post("/api/cartItem/100/quantity?quantity=5"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("cartitem_not_found"));
+
+        mvc.perform(get("/api/cartItem?username=user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPrice").value(5.0));
+    }
+
     /**
      * Test get cart items.
      *
@@ -207,4 +354,58 @@ class CartItemControllerTest {
         String content1 = page1.getResponse().getContentAsString();
         assertEquals("{\"data\":[],\"currentPage\":1,\"totalPages\":1,\"totalItems\":1,\"pageSize\":1,\"totalPrice\":5.0,\"hasNext\":false,\"hasPrevious\":true}", content1);
     }
+
+    /**
+     * Test cart items' cursor pages.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void cartItemsCursorPaginationTest() throws Exception {
+        mvc.perform(get("/api/product/2/add?quantity=1"))
+                .andExpect(status().isOk());
+
+        MvcResult page0 = mvc.perform(get("/api/cartItem?username=user&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].name").value("Phone"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalItems").doesNotExist())
+                .andReturn();
+
+        String cursor = objectMapper.readTree(page0.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mvc.perform(get("/api/cartItem").param("username", "user").param("after", cursor).param("limit", "1").param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].name").value("Laptop"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalItems").value(2));
+    }
+
+    /**
+     * Test cart items' cursor pages of another user.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "anotherUser", authorities = {"USER"})
+    void cartItemsCursorPaginationWrongUserTest() throws Exception {
+        mvc.perform(get("/api/cartItem?username=user&limit=1"))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Returns the authentication of the user "user" built from a token, with the given cart id.
+     *
+     * @param cartId is the cart id carried by the principal.
+     * @return the authentication.
+     */
+    private Authentication principal(Long cartId) {
+        JwtPrincipal principal = new JwtPrincipal(1L, "user", cartId, List.of(new SimpleGrantedAuthority("USER")));
+
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
 }
@@ -23,22 +23,46 @@ package com.yashmerino.ecommerce.controllers;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.kafka.PaymentEventListener;
+import com.yashmerino.ecommerce.kafka.events.PaymentResultEvent;
 import com.yashmerino.ecommerce.model.dto.OrderDTO;
+import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.OrderRepository;
 import com.yashmerino.ecommerce.utils.OrderStatus;
+import com.yashmerino.ecommerce.utils.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -70,6 +94,30 @@ class OrderControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    /**
+     * Orders' repository.
+     */
+    @Autowired
+    private OrderRepository orderRepository;
+
+    /**
+     * Cart items' repository.
+     */
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Payment events' listener.
+     */
+    @Autowired
+    private PaymentEventListener paymentEventListener;
+
     @BeforeEach
     void setup() {
         orderDTO.setStatus(OrderStatus.CREATED);
@@ -104,4 +152,177 @@ class OrderControllerTest {
                 .content(objectMapper.writeValueAsString(orderDTO)).contentType(
                         APPLICATION_JSON)).andExpect(status().isForbidden()).andReturn();
     }
+
+    /**
+     * Test checkout places an order for the cart's items and empties the cart.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void checkoutTest() throws Exception {
+        mvc.perform(post("/api/order/checkout"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(200))
+                .andExpect(jsonPath("$.message").value("order_placed_successfully"))
+                .andExpect(jsonPath("$.id").value(2));
+
+        assertEquals(new BigDecimal("5.00"), orderRepository.findById(2L).orElseThrow().getTotalAmount());
+        assertEquals(OrderStatus.CREATED, orderRepository.findById(2L).orElseThrow().getStatus());
+        assertTrue(cartItemRepository.findAllByCartId(1L).isEmpty());
+
+        Map<String, Object> item = jdbcTemplate.queryForMap("SELECT product_id, name, unit_price, quantity FROM order_items WHERE order_id = 2");
+        assertEquals(1L, ((Number) item.get("product_id")).longValue());
+        assertEquals("Phone", item.get("name"));
+        assertEquals(new BigDecimal("5.00"), item.get("unit_price"));
+        assertEquals(1, ((Number) item.get("quantity")).intValue());
+
+        mvc.perform(get("/api/order/my-orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(2))
+                .andExpect(jsonPath("$.data[0].orderId").value(2))
+                .andExpect(jsonPath("$.data[0].itemCount").value(1))
+                .andExpect(jsonPath("$.data[0].orderStatus").value("CREATED"))
+                .andExpect(jsonPath("$.data[0].paymentId").doesNotExist())
+                .andExpect(jsonPath("$.data[1].orderId").value(1));
+    }
+
+    /**
+     * Test concurrent checkouts of the same cart place a single order.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    void concurrentCheckoutTest() throws Exception {
+        int checkouts = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(checkouts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < checkouts; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+
+                    return mvc.perform(post("/api/order/checkout").with(user("user").authorities(new SimpleGrantedAuthority("USER"))))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, Collections.frequency(results, 200));
+            assertEquals(checkouts - 1, Collections.frequency(results, 400) + Collections.frequency(results, 409));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, orderRepository.count());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+        assertTrue(cartItemRepository.findAllByCartId(1L).isEmpty());
+    }
+
+    /**
+     * Test checkout with an empty cart.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void checkoutEmptyCartTest() throws Exception {
+        mvc.perform(post("/api/order/checkout")).andExpect(status().isOk());
+
+        mvc.perform(post("/api/order/checkout"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("cart_is_empty"));
+
+        assertEquals(2, orderRepository.count());
+    }
+
+    /**
+     * Test get user orders with their payments.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getUserOrdersTest() throws Exception {
+        mvc.perform(get("/api/order/my-orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.data[0].orderId").value(1))
+                .andExpect(jsonPath("$.data[0].paymentId").value(1))
+                .andExpect(jsonPath("$.data[0].paymentStatus").value("PENDING"));
+    }
+
+    /**
+     * Test get user orders after their payment's status changed.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getUserOrdersAfterPaymentResultTest() throws Exception {
+        paymentEventListener.onPaymentRequested(new PaymentResultEvent(1L, 1L, PaymentStatus.SUCCEEDED, null));
+
+        mvc.perform(get("/api/order/my-orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].orderId").value(1))
+                .andExpect(jsonPath("$.data[0].paymentId").value(1))
+                .andExpect(jsonPath("$.data[0].paymentStatus").value("SUCCEEDED"));
+    }
+
+    /**
+     * Test get user orders page by page with cursors.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getUserOrdersAfterCursorTest() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/api/order")
+                    .content(objectMapper.writeValueAsString(orderDTO)).contentType(APPLICATION_JSON))
+                    .andExpect(status().isOk());
+        }
+
+        Set<Long> orderIds = new HashSet<>();
+        String cursor = null;
+
+        do {
+            MockHttpServletRequestBuilder request = get("/api/order/my-orders").param("size", "1");
+
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+
+            MvcResult result = mvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.length()").value(1))
+                    .andReturn();
+
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            orderIds.add(page.get("data").get(0).get("orderId").asLong());
+            cursor = page.has("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertEquals(Set.of(1L, 2L, 3L), orderIds);
+    }
+
+    /**
+     * Test get user orders with an invalid cursor.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getUserOrdersInvalidCursorTest() throws Exception {
+        mvc.perform(get("/api/order/my-orders").param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
 }
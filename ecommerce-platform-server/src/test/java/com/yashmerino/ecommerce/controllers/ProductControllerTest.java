@@ -26,11 +26,15 @@ package com.yashmerino.ecommerce.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yashmerino.ecommerce.model.Category;
 import com.yashmerino.ecommerce.model.dto.ProductDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -79,6 +83,12 @@ class ProductControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    /**
+     * Entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     void setup() {
         productDTO.setName("Product");
@@ -497,6 +507,39 @@ class ProductControllerTest {
         assertEquals(31163, result.getResponse().getContentAsString().length());
     }
 
+    /**
+     * Tests that product's photo is revalidated with its ETag.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getProductPhotoNotModifiedTest() throws Exception {
+        MvcResult result = mvc.perform(get("/api/product/1/photo")).andExpect(status().isOk()).andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(eTag);
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+
+        mvc.perform(get("/api/product/1/photo").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    /**
+     * Tests get a range of product's photo.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "user", authorities = {"USER"})
+    void getProductPhotoRangeTest() throws Exception {
+        MvcResult result = mvc.perform(get("/api/product/1/photo").header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent()).andReturn();
+
+        assertEquals("bytes 100-199/31163", result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(100, result.getResponse().getContentAsByteArray().length);
+    }
+
     /**
      * Tests get photo for non-existing product.
      *
@@ -710,4 +753,185 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.data[0].id").value("4"))
                 .andExpect(jsonPath("$.data[0].name").value("Banana"));
     }
+
+    /**
+     * Test search for products by category.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "seller", authorities = {"SELLER"})
+    void searchProductsByCategoryTest() throws Exception {
+        Category category = new Category();
+        category.setId(8L);
+        productDTO.setName("Dog collar");
+        productDTO.setCategories(new HashSet<>(List.of(category)));
+
+        mvc.perform(post("/api/product")
+                .content(objectMapper.writeValueAsString(productDTO)).contentType(
+                        APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(3));
+
+        mvc.perform(get("/api/product/search?query=pet"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.data[0].id").value("3"));
+    }
+
+    /**
+     * Tests that a page of products is loaded with a fixed number of statements.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "seller", authorities = {"SELLER"})
+    void productListingsStatementCountTest() throws Exception {
+        Category category = new Category();
+        category.setId(8L);
+        productDTO.setName("Dog collar");
+        productDTO.setCategories(new HashSet<>(List.of(category)));
+
+        mvc.perform(post("/api/product")
+                .content(objectMapper.writeValueAsString(productDTO)).contentType(
+                        APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        mvc.perform(get("/api/product?page=0&size=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[2].categories[0].name").value("Pet Care"));
+
+        // Page, count and the categories of the whole page.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        statistics.clear();
+
+        mvc.perform(get("/api/product/search?query=collar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].categories[0].name").value("Pet Care"));
+
+        // Products by ids and their categories.
+        assertEquals(2, statistics.getPrepareStatementCount());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    /**
+     * Tests products' cursor pages, they are neither counted nor skipped.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "seller", authorities = {"SELLER"})
+    void productCursorPaginationTest() throws Exception {
+        mvc.perform(post("/api/product")
+                .content(objectMapper.writeValueAsString(productDTO)).contentType(
+                        APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(3));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        MvcResult result = mvc.perform(get("/api/product?limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].id").value("1"))
+                .andExpect(jsonPath("$.data[1].id").value("2"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalItems").doesNotExist())
+                .andReturn();
+
+        // Page and the categories of the whole page.
+        assertEquals(2, statistics.getPrepareStatementCount());
+        statistics.setStatisticsEnabled(false);
+
+        String cursor = objectMapper.readTree(result.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mvc.perform(get("/api/product").param("after", cursor).param("limit", "2").param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].id").value("3"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.hasPrevious").value(true))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalItems").value(3));
+    }
+
+    /**
+     * Tests seller's products' cursor pages.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "seller", authorities = {"SELLER"})
+    void sellerProductsCursorPaginationTest() throws Exception {
+        mvc.perform(post("/api/product")
+                .content(objectMapper.writeValueAsString(productDTO)).contentType(
+                        APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(3));
+
+        MvcResult result = mvc.perform(get("/api/product/seller/seller?limit=1&count=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value("1"))
+                .andExpect(jsonPath("$.totalItems").value(2))
+                .andReturn();
+
+        String cursor = objectMapper.readTree(result.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mvc.perform(get("/api/product/seller/seller").param("after", cursor).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].id").value("3"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    /**
+     * Tests products' cursor pages with invalid parameters.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "seller", authorities = {"SELLER"})
+    void productCursorPaginationInvalidParametersTest() throws Exception {
+        mvc.perform(get("/api/product?limit=0"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/api/product?after=???"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test rebuild of the search index.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void rebuildSearchIndexTest() throws Exception {
+        mvc.perform(post("/api/product/search/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(200))
+                .andExpect(jsonPath("$.message").value("search_index_rebuilt_successfully"));
+
+        mvc.perform(get("/api/product/search?query=laptop"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value("2"));
+    }
+
+    /**
+     * Test rebuild of the search index as seller.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    @WithMockUser(username = "seller", authorities = {"SELLER"})
+    void rebuildSearchIndexAsSellerTest() throws Exception {
+        mvc.perform(post("/api/product/search/rebuild"))
+                .andExpect(status().isForbidden());
+    }
 }
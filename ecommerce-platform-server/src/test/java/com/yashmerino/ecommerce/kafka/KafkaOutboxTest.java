@@ -0,0 +1,138 @@
+package com.yashmerino.ecommerce.kafka;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.kafka.events.PaymentRequestedEvent;
+import com.yashmerino.ecommerce.model.OutboxEvent;
+import com.yashmerino.ecommerce.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+/**
+ * Tests for {@link KafkaOutbox} and {@link OutboxRelay} against the database.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+class KafkaOutboxTest {
+
+    /**
+     * Payment requested event to use in tests.
+     */
+    private final PaymentRequestedEvent event = new PaymentRequestedEvent(1L, 1L, BigDecimal.valueOf(100.00), "tok_visa");
+
+    /**
+     * Kafka outbox.
+     */
+    @Autowired
+    private KafkaOutbox kafkaOutbox;
+
+    /**
+     * Outbox relay.
+     */
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    /**
+     * Outbox events' repository.
+     */
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Kafka template.
+     */
+    @MockBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    /**
+     * Test that events can only be added within a transaction.
+     */
+    @Test
+    void addWithoutTransactionTest() {
+        assertThrows(IllegalTransactionStateException.class, () -> kafkaOutbox.add("payment.requested", "1", event));
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    /**
+     * Test that events of a rolled back transaction are discarded.
+     */
+    @Test
+    void addRolledBackTest() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            kafkaOutbox.add("payment.requested", "1", event);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    /**
+     * Test that committed events are published and removed from the outbox.
+     */
+    @Test
+    void relayPublishesCommittedEventsTest() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> kafkaOutbox.add("payment.requested", "1", event));
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(PaymentRequestedEvent.class.getName(), events.get(0).getEventType());
+
+        when(kafkaTemplate.send(eq("payment.requested"), eq("1"), any())).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertEquals(Integer.valueOf(1), transactionTemplate.execute(status -> outboxRelay.publishBatch(10)));
+
+        verify(kafkaTemplate).send("payment.requested", "1", event);
+        assertEquals(0, outboxEventRepository.count());
+    }
+}
@@ -15,7 +15,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -33,13 +32,13 @@ class NotificationEventProducerTest {
     private PaymentRepository paymentRepository;
 
     @Mock
-    private KafkaTemplate<String, NotificationRequestedEvent> kafkaTemplate;
+    private KafkaOutbox kafkaOutbox;
 
     private NotificationEventProducer producer;
 
     @BeforeEach
     void setUp() {
-        producer = new NotificationEventProducer(paymentRepository, kafkaTemplate);
+        producer = new NotificationEventProducer(paymentRepository, kafkaOutbox);
     }
 
     @Test
@@ -64,7 +63,7 @@ class NotificationEventProducerTest {
         producer.sendPaymentNotificationRequested(event);
 
         ArgumentCaptor<NotificationRequestedEvent> eventCaptor = ArgumentCaptor.forClass(NotificationRequestedEvent.class);
-        verify(kafkaTemplate).send(eq("notification.requested"), eventCaptor.capture());
+        verify(kafkaOutbox).add(eq("notification.requested"), isNull(), eventCaptor.capture());
 
         NotificationRequestedEvent capturedEvent = eventCaptor.getValue();
         assertEquals(NotificationType.PAYMENT_SUCCESS, capturedEvent.notificationType());
@@ -95,7 +94,7 @@ class NotificationEventProducerTest {
         producer.sendPaymentNotificationRequested(event);
 
         ArgumentCaptor<NotificationRequestedEvent> eventCaptor = ArgumentCaptor.forClass(NotificationRequestedEvent.class);
-        verify(kafkaTemplate).send(eq("notification.requested"), eventCaptor.capture());
+        verify(kafkaOutbox).add(eq("notification.requested"), isNull(), eventCaptor.capture());
 
         NotificationRequestedEvent capturedEvent = eventCaptor.getValue();
         assertEquals(NotificationType.PAYMENT_FAILED, capturedEvent.notificationType());
@@ -111,7 +110,7 @@ class NotificationEventProducerTest {
 
         producer.sendPaymentNotificationRequested(event);
 
-        verify(kafkaTemplate, never()).send(anyString(), any());
+        verify(kafkaOutbox, never()).add(anyString(), any(), any());
     }
 
     @Test
@@ -121,7 +120,7 @@ class NotificationEventProducerTest {
         producer.sendWelcomeNotificationRequested(email);
 
         ArgumentCaptor<NotificationRequestedEvent> eventCaptor = ArgumentCaptor.forClass(NotificationRequestedEvent.class);
-        verify(kafkaTemplate).send(eq("notification.requested"), eventCaptor.capture());
+        verify(kafkaOutbox).add(eq("notification.requested"), isNull(), eventCaptor.capture());
 
         NotificationRequestedEvent capturedEvent = eventCaptor.getValue();
         assertEquals(NotificationType.USER_REGISTERED, capturedEvent.notificationType());
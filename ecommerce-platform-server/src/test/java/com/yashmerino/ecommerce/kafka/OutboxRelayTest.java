@@ -0,0 +1,193 @@
+package com.yashmerino.ecommerce.kafka;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.kafka.events.PaymentRequestedEvent;
+import com.yashmerino.ecommerce.model.OutboxEvent;
+import com.yashmerino.ecommerce.repositories.OutboxEventRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxRelay.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final PaymentRequestedEvent EVENT = new PaymentRequestedEvent(100L, 1L, BigDecimal.valueOf(99.99), "tok_visa");
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ApplicationProperties applicationProperties;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.outboxRelayEnabled = true;
+        applicationProperties.outboxRelayBatchSize = 3;
+        applicationProperties.outboxRelaySendTimeout = 1000;
+
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, objectMapper, transactionManager, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testPublishBatchSendsAndDeletesEvents() throws Exception {
+        OutboxEvent event = outboxEvent(1L, "payment.requested", "1", EVENT);
+
+        when(outboxEventRepository.lockBatch(PageRequest.of(0, 3))).thenReturn(List.of(event));
+        when(outboxEventRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(kafkaTemplate.send("payment.requested", "1", EVENT)).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertEquals(1, relay.publishBatch(3));
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1.0, meterRegistry.get("outbox.relay.published").counter().count());
+        assertTrue(meterRegistry.get("outbox.relay.lag").gauge().value() >= 0);
+    }
+
+    @Test
+    void testPublishBatchStopsSendingKeyAfterFirstFailure() throws Exception {
+        OutboxEvent first = outboxEvent(1L, "payment.requested", "1", EVENT);
+        OutboxEvent second = outboxEvent(2L, "payment.requested", "1", EVENT);
+        OutboxEvent third = outboxEvent(3L, "payment.requested", "1", EVENT);
+
+        when(outboxEventRepository.lockBatch(PageRequest.of(0, 3))).thenReturn(List.of(first, second, third));
+        when(outboxEventRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(kafkaTemplate.send("payment.requested", "1", EVENT))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertEquals(1, relay.publishBatch(3));
+
+        verify(kafkaTemplate, times(2)).send("payment.requested", "1", EVENT);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    void testPublishBatchKeepsPublishingOtherKeysAfterFailure() throws Exception {
+        OutboxEvent first = outboxEvent(1L, "payment.requested", "1", EVENT);
+        OutboxEvent second = outboxEvent(2L, "payment.requested", "2", EVENT);
+        OutboxEvent third = outboxEvent(3L, "payment.requested", "1", EVENT);
+        OutboxEvent fourth = outboxEvent(4L, "payment.requested", "2", EVENT);
+
+        when(outboxEventRepository.lockBatch(PageRequest.of(0, 3))).thenReturn(List.of(first, second, third, fourth));
+        when(outboxEventRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(kafkaTemplate.send("payment.requested", "1", EVENT)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaTemplate.send("payment.requested", "2", EVENT)).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertEquals(2, relay.publishBatch(3));
+
+        verify(kafkaTemplate, times(1)).send("payment.requested", "1", EVENT);
+        verify(kafkaTemplate, times(2)).send("payment.requested", "2", EVENT);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L, 4L));
+    }
+
+    @Test
+    void testPublishBatchIsSkippedWhileOlderEventsAreLocked() throws Exception {
+        OutboxEvent event = outboxEvent(3L, "payment.requested", "1", EVENT);
+
+        when(outboxEventRepository.lockBatch(PageRequest.of(0, 3))).thenReturn(List.of(event));
+        when(outboxEventRepository.findMinId()).thenReturn(Optional.of(1L));
+
+        assertEquals(0, relay.publishBatch(3));
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testPublishBatchDropsUnreadableEvents() throws Exception {
+        OutboxEvent unknown = outboxEvent(1L, "payment.requested", "1", EVENT);
+        unknown.setEventType("java.lang.Runtime");
+        OutboxEvent event = outboxEvent(2L, "payment.requested", "1", EVENT);
+
+        when(outboxEventRepository.lockBatch(PageRequest.of(0, 3))).thenReturn(List.of(unknown, event));
+        when(outboxEventRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(kafkaTemplate.send("payment.requested", "1", EVENT)).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertEquals(2, relay.publishBatch(3));
+
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void testPublishEmptyBatchResetsLag() {
+        when(outboxEventRepository.lockBatch(PageRequest.of(0, 3))).thenReturn(List.of());
+
+        assertEquals(0, relay.publishBatch(3));
+
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(0.0, meterRegistry.get("outbox.relay.lag").gauge().value());
+    }
+
+    @Test
+    void testDisabledRelayDoesNothing() {
+        applicationProperties.outboxRelayEnabled = false;
+
+        relay.relay();
+
+        verifyNoInteractions(outboxEventRepository, kafkaTemplate, transactionManager);
+    }
+
+    private OutboxEvent outboxEvent(Long id, String topic, String key, Object event) throws Exception {
+        return new OutboxEvent(id, topic, key, event.getClass().getName(), objectMapper.writeValueAsString(event), Instant.now());
+    }
+}
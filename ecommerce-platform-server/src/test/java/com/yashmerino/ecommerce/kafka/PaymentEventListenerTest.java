@@ -3,6 +3,7 @@ package com.yashmerino.ecommerce.kafka;
 import com.yashmerino.ecommerce.kafka.events.PaymentResultEvent;
 import com.yashmerino.ecommerce.model.Payment;
 import com.yashmerino.ecommerce.repositories.PaymentRepository;
+import com.yashmerino.ecommerce.services.OrderSummaryWriter;
 import com.yashmerino.ecommerce.utils.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 /**
@@ -26,11 +28,14 @@ class PaymentEventListenerTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private OrderSummaryWriter orderSummaryWriter;
+
     private PaymentEventListener listener;
 
     @BeforeEach
     void setUp() {
-        listener = new PaymentEventListener(notificationEventProducer, paymentRepository);
+        listener = new PaymentEventListener(notificationEventProducer, paymentRepository, orderSummaryWriter);
     }
 
     @Test
@@ -49,6 +54,7 @@ class PaymentEventListenerTest {
         listener.onPaymentRequested(event);
 
         verify(paymentRepository).save(payment);
+        verify(orderSummaryWriter).paymentChanged(payment);
         verify(notificationEventProducer).sendPaymentNotificationRequested(event);
     }
 
@@ -63,19 +69,19 @@ class PaymentEventListenerTest {
         listener.onPaymentRequested(event);
 
         verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(orderSummaryWriter);
         verify(notificationEventProducer).sendPaymentNotificationRequested(event);
     }
 
     @Test
-    void testOnPaymentRequestedWithException() {
+    void testOnPaymentRequestedExceptionReachesErrorHandler() {
         Long orderId = 1L;
         Long paymentId = 100L;
         PaymentResultEvent event = new PaymentResultEvent(orderId, paymentId, PaymentStatus.FAILED, "Error");
 
         when(paymentRepository.findById(paymentId)).thenThrow(new RuntimeException("Database error"));
 
-        // Should not throw exception, just log error
-        listener.onPaymentRequested(event);
+        assertThrows(RuntimeException.class, () -> listener.onPaymentRequested(event));
 
         verify(paymentRepository, never()).save(any());
         verify(notificationEventProducer, never()).sendPaymentNotificationRequested(any());
@@ -7,7 +7,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
 
 import java.math.BigDecimal;
 
@@ -21,13 +20,13 @@ import static org.mockito.Mockito.*;
 class PaymentEventProducerTest {
 
     @Mock
-    private KafkaTemplate<String, PaymentRequestedEvent> kafkaTemplate;
+    private KafkaOutbox kafkaOutbox;
 
     private PaymentEventProducer producer;
 
     @BeforeEach
     void setUp() {
-        producer = new PaymentEventProducer(kafkaTemplate);
+        producer = new PaymentEventProducer(kafkaOutbox);
     }
 
     @Test
@@ -44,7 +43,7 @@ class PaymentEventProducerTest {
         ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<PaymentRequestedEvent> eventCaptor = ArgumentCaptor.forClass(PaymentRequestedEvent.class);
         
-        verify(kafkaTemplate).send(eq("payment.requested"), keyCaptor.capture(), eventCaptor.capture());
+        verify(kafkaOutbox).add(eq("payment.requested"), keyCaptor.capture(), eventCaptor.capture());
 
         assertEquals("1", keyCaptor.getValue());
         assertEquals(event, eventCaptor.getValue());
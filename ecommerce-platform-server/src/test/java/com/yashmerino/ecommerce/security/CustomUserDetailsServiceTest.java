@@ -24,6 +24,7 @@ package com.yashmerino.ecommerce.security;
  + SOFTWARE.
  +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
 
+import com.yashmerino.ecommerce.model.Cart;
 import com.yashmerino.ecommerce.model.Role;
 import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.repositories.UserRepository;
@@ -106,6 +107,23 @@ class CustomUserDetailsServiceTest {
         verify(userRepository, times(1)).findByUsername("nonexistent");
     }
 
+    @Test
+    void testLoadPrincipalByUsernameUserExistsReturnsPrincipalWithoutPassword() {
+        Cart cart = new Cart();
+        cart.setId(4L);
+        testUser.setCart(cart);
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        JwtPrincipal principal = customUserDetailsService.loadPrincipalByUsername("testuser");
+
+        assertEquals(1L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals(4L, principal.getCartId());
+        assertNull(principal.getPassword());
+        assertEquals(2, principal.getAuthorities().size());
+    }
+
     @Test
     void testLoadUserByUsernameUserWithSingleRoleReturnsCorrectAuthorities() {
         Role singleRole = new Role();
@@ -0,0 +1,129 @@
+package com.yashmerino.ecommerce.security;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.jsonwebtoken.SignatureAlgorithm.HS512;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtProviderTest {
+
+    private static final String SECRET = "640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316640762F165320F52408DAFED313C106346575273C66013DE94B8D13E9ED20316";
+
+    private JwtProvider jwtProvider;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.jwtSecret = SECRET;
+        applicationProperties.jwtVerifiedTokenCacheMaxSize = 10;
+
+        jwtProvider = new JwtProvider(applicationProperties, new VerifiedTokenCache(applicationProperties));
+    }
+
+    @Test
+    void testGenerateTokenAddsUserIdCartIdAndRolesClaims() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("user", null,
+                List.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("SELLER")));
+
+        String token = jwtProvider.generateToken(authentication, 7L, 3L);
+
+        Optional<JwtPrincipal> principal = jwtProvider.getPrincipalFromJWT(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals(7L, principal.get().getId());
+        assertEquals("user", principal.get().getUsername());
+        assertEquals(3L, principal.get().getCartId());
+        assertNull(principal.get().getPassword());
+        assertEquals(Set.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("SELLER")), Set.copyOf(principal.get().getAuthorities()));
+    }
+
+    @Test
+    void testGenerateTokenWithoutCartId() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("seller", null,
+                List.of(new SimpleGrantedAuthority("SELLER")));
+
+        String token = jwtProvider.generateToken(authentication, 8L, null);
+
+        Optional<JwtPrincipal> principal = jwtProvider.getPrincipalFromJWT(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals(8L, principal.get().getId());
+        assertNull(principal.get().getCartId());
+    }
+
+    @Test
+    void testGetPrincipalFromTokenWithoutClaimsReturnsEmpty() {
+        String token = Jwts.builder()
+                .setSubject("user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), HS512)
+                .compact();
+
+        assertTrue(jwtProvider.getPrincipalFromJWT(token).isEmpty());
+        assertEquals("user", jwtProvider.getUsernameFromJWT(token));
+    }
+
+    @Test
+    void testValidateAndGetClaimsReturnsCachedClaims() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("user", null,
+                List.of(new SimpleGrantedAuthority("USER")));
+
+        String token = jwtProvider.generateToken(authentication, 7L, 3L);
+
+        Claims claims = jwtProvider.validateAndGetClaims(token);
+
+        assertSame(claims, jwtProvider.validateAndGetClaims(token));
+        assertEquals("user", claims.getSubject());
+    }
+
+    @Test
+    void testValidateAndGetClaimsWithInvalidTokenThrowsException() {
+        String token = Jwts.builder()
+                .setSubject("user")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET.replace('6', '7'))), HS512)
+                .compact();
+
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> jwtProvider.validateAndGetClaims(token));
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> jwtProvider.validateToken("invalid"));
+    }
+}
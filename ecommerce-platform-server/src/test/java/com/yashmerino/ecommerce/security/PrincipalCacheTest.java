@@ -0,0 +1,97 @@
+package com.yashmerino.ecommerce.security;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, JwtPrincipal> loader = username -> {
+        loads.incrementAndGet();
+        return new JwtPrincipal(1L, username, 1L, List.of(new SimpleGrantedAuthority("USER")));
+    };
+
+    @Test
+    void testGetCachesPrincipalUntilInvalidated() {
+        PrincipalCache principalCache = principalCache(60000, 10);
+
+        JwtPrincipal principal = principalCache.get("user", loader);
+
+        assertSame(principal, principalCache.get("user", loader));
+        assertEquals(1, loads.get());
+
+        principalCache.invalidate("user");
+
+        assertNotSame(principal, principalCache.get("user", loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetEvictsLeastRecentlyUsedPrincipal() {
+        PrincipalCache principalCache = principalCache(60000, 2);
+
+        principalCache.get("first", loader);
+        principalCache.get("second", loader);
+        principalCache.get("first", loader);
+        principalCache.get("third", loader);
+        principalCache.get("first", loader);
+
+        assertEquals(3, loads.get());
+
+        principalCache.get("second", loader);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        PrincipalCache principalCache = principalCache(0, 10);
+
+        assertFalse(principalCache.isEnabled());
+
+        principalCache.get("user", loader);
+        principalCache.get("user", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static PrincipalCache principalCache(long ttl, int maxSize) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.jwtPrincipalCacheTtl = ttl;
+        applicationProperties.jwtPrincipalCacheMaxSize = maxSize;
+
+        return new PrincipalCache(applicationProperties);
+    }
+}
@@ -0,0 +1,91 @@
+package com.yashmerino.ecommerce.security;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void testGetReturnsCachedClaims() {
+        VerifiedTokenCache verifiedTokenCache = verifiedTokenCache(10);
+        Claims claims = claims(60000);
+
+        verifiedTokenCache.put("token", claims);
+
+        assertSame(claims, verifiedTokenCache.get("token"));
+        assertNull(verifiedTokenCache.get("another-token"));
+    }
+
+    @Test
+    void testGetDoesNotReturnExpiredClaims() {
+        VerifiedTokenCache verifiedTokenCache = verifiedTokenCache(10);
+
+        verifiedTokenCache.put("token", claims(-1000));
+
+        assertNull(verifiedTokenCache.get("token"));
+    }
+
+    @Test
+    void testPutEvictsLeastRecentlyUsedClaims() {
+        VerifiedTokenCache verifiedTokenCache = verifiedTokenCache(2);
+
+        verifiedTokenCache.put("first", claims(60000));
+        verifiedTokenCache.put("second", claims(60000));
+        verifiedTokenCache.get("first");
+        verifiedTokenCache.put("third", claims(60000));
+
+        assertNotNull(verifiedTokenCache.get("first"));
+        assertNull(verifiedTokenCache.get("second"));
+        assertNotNull(verifiedTokenCache.get("third"));
+    }
+
+    @Test
+    void testDisabledCacheDoesNotCache() {
+        VerifiedTokenCache verifiedTokenCache = verifiedTokenCache(0);
+
+        verifiedTokenCache.put("token", claims(60000));
+
+        assertNull(verifiedTokenCache.get("token"));
+    }
+
+    private static VerifiedTokenCache verifiedTokenCache(int maxSize) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.jwtVerifiedTokenCacheMaxSize = maxSize;
+
+        return new VerifiedTokenCache(applicationProperties);
+    }
+
+    private static Claims claims(long expiresIn) {
+        return Jwts.claims().setSubject("user").setExpiration(new Date(System.currentTimeMillis() + expiresIn));
+    }
+}
@@ -0,0 +1,85 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for CartItemUpsertRetry.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartItemUpsertRetryTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CartItemUpsertRetry cartItemUpsertRetry;
+
+    @BeforeEach
+    void setUp() {
+        cartItemUpsertRetry = new CartItemUpsertRetry(transactionManager);
+    }
+
+    @Test
+    void testChangeIsRunAgainAfterDuplicateInsert() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        cartItemUpsertRetry.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new DataIntegrityViolationException("uk_cart_items_cart_product");
+            }
+        });
+
+        assertEquals(2, attempts.get());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testDuplicateInsertIsRethrownAfterLastAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> cartItemUpsertRetry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("uk_cart_items_cart_product");
+        }));
+
+        assertEquals(CartItemUpsertRetry.MAX_ATTEMPTS, attempts.get());
+    }
+}
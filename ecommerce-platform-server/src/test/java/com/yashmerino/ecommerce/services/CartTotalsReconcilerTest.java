@@ -0,0 +1,88 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CartTotalsReconciler.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartTotalsReconcilerTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private CartTotalsReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.cartTotalsReconcileBatchSize = 100;
+
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new CartTotalsReconciler(cartRepository, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testReconcileChecksAllCartsInRanges() {
+        when(cartRepository.findMaxId()).thenReturn(Optional.of(250L));
+        when(cartRepository.reconcileTotals(1L, 100L)).thenReturn(2);
+        when(cartRepository.reconcileTotals(101L, 200L)).thenReturn(0);
+        when(cartRepository.reconcileTotals(201L, 300L)).thenReturn(1);
+
+        reconciler.reconcile();
+
+        verify(cartRepository, times(3)).reconcileTotals(anyLong(), anyLong());
+        assertEquals(3.0, meterRegistry.counter("carts.totals.reconciled").count());
+        assertEquals(1, meterRegistry.timer("carts.totals.reconcile").count());
+    }
+
+    @Test
+    void testReconcileWithoutCarts() {
+        when(cartRepository.findMaxId()).thenReturn(Optional.empty());
+
+        reconciler.reconcile();
+
+        verify(cartRepository, never()).reconcileTotals(anyLong(), anyLong());
+        assertEquals(0.0, meterRegistry.counter("carts.totals.reconciled").count());
+    }
+}
@@ -0,0 +1,258 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.model.Category;
+import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.model.projections.ProductCategoryView;
+import com.yashmerino.ecommerce.model.projections.ProductSearchView;
+import com.yashmerino.ecommerce.repositories.CategoryRepository;
+import com.yashmerino.ecommerce.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryProductSearchEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private InMemoryProductSearchEngine searchEngine;
+
+    private final Pageable pageable = PageRequest.of(0, 10);
+
+    @BeforeEach
+    void setUp() {
+        searchEngine.index(product(1L, "Phone", "Smartphone with a big screen", "Media"));
+        searchEngine.index(product(2L, "Laptop", "Laptop for the office and a phone charger", "Office Equipment"));
+        searchEngine.index(product(3L, "Phone case", "Leather case", "Household Items"));
+    }
+
+    @Test
+    void testSearchMatchesNameDescriptionAndCategory() {
+        assertEquals(List.of(1L, 3L, 2L), searchEngine.search("phone", pageable).getContent());
+        assertEquals(List.of(2L), searchEngine.search("office", pageable).getContent());
+        assertEquals(List.of(3L), searchEngine.search("leather", pageable).getContent());
+    }
+
+    @Test
+    void testSearchRequiresAllTerms() {
+        assertEquals(List.of(3L), searchEngine.search("phone case", pageable).getContent());
+        assertTrue(searchEngine.search("phone banana", pageable).getContent().isEmpty());
+    }
+
+    @Test
+    void testSearchMatchesPrefixOfLastTerm() {
+        assertEquals(List.of(2L), searchEngine.search("lap", pageable).getContent());
+        assertEquals(List.of(3L), searchEngine.search("PHONE ca", pageable).getContent());
+    }
+
+    @Test
+    void testSearchWithBlankQueryReturnsEmptyPage() {
+        Page<Long> result = searchEngine.search("  ", pageable);
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(0, result.getTotalElements());
+    }
+
+    @Test
+    void testSearchReturnsRequestedPage() {
+        Page<Long> result = searchEngine.search("phone", PageRequest.of(1, 2));
+
+        assertEquals(List.of(2L), result.getContent());
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    void testIndexReplacesProduct() {
+        searchEngine.index(product(1L, "Tablet", null, null));
+
+        assertEquals(List.of(3L, 2L), searchEngine.search("phone", pageable).getContent());
+        assertEquals(List.of(1L), searchEngine.search("tablet", pageable).getContent());
+    }
+
+    @Test
+    void testIndexResolvesCategoryNames() {
+        Category category = new Category();
+        category.setId(8L);
+        Product product = product(4L, "Collar", null, null);
+        product.setCategories(Set.of(category));
+
+        Category petCare = new Category("Pet Care");
+        petCare.setId(8L);
+        when(categoryRepository.findAllById(List.of(8L))).thenReturn(List.of(petCare));
+
+        searchEngine.index(product);
+
+        assertEquals(List.of(4L), searchEngine.search("pet", pageable).getContent());
+    }
+
+    @Test
+    void testRemoveProduct() {
+        searchEngine.remove(3L);
+
+        assertEquals(List.of(1L, 2L), searchEngine.search("phone", pageable).getContent());
+        assertTrue(searchEngine.search("leather", pageable).getContent().isEmpty());
+    }
+
+    @Test
+    void testRebuildIndexesAllProducts() {
+        ProductSearchView banana = searchView(5L, "Banana", "Yellow fruit");
+        ProductCategoryView food = categoryView(5L, "Food and Beverage");
+
+        when(productRepository.findSearchViewsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(banana));
+        when(productRepository.findSearchViewsAfter(eq(5L), any(Pageable.class))).thenReturn(List.of());
+        when(productRepository.findCategoriesByProductIds(anyCollection())).thenReturn(List.of(food));
+
+        assertEquals(1, searchEngine.rebuild());
+        assertEquals(List.of(5L), searchEngine.search("food", pageable).getContent());
+        assertTrue(searchEngine.search("phone", pageable).getContent().isEmpty());
+    }
+
+    @Test
+    void testRebuildKeepsChangesMadeMeanwhile() {
+        ProductSearchView banana = searchView(5L, "Banana", "Yellow fruit");
+        ProductSearchView apple = searchView(6L, "Apple", "Green fruit");
+
+        when(productRepository.findSearchViewsAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            searchEngine.index(product(7L, "Cherry", "Red fruit", null));
+            return List.of(banana, apple);
+        });
+        when(productRepository.findSearchViewsAfter(eq(6L), any(Pageable.class))).thenAnswer(invocation -> {
+            searchEngine.remove(5L);
+            return List.of();
+        });
+        when(productRepository.findCategoriesByProductIds(anyCollection())).thenReturn(List.of());
+
+        assertEquals(2, searchEngine.rebuild());
+        assertEquals(List.of(6L, 7L), searchEngine.search("fruit", pageable).getContent());
+    }
+
+    @Test
+    void testIndexAppliesChangesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchEngine.index(product(4L, "Tablet", null, null));
+            searchEngine.remove(1L);
+
+            assertTrue(searchEngine.search("tablet", pageable).getContent().isEmpty());
+            assertEquals(List.of(1L, 3L, 2L), searchEngine.search("phone", pageable).getContent());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(4L), searchEngine.search("tablet", pageable).getContent());
+        assertEquals(List.of(3L, 2L), searchEngine.search("phone", pageable).getContent());
+    }
+
+    @Test
+    void testIndexIgnoresRolledBackChanges() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchEngine.index(product(4L, "Tablet", null, null));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(searchEngine.search("tablet", pageable).getContent().isEmpty());
+    }
+
+    private static Product product(Long id, String name, String description, String categoryName) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+
+        if (categoryName != null) {
+            Category category = new Category(categoryName);
+            product.setCategories(Set.of(category));
+        }
+
+        return product;
+    }
+
+    private static ProductSearchView searchView(Long id, String name, String description) {
+        return new ProductSearchView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    private static ProductCategoryView categoryView(Long productId, String categoryName) {
+        return new ProductCategoryView() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return null;
+            }
+
+            @Override
+            public String getCategoryName() {
+                return categoryName;
+            }
+        };
+    }
+}
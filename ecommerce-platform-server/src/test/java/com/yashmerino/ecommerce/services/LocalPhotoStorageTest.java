@@ -0,0 +1,101 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalPhotoStorageTest {
+
+    @TempDir
+    private Path root;
+
+    private LocalPhotoStorage photoStorage;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.photoStorageType = "local";
+        applicationProperties.photoStorageRoot = root.toString();
+
+        photoStorage = new LocalPhotoStorage(applicationProperties);
+    }
+
+    @Test
+    void testUnknownStorageTypeIsRejected() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.photoStorageType = "s3";
+        applicationProperties.photoStorageRoot = root.toString();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> new LocalPhotoStorage(applicationProperties));
+
+        assertTrue(exception.getMessage().contains("'s3'"));
+    }
+
+    @Test
+    void testStoreReturnsContentHashAndLoadReturnsContent() throws IOException {
+        String key = photoStorage.store(new ByteArrayInputStream("photo".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("55c64d0fcd6f9d5f7c828093857e3fdfda68478bb4e9bd24d481ef391c7804e8", key);
+
+        Optional<Resource> photo = photoStorage.load(key);
+
+        assertTrue(photo.isPresent());
+        assertEquals(key, photo.get().getFilename());
+        assertEquals("photo", photo.get().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testStoreSameContentTwiceKeepsOneFile() throws IOException {
+        String first = photoStorage.store(new ByteArrayInputStream("photo".getBytes(StandardCharsets.UTF_8)));
+        String second = photoStorage.store(new ByteArrayInputStream("photo".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(first, second);
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testLoadWithUnknownOrInvalidKeyReturnsEmpty() {
+        assertTrue(photoStorage.load(null).isEmpty());
+        assertTrue(photoStorage.load("../../etc/passwd").isEmpty());
+        assertTrue(photoStorage.load("0".repeat(64)).isEmpty());
+    }
+}
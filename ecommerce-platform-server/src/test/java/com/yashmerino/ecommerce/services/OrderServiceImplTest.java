@@ -1,25 +1,35 @@
 package com.yashmerino.ecommerce.services;
 
+import com.yashmerino.ecommerce.exceptions.InvalidInputException;
+import com.yashmerino.ecommerce.model.Cart;
+import com.yashmerino.ecommerce.model.CartItem;
 import com.yashmerino.ecommerce.model.Order;
-import com.yashmerino.ecommerce.model.Payment;
+import com.yashmerino.ecommerce.model.OrderSummary;
+import com.yashmerino.ecommerce.model.Product;
 import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.model.dto.OrderDTO;
 import com.yashmerino.ecommerce.model.dto.OrderWithPaymentDTO;
 import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
+import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
 import com.yashmerino.ecommerce.repositories.OrderRepository;
-import com.yashmerino.ecommerce.repositories.PaymentRepository;
+import com.yashmerino.ecommerce.repositories.OrderSummaryRepository;
 import com.yashmerino.ecommerce.services.interfaces.UserService;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
 import com.yashmerino.ecommerce.utils.OrderStatus;
 import com.yashmerino.ecommerce.utils.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -32,6 +42,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -45,11 +56,26 @@ class OrderServiceImplTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private PaymentRepository paymentRepository;
+    private OrderSummaryRepository orderSummaryRepository;
 
     @Mock
     private UserService userService;
 
+    @Mock
+    private RedisCartStore redisCartStore;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OrderSummaryWriter orderSummaryWriter;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -63,7 +89,7 @@ class OrderServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        orderService = new OrderServiceImpl(orderRepository, paymentRepository, userService);
+        orderService = new OrderServiceImpl(orderRepository, orderSummaryRepository, userService, redisCartStore, cartItemRepository, cartRepository, jdbcTemplate, orderSummaryWriter);
         SecurityContextHolder.setContext(securityContext);
     }
 
@@ -92,54 +118,113 @@ class OrderServiceImplTest {
 
         assertEquals(10L, orderId);
         verify(orderRepository).save(any(Order.class));
+        verify(orderSummaryWriter).orderPlaced(order, 0);
+    }
+
+    @Test
+    void testCheckout() {
+        User user = mockCurrentUser();
+
+        Product phone = new Product();
+        phone.setId(1L);
+        phone.setName("Phone");
+        phone.setPrice(19.99);
+
+        Product cable = new Product();
+        cable.setId(2L);
+        cable.setName("Cable");
+        cable.setPrice(0.1);
+
+        CartItem phoneItem = new CartItem(phone, "Old phone", 25.0, user.getCart(), 2);
+        CartItem cableItem = new CartItem(cable, "Cable", 0.1, user.getCart(), 3);
+
+        when(cartItemRepository.findAllWithProductByCartId(5L)).thenReturn(List.of(phoneItem, cableItem));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(10L);
+            return order;
+        });
+        when(cartItemRepository.deleteAllInBulkByCartId(5L)).thenReturn(2);
+
+        Long orderId = orderService.checkout();
+
+        assertEquals(10L, orderId);
+
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(orderCaptor.capture());
+        assertEquals(new BigDecimal("40.28"), orderCaptor.getValue().getTotalAmount());
+        assertEquals(OrderStatus.CREATED, orderCaptor.getValue().getStatus());
+        assertEquals(user, orderCaptor.getValue().getUser());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture());
+        List<Object[]> rows = rowsCaptor.getValue();
+        assertEquals(2, rows.size());
+        assertArrayEquals(new Object[]{"testuser", 10L, 1L, "Phone", new BigDecimal("19.99"), 2}, Arrays.copyOfRange(rows.get(0), 3, 9));
+        assertArrayEquals(new Object[]{"testuser", 10L, 2L, "Cable", new BigDecimal("0.10"), 3}, Arrays.copyOfRange(rows.get(1), 3, 9));
+
+        verify(orderSummaryWriter).orderPlaced(orderCaptor.getValue(), 5);
+        verify(cartRepository).findByIdForUpdate(5L);
+        verify(redisCartStore).lockAndFlush(5L);
+        verify(cartItemRepository).deleteAllInBulkByCartId(5L);
+        verify(cartRepository).resetTotals(5L);
+        verify(redisCartStore).clear(5L);
+    }
+
+    @Test
+    void testCheckoutFailsWhenCartChangedMeanwhile() {
+        User user = mockCurrentUser();
+
+        Product phone = new Product();
+        phone.setId(1L);
+        phone.setName("Phone");
+        phone.setPrice(19.99);
+
+        when(cartItemRepository.findAllWithProductByCartId(5L)).thenReturn(List.of(new CartItem(phone, "Phone", 19.99, user.getCart(), 1)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartItemRepository.deleteAllInBulkByCartId(5L)).thenReturn(2);
+
+        ConcurrencyFailureException exception = assertThrows(ConcurrencyFailureException.class, () -> orderService.checkout());
+
+        assertEquals("cart_changed_during_checkout", exception.getMessage());
+        verify(cartRepository, never()).resetTotals(any());
+        verify(redisCartStore, never()).clear(any());
+    }
+
+    @Test
+    void testCheckoutEmptyCart() {
+        mockCurrentUser();
+        when(cartItemRepository.findAllWithProductByCartId(5L)).thenReturn(List.of());
+
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> orderService.checkout());
+
+        assertEquals("cart_is_empty", exception.getMessage());
+        verify(orderRepository, never()).save(any());
+        verify(cartItemRepository, never()).deleteAllInBulkByCartId(any());
+        verifyNoInteractions(orderSummaryWriter);
     }
 
     @Test
     void testGetUserOrders() {
-        String username = "testuser";
-        User user = new User();
-        user.setId(1L);
-        user.setUsername(username);
+        mockCurrentUser();
 
-        Order order1 = new Order();
-        order1.setId(10L);
-        order1.setTotalAmount(BigDecimal.valueOf(99.99));
-        order1.setStatus(OrderStatus.PAYMENT_PENDING);
-        order1.setCreatedAt(LocalDateTime.now());
-        order1.setUser(user);
-
-        Order order2 = new Order();
-        order2.setId(11L);
-        order2.setTotalAmount(BigDecimal.valueOf(49.99));
-        order2.setStatus(OrderStatus.PAID);
-        order2.setCreatedAt(LocalDateTime.now());
-        order2.setUser(user);
-
-        List<Order> orders = Arrays.asList(order1, order2);
+        OrderSummary summary1 = summary(10L, LocalDateTime.now());
+        summary1.setPaymentId(100L);
+        summary1.setPaymentAmount(BigDecimal.TEN);
+        summary1.setPaymentStatus(PaymentStatus.PENDING);
+        summary1.setPaymentCreatedAt(LocalDateTime.now());
+
+        OrderSummary summary2 = summary(11L, LocalDateTime.now());
+        summary2.setOrderStatus(OrderStatus.PAID);
+        summary2.setPaymentId(101L);
+        summary2.setPaymentStatus(PaymentStatus.SUCCEEDED);
+
+        List<OrderSummary> summaries = Arrays.asList(summary1, summary2);
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Order> orderPage = new PageImpl<>(orders, pageable, orders.size());
-
-        Payment payment1 = new Payment();
-        payment1.setId(100L);
-        payment1.setAmount(BigDecimal.valueOf(99.99));
-        payment1.setStatus(PaymentStatus.PENDING);
-        payment1.setCreatedAt(LocalDateTime.now());
-        payment1.setOrder(order1);
-
-        Payment payment2 = new Payment();
-        payment2.setId(101L);
-        payment2.setAmount(BigDecimal.valueOf(49.99));
-        payment2.setStatus(PaymentStatus.SUCCEEDED);
-        payment2.setCreatedAt(LocalDateTime.now());
-        payment2.setOrder(order2);
+        Page<OrderSummary> summaryPage = new PageImpl<>(summaries, pageable, summaries.size());
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn(username);
-        when(userService.getByUsername(username)).thenReturn(user);
-        when(orderRepository.findByUserIdOrderByCreatedAtDesc(eq(1L), any(Pageable.class))).thenReturn(orderPage);
-        when(paymentRepository.findFirstByOrderIdOrderByCreatedAtDesc(10L)).thenReturn(payment1);
-        when(paymentRepository.findFirstByOrderIdOrderByCreatedAtDesc(11L)).thenReturn(payment2);
+        when(orderSummaryRepository.findByUserIdOrderByCreatedAtDescOrderIdDesc(eq(1L), any(Pageable.class))).thenReturn(summaryPage);
 
         PaginatedDTO<OrderWithPaymentDTO> result = orderService.getUserOrders(0, 10);
 
@@ -149,39 +234,29 @@ class OrderServiceImplTest {
 
         OrderWithPaymentDTO dto1 = result.getData().get(0);
         assertEquals(10L, dto1.getOrderId());
+        assertEquals(3, dto1.getItemCount());
         assertEquals(100L, dto1.getPaymentId());
+        assertEquals(BigDecimal.TEN, dto1.getPaymentAmount());
         assertEquals(PaymentStatus.PENDING, dto1.getPaymentStatus());
+        assertNotNull(dto1.getPaymentCreatedAt());
 
         OrderWithPaymentDTO dto2 = result.getData().get(1);
         assertEquals(11L, dto2.getOrderId());
+        assertEquals(OrderStatus.PAID, dto2.getOrderStatus());
         assertEquals(101L, dto2.getPaymentId());
         assertEquals(PaymentStatus.SUCCEEDED, dto2.getPaymentStatus());
+
+        verifyNoInteractions(orderRepository);
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void testGetUserOrdersWithNoPayment() {
-        String username = "testuser";
-        User user = new User();
-        user.setId(1L);
-        user.setUsername(username);
+        mockCurrentUser();
 
-        Order order = new Order();
-        order.setId(10L);
-        order.setTotalAmount(BigDecimal.valueOf(99.99));
-        order.setStatus(OrderStatus.PAYMENT_PENDING);
-        order.setCreatedAt(LocalDateTime.now());
-        order.setUser(user);
+        Page<OrderSummary> summaryPage = new PageImpl<>(List.of(summary(10L, LocalDateTime.now())), PageRequest.of(0, 10), 1);
 
-        List<Order> orders = Arrays.asList(order);
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Order> orderPage = new PageImpl<>(orders, pageable, orders.size());
-
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn(username);
-        when(userService.getByUsername(username)).thenReturn(user);
-        when(orderRepository.findByUserIdOrderByCreatedAtDesc(eq(1L), any(Pageable.class))).thenReturn(orderPage);
-        when(paymentRepository.findFirstByOrderIdOrderByCreatedAtDesc(10L)).thenReturn(null);
+        when(orderSummaryRepository.findByUserIdOrderByCreatedAtDescOrderIdDesc(eq(1L), any(Pageable.class))).thenReturn(summaryPage);
 
         PaginatedDTO<OrderWithPaymentDTO> result = orderService.getUserOrders(0, 10);
 
@@ -192,5 +267,87 @@ class OrderServiceImplTest {
         assertEquals(10L, dto.getOrderId());
         assertNull(dto.getPaymentId());
         assertNull(dto.getPaymentStatus());
+        assertNull(dto.getPaymentCreatedAt());
+    }
+
+    @Test
+    void testGetUserOrdersAfterCursor() {
+        mockCurrentUser();
+
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        OrderSummary summary1 = summary(9L, createdAt.minusMinutes(1));
+        OrderSummary summary2 = summary(8L, createdAt.minusMinutes(2));
+        OrderSummary summary3 = summary(7L, createdAt.minusMinutes(3));
+
+        String after = new KeysetCursor(createdAt.toString(), 10L).encode();
+
+        when(orderSummaryRepository.findByUserIdBefore(1L, createdAt, 10L, PageRequest.of(0, 3))).thenReturn(List.of(summary1, summary2, summary3));
+
+        PaginatedDTO<OrderWithPaymentDTO> result = orderService.getUserOrdersAfter(after, 2, false);
+
+        assertEquals(2, result.getData().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalItems());
+        assertTrue(result.isHasPrevious());
+
+        KeysetCursor nextCursor = KeysetCursor.decode(result.getNextCursor());
+        assertEquals(8L, nextCursor.getId());
+        assertEquals(summary2.getCreatedAt().toString(), nextCursor.getSortKey());
+        verify(orderSummaryRepository, never()).findByUserIdOrderByCreatedAtDescOrderIdDesc(any(), any());
+        verify(orderSummaryRepository, never()).countByUserId(any());
+    }
+
+    @Test
+    void testGetUserOrdersFirstCursorPageWithCount() {
+        mockCurrentUser();
+
+        when(orderSummaryRepository.findLatestByUserId(1L, PageRequest.of(0, 3))).thenReturn(List.of(summary(9L, LocalDateTime.now())));
+        when(orderSummaryRepository.countByUserId(1L)).thenReturn(1L);
+
+        PaginatedDTO<OrderWithPaymentDTO> result = orderService.getUserOrdersAfter(null, 2, true);
+
+        assertEquals(1, result.getData().size());
+        assertFalse(result.isHasNext());
+        assertFalse(result.isHasPrevious());
+        assertNull(result.getNextCursor());
+        assertEquals(1L, result.getTotalItems());
+    }
+
+    @Test
+    void testGetUserOrdersAfterInvalidCursor() {
+        String after = new KeysetCursor("yesterday", 10L).encode();
+
+        assertThrows(InvalidInputException.class, () -> orderService.getUserOrdersAfter(after, 2, false));
+        assertThrows(InvalidInputException.class, () -> orderService.getUserOrdersAfter("not a cursor", 2, false));
+        verifyNoInteractions(orderRepository, orderSummaryRepository);
+    }
+
+    private User mockCurrentUser() {
+        Cart cart = new Cart();
+        cart.setId(5L);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setCart(cart);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(userDetails.getUsername()).thenReturn("testuser");
+        when(userService.getByUsername("testuser")).thenReturn(user);
+
+        return user;
+    }
+
+    private static OrderSummary summary(Long orderId, LocalDateTime createdAt) {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderId(orderId);
+        summary.setUserId(1L);
+        summary.setTotalAmount(BigDecimal.TEN);
+        summary.setOrderStatus(OrderStatus.PAYMENT_PENDING);
+        summary.setItemCount(3);
+        summary.setCreatedAt(createdAt);
+
+        return summary;
     }
 }
@@ -0,0 +1,90 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.model.Order;
+import com.yashmerino.ecommerce.model.Payment;
+import com.yashmerino.ecommerce.model.User;
+import com.yashmerino.ecommerce.repositories.OrderSummaryRepository;
+import com.yashmerino.ecommerce.utils.OrderStatus;
+import com.yashmerino.ecommerce.utils.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderSummaryWriter.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderSummaryWriterTest {
+
+    @Mock
+    private OrderSummaryRepository orderSummaryRepository;
+
+    private OrderSummaryWriter orderSummaryWriter;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orderSummaryWriter = new OrderSummaryWriter(orderSummaryRepository);
+
+        User user = new User();
+        user.setId(3L);
+
+        order = new Order();
+        order.setId(10L);
+        order.setUser(user);
+        order.setTotalAmount(new BigDecimal("40.28"));
+        order.setStatus(OrderStatus.CREATED);
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+    }
+
+    @Test
+    void testOrderPlaced() {
+        orderSummaryWriter.orderPlaced(order, 5);
+
+        verify(orderSummaryRepository).insert(10L, 3L, new BigDecimal("40.28"), "CREATED", 5, LocalDateTime.of(2024, 5, 1, 12, 0));
+    }
+
+    @Test
+    void testPaymentChanged() {
+        Payment payment = new Payment(order, new BigDecimal("40.28"), PaymentStatus.SUCCEEDED);
+        payment.setId(100L);
+        payment.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 5));
+
+        orderSummaryWriter.paymentChanged(payment);
+
+        verify(orderSummaryRepository).updatePayment(10L, 100L, new BigDecimal("40.28"), PaymentStatus.SUCCEEDED,
+                LocalDateTime.of(2024, 5, 1, 12, 5));
+    }
+}
@@ -38,11 +38,14 @@ class PaymentServiceImplTest {
     @Mock
     private PaymentEventProducer paymentEventProducer;
 
+    @Mock
+    private OrderSummaryWriter orderSummaryWriter;
+
     private PaymentServiceImpl paymentService;
 
     @BeforeEach
     void setUp() {
-        paymentService = new PaymentServiceImpl(paymentRepository, orderRepository, paymentEventProducer);
+        paymentService = new PaymentServiceImpl(paymentRepository, orderRepository, paymentEventProducer, orderSummaryWriter);
     }
 
     @Test
@@ -70,6 +73,7 @@ class PaymentServiceImplTest {
         paymentService.pay(orderId, paymentDTO);
 
         verify(paymentRepository).save(any(Payment.class));
+        verify(orderSummaryWriter).paymentChanged(payment);
         
         ArgumentCaptor<PaymentRequestedEvent> eventCaptor = ArgumentCaptor.forClass(PaymentRequestedEvent.class);
         verify(paymentEventProducer).sendPaymentRequested(eventCaptor.capture());
@@ -94,6 +98,7 @@ class PaymentServiceImplTest {
         });
 
         verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(orderSummaryWriter);
         verify(paymentEventProducer, never()).sendPaymentRequested(any());
     }
 }
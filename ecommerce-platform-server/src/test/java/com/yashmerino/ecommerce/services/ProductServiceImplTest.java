@@ -26,12 +26,20 @@ package com.yashmerino.ecommerce.services;
 
 import com.yashmerino.ecommerce.model.Cart;
 import com.yashmerino.ecommerce.model.CartItem;
+import com.yashmerino.ecommerce.model.Category;
 import com.yashmerino.ecommerce.model.Product;
 import com.yashmerino.ecommerce.model.User;
+import com.yashmerino.ecommerce.model.dto.PaginatedDTO;
 import com.yashmerino.ecommerce.model.dto.ProductDTO;
+import com.yashmerino.ecommerce.model.projections.ProductCategoryView;
+import com.yashmerino.ecommerce.model.projections.ProductListView;
 import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
 import com.yashmerino.ecommerce.repositories.ProductRepository;
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
+import com.yashmerino.ecommerce.services.interfaces.ProductSearchEngine;
 import com.yashmerino.ecommerce.services.interfaces.UserService;
+import com.yashmerino.ecommerce.utils.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,7 +47,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -48,10 +60,14 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -69,6 +85,21 @@ class ProductServiceImplTest {
     @Mock
     private CartItemRepository cartItemRepository;
 
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private PhotoStorage photoStorage;
+
+    @Mock
+    private RedisCartStore redisCartStore;
+
+    @Spy
+    private CartItemUpsertRetry cartItemUpsertRetry = new CartItemUpsertRetry(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -124,36 +155,92 @@ class ProductServiceImplTest {
         verify(productRepository, times(1)).findById(999L);
     }
 
+    @Test
+    void testGetPhotoLoadsPhotoByKey() {
+        Resource photo = new ByteArrayResource(new byte[]{1, 2, 3});
+        testProduct.setPhotoKey("photo-key");
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(photoStorage.load("photo-key")).thenReturn(Optional.of(photo));
+
+        assertEquals(Optional.of(photo), productService.getPhoto(1L));
+    }
+
     @Test
     void testGetAllProductsReturnsPageOfProducts() {
-        List<Product> products = new ArrayList<>();
-        products.add(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
         Pageable pageable = PageRequest.of(0, 10);
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findListViews(pageable)).thenReturn(new PageImpl<>(List.of(listView(testProduct)), pageable, 1));
+        when(productRepository.findCategoriesByProductIds(List.of(1L))).thenReturn(List.of(categoryView(1L, 8L, "Pet Care")));
 
-        Page<Product> result = productService.getAllProducts(pageable);
+        Page<ProductDTO> result = productService.getAllProducts(pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals("Test Product", result.getContent().get(0).getName());
-        verify(productRepository, times(1)).findAll(pageable);
+        assertEquals(99.99, result.getContent().get(0).getPrice());
+        assertEquals("Pet Care", result.getContent().get(0).getCategories().iterator().next().getName());
+        verify(productRepository, times(1)).findListViews(pageable);
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void testGetProductDTOCopiesCategories() {
+        Category category = new Category("Pet Care");
+        testProduct.getCategories().add(category);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        ProductDTO result = productService.getProductDTO(1L);
+
+        assertEquals("1", result.getId());
+        assertEquals("Test Product", result.getName());
+        assertEquals(HashSet.class, result.getCategories().getClass());
+        assertEquals(Set.of(category), result.getCategories());
+    }
+
+    @Test
+    void testGetProductsPageReturnsPaginatedProducts() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findListViews(pageable)).thenReturn(new PageImpl<>(List.of(listView(testProduct)), pageable, 11));
+
+        PaginatedDTO<ProductDTO> result = productService.getProductsPage(pageable);
+
+        assertEquals(ArrayList.class, result.getData().getClass());
+        assertEquals("Test Product", result.getData().get(0).getName());
+        assertEquals(0, result.getCurrentPage());
+        assertEquals(2, result.getTotalPages());
+        assertEquals(11L, result.getTotalItems());
+        assertTrue(result.isHasNext());
+        assertFalse(result.isHasPrevious());
     }
 
     @Test
     void testSearchWithQueryReturnsMatchingProducts() {
-        List<Product> products = new ArrayList<>();
-        products.add(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
         Pageable pageable = PageRequest.of(0, 10);
-        when(productRepository.findByNameContaining("Test", pageable)).thenReturn(productPage);
+        when(productSearchEngine.search("Test", pageable)).thenReturn(new PageImpl<>(List.of(1L), pageable, 1));
+        when(productRepository.findListViewsByIds(List.of(1L))).thenReturn(List.of(listView(testProduct)));
 
-        Page<Product> result = productService.search("Test", pageable);
+        Page<ProductDTO> result = productService.search("Test", pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
         assertEquals("Test Product", result.getContent().get(0).getName());
-        verify(productRepository, times(1)).findByNameContaining("Test", pageable);
+        verify(productSearchEngine, times(1)).search("Test", pageable);
+    }
+
+    @Test
+    void testSearchKeepsRelevanceOrder() {
+        Product anotherProduct = new Product();
+        anotherProduct.setId(2L);
+        anotherProduct.setName("Another Test Product");
+
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productSearchEngine.search("Test", pageable)).thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 2));
+        when(productRepository.findListViewsByIds(List.of(2L, 1L))).thenReturn(List.of(listView(testProduct), listView(anotherProduct)));
+
+        Page<ProductDTO> result = productService.search("Test", pageable);
+
+        assertEquals("2", result.getContent().get(0).getId());
+        assertEquals("1", result.getContent().get(1).getId());
     }
 
     @Test
@@ -172,6 +259,7 @@ class ProductServiceImplTest {
         productService.delete(1L);
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).delete(testProduct);
+        verify(productSearchEngine, times(1)).remove(1L);
     }
 
     @Test
@@ -185,20 +273,52 @@ class ProductServiceImplTest {
 
     @Test
     void testGetSellerProductsReturnsSellerProducts() {
-        List<Product> products = new ArrayList<>();
-        products.add(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
         Pageable pageable = PageRequest.of(0, 10);
         when(userService.getByUsername("seller")).thenReturn(testUser);
-        when(productRepository.getProductsBySellerId(1L, pageable)).thenReturn(productPage);
+        when(productRepository.findListViewsBySellerId(1L, pageable)).thenReturn(new PageImpl<>(List.of(listView(testProduct)), pageable, 1));
 
-        Page<Product> result = productService.getSellerProducts("seller", pageable);
+        Page<ProductDTO> result = productService.getSellerProducts("seller", pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals("Test Product", result.getContent().get(0).getName());
+        assertTrue(result.getContent().get(0).getCategories().isEmpty());
         verify(userService, times(1)).getByUsername("seller");
-        verify(productRepository, times(1)).getProductsBySellerId(1L, pageable);
+        verify(productRepository, times(1)).findListViewsBySellerId(1L, pageable);
+    }
+
+    @Test
+    void testGetProductsAfterReturnsCursorPage() {
+        Product anotherProduct = new Product();
+        anotherProduct.setId(2L);
+        anotherProduct.setName("Another Test Product");
+
+        String after = KeysetCursor.of(0L).encode();
+        when(productRepository.findListViewsAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(listView(testProduct), listView(anotherProduct)));
+
+        PaginatedDTO<ProductDTO> result = productService.getProductsAfter(after, 1, false);
+
+        assertEquals(1, result.getData().size());
+        assertEquals("Test Product", result.getData().get(0).getName());
+        assertTrue(result.isHasNext());
+        assertEquals(1L, KeysetCursor.decode(result.getNextCursor()).getId());
+        assertNull(result.getTotalItems());
+        verify(productRepository, never()).count();
+        verify(productRepository, never()).findListViews(any(Pageable.class));
+    }
+
+    @Test
+    void testGetSellerProductsAfterCountsProductsOnRequest() {
+        when(userService.getByUsername("seller")).thenReturn(testUser);
+        when(productRepository.findListViewsBySellerIdAfter(1L, 0L, PageRequest.of(0, 11))).thenReturn(List.of(listView(testProduct)));
+        when(productRepository.countByUserId(1L)).thenReturn(1L);
+
+        PaginatedDTO<ProductDTO> result = productService.getSellerProductsAfter("seller", null, 10, true);
+
+        assertEquals(1, result.getData().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals(1L, result.getTotalItems());
     }
 
     @Test
@@ -226,6 +346,67 @@ class ProductServiceImplTest {
         assertEquals(99.99, savedCartItem.getPrice());
         assertEquals(testProduct, savedCartItem.getProduct());
         assertEquals(testCart, savedCartItem.getCart());
+        verify(cartRepository).addToTotals(testCart.getId(), new BigDecimal("199.98"), 2);
+    }
+
+    @Test
+    void testAddProductToCartIncreasesQuantityOfExistingCartItem() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(userDetails.getUsername()).thenReturn("buyer");
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        User buyer = new User();
+        buyer.setId(2L);
+        buyer.setUsername("buyer");
+        buyer.setCart(testCart);
+        when(userService.getByUsername("buyer")).thenReturn(buyer);
+
+        CartItem existingCartItem = new CartItem();
+        existingCartItem.setId(5L);
+        existingCartItem.setQuantity(3);
+        existingCartItem.setPrice(90.0);
+        when(cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct.getId())).thenReturn(Optional.of(existingCartItem));
+
+        productService.addProductToCart(1L, 2);
+
+        verify(cartItemRepository).save(existingCartItem);
+        assertEquals(5, existingCartItem.getQuantity());
+        assertEquals(testProduct, existingCartItem.getProduct());
+        verify(cartRepository).addToTotals(testCart.getId(), new BigDecimal("229.95"), 2);
+    }
+
+    @Test
+    void testAddProductToCartUpdatesCartItemInsertedConcurrently() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(userDetails.getUsername()).thenReturn("buyer");
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        User buyer = new User();
+        buyer.setId(2L);
+        buyer.setUsername("buyer");
+        buyer.setCart(testCart);
+        when(userService.getByUsername("buyer")).thenReturn(buyer);
+
+        CartItem insertedCartItem = new CartItem();
+        insertedCartItem.setId(5L);
+        insertedCartItem.setQuantity(1);
+        insertedCartItem.setPrice(99.99);
+        when(cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct.getId()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(insertedCartItem));
+        when(cartItemRepository.save(any(CartItem.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_cart_items_cart_product"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService.addProductToCart(1L, 2);
+
+        verify(cartItemRepository).save(insertedCartItem);
+        assertEquals(3, insertedCartItem.getQuantity());
+        verify(cartRepository, times(1)).addToTotals(testCart.getId(), new BigDecimal("199.98"), 2);
     }
 
     @Test
@@ -256,5 +437,49 @@ class ProductServiceImplTest {
         
         Product capturedProduct = productCaptor.getValue();
         assertEquals(testUser, capturedProduct.getUser());
+        verify(productSearchEngine, times(1)).index(capturedProduct);
+    }
+
+    private static ProductListView listView(Product product) {
+        return new ProductListView() {
+            @Override
+            public Long getId() {
+                return product.getId();
+            }
+
+            @Override
+            public String getName() {
+                return product.getName();
+            }
+
+            @Override
+            public Double getPrice() {
+                return product.getPrice();
+            }
+
+            @Override
+            public String getDescription() {
+                return product.getDescription();
+            }
+        };
+    }
+
+    private static ProductCategoryView categoryView(Long productId, Long categoryId, String categoryName) {
+        return new ProductCategoryView() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public String getCategoryName() {
+                return categoryName;
+            }
+        };
     }
 }
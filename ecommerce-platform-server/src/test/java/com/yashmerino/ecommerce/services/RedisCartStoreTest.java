@@ -0,0 +1,341 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashmerino.ecommerce.model.Cart;
+import com.yashmerino.ecommerce.model.CartItem;
+import com.yashmerino.ecommerce.model.Product;
+import com.yashmerino.ecommerce.repositories.CartItemRepository;
+import com.yashmerino.ecommerce.repositories.CartRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.yashmerino.ecommerce.services.RedisCartStore.DIRTY_CARTS_KEY;
+import static com.yashmerino.ecommerce.services.RedisCartStore.FLUSHING_CARTS_KEY;
+import static com.yashmerino.ecommerce.services.RedisCartStore.LOADED_FIELD;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCartStoreTest {
+
+    private static final String ITEM = "{\"id\":5,\"productId\":1,\"name\":\"Phone\",\"price\":2.5,\"cartId\":1,\"quantity\":2}";
+
+    private static final String ANOTHER_ITEM = "{\"id\":3,\"productId\":2,\"name\":\"Laptop\",\"price\":3.0,\"cartId\":1,\"quantity\":1}";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ApplicationProperties applicationProperties;
+
+    private RedisCartStore redisCartStore;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.cartStoreType = "redis";
+        applicationProperties.cartStoreFlushBatchSize = 2;
+        applicationProperties.cartStoreTtl = 60000;
+
+        redisCartStore = new RedisCartStore(redisTemplate, new ObjectMapper(), cartRepository, cartItemRepository,
+                jdbcTemplate, transactionManager, applicationProperties);
+    }
+
+    @Test
+    void testIsEnabledOnlyForRedisStore() {
+        assertTrue(redisCartStore.isEnabled());
+
+        applicationProperties.cartStoreType = "database";
+
+        assertFalse(redisCartStore.isEnabled());
+    }
+
+    @Test
+    void testGetItemsReturnsLoadedCartSortedById() {
+        when(redisTemplate.hasKey("cart:1:items")).thenReturn(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("cart:1:items")).thenReturn(entries(LOADED_FIELD, "1", "5", ITEM, "3", ANOTHER_ITEM));
+
+        Page<CartItem> page = redisCartStore.getItems(1L, PageRequest.of(0, 1));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(3L, page.getContent().get(0).getId());
+        assertEquals(2L, page.getContent().get(0).getProduct().getId());
+        assertEquals(1L, page.getContent().get(0).getCart().getId());
+        assertEquals(8.0, redisCartStore.getTotalPrice(1L));
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void testGetItemsAfterReturnsItemsFollowingId() {
+        when(redisTemplate.hasKey("cart:1:items")).thenReturn(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("cart:1:items")).thenReturn(entries(LOADED_FIELD, "1", "5", ITEM, "3", ANOTHER_ITEM));
+
+        List<CartItem> items = redisCartStore.getItemsAfter(1L, 3L, 10);
+
+        assertEquals(1, items.size());
+        assertEquals(5L, items.get(0).getId());
+        assertEquals(2, redisCartStore.countItems(1L));
+    }
+
+    @Test
+    void testGetItemLoadsCartFromDatabase() {
+        Product product = new Product();
+        product.setId(1L);
+        Cart cart = new Cart();
+        cart.setId(1L);
+
+        CartItem cartItem = new CartItem(product, "Phone", 2.5, cart, 2);
+        cartItem.setId(5L);
+
+        when(redisTemplate.hasKey("cart:1:items")).thenReturn(false);
+        when(cartItemRepository.findAllByCartId(1L)).thenReturn(List.of(cartItem));
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("cart:1:items", "7")).thenReturn(null);
+
+        assertThrows(EntityNotFoundException.class, () -> redisCartStore.getItem(1L, 7L));
+
+        ArgumentCaptor<String> args = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(), eq(List.of("cart:1:items")), args.capture());
+        assertEquals("60000", args.getAllValues().get(0));
+        assertEquals(LOADED_FIELD, args.getAllValues().get(1));
+        assertEquals("5", args.getAllValues().get(3));
+    }
+
+    @Test
+    void testChangeQuantityMarksCartAsDirty() {
+        when(redisTemplate.hasKey("cart:1:items")).thenReturn(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("cart:1:items", "5")).thenReturn(ITEM);
+        when(redisTemplate.execute(any(), anyList(), any())).thenReturn(1L);
+
+        redisCartStore.changeQuantity(1L, 5L, 4);
+
+        ArgumentCaptor<String> args = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(), eq(List.of("cart:1:items", DIRTY_CARTS_KEY, "cart:1:lock")), args.capture());
+        assertEquals("5", args.getAllValues().get(0));
+        assertTrue(args.getAllValues().get(1).contains("\"quantity\":4"));
+        assertEquals("1", args.getAllValues().get(2));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testChangeQuantityBetweenFlushAndEvictIsRejected() {
+        AtomicInteger locks = new AtomicInteger();
+        Set<String> dirtyCarts = new HashSet<>();
+
+        when(redisTemplate.execute(eq(RedisCartStore.LOCK_SCRIPT), eq(List.of("cart:1:lock")), any()))
+                .thenAnswer(invocation -> (long) locks.incrementAndGet());
+        when(redisTemplate.execute(eq(RedisCartStore.UNLOCK_SCRIPT), eq(List.of("cart:1:lock"))))
+                .thenAnswer(invocation -> (long) locks.decrementAndGet());
+        when(redisTemplate.execute(eq(RedisCartStore.UPDATE_SCRIPT), anyList(), any())).thenAnswer(invocation -> {
+            if (locks.get() > 0) {
+                return -1L;
+            }
+
+            dirtyCarts.add("1");
+            return 1L;
+        });
+        when(redisTemplate.hasKey("cart:1:items")).thenReturn(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(hashOperations.get("cart:1:items", "5")).thenReturn(ITEM);
+        when(hashOperations.entries("cart:1:items")).thenReturn(entries(LOADED_FIELD, "1", "5", ITEM));
+        when(setOperations.move(DIRTY_CARTS_KEY, "1", FLUSHING_CARTS_KEY)).thenAnswer(invocation -> dirtyCarts.remove("1"));
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            redisCartStore.lockAndFlush(1L);
+
+            assertThrows(ConcurrencyFailureException.class, () -> redisCartStore.changeQuantity(1L, 5L, 4));
+
+            redisCartStore.evict(1L);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(dirtyCarts.isEmpty());
+        verify(redisTemplate).delete("cart:1:items");
+        assertEquals(0, locks.get());
+
+        redisCartStore.changeQuantity(1L, 5L, 4);
+
+        assertEquals(Set.of("1"), dirtyCarts);
+    }
+
+    @Test
+    void testDeleteItemNotInCartThrowsException() {
+        when(redisTemplate.hasKey("cart:1:items")).thenReturn(true);
+        when(redisTemplate.execute(any(), anyList(), any())).thenReturn(0L);
+
+        assertThrows(EntityNotFoundException.class, () -> redisCartStore.deleteItem(1L, 5L));
+    }
+
+    @Test
+    void testFlushDirtyCartsWritesQuantitiesAndDeletionsInBatches() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(setOperations.distinctRandomMembers(DIRTY_CARTS_KEY, 2)).thenReturn(Set.of("1"));
+        when(setOperations.move(DIRTY_CARTS_KEY, "1", FLUSHING_CARTS_KEY)).thenReturn(true);
+        when(setOperations.members("cart:1:deleted")).thenReturn(Set.of("9"));
+        when(hashOperations.entries("cart:1:items")).thenReturn(entries(LOADED_FIELD, "1", "5", ITEM));
+
+        redisCartStore.flushDirtyCarts();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE cart_items"), updates.capture());
+        assertEquals(1, updates.getValue().size());
+        assertEquals(2, updates.getValue().get(0)[0]);
+        assertEquals(5L, updates.getValue().get(0)[2]);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> deletes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("DELETE FROM cart_items"), deletes.capture());
+        assertArrayEquals(new Object[]{9L, 1L}, deletes.getValue().get(0));
+        verify(cartRepository).recalculateTotals(List.of(1L));
+
+        verify(setOperations).remove("cart:1:deleted", "9");
+        verify(setOperations).remove(FLUSHING_CARTS_KEY, "1");
+        verify(redisTemplate).expire("cart:1:items", Duration.ofMillis(60000));
+    }
+
+    @Test
+    void testFlushDirtyCartsMovesCartsBackWhenWriteFails() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(setOperations.distinctRandomMembers(DIRTY_CARTS_KEY, 2)).thenReturn(Set.of("1"));
+        when(setOperations.move(DIRTY_CARTS_KEY, "1", FLUSHING_CARTS_KEY)).thenReturn(true);
+        when(hashOperations.entries("cart:1:items")).thenReturn(entries("5", ITEM));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        redisCartStore.flushDirtyCarts();
+
+        verify(setOperations).move(FLUSHING_CARTS_KEY, "1", DIRTY_CARTS_KEY);
+        verify(setOperations, never()).remove(eq(FLUSHING_CARTS_KEY), any());
+    }
+
+    @Test
+    void testFlushMovesCartBackWhenWriteFails() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(setOperations.move(DIRTY_CARTS_KEY, "1", FLUSHING_CARTS_KEY)).thenReturn(true);
+        when(hashOperations.entries("cart:1:items")).thenReturn(entries("5", ITEM));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> redisCartStore.flush(1L));
+
+        verify(setOperations).move(FLUSHING_CARTS_KEY, "1", DIRTY_CARTS_KEY);
+        verify(setOperations, never()).remove(eq(FLUSHING_CARTS_KEY), any());
+    }
+
+    @Test
+    void testOnApplicationReadyReplaysInterruptedFlushes() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(FLUSHING_CARTS_KEY)).thenReturn(Set.of("1"));
+        when(setOperations.distinctRandomMembers(DIRTY_CARTS_KEY, 2)).thenReturn(Set.of());
+
+        redisCartStore.onApplicationReady();
+
+        verify(setOperations).move(FLUSHING_CARTS_KEY, "1", DIRTY_CARTS_KEY);
+        verify(setOperations).distinctRandomMembers(DIRTY_CARTS_KEY, 2);
+    }
+
+    @Test
+    void testDisabledStoreDoesNothing() {
+        applicationProperties.cartStoreType = "database";
+
+        redisCartStore.flush(1L);
+        redisCartStore.evict(1L);
+        redisCartStore.flushDirtyCarts();
+        redisCartStore.onApplicationReady();
+
+        verifyNoInteractions(redisTemplate, jdbcTemplate);
+    }
+
+    private static Map<Object, Object> entries(String... keysAndValues) {
+        Map<Object, Object> entries = new LinkedHashMap<>();
+
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            entries.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+
+        return entries;
+    }
+}
@@ -32,6 +32,7 @@ import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.repositories.RefreshTokenRepository;
 import com.yashmerino.ecommerce.repositories.UserRepository;
 import com.yashmerino.ecommerce.security.JwtProvider;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +42,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,6 +61,9 @@ class RefreshTokenServiceImplTest {
     @Mock
     private JwtProvider jwtProvider;
 
+    @Mock
+    private ApplicationProperties applicationProperties;
+
     @InjectMocks
     private RefreshTokenServiceImpl refreshTokenService;
 
@@ -74,7 +79,7 @@ class RefreshTokenServiceImplTest {
 
         testToken = new RefreshToken();
         testToken.setId(1L);
-        testToken.setToken("valid-refresh-token");
+        testToken.setTokenHash(RefreshTokenServiceImpl.hashToken("valid-refresh-token"));
         testToken.setUser(testUser);
         testToken.setExpiryDate(Instant.now().plusMillis(86400000));
         testToken.setCreatedAt(Instant.now());
@@ -106,55 +111,81 @@ class RefreshTokenServiceImplTest {
         
         RefreshToken savedToken = tokenCaptor.getValue();
         assertEquals(testUser, savedToken.getUser());
-        assertEquals(generatedToken, savedToken.getToken());
+        assertEquals(RefreshTokenServiceImpl.hashToken(generatedToken), savedToken.getTokenHash());
         assertFalse(savedToken.isRevoked());
+        verify(refreshTokenRepository, never()).findIdsByUserNewestFirst(any());
+    }
+
+    @Test
+    void testCreateRefreshTokenEvictsOldestTokens() {
+        applicationProperties.refreshTokenMaxPerUser = 3;
+        when(jwtProvider.generateRefreshToken()).thenReturn("new-refresh-token");
+        when(refreshTokenRepository.findIdsByUserNewestFirst(1L)).thenReturn(List.of(9L, 7L, 4L, 2L));
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        refreshTokenService.createRefreshToken(testUser);
+
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(4L, 2L));
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testCreateRefreshTokenUnderLimitKeepsTokens() {
+        applicationProperties.refreshTokenMaxPerUser = 3;
+        when(jwtProvider.generateRefreshToken()).thenReturn("new-refresh-token");
+        when(refreshTokenRepository.findIdsByUserNewestFirst(1L)).thenReturn(List.of(9L, 7L));
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        refreshTokenService.createRefreshToken(testUser);
+
+        verify(refreshTokenRepository, never()).deleteAllByIdInBatch(any());
     }
 
     @Test
     void testVerifyRefreshTokenValidTokenReturnsToken() {
-        when(refreshTokenRepository.findByToken("valid-refresh-token")).thenReturn(Optional.of(testToken));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenServiceImpl.hashToken("valid-refresh-token"))).thenReturn(Optional.of(testToken));
 
         RefreshToken result = refreshTokenService.verifyRefreshToken("valid-refresh-token");
         assertNotNull(result);
-        assertEquals("valid-refresh-token", result.getToken());
+        assertEquals(RefreshTokenServiceImpl.hashToken("valid-refresh-token"), result.getTokenHash());
         assertEquals(testUser, result.getUser());
         assertFalse(result.isRevoked());
-        verify(refreshTokenRepository, times(1)).findByToken("valid-refresh-token");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(RefreshTokenServiceImpl.hashToken("valid-refresh-token"));
     }
 
     @Test
     void testVerifyRefreshTokenTokenNotFoundThrowsException() {
-        when(refreshTokenRepository.findByToken("invalid-token")).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenServiceImpl.hashToken("invalid-token"))).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> refreshTokenService.verifyRefreshToken("invalid-token"));
         
         assertEquals("refresh_token_not_found", exception.getMessage());
-        verify(refreshTokenRepository, times(1)).findByToken("invalid-token");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(RefreshTokenServiceImpl.hashToken("invalid-token"));
     }
 
     @Test
     void testVerifyRefreshTokenRevokedTokenThrowsRefreshTokenRevokedException() {
         testToken.setRevoked(true);
-        when(refreshTokenRepository.findByToken("revoked-token")).thenReturn(Optional.of(testToken));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenServiceImpl.hashToken("revoked-token"))).thenReturn(Optional.of(testToken));
 
         RefreshTokenRevokedException exception = assertThrows(RefreshTokenRevokedException.class,
             () -> refreshTokenService.verifyRefreshToken("revoked-token"));
         
         assertEquals("refresh_token_revoked", exception.getMessage());
-        verify(refreshTokenRepository, times(1)).findByToken("revoked-token");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(RefreshTokenServiceImpl.hashToken("revoked-token"));
     }
 
     @Test
     void testVerifyRefreshTokenExpiredTokenThrowsRefreshTokenExpiredException() {
         testToken.setExpiryDate(Instant.now().minusMillis(1000));
-        when(refreshTokenRepository.findByToken("expired-token")).thenReturn(Optional.of(testToken));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenServiceImpl.hashToken("expired-token"))).thenReturn(Optional.of(testToken));
 
         RefreshTokenExpiredException exception = assertThrows(RefreshTokenExpiredException.class,
             () -> refreshTokenService.verifyRefreshToken("expired-token"));
         
         assertEquals("refresh_token_expired", exception.getMessage());
-        verify(refreshTokenRepository, times(1)).findByToken("expired-token");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(RefreshTokenServiceImpl.hashToken("expired-token"));
         verify(refreshTokenRepository, times(1)).delete(testToken);
     }
 
@@ -181,21 +212,16 @@ class RefreshTokenServiceImplTest {
     }
 
     @Test
-    void testDeleteRefreshTokenTokenExistsDeletesToken() {
-        when(refreshTokenRepository.findByToken("valid-refresh-token")).thenReturn(Optional.of(testToken));
-        doNothing().when(refreshTokenRepository).delete(testToken);
-
+    void testDeleteRefreshTokenDeletesByHash() {
         refreshTokenService.deleteRefreshToken("valid-refresh-token");
-        verify(refreshTokenRepository, times(1)).findByToken("valid-refresh-token");
-        verify(refreshTokenRepository, times(1)).delete(testToken);
+
+        verify(refreshTokenRepository, times(1)).deleteByTokenHash(RefreshTokenServiceImpl.hashToken("valid-refresh-token"));
+        verify(refreshTokenRepository, never()).findByTokenHash(any());
     }
 
     @Test
-    void testDeleteRefreshTokenTokenDoesNotExistDoesNothing() {
-        when(refreshTokenRepository.findByToken("nonexistent-token")).thenReturn(Optional.empty());
-
-        refreshTokenService.deleteRefreshToken("nonexistent-token");
-        verify(refreshTokenRepository, times(1)).findByToken("nonexistent-token");
-        verify(refreshTokenRepository, never()).delete(any());
+    void testHashTokenIsHexEncodedSha256() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", RefreshTokenServiceImpl.hashToken(""));
+        assertEquals(64, RefreshTokenServiceImpl.hashToken("valid-refresh-token").length());
     }
 }
@@ -0,0 +1,94 @@
+package com.yashmerino.ecommerce.services;
+
+/*++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+ + MIT License
+ +
+ + Copyright (c) 2023 Artiom Bozieac
+ +
+ + Permission is hereby granted, free of charge, to any person obtaining a copy
+ + of this software and associated documentation files (the "Software"), to deal
+ + in the Software without restriction, including without limitation the rights
+ + to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ + copies of the Software, and to permit persons to whom the Software is
+ + furnished to do so, subject to the following conditions:
+ +
+ + The above copyright notice and this permission notice shall be included in all
+ + copies or substantial portions of the Software.
+ +
+ + THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ + IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ + FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ + AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ + LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ + OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ + SOFTWARE.
+ +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++*/
+
+import com.yashmerino.ecommerce.repositories.RefreshTokenRepository;
+import com.yashmerino.ecommerce.utils.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshTokenSweeper.
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenSweeperTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private RefreshTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.refreshTokenSweepBatchSize = 2;
+        meterRegistry = new SimpleMeterRegistry();
+
+        sweeper = new RefreshTokenSweeper(refreshTokenRepository, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testSweepDeletesBatchesUntilNoneIsLeft() {
+        when(refreshTokenRepository.findExpiredOrRevokedIds(any(Instant.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(refreshTokenRepository.count()).thenReturn(10L);
+
+        sweeper.sweep();
+
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(3.0, meterRegistry.get("refresh_tokens.swept").counter().count());
+        assertEquals(10.0, meterRegistry.get("refresh_tokens.size").gauge().value());
+        assertEquals(1, meterRegistry.get("refresh_tokens.sweep").timer().count());
+    }
+
+    @Test
+    void testSweepWithoutExpiredTokens() {
+        when(refreshTokenRepository.findExpiredOrRevokedIds(any(Instant.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of());
+
+        sweeper.sweep();
+
+        verify(refreshTokenRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(0.0, meterRegistry.get("refresh_tokens.swept").counter().count());
+    }
+}
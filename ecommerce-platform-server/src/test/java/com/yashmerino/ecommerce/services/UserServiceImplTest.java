@@ -30,6 +30,8 @@ import com.yashmerino.ecommerce.model.User;
 import com.yashmerino.ecommerce.model.dto.auth.UserDTO;
 import com.yashmerino.ecommerce.model.dto.auth.UserInfoDTO;
 import com.yashmerino.ecommerce.repositories.UserRepository;
+import com.yashmerino.ecommerce.security.PrincipalCache;
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,7 +45,9 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -58,6 +62,12 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PhotoStorage photoStorage;
+
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -148,9 +158,10 @@ class UserServiceImplTest {
 
     @Test
     void testUpdatePhotoValidUserSuccess() throws IOException {
-        byte[] photoBytes = "test photo".getBytes();
+        InputStream content = new ByteArrayInputStream("test photo".getBytes());
         MultipartFile photo = mock(MultipartFile.class);
-        when(photo.getBytes()).thenReturn(photoBytes);
+        when(photo.getInputStream()).thenReturn(content);
+        when(photoStorage.store(content)).thenReturn("photo-key");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(authentication.getName()).thenReturn("testuser");
         when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -158,7 +169,7 @@ class UserServiceImplTest {
 
         userService.updatePhoto("testuser", photo);
 
-        assertArrayEquals(photoBytes, testUser.getPhoto());
+        assertEquals("photo-key", testUser.getPhotoKey());
         verify(userRepository, times(1)).save(testUser);
     }
 
@@ -177,7 +188,7 @@ class UserServiceImplTest {
     @Test
     void testUpdatePhotoIOExceptionThrownThrowsCouldntUploadPhotoException() throws IOException {
         MultipartFile photo = mock(MultipartFile.class);
-        when(photo.getBytes()).thenThrow(new IOException("File error"));
+        when(photo.getInputStream()).thenThrow(new IOException("File error"));
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(authentication.getName()).thenReturn("testuser");
         when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -202,6 +213,7 @@ class UserServiceImplTest {
 
         assertEquals("newemail@example.com", testUser.getEmail());
         verify(userRepository, times(1)).save(testUser);
+        verify(principalCache).invalidate("testuser");
     }
 
     @Test
@@ -27,16 +27,20 @@ package com.yashmerino.ecommerce.utils;
 import com.yashmerino.ecommerce.model.*;
 import com.yashmerino.ecommerce.model.Role;
 import com.yashmerino.ecommerce.repositories.*;
+import com.yashmerino.ecommerce.services.OrderSummaryWriter;
+import com.yashmerino.ecommerce.services.interfaces.PhotoStorage;
 import lombok.AllArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import static com.yashmerino.ecommerce.utils.Role.SELLER;
 import static com.yashmerino.ecommerce.utils.Role.USER;
@@ -89,6 +93,16 @@ public class Initializer implements CommandLineRunner {
      */
     private final RoleRepository roleRepository;
 
+    /**
+     * Photo storage.
+     */
+    private final PhotoStorage photoStorage;
+
+    /**
+     * Writes the orders' summaries.
+     */
+    private final OrderSummaryWriter orderSummaryWriter;
+
     @Override
     public void run(String... args) throws Exception {
         Role adminRole = new Role();
@@ -106,11 +120,14 @@ public class Initializer implements CommandLineRunner {
 
         roleRepository.save(sellerRole);
 
-        byte[] photo = Files.readAllBytes(Path.of("src/test/resources/photos/photo.jpg"));
+        String photoKey;
+        try (InputStream photo = Files.newInputStream(Path.of("src/test/resources/photos/photo.jpg"))) {
+            photoKey = photoStorage.store(photo);
+        }
 
         User user = new User();
         user.setId(1L);
-        user.setPhoto(photo);
+        user.setPhotoKey(photoKey);
         user.setUsername("user");
         user.setPassword("user");
         user.setRoles(new HashSet<>(Arrays.asList(userRole)));
@@ -142,7 +159,7 @@ public class Initializer implements CommandLineRunner {
 
         Product product = new Product();
         product.setId(1L);
-        product.setPhoto(photo);
+        product.setPhotoKey(photoKey);
         product.setUser(seller);
         product.setName("Phone");
         product.setPrice(5.0);
@@ -168,6 +185,7 @@ public class Initializer implements CommandLineRunner {
 
         cart.setItems(new HashSet<>(Arrays.asList(cartItem)));
         cartRepository.save(cart);
+        cartRepository.recalculateTotals(List.of(cart.getId()));
 
         Category digitalServices = new Category();
         digitalServices.setId(1L);
@@ -219,13 +237,15 @@ public class Initializer implements CommandLineRunner {
         order.setTotalAmount(BigDecimal.valueOf(100.00));
         order.setStatus(OrderStatus.CREATED);
         order.setUser(user);
-        orderRepository.save(order);
+        order = orderRepository.save(order);
+        orderSummaryWriter.orderPlaced(order, 0);
 
         Payment payment = new Payment();
         payment.setId(1L);
         payment.setStatus(PaymentStatus.PENDING);
         payment.setAmount(BigDecimal.valueOf(100.00));
         payment.setOrder(order);
-        paymentRepository.save(payment);
+        payment = paymentRepository.save(payment);
+        orderSummaryWriter.paymentChanged(payment);
     }
 }